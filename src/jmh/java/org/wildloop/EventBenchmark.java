@@ -0,0 +1,110 @@
+package org.wildloop;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Benchmark of publishing a {@link EventType#MOVE} event with {@link Event#log(EventType, World, Object, Object)}
+ * to 0, 1 or more listeners, and of formatting an event with {@link Event#toString()}.
+ * <p>
+ * The world is logged, but its log file is closed right away, so that only the listeners of the
+ * benchmark receive events. Every listener hands the event to a {@link Blackhole}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EventBenchmark {
+    /** World in which events are logged */
+    private World world;
+    /** Animal named by the events */
+    private Animal animal;
+    /** Event formatted by {@link #eventToString()} */
+    private Event event;
+
+    /**
+     * Creates the world and the animal and captures an event to format.
+     */
+    @Setup
+    public void createWorld() {
+        world = new World(20, 20, false, 1, WorldConfig.DEFAULTS, true);
+        LogExporter.closeLog();
+        animal = new Prey(world, new Position(10, 10));
+
+        Consumer<Event> capture = captured -> event = captured;
+        EventLogger.subscribe(capture);
+        Event.log(EventType.MOVE, world, animal, Direction.NORTH);
+        EventLogger.unsubscribe(capture);
+    }
+
+    /**
+     * Listeners subscribed while {@link #log(Listeners)} runs.
+     */
+    @State(Scope.Thread)
+    public static class Listeners {
+        /** Number of subscribed listeners */
+        @Param({"0", "1", "8"})
+        int listeners;
+
+        /** Listeners subscribed by the setup */
+        private final List<Consumer<Event>> subscribed = new ArrayList<>();
+
+        /**
+         * Subscribes the listeners.
+         * @param blackhole sink of the delivered events
+         */
+        @Setup
+        public void subscribe(Blackhole blackhole) {
+            for (int i = 0; i < listeners; i++) {
+                Consumer<Event> listener = blackhole::consume;
+                subscribed.add(listener);
+                EventLogger.subscribe(listener);
+            }
+        }
+
+        /**
+         * Unsubscribes the listeners.
+         */
+        @TearDown
+        public void unsubscribe() {
+            subscribed.forEach(EventLogger::unsubscribe);
+            subscribed.clear();
+        }
+    }
+
+    /**
+     * Logs a move event, which is discarded without listeners.
+     * @param listeners listeners receiving the event
+     */
+    @Benchmark
+    public void log(Listeners listeners) {
+        Event.log(EventType.MOVE, world, animal, Direction.NORTH);
+    }
+
+    /**
+     * Formats an event as a line of a text log.
+     * @return text of the event
+     */
+    @Benchmark
+    public String eventToString() {
+        return event.toString();
+    }
+}
@@ -0,0 +1,101 @@
+package org.wildloop;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark of the write throughput of {@link LogExporter}: every invocation opens a log,
+ * logs {@value #EVENTS} move events and closes the log, which waits until every event is
+ * written to disk. The score is the number of events written per second, including opening
+ * and archiving the log files. Logs are written to a temporary directory, emptied after every iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class LogExportBenchmark {
+    /** Number of events logged by one invocation */
+    static final int EVENTS = 10_000;
+
+    /** Format of the written logs */
+    @Param({"TEXT", "BINARY"})
+    LogFormat format;
+
+    /** Directory receiving the logs */
+    private Path directory;
+    /** World in which events are logged */
+    private World world;
+    /** Animal named by the events */
+    private Animal animal;
+
+    /**
+     * Creates the log directory, the world and the animal.
+     * @throws IOException if the directory cannot be created
+     */
+    @Setup
+    public void createWorld() throws IOException {
+        directory = Files.createTempDirectory("wildloop-jmh");
+        LogExporter.setLogDirectory(directory);
+        LogExporter.setLogFormat(format);
+        world = new World(20, 20, false, 1, WorldConfig.DEFAULTS, true);
+        LogExporter.closeLog();
+        animal = new Prey(world, new Position(10, 10));
+    }
+
+    /**
+     * Deletes the logs written during the iteration.
+     * @throws IOException if a log cannot be deleted
+     */
+    @TearDown(Level.Iteration)
+    public void deleteLogs() throws IOException {
+        LogExporter.awaitArchiving();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Deletes the log directory.
+     * @throws IOException if the directory cannot be deleted
+     */
+    @TearDown
+    public void deleteDirectory() throws IOException {
+        deleteLogs();
+        Files.delete(directory);
+    }
+
+    /**
+     * Writes one log of {@value #EVENTS} events.
+     */
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void writeLog() {
+        LogExporter.openLog(world);
+        for (int i = 0; i < EVENTS; i++) {
+            Event.log(EventType.MOVE, world, animal, Direction.NORTH);
+        }
+        LogExporter.closeLog();
+    }
+}
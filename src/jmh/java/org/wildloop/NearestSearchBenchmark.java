@@ -0,0 +1,84 @@
+package org.wildloop;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the searches behind {@code Prey.findNearestPredator()} and
+ * {@code Predator.findNearestPrey()}: {@link World#findNearest(Position, int, Class)} with the
+ * flee and hunt ranges of the configuration, from the positions of the animals of a seeded world.
+ * Each invocation searches from the next animal in turn, so the whole population is covered.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class NearestSearchBenchmark {
+    /** Width and height of the world */
+    @Param({"100", "400"})
+    int size;
+    /** Share of cells occupied, four prey for every predator */
+    @Param({"0.05", "0.3"})
+    double density;
+    /** Seed of the world */
+    @Param("1")
+    long seed;
+
+    /** World searched */
+    private World world;
+    /** Positions of the prey */
+    private Position[] preyPositions;
+    /** Positions of the predators */
+    private Position[] predatorPositions;
+    /** Index of the next prey position */
+    private int nextPrey;
+    /** Index of the next predator position */
+    private int nextPredator;
+
+    /**
+     * Builds the world and collects the positions of its animals.
+     */
+    @Setup
+    public void createWorld() {
+        world = WorldTickBenchmark.populatedWorld(size, density, seed);
+        List<Animal> animals = world.getAnimals();
+        preyPositions = animals.stream().filter(Prey.class::isInstance).map(Animal::getPosition).toArray(Position[]::new);
+        predatorPositions = animals.stream().filter(Predator.class::isInstance).map(Animal::getPosition).toArray(Position[]::new);
+    }
+
+    /**
+     * Searches for the nearest predator in flee range of a prey.
+     * @return nearest predator, or {@code null}
+     */
+    @Benchmark
+    public Predator findNearestPredator() {
+        Position origin = preyPositions[nextPrey];
+        nextPrey = nextPrey + 1 == preyPositions.length ? 0 : nextPrey + 1;
+        return world.findNearest(origin, world.getConfig().preyFleeRange(), Predator.class);
+    }
+
+    /**
+     * Searches for the nearest prey in hunt range of a predator.
+     * @return nearest prey, or {@code null}
+     */
+    @Benchmark
+    public Prey findNearestPrey() {
+        Position origin = predatorPositions[nextPredator];
+        nextPredator = nextPredator + 1 == predatorPositions.length ? 0 : nextPredator + 1;
+        return world.findNearest(origin, world.getConfig().predatorHuntRange(), Prey.class);
+    }
+}
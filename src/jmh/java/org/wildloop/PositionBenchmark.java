@@ -0,0 +1,70 @@
+package org.wildloop;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link Position#newPosition(Direction)} and {@link Position#distanceTo(Position)}
+ * over a fixed, seeded set of positions and directions, so that the calls cannot be folded into constants.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PositionBenchmark {
+    /** Number of prepared positions, a power of two */
+    private static final int COUNT = 1024;
+
+    /** Prepared positions */
+    private final Position[] positions = new Position[COUNT];
+    /** Prepared directions */
+    private final Direction[] directions = new Direction[COUNT];
+    /** Index of the next position */
+    private int next;
+
+    /**
+     * Draws the positions and directions from a seeded generator.
+     */
+    @Setup
+    public void createPositions() {
+        SplittableRandom random = new SplittableRandom(1);
+        Direction[] values = Direction.values();
+        for (int i = 0; i < COUNT; i++) {
+            positions[i] = new Position(random.nextInt(1000), random.nextInt(1000));
+            directions[i] = values[random.nextInt(values.length)];
+        }
+    }
+
+    /**
+     * Moves a position one step.
+     * @return new position
+     */
+    @Benchmark
+    public Position newPosition() {
+        int i = next++ & (COUNT - 1);
+        return positions[i].newPosition(directions[i]);
+    }
+
+    /**
+     * Measures the distance between two positions.
+     * @return distance
+     */
+    @Benchmark
+    public int distanceTo() {
+        int i = next++ & (COUNT - 1);
+        return positions[i].distanceTo(positions[(i + 1) & (COUNT - 1)]);
+    }
+}
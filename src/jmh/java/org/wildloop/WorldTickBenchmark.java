@@ -0,0 +1,86 @@
+package org.wildloop;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link World#tick()} on unlogged worlds of several sizes and densities.
+ * <p>
+ * Every invocation executes the same turns from the same seeded world, so the measured work
+ * does not depend on how many invocations fit into an iteration and results of different
+ * commits can be compared. The world is built before the invocation and is not measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class WorldTickBenchmark {
+    /** Width and height of the world */
+    @Param({"50", "100", "200"})
+    int size;
+    /** Share of cells occupied at the start, four prey for every predator */
+    @Param({"0.1", "0.3", "0.6"})
+    double density;
+    /** Tick mode of the world */
+    @Param({"SEQUENTIAL", "PARALLEL"})
+    TickMode tickMode;
+    /** Seed of the world */
+    @Param("1")
+    long seed;
+
+    /** Number of turns executed by one invocation */
+    static final int TURNS = 10;
+
+    /** World ticked by the next invocation */
+    private World world;
+
+    /**
+     * Builds and populates a fresh world before every invocation.
+     */
+    @Setup(Level.Invocation)
+    public void createWorld() {
+        world = populatedWorld(size, density, seed);
+        world.setTickMode(tickMode);
+    }
+
+    /**
+     * Executes {@link #TURNS} turns.
+     * @return the world, so that the work is not eliminated
+     */
+    @Benchmark
+    public World tick() {
+        for (int i = 0; i < TURNS; i++) {
+            world.tick();
+        }
+        return world;
+    }
+
+    /**
+     * Creates an unlogged square world with the default configuration and places animals on the given share of its cells.
+     *
+     * @param size    width and height of the world
+     * @param density share of cells to occupy, four prey for every predator
+     * @param seed    seed of the world
+     * @return populated world
+     */
+    static World populatedWorld(int size, double density, long seed) {
+        World world = new World(size, size, false, seed, WorldConfig.DEFAULTS, false);
+        int animals = (int) (size * size * density);
+        world.populate(animals - animals / 5, animals / 5);
+        return world;
+    }
+}
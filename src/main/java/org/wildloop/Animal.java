@@ -9,18 +9,18 @@ package org.wildloop;
  * @see Predator
  */
 public abstract class Animal {
-    /** Maximum energy level */
-    protected static final int MAX_ENERGY = SimulationConfig.getIntValue("animal.max.energy");
-    /** Default energy level for new animals */
-    protected static final int DEFAULT_ENERGY = SimulationConfig.getIntValue("animal.default.energy");
-    /** Energy cost of a single move */
-    protected static final int MOVE_ENERGY_COST = SimulationConfig.getIntValue("animal.move.energy.cost");
-    /** Energy threshold required for reproduction */
-    protected static final int REPRODUCTION_ENERGY_THRESHOLD = SimulationConfig.getIntValue("animal.reproduction.energy.threshold");
-    /** Energy cost of reproduction */
-    protected static final int REPRODUCTION_ENERGY_COST = SimulationConfig.getIntValue("animal.reproduction.energy.cost");
-    /** Initial energy of offspring */
-    protected static final int OFFSPRING_ENERGY = SimulationConfig.getIntValue("animal.offspring.energy");
+    /** Maximum energy level in the default configuration; animals use {@link WorldConfig#maxEnergy()} of their world */
+    protected static final int MAX_ENERGY = WorldConfig.DEFAULTS.maxEnergy();
+    /** Default energy level for new animals in the default configuration */
+    protected static final int DEFAULT_ENERGY = WorldConfig.DEFAULTS.defaultEnergy();
+    /** Energy cost of a single move in the default configuration */
+    protected static final int MOVE_ENERGY_COST = WorldConfig.DEFAULTS.moveEnergyCost();
+    /** Energy threshold required for reproduction in the default configuration */
+    protected static final int REPRODUCTION_ENERGY_THRESHOLD = WorldConfig.DEFAULTS.reproductionEnergyThreshold();
+    /** Energy cost of reproduction in the default configuration */
+    protected static final int REPRODUCTION_ENERGY_COST = WorldConfig.DEFAULTS.reproductionEnergyCost();
+    /** Initial energy of offspring in the default configuration */
+    protected static final int OFFSPRING_ENERGY = WorldConfig.DEFAULTS.offspringEnergy();
 
     /** Current position of the animal in the world */
     private Position position;
@@ -34,8 +34,20 @@ public abstract class Animal {
     private boolean dead = false;
     /** Reference to the world in which the animal lives */
     protected World world;
-    /** Unique identifier for the animal instance */
-    private final String id;
+    /** Unique identifier for the animal instance, assigned when the animal joins its world */
+    private String id;
+    /** Order in which the animal was added to its world, used to break ties in queries */
+    private long serial;
+    /** Data-oriented store holding the state of the animal, or {@code null} if the state is kept in fields */
+    private AnimalStore store;
+    /** Slot of the animal in {@link #store} */
+    private int slot = -1;
+    /** Index of the animal in the animal list of its world, or {@code -1} if it is not in the world */
+    private int listIndex = -1;
+    /** Last turn in which the animal acted or was born */
+    private int actedTurn;
+    /** Reason for which the animal died, or {@code null} while it is alive */
+    private DeathCause deathCause;
 
     /**
      * Creates a new animal with given initial parameters.
@@ -53,12 +65,11 @@ public abstract class Animal {
 
         this.world = world;
         this.position = position;
-        this.energy = DEFAULT_ENERGY;
+        this.energy = world.getConfig().defaultEnergy();
         this.maxAge = this instanceof Prey
-                ? Prey.MAX_AGE
-                : Predator.MAX_AGE;
+                ? world.getConfig().preyMaxAge()
+                : world.getConfig().predatorMaxAge();
         this.age = 0;
-        this.id = generateUniqueId();
 
         world.addAnimal(this);
     }
@@ -69,6 +80,16 @@ public abstract class Animal {
      */
     protected abstract String generateUniqueId();
 
+    /**
+     * Assigns the unique identifier of the animal using {@link #generateUniqueId()}.
+     * Called by {@link World} when the animal joins the animal list.
+     */
+    void assignId() {
+        if (id == null) {
+            id = generateUniqueId();
+        }
+    }
+
     /**
      * Returns the unique identifier of the animal.
      * @return unique identifier of the animal
@@ -77,20 +98,170 @@ public abstract class Animal {
         return id;
     }
 
+    /**
+     * Returns the serial number assigned by the world when the animal was added.
+     * Animals added earlier have lower serial numbers.
+     *
+     * @return serial number of the animal
+     */
+    long getSerial() {
+        return serial;
+    }
+
+    /**
+     * Sets the serial number of the animal. Called by {@link World#addAnimal(Animal)}.
+     *
+     * @param serial serial number assigned by the world
+     */
+    void setSerial(long serial) {
+        this.serial = serial;
+    }
+
+    /**
+     * Returns the last turn in which the animal acted or was born.
+     * Used by {@link TickMode#PARALLEL} to update each animal at most once per turn.
+     *
+     * @return last turn in which the animal acted
+     */
+    int getActedTurn() {
+        return actedTurn;
+    }
+
+    /**
+     * Records the turn in which the animal acted or was born.
+     * @param actedTurn current turn
+     */
+    void setActedTurn(int actedTurn) {
+        this.actedTurn = actedTurn;
+    }
+
+    /**
+     * Returns the index of the animal in {@link World#getAnimals()}.
+     * @return index of the animal, or {@code -1} if it is not in the world
+     */
+    int getListIndex() {
+        return listIndex;
+    }
+
+    /**
+     * Sets the index of the animal in the animal list of its world. Called by {@link AnimalList}.
+     * @param listIndex new index of the animal
+     */
+    void setListIndex(int listIndex) {
+        this.listIndex = listIndex;
+    }
+
+    /**
+     * Turns the animal into a handle of a slot in a data-oriented store.
+     * Called by {@link AnimalStore} when the animal is added or its slot changes.
+     *
+     * @param store store holding the state of the animal
+     * @param slot  slot of the animal in the store
+     */
+    void attach(AnimalStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
+    }
+
+    /**
+     * Returns the slot of the animal in its data-oriented store.
+     * @return slot index, or {@code -1} if the animal is not stored in a data-oriented store
+     */
+    int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Releases the animal from its data-oriented store, copying its final state back into fields.
+     * Called by {@link AnimalStore} when the animal is removed.
+     *
+     * @param position last position of the animal
+     * @param energy   last energy level of the animal
+     * @param age      last age of the animal
+     */
+    void detach(Position position, int energy, int age) {
+        this.position = position;
+        this.energy = energy;
+        this.age = age;
+        this.store = null;
+        this.slot = -1;
+    }
+
     /**
      * Returns the current position of the animal in the world.
      * @return current position of the animal
      */
     public Position getPosition() {
+        if (store != null) {
+            return new Position(store.x[slot], store.y[slot]);
+        }
         return position;
     }
 
+    /**
+     * Returns the column of the animal without creating a {@link Position},
+     * for the inner loops of {@link SpatialIndex} queries and of movement.
+     * @return horizontal coordinate of the animal
+     */
+    int getX() {
+        return store != null ? store.x[slot] : position.x();
+    }
+
+    /**
+     * Returns the row of the animal without creating a {@link Position}.
+     * @return vertical coordinate of the animal
+     * @see #getX()
+     */
+    int getY() {
+        return store != null ? store.y[slot] : position.y();
+    }
+
+    /**
+     * Determines the main direction towards another animal, like {@link Position#directionTo(Position)}
+     * but without creating positions.
+     *
+     * @param target animal to move towards
+     * @return direction leading the shortest path to the target
+     */
+    Direction directionTo(Animal target) {
+        int dx = target.getX() - getX();
+        int dy = target.getY() - getY();
+        if (Math.abs(dx) > Math.abs(dy)) {
+            return dx > 0 ? Direction.EAST : Direction.WEST;
+        }
+        return dy > 0 ? Direction.SOUTH : Direction.NORTH;
+    }
+
+    /**
+     * Determines the main direction away from another animal, like {@link Position#directionFrom(Position)}
+     * but without creating positions.
+     *
+     * @param source animal to move away from
+     * @return direction leading from the source
+     */
+    Direction directionFrom(Animal source) {
+        int dx = source.getX() - getX();
+        int dy = source.getY() - getY();
+        if (Math.abs(dx) > Math.abs(dy)) {
+            return dx > 0 ? Direction.WEST : Direction.EAST;
+        }
+        return dy > 0 ? Direction.NORTH : Direction.SOUTH;
+    }
+
+    /**
+     * Checks if the animal has a position, without creating a {@link Position}.
+     * @return true if the position of the animal is defined
+     */
+    boolean hasPosition() {
+        return store != null || position != null;
+    }
+
     /**
      * Returns the current energy level of the animal.
      * @return current energy level of the animal
      */
     public int getEnergy() {
-        return energy;
+        return store != null ? store.energy[slot] : energy;
     }
 
     /**
@@ -98,7 +269,7 @@ public abstract class Animal {
      * @return current age of the animal
      */
     public int getAge() {
-        return age;
+        return store != null ? store.age[slot] : age;
     }
 
     /**
@@ -114,7 +285,7 @@ public abstract class Animal {
      * @return true if the animal is dead, false otherwise
      */
     public boolean isDead() {
-        return dead;
+        return store != null ? store.dead[slot] : dead;
     }
 
     /**
@@ -122,11 +293,27 @@ public abstract class Animal {
      * @param position new position for the animal
      */
     public void setPosition(Position position) {
-        Position oldPosition = this.position;
-        this.position = position;
+        place(position.x(), position.y(), position);
+    }
+
+    /**
+     * Moves the animal to a cell and updates the grid of its world.
+     *
+     * @param x        new column of the animal
+     * @param y        new row of the animal
+     * @param position new position, or {@code null} to create it only if the state is kept in fields
+     */
+    private void place(int x, int y, Position position) {
+        int fromX = getX();
+        int fromY = getY();
+        if (store != null) {
+            store.x[slot] = x;
+            store.y[slot] = y;
+        } else {
+            this.position = position != null ? position : new Position(x, y);
+        }
 
-        world.getGrid()[oldPosition.x()][oldPosition.y()] = null;
-        world.getGrid()[position.x()][position.y()] = this;
+        world.relocateAnimal(this, fromX, fromY, x, y);
     }
 
     /**
@@ -134,32 +321,82 @@ public abstract class Animal {
      * @param energy new energy level of the animal
      */
     public void setEnergy(int energy) {
-        this.energy = Math.min(energy, MAX_ENERGY);
+        storeEnergy(Math.min(energy, world.getConfig().maxEnergy()));
+    }
+
+    /**
+     * Returns the maximum energy level of the animal, taken from the configuration of its world.
+     * @return maximum energy level
+     */
+    public int getMaxEnergy() {
+        return world.getConfig().maxEnergy();
+    }
+
+    /**
+     * Stores the energy level without applying the {@link WorldConfig#maxEnergy()} limit.
+     * @param energy new energy level of the animal
+     */
+    private void storeEnergy(int energy) {
+        world.recordEnergyChange(this, energy - getEnergy());
+        if (store != null) {
+            store.energy[slot] = energy;
+        } else {
+            this.energy = energy;
+        }
     }
 
     /**
      * Increments the age of the animal by one year.
      */
     public void incrementAge() {
-        this.age++;
+        world.recordAging(this, 1);
+        if (store != null) {
+            store.age[slot]++;
+        } else {
+            this.age++;
+        }
     }
 
     /**
      * Moves the animal in the direction determined by {@link #getNextMoveDirection()}.
      * Movement is only performed if the new position is valid and empty.
-     * Each move costs energy specified by {@link #MOVE_ENERGY_COST}.
+     * Each move costs energy specified by {@link WorldConfig#moveEnergyCost()}.
      */
     void move() {
-        Direction direction = getNextMoveDirection();
-        if (direction != null) {
-            Position newPosition = position.newPosition(direction);
-            if (world.isValidPosition(newPosition) && world.isCellEmpty(newPosition)) {
-                setPosition(newPosition);
-                Event.log(EventType.MOVE, world, this, direction);
-
-                energy -= MOVE_ENERGY_COST;
-            }
+        moveInDirection(getNextMoveDirection());
+    }
+
+    /**
+     * Moves the animal one cell in the given direction if the target cell is valid and empty.
+     * Each move costs energy specified by {@link WorldConfig#moveEnergyCost()}.
+     *
+     * @param direction movement direction, or {@code null} to stay in place
+     */
+    void moveInDirection(Direction direction) {
+        if (step(direction)) {
+            storeEnergy(getEnergy() - world.getConfig().moveEnergyCost());
+        }
+    }
+
+    /**
+     * Moves the animal one cell in the given direction if the target cell is valid and empty,
+     * without paying the energy cost of the move.
+     *
+     * @param direction movement direction, or {@code null} to stay in place
+     * @return true if the animal moved
+     */
+    private boolean step(Direction direction) {
+        if (direction == null) {
+            return false;
         }
+        int x = getX() + direction.getDx();
+        int y = getY() + direction.getDy();
+        if (!world.isCellEmpty(x, y)) {
+            return false;
+        }
+        place(x, y, null);
+        Event.log(EventType.MOVE, world, this, direction);
+        return true;
     }
 
     /**
@@ -175,18 +412,29 @@ public abstract class Animal {
      * Offspring is created on an empty adjacent cell.
      */
     void reproduce() {
-        if (energy >= REPRODUCTION_ENERGY_THRESHOLD) {
+        if (getEnergy() >= world.getConfig().reproductionEnergyThreshold()) {
             Position offspring_position = findEmptyAdjacentCell();
             if (offspring_position != null) {
-                Animal offspring = createOffspring(offspring_position);
-                offspring.setEnergy(OFFSPRING_ENERGY);
-                Event.log(EventType.REPRODUCE, world, this, offspring);
-
-                energy -= REPRODUCTION_ENERGY_COST;
+                giveBirth(offspring_position);
             }
         }
     }
 
+    /**
+     * Creates offspring on the given empty cell and pays the energy cost of reproduction.
+     * The energy threshold is checked by the caller.
+     *
+     * @param position empty cell receiving the offspring
+     */
+    void giveBirth(Position position) {
+        WorldConfig config = world.getConfig();
+        Animal offspring = createOffspring(position);
+        offspring.setEnergy(config.offspringEnergy());
+        Event.log(EventType.REPRODUCE, world, this, offspring);
+
+        storeEnergy(getEnergy() - config.reproductionEnergyCost());
+    }
+
     /**
      * Creates a new animal of the same type.
      * Implementation depends on the specific animal type.
@@ -202,10 +450,11 @@ public abstract class Animal {
      * @return position of empty adjacent cell or {@code null} if none found
      */
     private Position findEmptyAdjacentCell() {
+        int x = getX();
+        int y = getY();
         for (Direction dir : Direction.values()) {
-            Position newPos = position.newPosition(dir);
-            if (world.isCellEmpty(newPos)) {
-                return newPos;
+            if (world.isCellEmpty(x + dir.getDx(), y + dir.getDy())) {
+                return new Position(x + dir.getDx(), y + dir.getDy());
             }
         }
         return null;
@@ -217,15 +466,61 @@ public abstract class Animal {
      */
     protected abstract void eat();
 
+    /**
+     * Returns the type of animals this animal eats.
+     * @return class of the animals eaten, or {@code null} if the animal grazes
+     */
+    Class<? extends Animal> getFoodType() {
+        return null;
+    }
+
+    /**
+     * Eats food chosen in advance instead of searching for it, as {@link TickMode#SIMULTANEOUS}
+     * does after choosing food against the state left by the previous turn. Grazing animals
+     * ignore the argument and graze.
+     *
+     * @param food animal of {@link #getFoodType()} to eat, or {@code null} if none is available
+     */
+    void eat(Animal food) {
+        eat();
+    }
+
     /**
      * Removes the animal from the world (animal dies).
+     * The death is counted as {@link DeathCause#REMOVED} in {@link World#getStats()}.
      */
     public void die() {
+        die(DeathCause.REMOVED);
+    }
+
+    /**
+     * Removes the animal from the world for the given reason.
+     * @param cause reason of death counted in {@link World#getStats()}
+     */
+    void die(DeathCause cause) {
+        deathCause = cause;
         world.removeAnimal(this);
-        energy = -1;
+        storeEnergy(-1);
         dead = true;
     }
 
+    /**
+     * Logs the death of the animal from exhaustion or old age and removes it from the world.
+     * @param cause {@link DeathCause#ENERGY} or {@link DeathCause#AGE}
+     */
+    void dieOf(DeathCause cause) {
+        Event.log(cause == DeathCause.ENERGY ? EventType.DIE_ENERGY : EventType.DIE_AGE, world, this);
+        die(cause);
+    }
+
+    /**
+     * Returns the reason for which the animal died.
+     * @return reason of death, or {@code null} if the animal did not die through {@link #die(DeathCause)}
+     */
+    DeathCause getDeathCause() {
+        return deathCause;
+    }
+
     /**
      * Updates the animal's state in each simulation turn.
      * Performs the following actions:
@@ -238,28 +533,65 @@ public abstract class Animal {
      * </ol>
      */
     public void update() {
-        if (world == null || position == null || dead) {
+        if (world == null || !hasPosition() || isDead()) {
             return;
         }
 
         incrementAge();
+        act();
+    }
+
+    /**
+     * Performs the part of {@link #update()} that follows aging: moving, eating,
+     * reproducing and dying. The data-oriented backend calls it directly after aging
+     * all animals in a pass over the store.
+     * While {@link Metrics} are enabled, the duration of the move is recorded.
+     */
+    void act() {
+        long start = Metrics.start();
         move();
-        eat();
+        Metrics.lap(Metrics.MOVE, start);
+        finishTurn();
+    }
 
-        if (energy >= REPRODUCTION_ENERGY_THRESHOLD) {
-            reproduce();
-        } else {
-            eat();
+    /**
+     * Performs the part of a turn that follows movement: eating, reproducing and dying.
+     * While {@link Metrics} are enabled, the duration of each of the three phases is recorded.
+     */
+    void finishTurn() {
+        long time = feed(Metrics.start());
+        checkDeath();
+        Metrics.lap(Metrics.DEATH_CHECK, time);
+    }
+
+    /**
+     * Removes the animal if it ran out of energy or reached its maximum age.
+     */
+    void checkDeath() {
+        if (getEnergy() <= 0 && !isDead()) {
+            dieOf(DeathCause.ENERGY);
         }
 
-        if (energy <= 0 && !dead) {
-            Event.log(EventType.DIE_ENERGY, world, this);
-            die();
+        if (getAge() >= maxAge && !isDead()) {
+            dieOf(DeathCause.AGE);
         }
+    }
+
+    /**
+     * Eats, then reproduces if the animal has enough energy or eats again otherwise.
+     *
+     * @param time start of the phase, as returned by {@link Metrics#start()}
+     * @return end of the phase, as returned by {@link Metrics#lap(LatencyHistogram, long)}
+     */
+    private long feed(long time) {
+        eat();
+        time = Metrics.lap(Metrics.EAT, time);
 
-        if (age >= maxAge && !dead) {
-            Event.log(EventType.DIE_AGE, world, this);
-            die();
+        if (getEnergy() >= world.getConfig().reproductionEnergyThreshold()) {
+            reproduce();
+        } else {
+            eat();
         }
+        return Metrics.lap(Metrics.REPRODUCE, time);
     }
 }
\ No newline at end of file
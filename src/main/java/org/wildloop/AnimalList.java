@@ -0,0 +1,112 @@
+package org.wildloop;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Dense, slot-indexed list of the animals living in a {@link World}.
+ * <p>
+ * Every animal remembers its index in the list, so membership checks and removal
+ * take constant time: the removed animal's slot is filled with the last animal of the list.
+ * Animals are therefore kept in the order they were added, except that a removal moves
+ * the last animal into the freed slot.
+ * <p>
+ * The list is read-only for code outside of {@link World}; animals are added and removed
+ * through {@link World#addAnimal(Animal)} and {@link World#removeAnimal(Animal)}.
+ *
+ * @see World
+ * @see Animal
+ */
+final class AnimalList extends AbstractList<Animal> implements RandomAccess {
+    /** Initial capacity of the backing array */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Backing array holding animals in slots {@code 0..size-1} */
+    private Animal[] elements = new Animal[INITIAL_CAPACITY];
+    /** Number of animals in the list */
+    private int size;
+
+    @Override
+    public Animal get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        return elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks in constant time if the given object is an animal stored in this list.
+     *
+     * @param o object to look for
+     * @return true if the object is in the list, false otherwise
+     */
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Animal animal)) {
+            return false;
+        }
+        int index = animal.getListIndex();
+        return index >= 0 && index < size && elements[index] == animal;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return contains(o) ? ((Animal) o).getListIndex() : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public Object[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * Appends an animal to the end of the list.
+     *
+     * @param animal animal to append
+     */
+    void append(Animal animal) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        animal.setListIndex(size);
+        elements[size++] = animal;
+        modCount++;
+    }
+
+    /**
+     * Removes an animal by moving the last animal of the list into its slot.
+     *
+     * @param animal animal to remove; must be contained in the list
+     */
+    void removeSwap(Animal animal) {
+        int index = animal.getListIndex();
+        int last = --size;
+        if (index != last) {
+            Animal moved = elements[last];
+            elements[index] = moved;
+            moved.setListIndex(index);
+        }
+        elements[last] = null;
+        animal.setListIndex(-1);
+        modCount++;
+    }
+
+    /**
+     * Copies the animals currently in the list into a new array, in list order.
+     * @return snapshot of the list
+     */
+    Animal[] snapshot() {
+        return Arrays.copyOf(elements, size);
+    }
+}
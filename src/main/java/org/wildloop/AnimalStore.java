@@ -0,0 +1,204 @@
+package org.wildloop;
+
+import java.util.Arrays;
+
+/**
+ * Data-oriented storage of animal state used by a {@link World} created with the
+ * data-oriented backend.
+ * <p>
+ * Position, energy, age, species and the dead flag of every animal are kept in parallel
+ * primitive arrays indexed by a dense slot. {@link Animal} instances registered in the store
+ * become thin handles: their accessors read and write the arrays at their slot instead of
+ * their own fields. When an animal leaves the store its final state is copied back into the
+ * handle, so dead animals can still be inspected.
+ * <p>
+ * A sequential turn of the data-oriented backend ages all animals in a pass over the arrays
+ * with {@link #incrementAges(int)}, then lets each animal act in slot order.
+ * <p>
+ * Slots stay stable during a turn. Animals removed while a turn is in progress are only
+ * flagged as dead and the arrays are compacted by {@link #compact(AnimalList)} once every animal
+ * has been updated. Outside of a turn, slots follow the order of the animal list of the world,
+ * so both backends update the animals in the same order.
+ *
+ * @see World
+ * @see Animal
+ */
+final class AnimalStore {
+    /** Species code of {@link Prey} */
+    static final byte PREY = 0;
+    /** Species code of {@link Predator} */
+    static final byte PREDATOR = 1;
+
+    /** Initial capacity of the arrays */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Horizontal coordinates */
+    int[] x = new int[INITIAL_CAPACITY];
+    /** Vertical coordinates */
+    int[] y = new int[INITIAL_CAPACITY];
+    /** Energy levels */
+    int[] energy = new int[INITIAL_CAPACITY];
+    /** Ages */
+    int[] age = new int[INITIAL_CAPACITY];
+    /** Species codes */
+    byte[] species = new byte[INITIAL_CAPACITY];
+    /** Flags marking slots of animals that died during the current turn */
+    boolean[] dead = new boolean[INITIAL_CAPACITY];
+    /** Handles pointing back to the animal objects */
+    Animal[] handles = new Animal[INITIAL_CAPACITY];
+    /** Number of occupied slots */
+    private int size;
+
+    /**
+     * Returns the number of occupied slots, including slots flagged as dead.
+     * @return number of occupied slots
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Registers an animal in the store and turns it into a handle of a new slot.
+     *
+     * @param animal animal to register; its current state is copied into the arrays
+     */
+    void add(Animal animal) {
+        if (size == handles.length) {
+            grow();
+        }
+
+        Position position = animal.getPosition();
+        int slot = size++;
+        x[slot] = position.x();
+        y[slot] = position.y();
+        energy[slot] = animal.getEnergy();
+        age[slot] = animal.getAge();
+        species[slot] = animal instanceof Predator ? PREDATOR : PREY;
+        dead[slot] = false;
+        handles[slot] = animal;
+        animal.attach(this, slot);
+    }
+
+    /**
+     * Removes an animal immediately, moving the last slot into its place.
+     *
+     * @param slot slot of the animal to remove
+     */
+    void remove(int slot) {
+        Animal animal = handles[slot];
+        animal.detach(new Position(x[slot], y[slot]), energy[slot], age[slot]);
+
+        int last = --size;
+        if (slot != last) {
+            x[slot] = x[last];
+            y[slot] = y[last];
+            energy[slot] = energy[last];
+            age[slot] = age[last];
+            species[slot] = species[last];
+            dead[slot] = dead[last];
+            handles[slot] = handles[last];
+            handles[slot].attach(this, slot);
+        }
+        handles[last] = null;
+    }
+
+    /**
+     * Flags a slot as dead without moving any other slot. The slot is released
+     * by the next call to {@link #compact()}. Only the flag of the given slot is written,
+     * so different slots can be flagged from different threads.
+     *
+     * @param slot slot of the animal that died
+     */
+    void markDead(int slot) {
+        dead[slot] = true;
+    }
+
+    /**
+     * Increments the age of every live animal in the first {@code count} slots.
+     *
+     * @param count number of slots to process
+     */
+    void incrementAges(int count) {
+        int[] age = this.age;
+        boolean[] dead = this.dead;
+        for (int slot = 0; slot < count; slot++) {
+            if (!dead[slot]) {
+                age[slot]++;
+            }
+        }
+    }
+
+    /**
+     * Releases all slots flagged as dead and puts the live slots in the order of the animal list,
+     * which holds exactly the animals that are not flagged as dead.
+     *
+     * @param order animal list of the world
+     */
+    void compact(AnimalList order) {
+        int live = order.size();
+        for (int slot = 0; slot < live; slot++) {
+            int from = order.get(slot).getSlot();
+            if (from != slot) {
+                swap(slot, from);
+            }
+        }
+        for (int slot = size - 1; slot >= live; slot--) {
+            remove(slot);
+        }
+    }
+
+    /**
+     * Exchanges the content of two slots.
+     *
+     * @param first  first slot
+     * @param second second slot
+     */
+    private void swap(int first, int second) {
+        int value = x[first];
+        x[first] = x[second];
+        x[second] = value;
+        value = y[first];
+        y[first] = y[second];
+        y[second] = value;
+        value = energy[first];
+        energy[first] = energy[second];
+        energy[second] = value;
+        value = age[first];
+        age[first] = age[second];
+        age[second] = value;
+        byte code = species[first];
+        species[first] = species[second];
+        species[second] = code;
+        boolean flag = dead[first];
+        dead[first] = dead[second];
+        dead[second] = flag;
+        Animal handle = handles[first];
+        handles[first] = handles[second];
+        handles[second] = handle;
+        handles[first].attach(this, first);
+        handles[second].attach(this, second);
+    }
+
+    /**
+     * Releases every slot, detaching all handles.
+     */
+    void clear() {
+        for (int slot = size - 1; slot >= 0; slot--) {
+            remove(slot);
+        }
+    }
+
+    /**
+     * Doubles the capacity of all arrays.
+     */
+    private void grow() {
+        int capacity = handles.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        energy = Arrays.copyOf(energy, capacity);
+        age = Arrays.copyOf(age, capacity);
+        species = Arrays.copyOf(species, capacity);
+        dead = Arrays.copyOf(dead, capacity);
+        handles = Arrays.copyOf(handles, capacity);
+    }
+}
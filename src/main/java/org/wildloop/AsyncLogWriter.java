@@ -0,0 +1,454 @@
+package org.wildloop;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Event listener writing events to a file on a dedicated thread.
+ * <p>
+ * The simulation thread only records the positions of the animals involved in an event
+ * and puts it into a bounded queue, following the {@link LogWriterSettings.OverflowPolicy}
+ * when the queue is full. The writer thread takes events in batches, encodes them with a
+ * {@link TextLogEncoder}, copies them into a direct buffer and writes the buffer through a {@link FileChannel}
+ * according to the group-commit policy of {@link LogWriterSettings}. Events are formatted as lines
+ * of text, or as records of a binary log when the writer is created with a {@link BinaryLogEncoder}.
+ * <p>
+ * A writer created with {@link LogSegments} finishes the current segment between two events once it
+ * reaches the size or number of turns of the {@link LogRotation}, hands it to the {@link LogArchiver}
+ * and continues in a new segment, which starts with its own header in binary logs. The last segment
+ * is archived when the writer is closed.
+ * <p>
+ * If writing fails, or encoding or a hook of the writer thread throws an unexpected exception,
+ * the error is reported once and the writer keeps taking events from the queue and discarding them,
+ * so that neither the simulation thread nor {@link #close()} waits for a thread that stopped writing.
+ *
+ * @see LogExporter
+ * @see LogWriterSettings
+ * @see BinaryLogEncoder
+ * @see LogSegments
+ */
+final class AsyncLogWriter implements Consumer<Event>, AutoCloseable {
+    /** Marker put into the queue by {@link #close()} */
+    private static final Object CLOSE = new Object();
+    /** Maximum number of events taken from the queue at once */
+    private static final int BATCH_SIZE = 1024;
+    /** Time in milliseconds after which a blocked producer checks that the writer thread is still running */
+    private static final long LIVENESS_CHECK_MILLIS = 100;
+
+    /** Settings of the writer */
+    private final LogWriterSettings settings;
+    /** Events waiting for the writer thread, followed by {@link #CLOSE} once closed */
+    private final BlockingQueue<Object> queue;
+    /** File receiving the events */
+    private final Path file;
+    /** Channel of the log file */
+    private FileChannel channel;
+    /** Buffer receiving encoded events */
+    private final ByteBuffer buffer;
+    /** Encoder of event text */
+    private final TextLogEncoder textEncoder = new TextLogEncoder();
+    /** Encoder of binary records, or {@code null} to write text */
+    private final BinaryLogEncoder binaryEncoder;
+    /** Segments of the log, or {@code null} to keep the file in place when closed */
+    private final LogSegments segments;
+    /** Number of bytes written to the current segment */
+    private long segmentBytes;
+    /** Number of turns completed in the current segment */
+    private int segmentTurns;
+    /** Thread encoding and writing events */
+    private final Thread thread;
+    /** Number of events discarded because the queue was full, they could not be encoded or the writer failed */
+    private final AtomicLong dropped = new AtomicLong();
+    /** Number of events that found the queue full, used for sampling */
+    private long overflowed;
+    /** Flag set once {@link #close()} was called */
+    private volatile boolean closed;
+    /** Flag set when writing failed; later events are discarded */
+    private volatile boolean failed;
+    /** Flag set once an event could not be encoded, so that the error is reported only once */
+    private boolean encodingFailed;
+
+    /**
+     * Opens the file, truncating it, and starts the writer thread writing events as text.
+     *
+     * @param file     file receiving the events
+     * @param settings settings of the writer
+     * @throws IOException if the file cannot be opened
+     */
+    AsyncLogWriter(Path file, LogWriterSettings settings) throws IOException {
+        this(file, settings, null);
+    }
+
+    /**
+     * Opens the file, truncating it, writes the header of a binary log if an encoder is given,
+     * and starts the writer thread.
+     *
+     * @param file          file receiving the events
+     * @param settings      settings of the writer
+     * @param binaryEncoder encoder of binary records, or {@code null} to write events as text
+     * @throws IOException if the file cannot be opened or the header cannot be written
+     */
+    AsyncLogWriter(Path file, LogWriterSettings settings, BinaryLogEncoder binaryEncoder) throws IOException {
+        this(file, settings, binaryEncoder, null);
+    }
+
+    /**
+     * Opens the latest file of a segmented log, truncating it, writes the header of a binary log
+     * if an encoder is given, and starts the writer thread.
+     *
+     * @param segments      segments of the log, providing the file and the rotation policy
+     * @param settings      settings of the writer
+     * @param binaryEncoder encoder of binary records, or {@code null} to write events as text
+     * @throws IOException if the file cannot be opened or the header cannot be written
+     */
+    AsyncLogWriter(LogSegments segments, LogWriterSettings settings, BinaryLogEncoder binaryEncoder) throws IOException {
+        this(segments.latest(), settings, binaryEncoder, segments);
+    }
+
+    /**
+     * Opens the file, truncating it, writes the header of a binary log if an encoder is given,
+     * and starts the writer thread.
+     *
+     * @param file          file receiving the events
+     * @param settings      settings of the writer
+     * @param binaryEncoder encoder of binary records, or {@code null} to write events as text
+     * @param segments      segments of the log, or {@code null} to keep the file in place when closed
+     * @throws IOException if the file cannot be opened or the header cannot be written
+     */
+    private AsyncLogWriter(Path file, LogWriterSettings settings, BinaryLogEncoder binaryEncoder,
+                           LogSegments segments) throws IOException {
+        this.file = file;
+        this.settings = settings;
+        this.binaryEncoder = binaryEncoder;
+        this.segments = segments;
+        this.queue = new ArrayBlockingQueue<>(settings.queueCapacity());
+        openSegment();
+        this.buffer = ByteBuffer.allocateDirect(settings.bufferSize()).order(BinaryLogEncoder.BYTE_ORDER);
+        this.thread = new Thread(this::run, "log-writer-" + file.getFileName());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Hands an event over to the writer thread. Called on the thread publishing the event.
+     * @param event event to write
+     */
+    @Override
+    public void accept(Event event) {
+        if (closed) {
+            return;
+        }
+        if (failed) {
+            dropped.incrementAndGet();
+            return;
+        }
+        event.capturePositions();
+        if (queue.offer(event)) {
+            return;
+        }
+        switch (settings.overflow()) {
+            case BLOCK -> put(event);
+            case DROP -> dropped.incrementAndGet();
+            case SAMPLE -> {
+                if (overflowed++ % settings.sampleRate() == 0) {
+                    put(event);
+                } else {
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until the queue has room for an event. The event is discarded if the writer thread
+     * is no longer running.
+     * @param event event to enqueue
+     */
+    private void put(Event event) {
+        try {
+            while (!queue.offer(event, LIVENESS_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!thread.isAlive()) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            dropped.incrementAndGet();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the number of events discarded because the queue was full, they could not be encoded
+     * or the writer failed.
+     * @return number of dropped events
+     */
+    long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes all queued events, closes the file and stops the writer thread.
+     * Events handed over afterward are ignored.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean interrupted = false;
+        while (true) {
+            try {
+                while (!queue.offer(CLOSE, LIVENESS_CHECK_MILLIS, TimeUnit.MILLISECONDS) && thread.isAlive()) {
+                    // The writer thread is still draining the queue
+                }
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Main loop of the writer thread.
+     */
+    private void run() {
+        List<Object> batch = new ArrayList<>(BATCH_SIZE);
+        int unwritten = 0;
+        long deadline = 0;
+        try {
+            while (true) {
+                Object first;
+                if (unwritten > 0 && settings.flushMillis() > 0) {
+                    long wait = deadline - System.nanoTime();
+                    first = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+                    if (first == null) {
+                        writeBuffer();
+                        unwritten = 0;
+                        continue;
+                    }
+                } else {
+                    first = queue.take();
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (Object item : batch) {
+                    if (item == CLOSE) {
+                        writeBuffer();
+                        return;
+                    }
+                    Event event = (Event) item;
+                    try {
+                        encode(event);
+                        if (unwritten++ == 0) {
+                            deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.flushMillis());
+                        }
+                        if ((settings.flushEvents() > 0 && unwritten >= settings.flushEvents())
+                                || (settings.flushEveryTurn() && event.getType() == EventType.SIMULATION_TURN)) {
+                            writeBuffer();
+                            unwritten = 0;
+                        }
+                        if (segments != null && isSegmentFinished(event)) {
+                            rotate();
+                            unwritten = 0;
+                        }
+                    } catch (RuntimeException e) {
+                        dropped.incrementAndGet();
+                        fail("Log writer failed", e);
+                        unwritten = 0;
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            writeBuffer();
+        } finally {
+            try {
+                channel.close();
+                if (segments != null) {
+                    segments.archive(true);
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to close log file: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Opens the file for a new segment, truncating it, and writes the header of a binary log.
+     * @throws IOException if the file cannot be opened or the header cannot be written
+     */
+    private void openSegment() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        segmentBytes = 0;
+        segmentTurns = 0;
+        if (binaryEncoder != null) {
+            try {
+                ByteBuffer header = binaryEncoder.header();
+                binaryEncoder.reset();
+                while (header.hasRemaining()) {
+                    segmentBytes += channel.write(header);
+                }
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Checks if the current segment reached a limit of the rotation policy after an event was encoded.
+     *
+     * @param event event just encoded
+     * @return true if the segment is finished
+     */
+    private boolean isSegmentFinished(Event event) {
+        LogRotation rotation = segments.rotation();
+        if (event.getType() == EventType.SIMULATION_TURN) {
+            segmentTurns++;
+        }
+        return (rotation.maxSegmentBytes() > 0 && segmentBytes + buffer.position() >= rotation.maxSegmentBytes())
+                || (rotation.segmentTurns() > 0 && segmentTurns >= rotation.segmentTurns());
+    }
+
+    /**
+     * Writes the buffer, archives the current segment and continues in a new one.
+     * On failure the error is reported and later events are discarded.
+     */
+    private void rotate() {
+        JfrEvents.LogRotate jfr = new JfrEvents.LogRotate();
+        jfr.begin();
+        writeBuffer();
+        if (failed) {
+            return;
+        }
+        long finishedBytes = segmentBytes;
+        int finishedTurns = segmentTurns;
+        try {
+            channel.close();
+            segments.archive(false);
+            openSegment();
+        } catch (IOException e) {
+            fail("Failed to rotate log file", e);
+            return;
+        }
+        jfr.end();
+        if (jfr.shouldCommit()) {
+            jfr.file = file.toString();
+            jfr.segmentBytes = finishedBytes;
+            jfr.segmentTurns = finishedTurns;
+            jfr.commit();
+        }
+    }
+
+    /**
+     * Encodes an event into the buffer as a line of text or as binary records.
+     * An event that does not fit into the binary format is discarded.
+     *
+     * @param event event to encode
+     */
+    private void encode(Event event) {
+        if (failed) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if (binaryEncoder == null) {
+            int length = textEncoder.encode(event);
+            append(textEncoder.getBytes(), length);
+            return;
+        }
+        if (buffer.remaining() < 2 * BinaryLogEncoder.MAX_RECORD_SIZE) {
+            writeBuffer();
+        }
+        try {
+            binaryEncoder.encode(event, buffer);
+        } catch (IllegalStateException e) {
+            dropped.incrementAndGet();
+            if (!encodingFailed) {
+                encodingFailed = true;
+                System.err.println("Failed to encode event: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Copies encoded bytes into the buffer, writing the buffer whenever it fills up.
+     *
+     * @param bytes  array holding the bytes
+     * @param length number of bytes to copy from the start of the array
+     */
+    private void append(byte[] bytes, int length) {
+        int offset = 0;
+        while (true) {
+            int count = Math.min(length - offset, buffer.remaining());
+            buffer.put(bytes, offset, count);
+            offset += count;
+            if (offset == length || failed) {
+                return;
+            }
+            writeBuffer();
+        }
+    }
+
+    /**
+     * Writes the content of the buffer to the file and clears the buffer.
+     * On failure the error is reported once and later events are discarded.
+     */
+    private void writeBuffer() {
+        buffer.flip();
+        long start = Metrics.start();
+        JfrEvents.LogFlush jfr = new JfrEvents.LogFlush();
+        jfr.begin();
+        int bytes = buffer.remaining();
+        try {
+            while (buffer.hasRemaining() && !failed) {
+                segmentBytes += channel.write(buffer);
+            }
+            jfr.end();
+            if (bytes > 0 && jfr.shouldCommit()) {
+                jfr.file = file.toString();
+                jfr.bytes = bytes;
+                jfr.commit();
+            }
+            if (start != Metrics.OFF) {
+                Metrics.lap(Metrics.LOG_WRITE, start);
+                Metrics.LOG_BYTES.add(bytes);
+            }
+        } catch (IOException e) {
+            fail("Failed to write to log file", e);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Marks the writer as failed, so that later events are discarded, and reports the error
+     * unless an earlier failure was reported already.
+     *
+     * @param message description of the failed operation
+     * @param error   cause of the failure
+     */
+    private void fail(String message, Exception error) {
+        if (!failed) {
+            failed = true;
+            System.err.println(message + ": " + error);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,96 @@
+package org.wildloop;
+
+/**
+ * Canonical scenarios run by {@link MacroBenchmark}. Every scenario is seeded and runs
+ * a fixed number of turns on an unlogged world in sequential mode, so that runs of different
+ * commits execute the same simulation and their throughput can be compared.
+ *
+ * @see MacroBenchmark
+ */
+public enum BenchmarkScenario {
+    /** Small world with few animals, dominated by per-turn overhead */
+    SPARSE("sparse-100", 100, 500, 100, 1000, WorldConfig.DEFAULTS),
+    /** Large world with a third of its million cells occupied */
+    DENSE("dense-1000", 1000, 250_000, 60_000, 10, WorldConfig.DEFAULTS),
+    /** Predators outnumbering prey four to one, dominated by hunting searches */
+    PREDATOR_DOMINATED("predator-dominated", 200, 2_000, 8_000, 300, WorldConfig.DEFAULTS),
+    /** Long-lived prey without predators filling a large world */
+    PREY_EXPLOSION("prey-explosion", 400, 2_000, 0, 60, WorldConfig.builder().preyMaxAge(200).build());
+
+    /** Seed of every scenario */
+    static final long SEED = 1;
+
+    /** Name of the scenario used in options and results */
+    private final String scenarioName;
+    /** Width and height of the world */
+    private final int size;
+    /** Initial prey count */
+    private final int prey;
+    /** Initial predator count */
+    private final int predators;
+    /** Number of turns to run */
+    private final int turns;
+    /** Parameters of the animals */
+    private final WorldConfig config;
+
+    /**
+     * Creates a scenario.
+     *
+     * @param scenarioName name of the scenario
+     * @param size         width and height of the world
+     * @param prey         initial prey count
+     * @param predators    initial predator count
+     * @param turns        number of turns to run
+     * @param config       parameters of the animals
+     */
+    BenchmarkScenario(String scenarioName, int size, int prey, int predators, int turns, WorldConfig config) {
+        this.scenarioName = scenarioName;
+        this.size = size;
+        this.prey = prey;
+        this.predators = predators;
+        this.turns = turns;
+        this.config = config;
+    }
+
+    /**
+     * Returns the name of the scenario used in options and results, such as {@code sparse-100}.
+     * @return name of the scenario
+     */
+    public String getScenarioName() {
+        return scenarioName;
+    }
+
+    /**
+     * Returns the number of turns the scenario runs.
+     * @return number of turns
+     */
+    public int getTurns() {
+        return turns;
+    }
+
+    /**
+     * Creates the populated, unlogged world of the scenario.
+     * @return new world
+     */
+    public World createWorld() {
+        World world = new World(size, size, false, SEED, config, false);
+        world.populate(prey, predators);
+        return world;
+    }
+
+    /**
+     * Finds a scenario by name.
+     *
+     * @param name name of the scenario, see {@link #getScenarioName()}
+     * @return matching scenario
+     * @throws IllegalArgumentException if no scenario has the given name
+     */
+    public static BenchmarkScenario byName(String name) {
+        for (BenchmarkScenario scenario : values()) {
+            if (scenario.scenarioName.equals(name)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown benchmark scenario: " + name);
+    }
+}
@@ -0,0 +1,267 @@
+package org.wildloop;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Encodes events into the binary log format read by {@link BinaryLogReader}, which also
+ * describes the layout of the file.
+ * <p>
+ * The encoder keeps the world, turn and base time of the last context record it produced
+ * and only writes a new context record when one of them changes, so that event records
+ * hold nothing but the type, a time offset and the animals involved. An encoder is used by
+ * a single writer thread and is not thread-safe.
+ * <p>
+ * Logs of worlds whose coordinates fit into 16 bits are written in version {@value #NARROW_VERSION}
+ * of the format; logs of wider or taller worlds in version {@value #VERSION}, whose event records
+ * hold 32-bit coordinates.
+ *
+ * @see AsyncLogWriter
+ * @see BinaryLogReader
+ */
+final class BinaryLogEncoder {
+    /** Bytes at the start of every binary log */
+    static final byte[] MAGIC = {'W', 'L', 'E', 'V'};
+    /** Latest version of the format, written for worlds with coordinates beyond {@link #MAX_NARROW_COORDINATE} */
+    static final int VERSION = 2;
+    /** Version of the format with 16-bit coordinates, written for worlds small enough */
+    static final int NARROW_VERSION = 1;
+    /** Byte order of all multibyte values */
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    /** Code of context records, distinct from every event type ordinal */
+    static final int CONTEXT_CODE = 0xFF;
+    /** Size of a context record in bytes */
+    static final int CONTEXT_SIZE = 24;
+    /** Size of the fixed part of an event record in bytes */
+    static final int EVENT_SIZE = 4;
+    /** Size of an animal in an event record of version {@value #NARROW_VERSION} in bytes */
+    static final int NARROW_ANIMAL_SIZE = 8;
+    /** Size of an animal in an event record of version {@value #VERSION} in bytes */
+    static final int ANIMAL_SIZE = 12;
+    /** Largest size of any record in bytes */
+    static final int MAX_RECORD_SIZE = Math.max(CONTEXT_SIZE, EVENT_SIZE + 2 * ANIMAL_SIZE);
+    /** Number of bytes holding a world identifier */
+    static final int WORLD_ID_SIZE = 8;
+    /** Context flag marking events without a world */
+    static final int SYSTEM_FLAG = 0x01;
+    /** Event flag bits holding the direction ordinal plus one, or 0 without a direction */
+    static final int DIRECTION_MASK = 0x07;
+    /** Event flag marking the first animal as a predator, shifted left by the animal index */
+    static final int PREDATOR_FLAG = 0x08;
+    /** Largest time offset of an event relative to its context, in milliseconds */
+    static final int MAX_TIME_OFFSET = 0xFFFF;
+    /** Largest coordinate that fits into an event record of version {@value #NARROW_VERSION} */
+    static final int MAX_NARROW_COORDINATE = 0xFFFF;
+    /** Largest animal number that fits into an event record */
+    static final long MAX_ANIMAL_NUMBER = 0xFFFFFFFFL;
+
+    /** World whose log is encoded */
+    private final World world;
+    /** Version of the format written for the world */
+    private final int version;
+    /** Time zone in which timestamps are written when the log is converted to text */
+    private final ZoneId zone;
+    /** Time at which the log was opened, in milliseconds since the epoch */
+    private final long startMillis;
+    /** Flag set once a context record was written */
+    private boolean hasContext;
+    /** World of the last context record, or {@code null} for system events */
+    private World contextWorld;
+    /** Turn of the last context record */
+    private int contextTurn;
+    /** Base time of the last context record, in milliseconds since the epoch */
+    private long contextMillis;
+
+    /**
+     * Creates an encoder of the log of a world, recording the default time zone
+     * so that converted logs show the same times as text logs.
+     *
+     * @param world world whose log is encoded
+     * @throws IllegalArgumentException if the world is null or its identifier does not fit into the format
+     */
+    BinaryLogEncoder(World world) {
+        if (world == null) {
+            throw new IllegalArgumentException("World cannot be null");
+        }
+        if (world.getId().length() > WORLD_ID_SIZE) {
+            throw new IllegalArgumentException("World identifier cannot be longer than " + WORLD_ID_SIZE + " characters");
+        }
+        this.world = world;
+        this.version = world.getWidth() > MAX_NARROW_COORDINATE + 1 || world.getHeight() > MAX_NARROW_COORDINATE + 1
+                ? VERSION : NARROW_VERSION;
+        this.zone = ZoneId.systemDefault();
+        this.startMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the version of the format written for the world.
+     * @return {@link #NARROW_VERSION} or {@link #VERSION}
+     */
+    int version() {
+        return version;
+    }
+
+    /**
+     * Returns the header of the log, written once at the start of the file.
+     * @return buffer holding the header, ready to be written
+     */
+    ByteBuffer header() {
+        byte[] zoneId = zone.getId().getBytes(StandardCharsets.UTF_8);
+        byte[] config = configText(world.getConfig()).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(40 + 2 + zoneId.length + 2 + config.length).order(BYTE_ORDER);
+        header.put(MAGIC);
+        header.putShort((short) version);
+        header.putShort((short) 0);
+        putWorldId(header, world);
+        header.putLong(startMillis);
+        header.putLong(world.getSeed());
+        header.putInt(world.getWidth());
+        header.putInt(world.getHeight());
+        header.putShort((short) zoneId.length).put(zoneId);
+        header.putShort((short) config.length).put(config);
+        return header.flip();
+    }
+
+    /**
+     * Forgets the last context record, so that the next event starts with a context record.
+     * Called when a new segment of the log begins.
+     */
+    void reset() {
+        hasContext = false;
+    }
+
+    /**
+     * Appends the records of an event to the buffer: a context record if the world or turn changed
+     * or the event is too far from the base time, followed by the event record.
+     * The buffer must have at least {@code 2 * MAX_RECORD_SIZE} bytes remaining. If the event cannot
+     * be encoded, the buffer is left without any byte of its event record.
+     *
+     * @param event  event to encode, with positions captured
+     * @param buffer buffer receiving the records
+     * @throws IllegalStateException if a coordinate or an animal identifier does not fit into the format
+     */
+    void encode(Event event, ByteBuffer buffer) {
+        EventType type = event.getType();
+        World eventWorld = event.getWorld();
+        long millis = event.getEpochMillis();
+        long offset = millis - contextMillis;
+        if (!hasContext || eventWorld != contextWorld || (eventWorld != null && event.getTurn() != contextTurn)
+                || offset < 0 || offset > MAX_TIME_OFFSET) {
+            putContext(buffer, eventWorld, event.getTurn(), millis);
+            offset = 0;
+        }
+
+        int animals = type.getAnimalCount();
+        int flags = type.hasDirection() ? ((Direction) event.getParam(animals)).ordinal() + 1 : 0;
+        for (int i = 0; i < animals; i++) {
+            if (event.getParam(i) instanceof Predator) {
+                flags |= PREDATOR_FLAG << i;
+            }
+        }
+        // a record failing halfway must not stay in the buffer, or the reader would lose its place
+        int start = buffer.position();
+        try {
+            buffer.put((byte) type.ordinal());
+            buffer.put((byte) flags);
+            buffer.putShort((short) offset);
+            for (int i = 0; i < animals; i++) {
+                Animal animal = (Animal) event.getParam(i);
+                Position position = event.getPosition(i);
+                if (position.x() < 0 || position.y() < 0 || version == NARROW_VERSION
+                        && (position.x() > MAX_NARROW_COORDINATE || position.y() > MAX_NARROW_COORDINATE)) {
+                    throw new IllegalStateException("Position " + position + " of " + animal.getId() + " does not fit into a binary log");
+                }
+                buffer.putInt((int) number(animal));
+                if (version == NARROW_VERSION) {
+                    buffer.putShort((short) position.x());
+                    buffer.putShort((short) position.y());
+                } else {
+                    buffer.putInt(position.x());
+                    buffer.putInt(position.y());
+                }
+            }
+        } catch (RuntimeException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a context record and makes it the base of the following event records.
+     *
+     * @param buffer buffer receiving the record
+     * @param world  world of the following events, or {@code null} for system events
+     * @param turn   turn of the following events
+     * @param millis base time of the following events, in milliseconds since the epoch
+     */
+    private void putContext(ByteBuffer buffer, World world, int turn, long millis) {
+        buffer.put((byte) CONTEXT_CODE);
+        buffer.put((byte) (world == null ? SYSTEM_FLAG : 0));
+        buffer.putShort((short) 0);
+        buffer.putInt(world == null ? 0 : turn);
+        buffer.putLong(millis);
+        putWorldId(buffer, world);
+        hasContext = true;
+        contextWorld = world;
+        contextTurn = turn;
+        contextMillis = millis;
+    }
+
+    /**
+     * Appends the identifier of a world as ASCII characters padded with zero bytes.
+     *
+     * @param buffer buffer receiving the identifier
+     * @param world  world to identify, or {@code null} to write only zero bytes
+     * @throws IllegalStateException if the identifier is too long
+     */
+    private static void putWorldId(ByteBuffer buffer, World world) {
+        String id = world == null ? "" : world.getId();
+        if (id.length() > WORLD_ID_SIZE) {
+            throw new IllegalStateException("World identifier " + id + " does not fit into a binary log");
+        }
+        for (int i = 0; i < WORLD_ID_SIZE; i++) {
+            buffer.put(i < id.length() ? (byte) id.charAt(i) : 0);
+        }
+    }
+
+    /**
+     * Returns the number of an animal, the part of its identifier following the prefix.
+     *
+     * @param animal animal to identify
+     * @return number of the animal
+     * @throws IllegalStateException if the identifier has no number or the number is too large
+     */
+    private static long number(Animal animal) {
+        String id = animal.getId();
+        String prefix = animal instanceof Predator ? Predator.ID_PREFIX : Prey.ID_PREFIX;
+        long number;
+        try {
+            number = id.startsWith(prefix) ? Long.parseLong(id, prefix.length(), id.length(), 10) : -1;
+        } catch (NumberFormatException e) {
+            number = -1;
+        }
+        if (number < 0 || number > MAX_ANIMAL_NUMBER) {
+            throw new IllegalStateException("Identifier " + id + " does not fit into a binary log");
+        }
+        return number;
+    }
+
+    /**
+     * Formats the parameters of a configuration as sorted {@code key=value} lines.
+     *
+     * @param config configuration to format
+     * @return text of the configuration
+     */
+    private static String configText(WorldConfig config) {
+        Properties properties = config.toProperties();
+        StringBuilder text = new StringBuilder();
+        for (String key : new TreeSet<>(properties.stringPropertyNames())) {
+            text.append(key).append('=').append(properties.getProperty(key)).append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,468 @@
+package org.wildloop;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streaming reader of binary event logs written by {@link LogExporter} with {@link LogFormat#BINARY}.
+ * <p>
+ * The reader works like a cursor: {@link #next()} advances to the next event and the getters
+ * describe it, so scanning a log does not create any objects per event unless the caller asks
+ * for identifiers, positions or text. {@link #toText()} returns the line the text log contains
+ * for the same event, see {@link LogConverter}.
+ * <p>
+ * All values are little-endian. A log starts with a header:
+ * <ul>
+ * <li>magic bytes {@code WLEV}, format version (u16) and a reserved u16</li>
+ * <li>identifier of the world, 8 ASCII bytes padded with zeros</li>
+ * <li>time the log was opened in milliseconds since the epoch (i64) and seed of the world (i64)</li>
+ * <li>width and height of the world (i32 each)</li>
+ * <li>time zone of timestamps in text form, and configuration of the world as {@code key=value} lines,
+ *     each as a length (u16) followed by UTF-8 bytes</li>
+ * </ul>
+ * Records follow; their first byte tells their kind and size:
+ * <ul>
+ * <li>context record, code {@code 0xFF}, 24 bytes: flags (u8, bit 0 marks system events),
+ *     reserved u16, turn (i32), base time in milliseconds since the epoch (i64) and world identifier
+ *     (8 bytes). It applies to the following event records and is written whenever the world or turn
+ *     changes or an event is more than 65 seconds after the base time.</li>
+ * <li>event record, code is the {@link EventType} ordinal, 4 bytes plus 8 bytes per animal of the type:
+ *     flags (u8, bits 0-2 hold the {@link Direction} ordinal plus one, bits 3 and 4 mark the first and
+ *     second animal as predators), time offset from the base time in milliseconds (u16), then for every
+ *     animal its number (u32), which follows the prefix of its identifier, and its x and y (u16 each).</li>
+ * </ul>
+ * Version 2 differs only in the coordinates of event records, which are u32 each, so every animal takes
+ * 12 bytes. It is written for worlds wider or taller than 65536 cells; smaller worlds are still written
+ * in version 1.
+ * A record cut off at the end of the file, for example after a crash, is ignored. Every segment of
+ * a rotated log starts with its own header, and segments compressed with gzip by the
+ * {@link LogRotation} policy are read directly.
+ *
+ * @see LogConverter
+ * @see LogExporter
+ * @see LogFormat
+ */
+public final class BinaryLogReader implements AutoCloseable {
+    /** Size of the read buffer in bytes */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** Size of the fixed part of the header in bytes */
+    private static final int HEADER_SIZE = 40;
+    /** Event types indexed by ordinal */
+    private static final EventType[] TYPES = EventType.values();
+    /** Directions indexed by ordinal */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * Header of a binary log.
+     *
+     * @param version   version of the format
+     * @param worldId   identifier of the logged world
+     * @param startTime time at which the log was opened
+     * @param zone      time zone in which the text log would show timestamps
+     * @param seed      seed of the world
+     * @param width     width of the world
+     * @param height    height of the world
+     * @param config    configuration of the world
+     */
+    public record Header(int version, String worldId, Instant startTime, ZoneId zone,
+                         long seed, int width, int height, WorldConfig config) {
+    }
+
+    /** Channel of the log file */
+    private final ReadableByteChannel channel;
+    /** Bytes read from the file and not consumed yet, ready to be read */
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(BinaryLogEncoder.BYTE_ORDER);
+    /** Header of the log */
+    private final Header header;
+    /** Size of an animal in the event records of the log in bytes */
+    private final int animalSize;
+    /** Offset in the file of the first byte in {@link #buffer} */
+    private long offset;
+    /** Flag set once the end of the file was reached */
+    private boolean endOfFile;
+    /** Identifier of the world of the current context */
+    private String worldId;
+    /** Flag set if the current context holds system events */
+    private boolean system;
+    /** Turn of the current context */
+    private int turn;
+    /** Base time of the current context in milliseconds since the epoch */
+    private long contextMillis;
+    /** Type of the current event, or {@code null} before the first call of {@link #next()} */
+    private EventType type;
+    /** Flags of the current event */
+    private int flags;
+    /** Time of the current event in milliseconds since the epoch */
+    private long millis;
+    /** Numbers of the animals of the current event */
+    private final long[] numbers = new long[2];
+    /** X coordinates of the animals of the current event */
+    private final int[] xs = new int[2];
+    /** Y coordinates of the animals of the current event */
+    private final int[] ys = new int[2];
+    /** Number of events read */
+    private long eventCount;
+
+    /**
+     * Opens a binary log and reads its header.
+     *
+     * @param file binary log to read, compressed with gzip if its name ends with {@code .gz}
+     * @throws IOException if the file cannot be read or is not a binary log of a supported version
+     */
+    public BinaryLogReader(Path file) throws IOException {
+        this.channel = file.getFileName().toString().endsWith(LogArchiver.COMPRESSED_EXTENSION)
+                ? Channels.newChannel(new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE))
+                : FileChannel.open(file, StandardOpenOption.READ);
+        this.buffer.flip();
+        try {
+            this.header = readHeader();
+            this.animalSize = header.version() == BinaryLogEncoder.NARROW_VERSION
+                    ? BinaryLogEncoder.NARROW_ANIMAL_SIZE : BinaryLogEncoder.ANIMAL_SIZE;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the header of the log.
+     * @return header
+     */
+    public Header getHeader() {
+        return header;
+    }
+
+    /**
+     * Advances to the next event.
+     *
+     * @return true if an event was read, false at the end of the log
+     * @throws IOException if the file cannot be read or contains an unknown record
+     */
+    public boolean next() throws IOException {
+        while (fill(1)) {
+            int code = buffer.get(buffer.position()) & 0xFF;
+            if (code == BinaryLogEncoder.CONTEXT_CODE) {
+                if (!fill(BinaryLogEncoder.CONTEXT_SIZE)) {
+                    return false;
+                }
+                buffer.get();
+                system = (buffer.get() & BinaryLogEncoder.SYSTEM_FLAG) != 0;
+                buffer.getShort();
+                turn = buffer.getInt();
+                contextMillis = buffer.getLong();
+                worldId = readWorldId();
+                offset += BinaryLogEncoder.CONTEXT_SIZE;
+                continue;
+            }
+            if (code >= TYPES.length || worldId == null) {
+                throw new IOException("Unexpected record code " + code + " at offset " + offset);
+            }
+
+            int animals = TYPES[code].getAnimalCount();
+            int size = BinaryLogEncoder.EVENT_SIZE + animals * animalSize;
+            if (!fill(size)) {
+                return false;
+            }
+            buffer.get();
+            type = TYPES[code];
+            flags = buffer.get() & 0xFF;
+            millis = contextMillis + (buffer.getShort() & 0xFFFF);
+            for (int i = 0; i < animals; i++) {
+                numbers[i] = buffer.getInt() & 0xFFFFFFFFL;
+                if (animalSize == BinaryLogEncoder.NARROW_ANIMAL_SIZE) {
+                    xs[i] = buffer.getShort() & 0xFFFF;
+                    ys[i] = buffer.getShort() & 0xFFFF;
+                } else {
+                    xs[i] = buffer.getInt();
+                    ys[i] = buffer.getInt();
+                }
+            }
+            offset += size;
+            eventCount++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the type of the current event.
+     * @return event type
+     */
+    public EventType getType() {
+        checkEvent();
+        return type;
+    }
+
+    /**
+     * Returns the time of the current event in milliseconds since the epoch.
+     * @return timestamp of the event
+     */
+    public long getEpochMillis() {
+        checkEvent();
+        return millis;
+    }
+
+    /**
+     * Returns the turn of the world when the current event occurred.
+     * @return turn of the event, 0 for a system event
+     */
+    public int getTurn() {
+        checkEvent();
+        return turn;
+    }
+
+    /**
+     * Returns the identifier of the world of the current event.
+     * @return world identifier, or {@code null} for a system event
+     */
+    public String getWorldId() {
+        checkEvent();
+        return system ? null : worldId;
+    }
+
+    /**
+     * Returns the number of animals involved in the current event.
+     * @return number of animals, from 0 to 2
+     */
+    public int getAnimalCount() {
+        checkEvent();
+        return type.getAnimalCount();
+    }
+
+    /**
+     * Checks if an animal of the current event is a predator.
+     *
+     * @param index index of the animal
+     * @return true for a predator, false for prey
+     */
+    public boolean isPredator(int index) {
+        checkAnimal(index);
+        return (flags & (BinaryLogEncoder.PREDATOR_FLAG << index)) != 0;
+    }
+
+    /**
+     * Returns the number of an animal of the current event, the part of its identifier following the prefix.
+     *
+     * @param index index of the animal
+     * @return number of the animal
+     */
+    public long getAnimalNumber(int index) {
+        checkAnimal(index);
+        return numbers[index];
+    }
+
+    /**
+     * Returns the identifier of an animal of the current event, as returned by {@link Animal#getId()}.
+     *
+     * @param index index of the animal
+     * @return identifier of the animal
+     */
+    public String getAnimalId(int index) {
+        return (isPredator(index) ? Predator.ID_PREFIX : Prey.ID_PREFIX) + numbers[index];
+    }
+
+    /**
+     * Returns the x coordinate of an animal of the current event at the time of the event.
+     *
+     * @param index index of the animal
+     * @return x coordinate
+     */
+    public int getX(int index) {
+        checkAnimal(index);
+        return xs[index];
+    }
+
+    /**
+     * Returns the y coordinate of an animal of the current event at the time of the event.
+     *
+     * @param index index of the animal
+     * @return y coordinate
+     */
+    public int getY(int index) {
+        checkAnimal(index);
+        return ys[index];
+    }
+
+    /**
+     * Returns the position of an animal of the current event at the time of the event.
+     *
+     * @param index index of the animal
+     * @return position of the animal
+     */
+    public Position getPosition(int index) {
+        checkAnimal(index);
+        return new Position(xs[index], ys[index]);
+    }
+
+    /**
+     * Returns the direction of the current event.
+     * @return direction, or {@code null} if the event type has none
+     */
+    public Direction getDirection() {
+        checkEvent();
+        int direction = flags & BinaryLogEncoder.DIRECTION_MASK;
+        return direction == 0 ? null : DIRECTIONS[direction - 1];
+    }
+
+    /**
+     * Returns the number of events read so far.
+     * @return number of events
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Formats the current event as the line the text log contains for it.
+     * @return line describing the event, without a line separator
+     */
+    public String toText() {
+        int animals = getAnimalCount();
+        String description = type.describe(
+                animals > 0 ? getAnimalId(0) : null, animals > 0 ? getPosition(0) : null,
+                animals > 1 ? getAnimalId(1) : null, animals > 1 ? getPosition(1) : null,
+                getDirection());
+        return Event.format(Instant.ofEpochMilli(millis), header.zone(), getWorldId(), turn, type, description);
+    }
+
+    /**
+     * Closes the log file.
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads and validates the header of the log.
+     *
+     * @return header of the log
+     * @throws IOException if the file is too short, has no magic bytes, has an unsupported version
+     *                     or an invalid time zone or configuration
+     */
+    private Header readHeader() throws IOException {
+        if (!fill(HEADER_SIZE)) {
+            throw new IOException("File is too short to be a binary log");
+        }
+        byte[] magic = new byte[BinaryLogEncoder.MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, BinaryLogEncoder.MAGIC)) {
+            throw new IOException("File is not a binary log");
+        }
+        int version = buffer.getShort() & 0xFFFF;
+        if (version < BinaryLogEncoder.NARROW_VERSION || version > BinaryLogEncoder.VERSION) {
+            throw new IOException("Unsupported binary log version " + version);
+        }
+        buffer.getShort();
+        String headerWorldId = readWorldId();
+        Instant startTime = Instant.ofEpochMilli(buffer.getLong());
+        long seed = buffer.getLong();
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        offset += HEADER_SIZE;
+        String zoneId = readText();
+        String configText = readText();
+
+        try {
+            Properties properties = new Properties();
+            properties.load(new StringReader(configText));
+            return new Header(version, headerWorldId, startTime, ZoneId.of(zoneId), seed, width, height,
+                    WorldConfig.DEFAULTS.withProperties(properties));
+        } catch (DateTimeException | IllegalArgumentException e) {
+            throw new IOException("Invalid binary log header: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a world identifier padded with zero bytes.
+     * @return identifier of the world
+     */
+    private String readWorldId() {
+        byte[] id = new byte[BinaryLogEncoder.WORLD_ID_SIZE];
+        buffer.get(id);
+        int length = 0;
+        while (length < id.length && id[length] != 0) {
+            length++;
+        }
+        return new String(id, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Reads a text of the header, prefixed with its length.
+     *
+     * @return text read
+     * @throws IOException if the file ends before the text
+     */
+    private String readText() throws IOException {
+        if (!fill(2)) {
+            throw new IOException("Binary log header is truncated");
+        }
+        int length = buffer.getShort() & 0xFFFF;
+        if (!fill(length)) {
+            throw new IOException("Binary log header is truncated");
+        }
+        byte[] text = new byte[length];
+        buffer.get(text);
+        offset += 2 + length;
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Makes sure the buffer holds at least the given number of bytes, reading more from the file if needed.
+     *
+     * @param bytes number of bytes needed
+     * @return false if the file ends before that many bytes
+     * @throws IOException if the file cannot be read
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes && !endOfFile) {
+            if (channel.read(buffer) < 0) {
+                endOfFile = true;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+
+    /**
+     * Checks that an event was read.
+     * @throws IllegalStateException if {@link #next()} did not return an event yet
+     */
+    private void checkEvent() {
+        if (type == null) {
+            throw new IllegalStateException("No event was read");
+        }
+    }
+
+    /**
+     * Checks that the current event has an animal with the given index.
+     *
+     * @param index index of the animal
+     * @throws IllegalStateException    if no event was read
+     * @throws IllegalArgumentException if the event has no such animal
+     */
+    private void checkAnimal(int index) {
+        if (index < 0 || index >= getAnimalCount()) {
+            throw new IllegalArgumentException("Event " + type + " has no animal " + index);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.wildloop;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Content of the cells of a world in square tiles shared copy-on-write between {@link WorldSnapshot}s,
+ * used by {@link SimulationRunner} to capture snapshots without copying the whole world.
+ * <p>
+ * The cells are stored as a directory of tile rows, each holding the tiles of {@value #TILE_SIZE}
+ * rows of cells from left to right, and each tile holding its {@value #TILE_SIZE} x {@value #TILE_SIZE}
+ * cells row by row. Tiles holding only empty cells are {@code null}: a tile is created when one
+ * of its cells is first occupied and released when its last animal leaves, so a sparse world takes
+ * memory for its occupied tiles only. Rows are created like tiles but kept once created, as a row
+ * holds only one reference per tile.
+ * <p>
+ * {@link #share()} hands the current directory to a snapshot. Afterward, the first change of a
+ * row or tile copies it, so the shared arrays never change and the cost of a snapshot follows the
+ * number of changed tiles, not the area of the world.
+ *
+ * @see WorldSnapshot
+ * @see SimulationRunner
+ */
+final class CellTiles {
+    /** Number of bits of a coordinate within a tile */
+    static final int TILE_SHIFT = 4;
+    /** Side length of a tile in cells */
+    static final int TILE_SIZE = 1 << TILE_SHIFT;
+
+    /** Number of tile columns */
+    private final int tileColumns;
+    /** Rows of tiles, {@code null} where no cell was ever occupied */
+    private byte[][][] rows;
+    /** Flag indicating that {@link #rows} was created or copied since the last {@link #share()} */
+    private boolean ownsRows;
+    /** Rows and tiles created or copied since the last {@link #share()}, which may change in place */
+    private final Set<Object> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Creates tiles of a world with only empty cells.
+     *
+     * @param width  width of the world
+     * @param height height of the world
+     */
+    CellTiles(int width, int height) {
+        this(width, new byte[tileCount(height)][][]);
+        this.ownsRows = true;
+    }
+
+    /**
+     * Creates tiles starting from the shared tiles of a snapshot, which are copied when first changed.
+     *
+     * @param width width of the world
+     * @param rows  rows of tiles of the snapshot
+     */
+    CellTiles(int width, byte[][][] rows) {
+        this.tileColumns = tileCount(width);
+        this.rows = rows;
+    }
+
+    /**
+     * Changes the content of a cell, copying its row and tile if they are shared.
+     *
+     * @param x    column of the cell
+     * @param y    row of the cell
+     * @param cell new content, see {@link WorldSnapshot#getCell(int, int)}
+     */
+    void set(int x, int y, byte cell) {
+        if (get(rows, x, y) == cell) {
+            return;
+        }
+        if (!ownsRows) {
+            rows = rows.clone();
+            ownsRows = true;
+        }
+        int ty = y >> TILE_SHIFT;
+        byte[][] row = rows[ty];
+        if (row == null) {
+            row = new byte[tileColumns][];
+            owned.add(row);
+            rows[ty] = row;
+        } else if (!owned.contains(row)) {
+            row = row.clone();
+            owned.add(row);
+            rows[ty] = row;
+        }
+        int tx = x >> TILE_SHIFT;
+        byte[] tile = row[tx];
+        if (tile == null) {
+            tile = new byte[TILE_SIZE * TILE_SIZE];
+            owned.add(tile);
+            row[tx] = tile;
+        } else if (!owned.contains(tile)) {
+            tile = tile.clone();
+            owned.add(tile);
+            row[tx] = tile;
+        }
+        tile[index(x, y)] = cell;
+        if (cell == WorldSnapshot.EMPTY && isEmpty(tile)) {
+            row[tx] = null;
+        }
+    }
+
+    /**
+     * Checks if all cells of a tile are empty.
+     *
+     * @param tile cells of the tile
+     * @return true if no cell is occupied
+     */
+    private static boolean isEmpty(byte[] tile) {
+        for (byte cell : tile) {
+            if (cell != WorldSnapshot.EMPTY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the current rows of tiles for a snapshot. They never change afterward.
+     * @return rows of tiles, {@code null} where no cell was ever occupied
+     */
+    byte[][][] share() {
+        ownsRows = false;
+        owned.clear();
+        return rows;
+    }
+
+    /**
+     * Returns the content of a cell from rows of tiles.
+     *
+     * @param rows rows of tiles
+     * @param x    column of the cell
+     * @param y    row of the cell
+     * @return {@link WorldSnapshot#EMPTY}, {@link WorldSnapshot#PREY} or {@link WorldSnapshot#PREDATOR}
+     */
+    static byte get(byte[][][] rows, int x, int y) {
+        byte[][] row = rows[y >> TILE_SHIFT];
+        byte[] tile = row == null ? null : row[x >> TILE_SHIFT];
+        return tile == null ? WorldSnapshot.EMPTY : tile[index(x, y)];
+    }
+
+    /**
+     * Returns the index of a cell within its tile.
+     *
+     * @param x column of the cell
+     * @param y row of the cell
+     * @return index in the cells of the tile
+     */
+    static int index(int x, int y) {
+        return ((y & (TILE_SIZE - 1)) << TILE_SHIFT) | (x & (TILE_SIZE - 1));
+    }
+
+    /**
+     * Returns the number of tiles covering a dimension of a world.
+     *
+     * @param cells number of cells along the dimension
+     * @return number of tiles
+     */
+    static int tileCount(int cells) {
+        return ((cells - 1) >> TILE_SHIFT) + 1;
+    }
+}
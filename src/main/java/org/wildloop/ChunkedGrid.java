@@ -0,0 +1,355 @@
+package org.wildloop;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Sparse two-dimensional grid storing its cells in fixed-size chunks allocated when first
+ * occupied, so that its memory follows the number of occupied cells instead of the area.
+ * <p>
+ * Cells are grouped into chunks of {@value #CHUNK_SIZE} x {@value #CHUNK_SIZE} cells, and chunks
+ * into pages of {@value #PAGE_CHUNKS} x {@value #PAGE_CHUNKS} chunks. Only the directory of pages
+ * covers the whole area, with one reference per {@code 128 x 128} cells. Reading an empty region
+ * does not allocate anything.
+ * <p>
+ * Different cells may be written by several threads at once, as the concurrent tick modes of
+ * {@link World} do: pages and chunks are installed with compare-and-set and the occupancy of a
+ * chunk is counted atomically. Chunks that become empty are therefore not released immediately
+ * but by {@link #releaseEmpty()}, which must not run concurrently with writes.
+ *
+ * @param <T> type of the values stored in the cells
+ * @see World
+ * @see SpatialIndex
+ * @see GridStorage
+ */
+final class ChunkedGrid<T> {
+    /** Number of bits of a coordinate within a chunk */
+    private static final int CHUNK_SHIFT = 3;
+    /** Side length of a chunk in cells */
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    /** Number of bits of a chunk coordinate within a page */
+    private static final int PAGE_SHIFT = 4;
+    /** Side length of a page in chunks */
+    static final int PAGE_CHUNKS = 1 << PAGE_SHIFT;
+    /** Number of bits of a cell coordinate within a page */
+    private static final int PAGE_CELL_SHIFT = CHUNK_SHIFT + PAGE_SHIFT;
+    /** Handle installing pages and chunks atomically */
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+    /** Handle counting the occupied cells of chunks atomically */
+    private static final VarHandle OCCUPIED = MethodHandles.arrayElementVarHandle(int[].class);
+    /** Handle counting the chunks of a page atomically */
+    private static final VarHandle CHUNKS;
+
+    static {
+        try {
+            CHUNKS = MethodHandles.lookup().findVarHandle(Page.class, "chunks", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** Width of the grid in cells */
+    private final int width;
+    /** Height of the grid in cells */
+    private final int height;
+    /** Number of page columns */
+    private final int pageColumns;
+    /** Pages in row-major order, {@code null} where no chunk is allocated */
+    private final Object[] pages;
+    /** Chunks that became empty since the last {@link #releaseEmpty()}, as {@code page * PAGE_CHUNKS^2 + slot} */
+    private final Queue<Long> emptied = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Block of {@value #PAGE_CHUNKS} x {@value #PAGE_CHUNKS} chunks. A chunk is the array of its
+     * {@value #CHUNK_SIZE} x {@value #CHUNK_SIZE} cells in row-major order, so that reading a cell
+     * follows only the page and the chunk.
+     */
+    private static final class Page {
+        /** Chunks in row-major order, {@code null} where no cell is occupied */
+        final Object[][] slots = new Object[PAGE_CHUNKS * PAGE_CHUNKS][];
+        /** Numbers of non-null cells of the chunks, updated through {@link #OCCUPIED} */
+        final int[] occupied = new int[PAGE_CHUNKS * PAGE_CHUNKS];
+        /** Number of allocated chunks, updated through {@link #CHUNKS} */
+        int chunks;
+    }
+
+    /**
+     * Visitor of the non-null cells of a grid.
+     *
+     * @param <T> type of the values stored in the cells
+     */
+    @FunctionalInterface
+    interface CellVisitor<T> {
+        /**
+         * Visits a cell.
+         *
+         * @param x     column of the cell
+         * @param y     row of the cell
+         * @param value value of the cell
+         */
+        void visit(int x, int y, T value);
+    }
+
+    /**
+     * Creates an empty grid.
+     *
+     * @param width  width of the grid
+     * @param height height of the grid
+     */
+    ChunkedGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pageColumns = ((width - 1) >> PAGE_CELL_SHIFT) + 1;
+        this.pages = new Object[pageColumns * (((height - 1) >> PAGE_CELL_SHIFT) + 1)];
+    }
+
+    /**
+     * Returns the value of a cell.
+     *
+     * @param x column of the cell, inside the grid
+     * @param y row of the cell, inside the grid
+     * @return value of the cell, or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    T get(int x, int y) {
+        Page page = (Page) pages[pageIndex(x, y)];
+        if (page == null) {
+            return null;
+        }
+        Object[] chunk = page.slots[slotIndex(x, y)];
+        return chunk == null ? null : (T) chunk[cellIndex(x, y)];
+    }
+
+    /**
+     * Changes the value of a cell, allocating its chunk if needed. Different cells may be
+     * changed by several threads at once.
+     *
+     * @param x     column of the cell, inside the grid
+     * @param y     row of the cell, inside the grid
+     * @param value new value, or {@code null} to clear the cell
+     */
+    void set(int x, int y, T value) {
+        int pageIndex = pageIndex(x, y);
+        Page page = value != null ? pageFor(pageIndex) : (Page) pages[pageIndex];
+        if (page == null) {
+            return;
+        }
+        int slot = slotIndex(x, y);
+        Object[] chunk = value != null ? chunkFor(page, slot) : page.slots[slot];
+        if (chunk == null) {
+            return;
+        }
+        int cell = cellIndex(x, y);
+        Object previous = chunk[cell];
+        chunk[cell] = value;
+        if (previous == null && value != null) {
+            OCCUPIED.getAndAdd(page.occupied, slot, 1);
+        } else if (previous != null && value == null && (int) OCCUPIED.getAndAdd(page.occupied, slot, -1) == 1) {
+            emptied.add((long) pageIndex * page.slots.length + slot);
+        }
+    }
+
+    /**
+     * Sets the value of an empty cell, unless another thread set it first.
+     *
+     * @param x     column of the cell, inside the grid
+     * @param y     row of the cell, inside the grid
+     * @param value new value, not {@code null}
+     * @return value of the cell afterward, either {@code value} or the value set by another thread
+     */
+    @SuppressWarnings("unchecked")
+    T setIfAbsent(int x, int y, T value) {
+        Page page = pageFor(pageIndex(x, y));
+        int slot = slotIndex(x, y);
+        Object witness = SLOTS.compareAndExchange(chunkFor(page, slot), cellIndex(x, y), null, value);
+        if (witness != null) {
+            return (T) witness;
+        }
+        OCCUPIED.getAndAdd(page.occupied, slot, 1);
+        return value;
+    }
+
+    /**
+     * Releases the chunks that became empty, and the pages left without chunks.
+     * Must not run concurrently with writes.
+     */
+    void releaseEmpty() {
+        Long key;
+        while ((key = emptied.poll()) != null) {
+            int pageIndex = (int) (key / (PAGE_CHUNKS * PAGE_CHUNKS));
+            int slot = (int) (key % (PAGE_CHUNKS * PAGE_CHUNKS));
+            Page page = (Page) pages[pageIndex];
+            if (page != null && page.slots[slot] != null && page.occupied[slot] == 0) {
+                page.slots[slot] = null;
+                if (--page.chunks == 0) {
+                    pages[pageIndex] = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of allocated chunks.
+     * @return number of chunks holding at least one value, or emptied since the last {@link #releaseEmpty()}
+     */
+    int chunkCount() {
+        int count = 0;
+        for (Object page : pages) {
+            if (page != null) {
+                count += ((Page) page).chunks;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Visits the non-null cells of a range of columns in row-major order, skipping unallocated
+     * pages and chunks. Must not run concurrently with writes.
+     *
+     * @param fromX   first column (inclusive)
+     * @param toX     last column (inclusive)
+     * @param visitor visitor receiving the cells
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(int fromX, int toX, CellVisitor<T> visitor) {
+        fromX = Math.max(0, fromX);
+        toX = Math.min(width - 1, toX);
+        int firstPage = fromX >> PAGE_CELL_SHIFT;
+        int lastPage = toX >> PAGE_CELL_SHIFT;
+        for (int pageRow = 0; pageRow * pageColumns < pages.length; pageRow++) {
+            boolean allocated = false;
+            for (int page = firstPage; page <= lastPage && !allocated; page++) {
+                allocated = pages[pageRow * pageColumns + page] != null;
+            }
+            if (!allocated) {
+                continue;
+            }
+            int chunkRows = Math.min(PAGE_CHUNKS, ((height - 1 - (pageRow << PAGE_CELL_SHIFT)) >> CHUNK_SHIFT) + 1);
+            for (int chunkRow = 0; chunkRow < chunkRows; chunkRow++) {
+                int firstY = (pageRow << PAGE_CELL_SHIFT) + (chunkRow << CHUNK_SHIFT);
+                if (!hasChunks(firstY, fromX, toX)) {
+                    continue;
+                }
+                int lastY = Math.min(height, firstY + CHUNK_SIZE);
+                for (int y = firstY; y < lastY; y++) {
+                    int x = fromX;
+                    while (x <= toX) {
+                        Object[] chunk = existingChunk(x, y);
+                        int end = Math.min(toX, x | (CHUNK_SIZE - 1));
+                        if (chunk != null) {
+                            for (int cx = x; cx <= end; cx++) {
+                                Object value = chunk[cellIndex(cx, y)];
+                                if (value != null) {
+                                    visitor.visit(cx, y, (T) value);
+                                }
+                            }
+                        }
+                        x = end + 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if a row of chunks holds any allocated chunk within a range of columns.
+     *
+     * @param y     row of cells within the row of chunks
+     * @param fromX first column (inclusive)
+     * @param toX   last column (inclusive)
+     * @return true if at least one chunk is allocated
+     */
+    private boolean hasChunks(int y, int fromX, int toX) {
+        for (int x = fromX & -CHUNK_SIZE; x <= toX; x += CHUNK_SIZE) {
+            if (existingChunk(x, y) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a page, allocating it if needed.
+     *
+     * @param pageIndex index of the page
+     * @return page
+     */
+    private Page pageFor(int pageIndex) {
+        Page page = (Page) pages[pageIndex];
+        if (page == null) {
+            Page created = new Page();
+            Object witness = SLOTS.compareAndExchange(pages, pageIndex, null, created);
+            page = witness != null ? (Page) witness : created;
+        }
+        return page;
+    }
+
+    /**
+     * Returns a chunk of a page, allocating it if needed.
+     *
+     * @param page page of the chunk
+     * @param slot index of the chunk within the page
+     * @return cells of the chunk
+     */
+    private static Object[] chunkFor(Page page, int slot) {
+        Object[] chunk = page.slots[slot];
+        if (chunk == null) {
+            Object[] created = new Object[CHUNK_SIZE * CHUNK_SIZE];
+            Object witness = SLOTS.compareAndExchange(page.slots, slot, null, created);
+            if (witness != null) {
+                chunk = (Object[]) witness;
+            } else {
+                chunk = created;
+                CHUNKS.getAndAdd(page, 1);
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Returns the chunk of a cell without allocating it.
+     *
+     * @param x column of the cell
+     * @param y row of the cell
+     * @return cells of the chunk, or {@code null}
+     */
+    private Object[] existingChunk(int x, int y) {
+        Page page = (Page) pages[pageIndex(x, y)];
+        return page == null ? null : page.slots[slotIndex(x, y)];
+    }
+
+    /**
+     * Returns the index of the page of a cell.
+     *
+     * @param x column of the cell
+     * @param y row of the cell
+     * @return index in {@link #pages}
+     */
+    private int pageIndex(int x, int y) {
+        return (y >> PAGE_CELL_SHIFT) * pageColumns + (x >> PAGE_CELL_SHIFT);
+    }
+
+    /**
+     * Returns the index of the chunk of a cell within its page.
+     *
+     * @param x column of the cell
+     * @param y row of the cell
+     * @return index in {@link Page#slots}
+     */
+    private static int slotIndex(int x, int y) {
+        return (((y >> CHUNK_SHIFT) & (PAGE_CHUNKS - 1)) << PAGE_SHIFT) | ((x >> CHUNK_SHIFT) & (PAGE_CHUNKS - 1));
+    }
+
+    /**
+     * Returns the index of a cell within its chunk.
+     *
+     * @param x column of the cell
+     * @param y row of the cell
+     * @return index in the cells of its chunk
+     */
+    private static int cellIndex(int x, int y) {
+        return ((y & (CHUNK_SIZE - 1)) << CHUNK_SHIFT) | (x & (CHUNK_SIZE - 1));
+    }
+}
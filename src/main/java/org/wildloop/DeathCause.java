@@ -0,0 +1,18 @@
+package org.wildloop;
+
+/**
+ * Reasons for which an animal leaves its world, counted by {@link PopulationStats}.
+ *
+ * @see World#getStats()
+ * @see Animal
+ */
+public enum DeathCause {
+    /** Prey eaten by a predator */
+    EATEN,
+    /** Animal that ran out of energy */
+    ENERGY,
+    /** Animal that reached its maximum age */
+    AGE,
+    /** Animal removed from the world directly, for example when the simulation is reset */
+    REMOVED
+}
@@ -0,0 +1,205 @@
+package org.wildloop;
+
+import java.awt.*;
+
+/**
+ * Numbers of prey and predators in square blocks of cells, used by {@link GridView} to paint
+ * worlds with more cells than the component has pixels.
+ * <p>
+ * The counts form a pyramid: at level {@code L} a tile covers a block of {@code 2^L} by {@code 2^L}
+ * cells, from {@link #FIRST_LEVEL} to {@link #LAST_LEVEL}. The pyramid is built once from the
+ * occupied tiles of a snapshot and then follows the changed cells with {@link #change(int, int, byte, byte)},
+ * so switching levels while zooming never scans the cells again. Both counts of a tile are packed
+ * into one int, prey in the low half and predators in the high half; a block of the last level
+ * holds at most {@code 4^7} animals, which fits in either half.
+ * <p>
+ * The color of a tile blends the colors of prey and predators by their shares and fades towards
+ * the empty color with the share of empty cells. {@link GridView} paints the visible tiles of one
+ * level with one pixel per tile or more.
+ *
+ * @see GridView
+ */
+final class DensityTiles {
+    /** Finest level, with tiles of 4x4 cells */
+    static final int FIRST_LEVEL = 2;
+    /** Coarsest level, with tiles of 128x128 cells */
+    static final int LAST_LEVEL = 7;
+    /** Packed count of one predator */
+    private static final int PREDATOR = 1 << 16;
+    /** Mask of the prey count in a packed count */
+    private static final int PREY_MASK = PREDATOR - 1;
+
+    /** Width of the world in cells */
+    private final int width;
+    /** Height of the world in cells */
+    private final int height;
+    /** Packed counts of the tiles of each level, row by row, indexed by {@code level - FIRST_LEVEL} */
+    private final int[][] counts = new int[LAST_LEVEL - FIRST_LEVEL + 1][];
+
+    /**
+     * Builds the pyramid from the cells of a snapshot, skipping the tiles of the snapshot
+     * holding only empty cells.
+     *
+     * @param snapshot snapshot to count
+     */
+    DensityTiles(WorldSnapshot snapshot) {
+        this.width = snapshot.getWidth();
+        this.height = snapshot.getHeight();
+        int[] first = new int[tilesX(FIRST_LEVEL) * tilesY(FIRST_LEVEL)];
+        int tilesX = tilesX(FIRST_LEVEL);
+        for (int ty = 0; ty < CellTiles.tileCount(height); ty++) {
+            for (int tx = 0; tx < CellTiles.tileCount(width); tx++) {
+                byte[] tile = snapshot.tile(tx, ty);
+                if (tile == null) {
+                    continue;
+                }
+                for (int i = 0; i < tile.length; i++) {
+                    if (tile[i] != WorldSnapshot.EMPTY) {
+                        int x = (tx << CellTiles.TILE_SHIFT) | (i & (CellTiles.TILE_SIZE - 1));
+                        int y = (ty << CellTiles.TILE_SHIFT) | (i >> CellTiles.TILE_SHIFT);
+                        first[(y >> FIRST_LEVEL) * tilesX + (x >> FIRST_LEVEL)] += packed(tile[i]);
+                    }
+                }
+            }
+        }
+        counts[0] = first;
+        for (int level = FIRST_LEVEL + 1; level <= LAST_LEVEL; level++) {
+            int[] finer = counts[level - 1 - FIRST_LEVEL];
+            int finerX = tilesX(level - 1);
+            int finerY = tilesY(level - 1);
+            int coarseX = tilesX(level);
+            int[] coarse = new int[coarseX * tilesY(level)];
+            for (int ty = 0; ty < finerY; ty++) {
+                for (int tx = 0; tx < finerX; tx++) {
+                    coarse[(ty >> 1) * coarseX + (tx >> 1)] += finer[ty * finerX + tx];
+                }
+            }
+            counts[level - FIRST_LEVEL] = coarse;
+        }
+    }
+
+    /**
+     * Returns the level whose tiles are at least one pixel large for a cell size.
+     *
+     * @param cellSize size of a cell in pixels
+     * @return level between {@link #FIRST_LEVEL} and {@link #LAST_LEVEL}, or 0 if cells are at least one pixel large
+     */
+    static int levelFor(double cellSize) {
+        if (cellSize >= 1) {
+            return 0;
+        }
+        int level = (int) Math.ceil(Math.log(1 / cellSize) / Math.log(2));
+        return Math.max(FIRST_LEVEL, Math.min(LAST_LEVEL, level));
+    }
+
+    /**
+     * Updates the counts of the tiles containing a changed cell.
+     *
+     * @param x    column of the cell
+     * @param y    row of the cell
+     * @param from previous content of the cell
+     * @param to   new content of the cell
+     */
+    void change(int x, int y, byte from, byte to) {
+        int delta = packed(to) - packed(from);
+        if (delta == 0) {
+            return;
+        }
+        for (int level = FIRST_LEVEL; level <= LAST_LEVEL; level++) {
+            counts[level - FIRST_LEVEL][(y >> level) * tilesX(level) + (x >> level)] += delta;
+        }
+    }
+
+    /**
+     * Returns the number of prey in a tile.
+     *
+     * @param level level of the tile
+     * @param tx    column of the tile
+     * @param ty    row of the tile
+     * @return number of prey in the block of cells
+     */
+    int prey(int level, int tx, int ty) {
+        return counts[level - FIRST_LEVEL][ty * tilesX(level) + tx] & PREY_MASK;
+    }
+
+    /**
+     * Returns the number of predators in a tile.
+     *
+     * @param level level of the tile
+     * @param tx    column of the tile
+     * @param ty    row of the tile
+     * @return number of predators in the block of cells
+     */
+    int predators(int level, int tx, int ty) {
+        return counts[level - FIRST_LEVEL][ty * tilesX(level) + tx] >>> 16;
+    }
+
+    /**
+     * Returns the color of a tile.
+     *
+     * @param level level of the tile
+     * @param tx    column of the tile
+     * @param ty    row of the tile
+     * @return RGB color of the tile
+     */
+    int color(int level, int tx, int ty) {
+        int prey = prey(level, tx, ty);
+        int predators = predators(level, tx, ty);
+        if (prey + predators == 0) {
+            return GridView.EMPTY_COLOR.getRGB();
+        }
+        // tiles at the right and bottom edges may cover fewer cells
+        int area = (Math.min(width, (tx + 1) << level) - (tx << level)) * (Math.min(height, (ty + 1) << level) - (ty << level));
+        Color animals = blend(GridView.PREY_COLOR, GridView.PREDATOR_COLOR, predators / (double) (prey + predators));
+        // square root keeps sparse populations visible
+        return blend(GridView.EMPTY_COLOR, animals, Math.sqrt((prey + predators) / (double) area)).getRGB();
+    }
+
+    /**
+     * Blends two colors.
+     *
+     * @param from  color for a share of 0
+     * @param to    color for a share of 1
+     * @param share share of the second color, between 0 and 1
+     * @return blended color
+     */
+    private static Color blend(Color from, Color to, double share) {
+        return new Color((int) Math.round(from.getRed() + (to.getRed() - from.getRed()) * share),
+                (int) Math.round(from.getGreen() + (to.getGreen() - from.getGreen()) * share),
+                (int) Math.round(from.getBlue() + (to.getBlue() - from.getBlue()) * share));
+    }
+
+    /**
+     * Returns the packed count of the content of a cell.
+     *
+     * @param cell content of the cell
+     * @return packed count of the animal in the cell
+     */
+    private static int packed(byte cell) {
+        return switch (cell) {
+            case WorldSnapshot.PREY -> 1;
+            case WorldSnapshot.PREDATOR -> PREDATOR;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Returns the number of tile columns of a level.
+     *
+     * @param level level of the tiles
+     * @return number of columns
+     */
+    int tilesX(int level) {
+        return ((width - 1) >> level) + 1;
+    }
+
+    /**
+     * Returns the number of tile rows of a level.
+     *
+     * @param level level of the tiles
+     * @return number of rows
+     */
+    int tilesY(int level) {
+        return ((height - 1) >> level) + 1;
+    }
+}
@@ -1,5 +1,8 @@
 package org.wildloop;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
 /**
  * Represents world directions and associated displacement vectors.
  * Each direction has assigned dx and dy components defining the displacement
@@ -17,6 +20,9 @@ public enum Direction {
     /** Western direction (left), vector (-1,0) */
     WEST(-1, 0);
 
+    /** Cached array of all directions, avoiding the copy made by {@link #values()} */
+    private static final Direction[] VALUES = values();
+
     /** X component of displacement vector */
     private final int dx;
     /** Y component of displacement vector */
@@ -52,11 +58,22 @@ public enum Direction {
     }
 
     /**
-     * Returns a randomly selected direction from all available directions.
+     * Returns a randomly selected direction from all available directions,
+     * using the random generator of the current thread.
      *
      * @return random direction
      */
     public static Direction getRandom() {
-        return values()[(int) (Math.random() * values().length)];
+        return getRandom(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Returns a randomly selected direction from all available directions.
+     *
+     * @param random random generator to draw from
+     * @return random direction
+     */
+    public static Direction getRandom(RandomGenerator random) {
+        return VALUES[random.nextInt(VALUES.length)];
     }
 }
\ No newline at end of file
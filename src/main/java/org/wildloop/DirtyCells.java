@@ -0,0 +1,255 @@
+package org.wildloop;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Set of changed cells of a grid, stored as a bitset with one bit per cell in row order.
+ * Grids larger than {@link #FLAT_LIMIT} cells, such as those of {@link GridStorage#CHUNKED} worlds,
+ * store the bits in blocks of 64 x 64 cells allocated when a cell of the block is first marked,
+ * so the memory of the set follows the number of changed cells instead of the area.
+ * <p>
+ * {@link World} marks every cell whose content changes and exposes the cells changed during the
+ * last turn through {@link World#getChangedCells()}, so renderers and remote viewers can redraw
+ * only those cells. Cells can be marked concurrently, as the concurrent tick modes do; every
+ * other operation must not run at the same time as marking.
+ *
+ * @see World#getChangedCells()
+ * @see WorldSnapshot#getChanges()
+ */
+public final class DirtyCells {
+    /** Handle updating words of the bitset atomically */
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+    /** Largest number of cells of a grid whose bits are stored in a single array */
+    static final long FLAT_LIMIT = 1L << 27;
+
+    /** Width of the grid */
+    private final int width;
+    /** Height of the grid */
+    private final int height;
+    /** Bits of the cells, cell {@code (x, y)} at index {@code y * width + x}, or {@code null} for blocks */
+    private final long[] words;
+    /** Blocks of 64 x 64 cells, one word per row of a block, or {@code null} for a single array */
+    private ChunkedGrid<long[]> blocks;
+
+    /**
+     * Visitor of the cells of a set.
+     */
+    @FunctionalInterface
+    public interface CellVisitor {
+        /**
+         * Visits a cell.
+         *
+         * @param x column of the cell
+         * @param y row of the cell
+         */
+        void visit(int x, int y);
+    }
+
+    /**
+     * Creates an empty set for a grid.
+     *
+     * @param width  width of the grid
+     * @param height height of the grid
+     * @throws IllegalArgumentException if a dimension is not positive
+     */
+    public DirtyCells(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Grid dimensions must be positive");
+        }
+        this.width = width;
+        this.height = height;
+        if ((long) width * height <= FLAT_LIMIT) {
+            this.words = new long[(int) (((long) width * height + 63) >>> 6)];
+        } else {
+            this.words = null;
+            this.blocks = newBlocks();
+        }
+    }
+
+    /**
+     * Returns the width of the grid.
+     * @return number of columns
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the grid.
+     * @return number of rows
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Marks a cell as changed. May be called by several threads at once.
+     *
+     * @param x column of the cell
+     * @param y row of the cell
+     */
+    void mark(int x, int y) {
+        long[] array = words;
+        int word;
+        long bit;
+        if (array != null) {
+            int index = y * width + x;
+            word = index >>> 6;
+            bit = 1L << index;
+        } else {
+            array = blocks.get(x >> 6, y >> 6);
+            if (array == null) {
+                array = blocks.setIfAbsent(x >> 6, y >> 6, new long[64]);
+            }
+            word = y & 63;
+            bit = 1L << x;
+        }
+        if ((array[word] & bit) == 0) {
+            WORDS.getAndBitwiseOr(array, word, bit);
+        }
+    }
+
+    /**
+     * Checks if a cell is marked as changed.
+     *
+     * @param x column of the cell
+     * @param y row of the cell
+     * @return true if the cell changed
+     */
+    public boolean isChanged(int x, int y) {
+        if (words == null) {
+            long[] block = blocks.get(x >> 6, y >> 6);
+            return block != null && (block[y & 63] & (1L << x)) != 0;
+        }
+        int index = y * width + x;
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Checks if no cell is marked.
+     * @return true if no cell changed
+     */
+    public boolean isEmpty() {
+        if (words == null) {
+            return count() == 0;
+        }
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of changed cells.
+     * @return number of marked cells
+     */
+    public int count() {
+        int[] count = {0};
+        if (words == null) {
+            blocks.forEach(0, Integer.MAX_VALUE, (bx, by, block) -> {
+                for (long word : block) {
+                    count[0] += Long.bitCount(word);
+                }
+            });
+            return count[0];
+        }
+        for (long word : words) {
+            count[0] += Long.bitCount(word);
+        }
+        return count[0];
+    }
+
+    /**
+     * Visits every changed cell, in row order for grids of up to {@link #FLAT_LIMIT} cells
+     * and block by block for larger grids.
+     *
+     * @param visitor visitor receiving the coordinates of the cells
+     */
+    public void forEach(CellVisitor visitor) {
+        if (words == null) {
+            blocks.forEach(0, Integer.MAX_VALUE, (bx, by, block) -> {
+                for (int row = 0; row < 64; row++) {
+                    long bits = block[row];
+                    while (bits != 0) {
+                        visitor.visit((bx << 6) + Long.numberOfTrailingZeros(bits), (by << 6) + row);
+                        bits &= bits - 1;
+                    }
+                }
+            });
+            return;
+        }
+        for (int word = 0; word < words.length; word++) {
+            long bits = words[word];
+            while (bits != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                visitor.visit(index % width, index / width);
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    /**
+     * Marks every cell marked in another set of the same grid.
+     *
+     * @param other set to add
+     * @throws IllegalArgumentException if the sets belong to grids of different dimensions
+     */
+    public void addAll(DirtyCells other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Sets of grids with different dimensions cannot be combined");
+        }
+        if (words == null) {
+            other.blocks.forEach(0, Integer.MAX_VALUE, (bx, by, block) -> {
+                long[] target = blocks.get(bx, by);
+                if (target == null) {
+                    blocks.set(bx, by, block.clone());
+                } else {
+                    for (int row = 0; row < 64; row++) {
+                        target[row] |= block[row];
+                    }
+                }
+            });
+            return;
+        }
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /**
+     * Returns an independent copy of this set.
+     * @return copy with the same cells marked
+     */
+    public DirtyCells copy() {
+        DirtyCells copy = new DirtyCells(width, height);
+        if (words == null) {
+            copy.addAll(this);
+        } else {
+            System.arraycopy(words, 0, copy.words, 0, words.length);
+        }
+        return copy;
+    }
+
+    /**
+     * Unmarks every cell. Blocks of large grids are released.
+     */
+    public void clear() {
+        if (words == null) {
+            blocks = newBlocks();
+        } else {
+            Arrays.fill(words, 0);
+        }
+    }
+
+    /**
+     * Creates an empty grid of blocks covering the grid of cells.
+     * @return grid of blocks of 64 x 64 cells
+     */
+    private ChunkedGrid<long[]> newBlocks() {
+        return new ChunkedGrid<>(((width - 1) >> 6) + 1, ((height - 1) >> 6) + 1);
+    }
+}
@@ -0,0 +1,238 @@
+package org.wildloop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs the same scenario many times with different seeds, for Monte-Carlo estimates
+ * such as extinction probabilities or cycle periods.
+ * <p>
+ * Runs are independent {@link World} instances created without logging. They are executed
+ * by a fixed number of worker threads, each taking the next run index as soon as it finishes
+ * the previous one, so at most one world per thread exists at a time. Each run stops on
+ * extinction, a full grid or the turn limit, see {@link RunResult#simulate(World, int, int)}.
+ * <p>
+ * The seed of every run is derived from the ensemble seed and the run index, and results are
+ * folded into {@link EnsembleStatistics} in index order. The statistics therefore depend only on
+ * the ensemble seed and the number of runs, not on the number of threads.
+ *
+ * @see RunResult
+ * @see EnsembleStatistics
+ * @see HeadlessRunner
+ */
+public class Ensemble {
+    /** Width of every world */
+    private final int width;
+    /** Height of every world */
+    private final int height;
+    /** Initial prey count of every world */
+    private final int preyCount;
+    /** Initial predator count of every world */
+    private final int predatorCount;
+    /** Maximum number of turns of a run */
+    private final int maxTurns;
+    /** Parameters of the animals */
+    private final WorldConfig config;
+
+    /**
+     * Creates an ensemble of worlds with the given scenario.
+     *
+     * @param width         width of every world
+     * @param height        height of every world
+     * @param preyCount     initial prey count
+     * @param predatorCount initial predator count
+     * @param maxTurns      maximum number of turns of a run
+     * @param config        parameters of the animals
+     * @throws IllegalArgumentException if a dimension is not positive, a count is negative
+     *                                  or the configuration is null
+     */
+    public Ensemble(int width, int height, int preyCount, int predatorCount, int maxTurns, WorldConfig config) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("World dimensions must be positive");
+        }
+        if (preyCount < 0 || predatorCount < 0 || maxTurns < 0) {
+            throw new IllegalArgumentException("Animal counts and turn limit cannot be negative");
+        }
+        if (config == null) {
+            throw new IllegalArgumentException("Configuration cannot be null");
+        }
+        this.width = width;
+        this.height = height;
+        this.preyCount = preyCount;
+        this.predatorCount = predatorCount;
+        this.maxTurns = maxTurns;
+        this.config = config;
+    }
+
+    /**
+     * Executes the given number of runs and aggregates their results.
+     *
+     * @param seed    seed from which the seeds of the runs are derived
+     * @param runs    number of runs
+     * @param threads number of worker threads
+     * @return aggregated results
+     * @throws IllegalArgumentException if the number of runs is negative or the number of threads is not positive
+     */
+    public EnsembleStatistics run(long seed, int runs, int threads) {
+        return run(seed, runs, threads, null);
+    }
+
+    /**
+     * Executes the given number of runs and aggregates their results, passing each result
+     * to a listener. The listener is called in run index order, one result at a time,
+     * from one of the worker threads.
+     *
+     * @param seed     seed from which the seeds of the runs are derived
+     * @param runs     number of runs
+     * @param threads  number of worker threads
+     * @param listener listener receiving each result, or {@code null}
+     * @return aggregated results
+     * @throws IllegalArgumentException if the number of runs is negative or the number of threads is not positive
+     * @throws IllegalStateException    if the calling thread is interrupted while waiting for the runs
+     */
+    public EnsembleStatistics run(long seed, int runs, int threads, Consumer<RunResult> listener) {
+        if (runs < 0) {
+            throw new IllegalArgumentException("Number of runs cannot be negative");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+
+        Schedule schedule = new Schedule(seed, runs, listener);
+        int workers = Math.min(threads, Math.max(1, runs));
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> work(schedule)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            schedule.cancel();
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Ensemble run failed", e.getCause());
+        } catch (InterruptedException e) {
+            schedule.cancel();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for ensemble runs", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return schedule.statistics;
+    }
+
+    /**
+     * Executes a single run of the scenario.
+     *
+     * @param index index of the run
+     * @param seed  seed of the world
+     * @return result of the run
+     */
+    public RunResult runSingle(int index, long seed) {
+        World world = new World(width, height, false, seed, config, false,
+                GridStorage.choose(width, height, (long) preyCount + predatorCount));
+        world.populate(preyCount, predatorCount);
+        return RunResult.simulate(world, index, maxTurns);
+    }
+
+    /**
+     * Executes runs taken from the schedule until none are left.
+     * A failing run cancels the remaining runs of the schedule.
+     *
+     * @param schedule schedule of the ensemble
+     */
+    private void work(Schedule schedule) {
+        long[] next = new long[2];
+        try {
+            while (schedule.next(next)) {
+                schedule.complete(runSingle((int) next[0], next[1]));
+            }
+        } catch (RuntimeException | Error e) {
+            schedule.cancel();
+            throw e;
+        }
+    }
+
+    /**
+     * Hands out run indices and seeds, and aggregates results in index order.
+     */
+    private static final class Schedule {
+        /** Number of runs */
+        private final int runs;
+        /** Generator of run seeds, drawn in index order */
+        private final SplittableRandom seeds;
+        /** Listener receiving each result, or {@code null} */
+        private final Consumer<RunResult> listener;
+        /** Aggregated results */
+        private final EnsembleStatistics statistics = new EnsembleStatistics();
+        /** Results that finished before some run with a lower index */
+        private final TreeMap<Integer, RunResult> pending = new TreeMap<>();
+        /** Index of the next run to hand out */
+        private int nextRun;
+        /** Index of the next result to aggregate */
+        private int nextResult;
+
+        /**
+         * Creates a schedule of the given number of runs.
+         *
+         * @param seed     seed from which run seeds are derived
+         * @param runs     number of runs
+         * @param listener listener receiving each result, or {@code null}
+         */
+        Schedule(long seed, int runs, Consumer<RunResult> listener) {
+            this.runs = runs;
+            this.seeds = new SplittableRandom(seed);
+            this.listener = listener;
+        }
+
+        /**
+         * Takes the next run.
+         *
+         * @param out array receiving the index and the seed of the run
+         * @return false if no runs are left
+         */
+        synchronized boolean next(long[] out) {
+            if (nextRun >= runs) {
+                return false;
+            }
+            out[0] = nextRun++;
+            out[1] = seeds.nextLong();
+            return true;
+        }
+
+        /**
+         * Stops handing out runs.
+         */
+        synchronized void cancel() {
+            nextRun = runs;
+        }
+
+        /**
+         * Records a finished run and aggregates every result whose predecessors are all finished.
+         *
+         * @param result result of the run
+         */
+        synchronized void complete(RunResult result) {
+            pending.put(result.index(), result);
+            while (!pending.isEmpty() && pending.firstKey() == nextResult) {
+                RunResult next = pending.pollFirstEntry().getValue();
+                statistics.add(next);
+                if (listener != null) {
+                    listener.accept(next);
+                }
+                nextResult++;
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.wildloop;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Aggregated results of the runs of an {@link Ensemble}.
+ * <p>
+ * Each {@link RunResult} is folded into the statistics as soon as it is available and is not kept,
+ * so memory does not grow with the number of runs. Results are added in the order of their run
+ * index, which makes the statistics independent of how runs were scheduled.
+ *
+ * @see Ensemble
+ * @see RunResult
+ * @see Statistic
+ */
+public final class EnsembleStatistics {
+    /** Number of runs added */
+    private int runs;
+    /** Number of runs per end condition */
+    private final Map<RunResult.EndReason, Integer> endReasons = new EnumMap<>(RunResult.EndReason.class);
+    /** Number of runs in which prey died out */
+    private int preyExtinctions;
+    /** Number of runs in which predators died out */
+    private int predatorExtinctions;
+    /** Number of turns executed per run */
+    private final Statistic turns = new Statistic();
+    /** Prey count at the end of each run */
+    private final Statistic finalPrey = new Statistic();
+    /** Predator count at the end of each run */
+    private final Statistic finalPredators = new Statistic();
+    /** Largest prey count of each run */
+    private final Statistic peakPrey = new Statistic();
+    /** Largest predator count of each run */
+    private final Statistic peakPredators = new Statistic();
+    /** Turn of prey extinction in runs where prey died out */
+    private final Statistic preyExtinctTurn = new Statistic();
+    /** Turn of predator extinction in runs where predators died out */
+    private final Statistic predatorsExtinctTurn = new Statistic();
+    /** Prey cycle period in runs where at least two peaks were observed */
+    private final Statistic preyCyclePeriod = new Statistic();
+
+    /**
+     * Folds the result of a run into the statistics.
+     * @param result result to add
+     */
+    void add(RunResult result) {
+        runs++;
+        endReasons.merge(result.endReason(), 1, Integer::sum);
+        turns.add(result.turns());
+        finalPrey.add(result.finalPrey());
+        finalPredators.add(result.finalPredators());
+        peakPrey.add(result.peakPrey());
+        peakPredators.add(result.peakPredators());
+        if (result.preyExtinct()) {
+            preyExtinctions++;
+            preyExtinctTurn.add(result.preyExtinctTurn());
+        }
+        if (result.predatorsExtinct()) {
+            predatorExtinctions++;
+            predatorsExtinctTurn.add(result.predatorsExtinctTurn());
+        }
+        if (!Double.isNaN(result.preyCyclePeriod())) {
+            preyCyclePeriod.add(result.preyCyclePeriod());
+        }
+    }
+
+    /**
+     * Returns the number of runs aggregated.
+     * @return number of runs
+     */
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Returns the number of runs that ended because of the given condition.
+     *
+     * @param reason end condition
+     * @return number of runs
+     */
+    public int getEndCount(RunResult.EndReason reason) {
+        return endReasons.getOrDefault(reason, 0);
+    }
+
+    /**
+     * Returns the fraction of runs in which prey died out.
+     * @return extinction probability estimate, or {@link Double#NaN} if there were no runs
+     */
+    public double getPreyExtinctionProbability() {
+        return runs == 0 ? Double.NaN : (double) preyExtinctions / runs;
+    }
+
+    /**
+     * Returns the fraction of runs in which predators died out.
+     * @return extinction probability estimate, or {@link Double#NaN} if there were no runs
+     */
+    public double getPredatorExtinctionProbability() {
+        return runs == 0 ? Double.NaN : (double) predatorExtinctions / runs;
+    }
+
+    /**
+     * Returns the statistics of the number of turns executed per run.
+     * @return turn statistics
+     */
+    public Statistic getTurns() {
+        return turns;
+    }
+
+    /**
+     * Returns the statistics of the prey count at the end of each run.
+     * @return final prey statistics
+     */
+    public Statistic getFinalPrey() {
+        return finalPrey;
+    }
+
+    /**
+     * Returns the statistics of the predator count at the end of each run.
+     * @return final predator statistics
+     */
+    public Statistic getFinalPredators() {
+        return finalPredators;
+    }
+
+    /**
+     * Returns the statistics of the largest prey count of each run.
+     * @return peak prey statistics
+     */
+    public Statistic getPeakPrey() {
+        return peakPrey;
+    }
+
+    /**
+     * Returns the statistics of the largest predator count of each run.
+     * @return peak predator statistics
+     */
+    public Statistic getPeakPredators() {
+        return peakPredators;
+    }
+
+    /**
+     * Returns the statistics of the turn of prey extinction, over runs in which prey died out.
+     * @return prey extinction turn statistics
+     */
+    public Statistic getPreyExtinctTurn() {
+        return preyExtinctTurn;
+    }
+
+    /**
+     * Returns the statistics of the turn of predator extinction, over runs in which predators died out.
+     * @return predator extinction turn statistics
+     */
+    public Statistic getPredatorsExtinctTurn() {
+        return predatorsExtinctTurn;
+    }
+
+    /**
+     * Returns the statistics of the prey cycle period, over runs with at least two prey peaks.
+     * @return prey cycle period statistics
+     */
+    public Statistic getPreyCyclePeriod() {
+        return preyCyclePeriod;
+    }
+}
@@ -16,6 +16,11 @@ import java.util.Objects;
  * @see LogExporter
  */
 public final class Event {
+    /** Format of event timestamps in text logs */
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    /** Encoders used by {@link #toString()}, one per thread */
+    private static final ThreadLocal<TextLogEncoder> TEXT_ENCODER = ThreadLocal.withInitial(TextLogEncoder::new);
+
     /** Type of the event */
     private final EventType type;
     /** The world in which the event occurs */
@@ -24,6 +29,10 @@ public final class Event {
     private final Object[] params;
     /** Timestamp when the event occurred */
     private final Instant timestamp;
+    /** Turn of the world when the event occurred */
+    private final int turn;
+    /** Positions of animal parameters recorded when the event was created, or {@code null} to use current positions */
+    private Position[] positions;
 
     /**
      * Constructs an Event that represents an occurrence in the simulation world.
@@ -42,19 +51,176 @@ public final class Event {
         type.validate(params);
         this.params = params;
         this.timestamp = Instant.now();
+        this.turn = world != null ? world.getTurn() : 0;
+    }
+
+    /**
+     * Logs an event without parameters.
+     * Nothing is created if the world is not logged or no listener wants the event type.
+     *
+     * @param type  the type of the event to log; cannot be null
+     * @param world the world in which the event occurs; can be null if the event is not world-specific
+     */
+    public static void log(EventType type, World world) {
+        if (isEnabled(type, world)) {
+            dispatch(new Event(type, world));
+        }
+    }
+
+    /**
+     * Logs an event with one parameter.
+     * Nothing is created if the world is not logged or no listener wants the event type.
+     *
+     * @param type  the type of the event to log; cannot be null
+     * @param world the world in which the event occurs; can be null if the event is not world-specific
+     * @param param parameter related to the event
+     */
+    public static void log(EventType type, World world, Object param) {
+        if (isEnabled(type, world)) {
+            dispatch(new Event(type, world, param));
+        }
+    }
+
+    /**
+     * Logs an event with two parameters.
+     * Nothing is created if the world is not logged or no listener wants the event type.
+     *
+     * @param type   the type of the event to log; cannot be null
+     * @param world  the world in which the event occurs; can be null if the event is not world-specific
+     * @param first  first parameter related to the event
+     * @param second second parameter related to the event
+     */
+    public static void log(EventType type, World world, Object first, Object second) {
+        if (isEnabled(type, world)) {
+            dispatch(new Event(type, world, first, second));
+        }
+    }
+
+    /**
+     * Logs an event with three parameters.
+     * Nothing is created if the world is not logged or no listener wants the event type.
+     *
+     * @param type   the type of the event to log; cannot be null
+     * @param world  the world in which the event occurs; can be null if the event is not world-specific
+     * @param first  first parameter related to the event
+     * @param second second parameter related to the event
+     * @param third  third parameter related to the event
+     */
+    public static void log(EventType type, World world, Object first, Object second, Object third) {
+        if (isEnabled(type, world)) {
+            dispatch(new Event(type, world, first, second, third));
+        }
     }
 
     /**
      * Logs an event with the specified type and world.
+     * Events of worlds created without logging and events of types no listener wants are discarded.
+     * Call sites with up to three parameters resolve to the fixed-arity overloads,
+     * which skip even the parameter array in that case.
+     *
      * @param type   the type of the event to log; cannot be null
      * @param world  the world in which the event occurs; can be null if the event is not world-specific
      * @param params additional parameters related to the event; can be null or empty
      */
     public static void log(EventType type, World world, Object... params) {
-        Event event = new Event(type, world, params);
+        if (isEnabled(type, world)) {
+            dispatch(new Event(type, world, params));
+        }
+    }
+
+    /**
+     * Checks if an event of the given type logged in the given world would reach any listener.
+     * Call sites can use it to skip work needed only to describe an event.
+     *
+     * @param type  the type of the event; cannot be null
+     * @param world the world in which the event occurs; can be null if the event is not world-specific
+     * @return true if the event would be delivered, false otherwise
+     */
+    public static boolean isEnabled(EventType type, World world) {
+        return EventLogger.isEnabled(type) && (world == null || world.isLogged());
+    }
+
+    /**
+     * Buffers the event in the world if a concurrent turn is running, otherwise publishes it immediately.
+     * @param event event to dispatch
+     */
+    private static void dispatch(Event event) {
+        if (event.world != null && event.world.deferEvent(event)) {
+            return;
+        }
         EventLogger.publish(event);
     }
 
+    /**
+     * Returns the type of the event.
+     * @return event type
+     */
+    public EventType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the world in which the event occurred.
+     * @return world of the event, or {@code null} for a system event
+     */
+    World getWorld() {
+        return world;
+    }
+
+    /**
+     * Returns the turn of the world when the event was created.
+     * @return turn of the event, 0 for a system event
+     */
+    int getTurn() {
+        return turn;
+    }
+
+    /**
+     * Returns the time of the event in milliseconds since the epoch.
+     * @return timestamp of the event
+     */
+    long getEpochMillis() {
+        return timestamp.toEpochMilli();
+    }
+
+    /**
+     * Returns a parameter of the event.
+     *
+     * @param index index of the parameter
+     * @return parameter at the given index
+     */
+    Object getParam(int index) {
+        return params[index];
+    }
+
+    /**
+     * Returns the position of an animal parameter, as recorded by {@link #capturePositions()}
+     * or, if positions were not recorded, the current position of the animal.
+     *
+     * @param index index of an animal parameter
+     * @return position of the animal
+     */
+    Position getPosition(int index) {
+        return positions != null ? positions[index] : ((Animal) params[index]).getPosition();
+    }
+
+    /**
+     * Records the current positions of the animals involved in the event, so that its description
+     * reflects the time of the event even if the event is published later or described on another thread.
+     * Positions that were already recorded are kept.
+     */
+    void capturePositions() {
+        if (positions != null) {
+            return;
+        }
+        positions = new Position[params.length];
+        for (int i = 0; i < params.length; i++) {
+            if (params[i] instanceof Animal animal) {
+                positions[i] = animal.getPosition();
+            }
+        }
+    }
+
     /**
      * Converts the Event object to a string representation.
      * The string includes the timestamp, event type, and a formatted description
@@ -65,19 +231,34 @@ public final class Event {
      */
     @Override
     public String toString() {
-        String timestamp = DateTimeFormatter
-                .ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
-                .format(LocalDateTime.ofInstant(this.timestamp, ZoneId.systemDefault()));
+        TextLogEncoder encoder = TEXT_ENCODER.get();
+        encoder.encode(this);
+        return encoder.getText();
+    }
 
-        if (world != null) {
+    /**
+     * Formats an event as a line of a text log. This is the reference definition of the text format:
+     * {@link #toString()} and the asynchronous log writer produce the same text through a
+     * {@link TextLogEncoder}, and binary logs are converted back to text with this method,
+     * see {@link LogConverter}.
+     *
+     * @param timestamp   time of the event
+     * @param zone        time zone in which the timestamp is written
+     * @param worldId     identifier of the world, or {@code null} for a system event
+     * @param turn        turn of the world when the event occurred
+     * @param type        type of the event
+     * @param description description of the event
+     * @return line describing the event, without a line separator
+     */
+    static String format(Instant timestamp, ZoneId zone, String worldId, int turn, EventType type, String description) {
+        String time = TIMESTAMP_FORMAT.format(LocalDateTime.ofInstant(timestamp, zone));
+
+        if (worldId != null) {
             return String.format("%s | W-%s T-%d | %s | %s",
-                    timestamp, this.world.getId(), this.world.getTurn(),
-                    this.type.name(), this.type.getDescription(this.params));
+                    time, worldId, turn, type.name(), description);
         } else {
             return String.format("%s | SYSTEM | %s | %s",
-                    timestamp, this.type.name(),
-                    this.type.getDescription(this.params));
+                    time, type.name(), description);
         }
-
     }
 }
@@ -1,7 +1,9 @@
 package org.wildloop;
 
-import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
 /**
@@ -13,17 +15,30 @@ import java.util.function.Consumer;
  * This class provides a static list of listeners, which can be registered
  * to respond to various events in the simulation. Each listener is a
  * {@code Consumer<Event>} that processes an {@link Event} when it occurs.
+ * A listener may subscribe to a subset of event types only.
+ * <p>
+ * The logger keeps a mask of event types wanted by at least one listener.
+ * {@link Event#log(EventType, World, Object)} and its overloads check the mask first,
+ * so an event nobody listens to is never created.
  *
  * @see Event
  * @see EventType
  * @see LogExporter
  */
 public class EventLogger {
-    /** A list maintaining all registered listeners for handling events */
-    private static final List<Consumer<Event>> listeners = new ArrayList<>();
+    /** Registered listeners together with the event types they receive */
+    private static final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    /** Bit mask of event types, indexed by ordinal, wanted by at least one listener */
+    private static volatile long enabledTypes;
+
+    static {
+        if (EventType.values().length > Long.SIZE) {
+            throw new IllegalStateException("Event type mask supports at most " + Long.SIZE + " event types");
+        }
+    }
 
     /**
-     * Registers a new listener to handle simulation events. The provided listener is added
+     * Registers a new listener to handle simulation events of every type. The provided listener is added
      * to the static list of listeners that are notified when an event occurs.
      * Each listener must be a {@code Consumer<Event>}, where {@link Event} contains
      * details about the occurrence in the simulation.
@@ -32,8 +47,30 @@ public class EventLogger {
      *                 If the listener is null, it will not be added to the list.
      */
     public static void subscribe(Consumer<Event> listener) {
+        subscribe(listener, EnumSet.allOf(EventType.class));
+    }
+
+    /**
+     * Registers a new listener to handle simulation events of the given types only.
+     * Events of other types are not delivered to the listener and, if no other listener
+     * wants them, are not created at all.
+     *
+     * @param listener the listener to register for handling events.
+     *                 If the listener is null, it will not be added to the list.
+     * @param types    the event types the listener receives; must not be null
+     * @throws IllegalArgumentException if the set of types is null
+     */
+    public static void subscribe(Consumer<Event> listener, Set<EventType> types) {
+        if (types == null) {
+            throw new IllegalArgumentException("Event types cannot be null");
+        }
         if (listener != null) {
-            listeners.add(listener);
+            long mask = 0;
+            for (EventType type : types) {
+                mask |= bit(type);
+            }
+            subscriptions.add(new Subscription(listener, mask));
+            updateEnabledTypes();
         }
     }
 
@@ -47,12 +84,28 @@ public class EventLogger {
      */
     public static void unsubscribe(Consumer<Event> listener) {
         if (listener != null) {
-            listeners.remove(listener);
+            for (Subscription subscription : subscriptions) {
+                if (subscription.listener().equals(listener)) {
+                    subscriptions.remove(subscription);
+                    break;
+                }
+            }
+            updateEnabledTypes();
         }
     }
 
     /**
-     * Publishes an event to all registered listeners. Each listener will
+     * Checks if at least one listener wants events of the given type.
+     *
+     * @param type event type to check
+     * @return true if events of the type are delivered to some listener, false otherwise
+     */
+    public static boolean isEnabled(EventType type) {
+        return (enabledTypes & bit(type)) != 0;
+    }
+
+    /**
+     * Publishes an event to all listeners subscribed to its type. Each listener will
      * receive the event and can process it accordingly. If the event is null,
      * an {@link IllegalArgumentException} is thrown.
      *
@@ -64,8 +117,56 @@ public class EventLogger {
         if (event == null) {
             throw new IllegalArgumentException("Event cannot be null");
         }
-        for (Consumer<Event> listener : listeners) {
-            listener.accept(event);
+        long start = Metrics.start();
+        JfrEvents.Dispatch jfr = new JfrEvents.Dispatch();
+        jfr.begin();
+        int listeners = 0;
+        long bit = bit(event.getType());
+        for (Subscription subscription : subscriptions) {
+            if ((subscription.types() & bit) != 0) {
+                subscription.listener().accept(event);
+                listeners++;
+            }
+        }
+        jfr.end();
+        if (jfr.shouldCommit()) {
+            jfr.eventType = event.getType().name();
+            jfr.listeners = listeners;
+            jfr.commit();
         }
+        if (start != Metrics.OFF) {
+            Metrics.lap(Metrics.PUBLISH, start);
+            Metrics.EVENTS.increment();
+        }
+    }
+
+    /**
+     * Returns the bit representing an event type in type masks.
+     *
+     * @param type event type
+     * @return single-bit mask of the type
+     */
+    private static long bit(EventType type) {
+        return 1L << type.ordinal();
+    }
+
+    /**
+     * Recomputes the mask of enabled event types from the registered listeners.
+     */
+    private static synchronized void updateEnabledTypes() {
+        long mask = 0;
+        for (Subscription subscription : subscriptions) {
+            mask |= subscription.types();
+        }
+        enabledTypes = mask;
+    }
+
+    /**
+     * Registered listener together with the mask of event types it receives.
+     *
+     * @param listener listener receiving events
+     * @param types    bit mask of event types, indexed by ordinal
+     */
+    private record Subscription(Consumer<Event> listener, long types) {
     }
 }
@@ -47,6 +47,8 @@ public enum EventType {
     private final String format;
     /** Event params required for the event */
     private final Class<?>[] params;
+    /** Number of animals among the params */
+    private final int animalCount;
 
     /**
      * Constructs an instance of the EventType.
@@ -57,6 +59,23 @@ public enum EventType {
     EventType(String format, Class<?>... params) {
         this.format = format;
         this.params = params;
+        int animals = 0;
+        for (Class<?> param : params) {
+            if (Animal.class.isAssignableFrom(param)) {
+                animals++;
+            }
+        }
+        this.animalCount = animals;
+    }
+
+    /**
+     * Returns the format of descriptions of this event type, with a {@code %s} placeholder
+     * for every argument of {@link #describe}.
+     *
+     * @return description format
+     */
+    String getFormat() {
+        return format;
     }
 
     /**
@@ -67,40 +86,94 @@ public enum EventType {
      * @return a string representing the formatted event description
      */
     public String getDescription(Object... params) {
+        return getDescription(params, null);
+    }
+
+    /**
+     * Generates a formatted description of the event, optionally using positions recorded
+     * when the event was created instead of the current positions of the animals.
+     *
+     * @param params    the parameters required to populate the event description format
+     * @param positions positions of animal parameters at the time of the event, indexed like
+     *                  {@code params}, or {@code null} to use current positions
+     * @return a string representing the formatted event description
+     */
+    String getDescription(Object[] params, Position[] positions) {
+        int animals = getAnimalCount();
+        return describe(
+                animals > 0 ? id(params, 0) : null, animals > 0 ? position(params, positions, 0) : null,
+                animals > 1 ? id(params, 1) : null, animals > 1 ? position(params, positions, 1) : null,
+                hasDirection() ? (Direction) params[params.length - 1] : null);
+    }
+
+    /**
+     * Generates a formatted description of the event from the identifiers and positions
+     * of the animals involved, for example when reading events back from a binary log.
+     *
+     * @param firstId         identifier of the first animal, or {@code null} if the event has no animals
+     * @param firstPosition   position of the first animal, or {@code null}
+     * @param secondId        identifier of the second animal, or {@code null} if the event has fewer animals
+     * @param secondPosition  position of the second animal, or {@code null}
+     * @param direction       direction of the event, or {@code null} if the event has none
+     * @return a string representing the formatted event description
+     */
+    String describe(String firstId, Position firstPosition, String secondId, Position secondPosition, Direction direction) {
         return switch (this) {
             case SIMULATION_START, SIMULATION_PAUSE, SIMULATION_RESUME, SIMULATION_END, SIMULATION_TURN -> format;
 
-            case DIE_ENERGY, DIE_AGE, SPAWN ->
-                String.format(format, ((Animal)params[0]).getId(), ((Animal)params[0]).getPosition().toString());
-
-            case DIE_EATEN ->
-                    String.format(format, ((Prey)params[0]).getId(), ((Prey)params[0]).getPosition().toString(), ((Predator)params[1]).getId(), ((Predator)params[1]).getPosition().toString());
+            case DIE_ENERGY, DIE_AGE, SPAWN, EAT_GRASS ->
+                String.format(format, firstId, firstPosition);
 
             case MOVE ->
-                String.format(format, ((Animal)params[0]).getId(), ((Direction)params[1]).name(), ((Animal)params[0]).getPosition().toString());
+                String.format(format, firstId, direction.name(), firstPosition);
 
-            case FLEE ->
-                String.format(format, ((Prey)params[0]).getId(), ((Prey)params[0]).getPosition().toString(),
-                        ((Predator)params[1]).getId(), ((Predator)params[1]).getPosition().toString(),
-                        ((Direction)params[2]).name());
+            case DIE_EATEN, REPRODUCE, EAT_PREY ->
+                String.format(format, firstId, firstPosition, secondId, secondPosition);
 
-            case HUNT ->
-                String.format(format, ((Predator)params[0]).getId(), ((Predator)params[0]).getPosition().toString(),
-                        ((Prey)params[1]).getId(), ((Prey)params[1]).getPosition().toString(),
-                        ((Direction)params[2]).name());
+            case FLEE, HUNT ->
+                String.format(format, firstId, firstPosition, secondId, secondPosition, direction.name());
+        };
+    }
 
-            case REPRODUCE ->
-                String.format(format, ((Animal)params[0]).getId(), ((Animal)params[0]).getPosition().toString(),
-                        ((Animal)params[1]).getId(), ((Animal)params[1]).getPosition().toString());
+    /**
+     * Returns the number of animals involved in events of this type.
+     * Animals are always the leading parameters of an event.
+     *
+     * @return number of animal parameters, from 0 to 2
+     */
+    int getAnimalCount() {
+        return animalCount;
+    }
 
-            case EAT_GRASS ->
-                String.format(format, ((Prey)params[0]).getId(), ((Prey)params[0]).getPosition().toString());
+    /**
+     * Checks if events of this type have a direction, which is always their last parameter.
+     * @return true if the event has a direction parameter
+     */
+    boolean hasDirection() {
+        return params.length > 0 && params[params.length - 1] == Direction.class;
+    }
 
-            case EAT_PREY ->
-                String.format(format, ((Predator)params[0]).getId(), ((Predator)params[0]).getPosition().toString(),
-                        ((Prey)params[1]).getId(), ((Prey)params[1]).getPosition().toString());
+    /**
+     * Returns the identifier of the animal parameter at the given index.
+     *
+     * @param params event parameters
+     * @param index  index of an animal parameter
+     * @return identifier of the animal
+     */
+    private static String id(Object[] params, int index) {
+        return ((Animal) params[index]).getId();
+    }
 
-        };
+    /**
+     * Returns the position of the animal parameter at the given index.
+     *
+     * @param params    event parameters
+     * @param positions recorded positions, or {@code null} to use the current position
+     * @param index     index of an animal parameter
+     * @return position of the animal
+     */
+    private static Position position(Object[] params, Position[] positions, int index) {
+        return positions != null ? positions[index] : ((Animal) params[index]).getPosition();
     }
 
     /**
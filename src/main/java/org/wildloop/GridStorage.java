@@ -0,0 +1,43 @@
+package org.wildloop;
+
+/**
+ * Storage of the grid of a {@link World}.
+ * <p>
+ * A dense grid holds one reference per cell, so its memory follows the area of the world and
+ * every access is a plain array read. A chunked grid allocates blocks of cells when they are
+ * first occupied and releases them when they become empty, so its memory follows the population;
+ * accesses cost a few more indirections. The spatial index and the change tracking of the world
+ * follow the same choice. {@link #choose(int, int, long)} picks the storage from the size of the
+ * world and its expected population.
+ *
+ * @see World
+ * @see ChunkedGrid
+ */
+public enum GridStorage {
+    /** One array of references covering every cell */
+    DENSE,
+    /** Blocks of cells allocated when first occupied and released when empty */
+    CHUNKED;
+
+    /** Largest number of cells of a world always stored densely */
+    static final long DENSE_CELL_LIMIT = 1L << 24;
+    /** Smallest expected share of occupied cells, as one cell in this many, for which larger worlds stay dense */
+    static final int DENSE_OCCUPANCY = 8;
+
+    /**
+     * Chooses the storage of a world. Worlds of up to {@link #DENSE_CELL_LIMIT} cells, and larger worlds
+     * expected to occupy at least one cell in {@link #DENSE_OCCUPANCY}, are dense; other worlds are chunked.
+     *
+     * @param width              width of the world
+     * @param height             height of the world
+     * @param expectedPopulation expected number of animals, or 0 if unknown
+     * @return storage suited to the world
+     */
+    public static GridStorage choose(int width, int height, long expectedPopulation) {
+        long cells = (long) width * height;
+        if (cells <= DENSE_CELL_LIMIT || expectedPopulation * DENSE_OCCUPANCY >= cells) {
+            return DENSE;
+        }
+        return CHUNKED;
+    }
+}
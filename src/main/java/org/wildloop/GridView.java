@@ -0,0 +1,508 @@
+package org.wildloop;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Component painting the grid of a {@link World} from a {@link WorldSnapshot}, used by
+ * {@link SimulationPanel} in place of one label per cell.
+ * <p>
+ * The view shows the world through a viewport that can be zoomed with the mouse wheel and panned by
+ * dragging; at the initial zoom the whole world fits the component, centered. Painting culls the cells
+ * outside the viewport: the colors of the visible cells are read from the tiles of the snapshot into
+ * an image no larger than the component, which is then scaled to square cells, so the cost of a frame
+ * depends on the size of the component and not on the size of the world, and no image of the whole
+ * world is ever kept. When cells are smaller than a pixel, the visible tiles of a {@link DensityTiles}
+ * level are painted instead, with one tile of aggregated prey and predator counts per pixel or more;
+ * the tiles follow the {@link WorldSnapshot#getChanges() changes} listed by each snapshot, so zooming
+ * out over a huge world stays as cheap as painting a small one. When cells are large enough, grid lines
+ * and the symbols of the animals are drawn over the visible cells. The view never reads the world
+ * itself, so it can be painted while the simulation thread changes the world. Clicks are mapped to
+ * cells by {@link #cellAt(Point)} with coordinate arithmetic, so the component needs a single mouse listener.
+ * <p>
+ * The density tiles take about one third of a byte per cell, so the view accepts worlds of up to
+ * {@link #MAX_CELLS} cells. Larger worlds are meant for the headless runner.
+ * <p>
+ * Like every Swing component, the view must be used on the event dispatch thread.
+ *
+ * @see SimulationPanel
+ * @see WorldSnapshot
+ */
+public class GridView extends JComponent {
+    /** Largest number of cells of a world the view can display, 16384 x 16384 */
+    public static final long MAX_CELLS = 1L << 28;
+    /** Color of empty cells */
+    static final Color EMPTY_COLOR = Color.WHITE;
+    /** Color of cells occupied by prey */
+    static final Color PREY_COLOR = Color.GREEN;
+    /** Color of cells occupied by predators */
+    static final Color PREDATOR_COLOR = Color.RED;
+    /** Color of the lines between cells */
+    private static final Color GRID_LINE_COLOR = Color.LIGHT_GRAY;
+    /** Smallest cell size in pixels at which grid lines are drawn */
+    private static final int GRID_LINE_MIN_CELL = 6;
+    /** Smallest cell size in pixels at which the symbols of the animals are drawn */
+    private static final int SYMBOL_MIN_CELL = 14;
+    /** Largest cell size in pixels reachable by zooming in */
+    private static final int MAX_CELL_SIZE = 64;
+    /** Zoom factor of one step of the mouse wheel */
+    private static final double ZOOM_STEP = 1.25;
+
+    /** Snapshot painted by the view, or {@code null} */
+    private WorldSnapshot snapshot;
+    /** Image of the visible cells or tiles with one pixel each, grown to the largest viewport painted */
+    private BufferedImage window;
+    /** Pixels of {@link #window}, row by row */
+    private int[] windowPixels;
+    /** Cell of the selected animal of the snapshot, or {@code null} */
+    private Position highlighted;
+    /** Color of the selected animal */
+    private Color highlightColor = Color.YELLOW;
+    /** Color of the selected animal when the snapshot was set */
+    private int highlightRgb;
+    /** Colors of the cell contents, indexed by the values of {@link WorldSnapshot#getCell(int, int)} */
+    private final int[] palette = {EMPTY_COLOR.getRGB(), PREY_COLOR.getRGB(), PREDATOR_COLOR.getRGB()};
+    /** Density tiles of the snapshot, built when first painted zoomed out, or {@code null} */
+    private DensityTiles tiles;
+    /** Zoom relative to the size at which the whole world fits the component, at least 1 */
+    private double zoom = 1;
+    /** Column of the world shown at the center of the component */
+    private double centerX;
+    /** Row of the world shown at the center of the component */
+    private double centerY;
+    /** Last point of the mouse while dragging */
+    private Point dragPoint;
+
+    /**
+     * Creates an empty view, zoomed by the mouse wheel and panned by dragging.
+     */
+    public GridView() {
+        setOpaque(true);
+        setBackground(UIManager.getColor("Panel.background"));
+        MouseAdapter navigation = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragPoint = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragPoint != null) {
+                    pan(e.getX() - dragPoint.x, e.getY() - dragPoint.y);
+                }
+                dragPoint = e.getPoint();
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                dragPoint = null;
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoom(Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()), e.getPoint());
+            }
+        };
+        addMouseListener(navigation);
+        addMouseMotionListener(navigation);
+        addMouseWheelListener(navigation);
+    }
+
+    /**
+     * Sets the snapshot to paint and schedules a repaint. Density tiles already built are updated
+     * from the changed cells if the snapshot lists its changes and has the dimensions of the snapshot
+     * painted before, and rebuilt when next needed otherwise. A snapshot with other dimensions resets the viewport.
+     *
+     * @param snapshot snapshot to paint, or {@code null} for an empty view
+     * @throws IllegalArgumentException if the snapshot has more than {@link #MAX_CELLS} cells
+     */
+    public void setSnapshot(WorldSnapshot snapshot) {
+        if (snapshot != null && (long) snapshot.getWidth() * snapshot.getHeight() > MAX_CELLS) {
+            throw new IllegalArgumentException("World of " + snapshot.getWidth() + "x" + snapshot.getHeight()
+                    + " cells is too large to display");
+        }
+        WorldSnapshot previous = this.snapshot;
+        boolean sameSize = previous != null && snapshot != null
+                && previous.getWidth() == snapshot.getWidth() && previous.getHeight() == snapshot.getHeight();
+        this.snapshot = snapshot;
+        if (tiles != null && sameSize && snapshot.getChanges() != null) {
+            snapshot.getChanges().forEach((x, y) -> tiles.change(x, y, previous.getCell(x, y), snapshot.getCell(x, y)));
+        } else {
+            tiles = null;
+        }
+        WorldSnapshot.AnimalInfo selected = snapshot != null ? snapshot.getSelected() : null;
+        highlighted = selected != null ? selected.position() : null;
+        highlightRgb = highlightColor.getRGB();
+        if (snapshot != null && !sameSize) {
+            resetView();
+        }
+        repaint();
+    }
+
+    /**
+     * Returns the snapshot painted by the view.
+     * @return snapshot, or {@code null}
+     */
+    public WorldSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Changes the color of the selected animal. Takes effect with the next snapshot.
+     * @param color highlight color
+     */
+    public void setHighlightColor(Color color) {
+        this.highlightColor = color;
+    }
+
+    /**
+     * Returns the image of the visible cells or tiles, growing it if it is smaller than requested.
+     *
+     * @param columns number of visible columns
+     * @param rows    number of visible rows
+     * @return image of at least the requested size; only its top left part is painted
+     */
+    private BufferedImage window(int columns, int rows) {
+        if (window == null || window.getWidth() < columns || window.getHeight() < rows) {
+            int width = window == null ? columns : Math.max(columns, window.getWidth());
+            int height = window == null ? rows : Math.max(rows, window.getHeight());
+            window = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            windowPixels = ((DataBufferInt) window.getRaster().getDataBuffer()).getData();
+        }
+        return window;
+    }
+
+    /**
+     * Writes the colors of the visible cells into the window image, reading the tiles of the snapshot
+     * overlapping them. Cells of empty tiles are filled with the empty color.
+     *
+     * @param visible visible cells
+     */
+    private void renderCells(Rectangle visible) {
+        int stride = window(visible.width, visible.height).getWidth();
+        int endX = visible.x + visible.width;
+        int endY = visible.y + visible.height;
+        for (int ty = visible.y >> CellTiles.TILE_SHIFT; ty <= (endY - 1) >> CellTiles.TILE_SHIFT; ty++) {
+            for (int tx = visible.x >> CellTiles.TILE_SHIFT; tx <= (endX - 1) >> CellTiles.TILE_SHIFT; tx++) {
+                byte[] tile = snapshot.tile(tx, ty);
+                // tiles at the edges of the viewport may be partly visible
+                int firstX = Math.max(visible.x, tx << CellTiles.TILE_SHIFT);
+                int firstY = Math.max(visible.y, ty << CellTiles.TILE_SHIFT);
+                int lastX = Math.min(endX, (tx + 1) << CellTiles.TILE_SHIFT);
+                int lastY = Math.min(endY, (ty + 1) << CellTiles.TILE_SHIFT);
+                for (int y = firstY; y < lastY; y++) {
+                    int row = (y - visible.y) * stride - visible.x;
+                    for (int x = firstX; x < lastX; x++) {
+                        windowPixels[row + x] = palette[tile == null ? WorldSnapshot.EMPTY : tile[CellTiles.index(x, y)]];
+                    }
+                }
+            }
+        }
+        if (highlighted != null && visible.contains(highlighted.x(), highlighted.y())) {
+            windowPixels[(highlighted.y() - visible.y) * stride + highlighted.x() - visible.x] = highlightRgb;
+        }
+    }
+
+    /**
+     * Writes the colors of the visible density tiles of a level into the window image.
+     *
+     * @param level   level of the tiles
+     * @param visible visible tiles
+     */
+    private void renderTiles(int level, Rectangle visible) {
+        int stride = window(visible.width, visible.height).getWidth();
+        for (int ty = visible.y; ty < visible.y + visible.height; ty++) {
+            int row = (ty - visible.y) * stride - visible.x;
+            for (int tx = visible.x; tx < visible.x + visible.width; tx++) {
+                windowPixels[row + tx] = tiles.color(level, tx, ty);
+            }
+        }
+    }
+
+    /**
+     * Returns the color in which a cell is painted by the last snapshot when cells are at least one pixel large.
+     *
+     * @param x column of the cell
+     * @param y row of the cell
+     * @return RGB color of the cell
+     * @throws IllegalStateException if the view has no snapshot
+     */
+    int getCellColor(int x, int y) {
+        if (snapshot == null) {
+            throw new IllegalStateException("View has no snapshot");
+        }
+        if (highlighted != null && highlighted.x() == x && highlighted.y() == y) {
+            return highlightRgb;
+        }
+        return palette[snapshot.getCell(x, y)];
+    }
+
+    /**
+     * Returns the zoom of the viewport.
+     * @return zoom relative to the size at which the whole world fits the component, at least 1
+     */
+    public double getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Zooms the viewport, keeping the cell under a point of the component in place. The zoom
+     * stays between fitting the whole world and cells of {@value #MAX_CELL_SIZE} pixels.
+     *
+     * @param factor factor multiplying the zoom, above 1 to zoom in
+     * @param anchor point of the component staying in place
+     */
+    public void zoom(double factor, Point anchor) {
+        if (snapshot == null || getWidth() == 0 || getHeight() == 0) {
+            return;
+        }
+        double cellSize = cellSize();
+        double anchorX = (anchor.x - originX(cellSize)) / cellSize;
+        double anchorY = (anchor.y - originY(cellSize)) / cellSize;
+        double fit = fitCellSize();
+        zoom = Math.max(1, Math.min(Math.max(1, MAX_CELL_SIZE / fit), zoom * factor));
+        cellSize = fit * zoom;
+        centerX = clampCenter(anchorX - (anchor.x - getWidth() / 2.0) / cellSize, snapshot.getWidth(), cellSize, getWidth());
+        centerY = clampCenter(anchorY - (anchor.y - getHeight() / 2.0) / cellSize, snapshot.getHeight(), cellSize, getHeight());
+        repaint();
+    }
+
+    /**
+     * Moves the viewport so that the world follows the mouse. The viewport does not leave the world.
+     *
+     * @param dx horizontal distance in pixels
+     * @param dy vertical distance in pixels
+     */
+    public void pan(int dx, int dy) {
+        if (snapshot == null || getWidth() == 0 || getHeight() == 0) {
+            return;
+        }
+        double cellSize = cellSize();
+        centerX = clampCenter(centerX - dx / cellSize, snapshot.getWidth(), cellSize, getWidth());
+        centerY = clampCenter(centerY - dy / cellSize, snapshot.getHeight(), cellSize, getHeight());
+        repaint();
+    }
+
+    /**
+     * Zooms out so that the whole world fits the component, centered.
+     */
+    public void resetView() {
+        zoom = 1;
+        if (snapshot != null) {
+            centerX = snapshot.getWidth() / 2.0;
+            centerY = snapshot.getHeight() / 2.0;
+        }
+        repaint();
+    }
+
+    /**
+     * Returns the cell at a point of the component.
+     *
+     * @param point point in the coordinates of the component
+     * @return position of the cell, or {@code null} if the point is outside the grid or the view has no snapshot
+     */
+    public Position cellAt(Point point) {
+        if (snapshot == null || getWidth() == 0 || getHeight() == 0) {
+            return null;
+        }
+        double cellSize = cellSize();
+        int x = (int) Math.floor((point.x - originX(cellSize)) / cellSize);
+        int y = (int) Math.floor((point.y - originY(cellSize)) / cellSize);
+        if (x < 0 || x >= snapshot.getWidth() || y < 0 || y >= snapshot.getHeight()) {
+            return null;
+        }
+        return new Position(x, y);
+    }
+
+    /**
+     * Returns the size of a square cell that fits the whole world into the component.
+     * @return cell size in pixels, possibly below one for worlds larger than the component
+     */
+    private double fitCellSize() {
+        return Math.min(getWidth() / (double) snapshot.getWidth(), getHeight() / (double) snapshot.getHeight());
+    }
+
+    /**
+     * Returns the size of a cell at the current zoom.
+     * @return cell size in pixels
+     */
+    private double cellSize() {
+        return fitCellSize() * zoom;
+    }
+
+    /**
+     * Returns the horizontal position of the left edge of the world in the component.
+     *
+     * @param cellSize size of a cell in pixels
+     * @return position in pixels, negative if the world extends past the left edge of the component
+     */
+    private double originX(double cellSize) {
+        return getWidth() / 2.0 - clampCenter(centerX, snapshot.getWidth(), cellSize, getWidth()) * cellSize;
+    }
+
+    /**
+     * Returns the vertical position of the top edge of the world in the component.
+     *
+     * @param cellSize size of a cell in pixels
+     * @return position in pixels, negative if the world extends past the top edge of the component
+     */
+    private double originY(double cellSize) {
+        return getHeight() / 2.0 - clampCenter(centerY, snapshot.getHeight(), cellSize, getHeight()) * cellSize;
+    }
+
+    /**
+     * Limits the center of the viewport along one axis so that the viewport does not leave the world,
+     * or centers the world if it is smaller than the component.
+     *
+     * @param center   requested center in cells
+     * @param cells    number of cells of the world along the axis
+     * @param cellSize size of a cell in pixels
+     * @param size     size of the component along the axis in pixels
+     * @return center in cells
+     */
+    private static double clampCenter(double center, int cells, double cellSize, int size) {
+        double half = size / 2.0 / cellSize;
+        if (cells <= 2 * half) {
+            return cells / 2.0;
+        }
+        return Math.max(half, Math.min(cells - half, center));
+    }
+
+    /**
+     * Paints the visible part of the world scaled to the component: the visible cells, or the visible
+     * density tiles when cells are smaller than a pixel, and grid lines and symbols of the visible
+     * cells when cells are large enough.
+     *
+     * @param g graphics context
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        if (snapshot == null || getWidth() == 0 || getHeight() == 0) {
+            return;
+        }
+        double cellSize = cellSize();
+        double originX = originX(cellSize);
+        double originY = originY(cellSize);
+        // cells intersecting the component, end exclusive
+        int firstX = Math.max(0, (int) Math.floor(-originX / cellSize));
+        int firstY = Math.max(0, (int) Math.floor(-originY / cellSize));
+        int endX = Math.min(snapshot.getWidth(), (int) Math.ceil((getWidth() - originX) / cellSize));
+        int endY = Math.min(snapshot.getHeight(), (int) Math.ceil((getHeight() - originY) / cellSize));
+        if (firstX >= endX || firstY >= endY) {
+            return;
+        }
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            int level = DensityTiles.levelFor(cellSize);
+            if (level == 0) {
+                renderCells(new Rectangle(firstX, firstY, endX - firstX, endY - firstY));
+                g2.drawImage(window, pixel(originX, firstX, cellSize), pixel(originY, firstY, cellSize),
+                        pixel(originX, endX, cellSize), pixel(originY, endY, cellSize),
+                        0, 0, endX - firstX, endY - firstY, null);
+            } else {
+                if (tiles == null) {
+                    tiles = new DensityTiles(snapshot);
+                }
+                int tileX = firstX >> level;
+                int tileY = firstY >> level;
+                int tileEndX = ((endX - 1) >> level) + 1;
+                int tileEndY = ((endY - 1) >> level) + 1;
+                renderTiles(level, new Rectangle(tileX, tileY, tileEndX - tileX, tileEndY - tileY));
+                // tiles at the right and bottom edges may cover fewer cells
+                g2.drawImage(window, pixel(originX, tileX << level, cellSize), pixel(originY, tileY << level, cellSize),
+                        pixel(originX, Math.min(snapshot.getWidth(), tileEndX << level), cellSize),
+                        pixel(originY, Math.min(snapshot.getHeight(), tileEndY << level), cellSize),
+                        0, 0, tileEndX - tileX, tileEndY - tileY, null);
+            }
+            if (cellSize >= GRID_LINE_MIN_CELL) {
+                paintDetails(g2, originX, originY, cellSize, new Rectangle(firstX, firstY, endX - firstX, endY - firstY));
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Returns the position in the component of an edge between cells.
+     *
+     * @param origin   position of the edge of the world in pixels
+     * @param cell     index of the edge, in cells
+     * @param cellSize size of a cell in pixels
+     * @return position in pixels
+     */
+    private static int pixel(double origin, int cell, double cellSize) {
+        return (int) Math.round(origin + cell * cellSize);
+    }
+
+    /**
+     * Paints grid lines and, for large cells, the symbols of the animals over the visible cells
+     * intersecting the clip of the graphics context.
+     *
+     * @param g2       graphics context
+     * @param originX  horizontal position of the world in pixels
+     * @param originY  vertical position of the world in pixels
+     * @param cellSize size of a cell in pixels
+     * @param visible  visible cells
+     */
+    private void paintDetails(Graphics2D g2, double originX, double originY, double cellSize, Rectangle visible) {
+        Rectangle area = new Rectangle(pixel(originX, visible.x, cellSize), pixel(originY, visible.y, cellSize), 0, 0);
+        area.add(pixel(originX, visible.x + visible.width, cellSize), pixel(originY, visible.y + visible.height, cellSize));
+        Rectangle clip = g2.getClipBounds() != null ? g2.getClipBounds().intersection(area) : area;
+        if (clip.isEmpty()) {
+            return;
+        }
+        int firstX = Math.max(visible.x, (int) ((clip.x - originX) / cellSize));
+        int lastX = Math.min((int) ((clip.x + clip.width - originX) / cellSize), visible.x + visible.width - 1);
+        int firstY = Math.max(visible.y, (int) ((clip.y - originY) / cellSize));
+        int lastY = Math.min((int) ((clip.y + clip.height - originY) / cellSize), visible.y + visible.height - 1);
+
+        g2.setColor(GRID_LINE_COLOR);
+        for (int x = firstX; x <= lastX + 1; x++) {
+            int lineX = pixel(originX, x, cellSize);
+            g2.drawLine(lineX, clip.y, lineX, clip.y + clip.height);
+        }
+        for (int y = firstY; y <= lastY + 1; y++) {
+            int lineY = pixel(originY, y, cellSize);
+            g2.drawLine(clip.x, lineY, clip.x + clip.width, lineY);
+        }
+
+        if (cellSize < SYMBOL_MIN_CELL) {
+            return;
+        }
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setFont(new Font("Arial", Font.PLAIN, (int) (cellSize * 0.6)));
+        g2.setColor(Color.BLACK);
+        FontMetrics metrics = g2.getFontMetrics();
+        for (int x = firstX; x <= lastX; x++) {
+            for (int y = firstY; y <= lastY; y++) {
+                String symbol = symbol(snapshot.getCell(x, y));
+                int centerX = (int) (originX + (x + 0.5) * cellSize);
+                int centerY = (int) (originY + (y + 0.5) * cellSize);
+                g2.drawString(symbol, centerX - metrics.stringWidth(symbol) / 2,
+                        centerY + (metrics.getAscent() - metrics.getDescent()) / 2);
+            }
+        }
+    }
+
+    /**
+     * Returns the symbol of the content of a cell.
+     *
+     * @param cell content of the cell, see {@link WorldSnapshot#getCell(int, int)}
+     * @return "P" for a predator, "O" for prey and "·" for an empty cell
+     */
+    private static String symbol(byte cell) {
+        return switch (cell) {
+            case WorldSnapshot.PREDATOR -> "P";
+            case WorldSnapshot.PREY -> "O";
+            default -> "·";
+        };
+    }
+}
@@ -0,0 +1,645 @@
+package org.wildloop;
+
+import com.sun.net.httpserver.HttpServer;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs a simulation without a graphical interface, as fast as the CPU allows.
+ * <p>
+ * The runner creates a {@link World} from command line options, populates it with prey and predators
+ * at random empty positions, and calls {@link World#tick()} until the turn limit is reached, no animals
+ * are left or the world is full. At the end a summary with population statistics is written as
+ * {@code key=value} lines to a file or to the standard output.
+ * <p>
+ * The runner and every class it uses are free of AWT and Swing, so it can run on machines without
+ * a display. It is started with {@code java -cp WildLoop.jar org.wildloop.HeadlessRunner [options]}
+ * or through {@code Main --headless [options]}.
+ * <p>
+ * Supported options:
+ * <ul>
+ * <li>{@code --size N} - width and height of a square world</li>
+ * <li>{@code --width N}, {@code --height N} - dimensions of the world</li>
+ * <li>{@code --prey N}, {@code --predators N} - initial numbers of animals</li>
+ * <li>{@code --seed N} - seed of the world; a random seed is used if omitted</li>
+ * <li>{@code --turns N} - maximum number of turns to run</li>
+ * <li>{@code --runs N} - runs an {@link Ensemble} of N worlds and reports aggregated statistics</li>
+ * <li>{@code --mode M} - {@link TickMode}: {@code sequential}, {@code parallel} or {@code simultaneous}</li>
+ * <li>{@code --threads N} - number of threads used by concurrent tick modes or by an ensemble</li>
+ * <li>{@code --data-oriented} - stores animal state in the data-oriented backend</li>
+ * <li>{@code --grid S} - {@link GridStorage} of the world: {@code dense} or {@code chunked}; chosen
+ *     from the size of the world and the initial population if omitted</li>
+ * <li>{@code --config FILE} - properties file overriding animal parameters, see {@link WorldConfig#withProperties(Properties)}</li>
+ * <li>{@code --summary FILE} - file receiving the summary instead of the standard output</li>
+ * <li>{@code --series FILE} - file receiving the population of every turn of a single run, see {@link TimeSeries};
+ *     CSV if the name ends with {@code .csv}, the binary columnar format otherwise</li>
+ * <li>{@code --series-samples N} - even number of samples after which the series is downsampled</li>
+ * <li>{@code --log-dir DIR} - directory receiving the event log, see {@link LogExporter}</li>
+ * <li>{@code --log-overflow P} - {@link LogWriterSettings.OverflowPolicy} of the log writer:
+ *     {@code block}, {@code drop} or {@code sample}</li>
+ * <li>{@code --log-format F} - {@link LogFormat} of the event log: {@code text}, {@code binary} or {@code both}</li>
+ * <li>{@code --log-segment-mb N}, {@code --log-segment-turns N} - splits the event log into segments, see {@link LogRotation}</li>
+ * <li>{@code --log-compress} - compresses archived log segments with gzip</li>
+ * <li>{@code --log-retain-mb N} - deletes the oldest archived logs beyond N megabytes</li>
+ * <li>{@code --metrics} - collects {@link Metrics} during the run, registers their MBean and
+ *     appends their values to the summary</li>
+ * <li>{@code --metrics-port N} - like {@code --metrics}, and serves them over HTTP on the loopback
+ *     interface during the run</li>
+ * <li>{@code --jfr FILE} - records the run with JDK Flight Recorder, using the default settings and the
+ *     simulation events of {@link JfrEvents}, and writes the recording to FILE</li>
+ * <li>{@code --jfr-threshold E=N} - records the simulation event {@code tick}, {@code dispatch},
+ *     {@code flush} or {@code rotate} only if it lasts at least N microseconds</li>
+ * </ul>
+ *
+ * @see World
+ * @see Main
+ * @see LogExporter
+ */
+public class HeadlessRunner {
+    /** Description of the command line options printed on invalid input */
+    static final String USAGE = """
+            Usage: HeadlessRunner [options]
+              --size N               width and height of a square world
+              --width N              width of the world
+              --height N             height of the world
+              --prey N               initial prey count
+              --predators N          initial predator count
+              --seed N               seed of the world (random if omitted)
+              --turns N              maximum number of turns (default 1000)
+              --runs N               run an ensemble of N worlds with seeds derived from --seed
+              --mode M               sequential, parallel or simultaneous
+              --threads N            threads used by parallel and simultaneous modes or by an ensemble
+              --data-oriented        store animal state in the data-oriented backend
+              --grid S               dense or chunked grid storage (chosen from size and population if omitted)
+              --config FILE          read animal parameters from a properties file
+              --summary FILE         write the summary to FILE instead of standard output
+              --series FILE          write per-turn population to FILE (.csv or binary columns)
+              --series-samples N     keep at most N samples, merging older ones (N even)
+              --log-dir DIR          write event logs to DIR
+              --log-overflow P       block, drop or sample events when the log writer falls behind
+              --log-format F         text, binary or both
+              --log-segment-mb N     start a new log segment after N megabytes
+              --log-segment-turns N  start a new log segment after N turns
+              --log-compress         compress archived log segments with gzip
+              --log-retain-mb N      keep at most N megabytes of archived logs
+              --metrics              collect tick, phase and log timings and add them to the summary
+              --metrics-port N       also serve metrics at http://127.0.0.1:N/metrics during the run
+              --jfr FILE             record the run with JDK Flight Recorder into FILE
+              --jfr-threshold E=N    record tick, dispatch, flush or rotate events lasting N us or more""";
+    /** Default maximum number of turns */
+    private static final int DEFAULT_TURNS = 1000;
+
+    /** Width of the world */
+    private int width = SimulationConfig.getIntValue("default.world.size");
+    /** Height of the world */
+    private int height = width;
+    /** Initial prey count */
+    private int preyCount = SimulationConfig.getIntValue("default.prey.count");
+    /** Initial predator count */
+    private int predatorCount = SimulationConfig.getIntValue("default.predator.count");
+    /** Seed of the world */
+    private long seed = ThreadLocalRandom.current().nextLong();
+    /** Maximum number of turns */
+    private int maxTurns = DEFAULT_TURNS;
+    /** Number of runs, more than one runs an {@link Ensemble} */
+    private int runs = 1;
+    /** Tick mode of the world */
+    private TickMode tickMode = TickMode.SEQUENTIAL;
+    /** Number of threads for concurrent tick modes, 0 to use the common pool */
+    private int threads;
+    /** Whether the world uses the data-oriented backend */
+    private boolean dataOriented;
+    /** Storage of the grid, or {@code null} to choose it from the size and the population */
+    private GridStorage gridStorage;
+    /** Parameters of the animals */
+    private WorldConfig config = WorldConfig.DEFAULTS;
+    /** File receiving the summary, or {@code null} for the standard output */
+    private Path summaryPath;
+    /** File receiving the time series of a single run, or {@code null} */
+    private Path seriesPath;
+    /** Largest number of samples of the time series, or 0 for no limit */
+    private int seriesSamples;
+    /** Time series recorded by the last single run, or {@code null} */
+    private TimeSeries series;
+    /** Directory receiving event logs, or {@code null} for the default directory */
+    private Path logDirectory;
+    /** Behavior of the log writer when its queue is full, or {@code null} for the default */
+    private LogWriterSettings.OverflowPolicy logOverflow;
+    /** Format of the event log, or {@code null} for the default */
+    private LogFormat logFormat;
+    /** Rotation policy of the event log */
+    private LogRotation logRotation = LogRotation.NONE;
+    /** Whether metrics are collected */
+    private boolean metrics;
+    /** Port of the metrics endpoint, or -1 for none */
+    private int metricsPort = -1;
+    /** File receiving the flight recording, or {@code null} for no recording */
+    private Path jfrPath;
+    /** Settings of the flight recording overriding the defaults, by setting name */
+    private final Map<String, String> jfrSettings = new HashMap<>();
+
+    /**
+     * Creates a runner configured by the given command line options.
+     *
+     * @param args command line options
+     * @throws IllegalArgumentException if an option is unknown, lacks a value or has an invalid value,
+     *                                  or the configuration file cannot be read
+     */
+    public HeadlessRunner(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            switch (option) {
+                case "--size" -> {
+                    width = positive(option, value(args, ++i, option));
+                    height = width;
+                }
+                case "--width" -> width = positive(option, value(args, ++i, option));
+                case "--height" -> height = positive(option, value(args, ++i, option));
+                case "--prey" -> preyCount = nonNegative(option, value(args, ++i, option));
+                case "--predators" -> predatorCount = nonNegative(option, value(args, ++i, option));
+                case "--seed" -> seed = parseLong(option, value(args, ++i, option));
+                case "--turns" -> maxTurns = nonNegative(option, value(args, ++i, option));
+                case "--runs" -> runs = positive(option, value(args, ++i, option));
+                case "--mode" -> tickMode = parseEnum(TickMode.class, option, value(args, ++i, option));
+                case "--threads" -> threads = positive(option, value(args, ++i, option));
+                case "--data-oriented" -> dataOriented = true;
+                case "--grid" -> gridStorage = parseEnum(GridStorage.class, option, value(args, ++i, option));
+                case "--config" -> config = loadConfig(Path.of(value(args, ++i, option)));
+                case "--summary" -> summaryPath = Path.of(value(args, ++i, option));
+                case "--series" -> seriesPath = Path.of(value(args, ++i, option));
+                case "--series-samples" -> seriesSamples = positive(option, value(args, ++i, option));
+                case "--log-dir" -> logDirectory = Path.of(value(args, ++i, option));
+                case "--log-overflow" -> logOverflow = parseEnum(LogWriterSettings.OverflowPolicy.class, option, value(args, ++i, option));
+                case "--log-format" -> logFormat = parseEnum(LogFormat.class, option, value(args, ++i, option));
+                case "--log-segment-mb" -> logRotation = new LogRotation(megabytes(option, value(args, ++i, option)),
+                        logRotation.segmentTurns(), logRotation.compress(), logRotation.maxDirectoryBytes());
+                case "--log-segment-turns" -> logRotation = new LogRotation(logRotation.maxSegmentBytes(),
+                        positive(option, value(args, ++i, option)), logRotation.compress(), logRotation.maxDirectoryBytes());
+                case "--log-compress" -> logRotation = new LogRotation(logRotation.maxSegmentBytes(),
+                        logRotation.segmentTurns(), true, logRotation.maxDirectoryBytes());
+                case "--log-retain-mb" -> logRotation = new LogRotation(logRotation.maxSegmentBytes(),
+                        logRotation.segmentTurns(), logRotation.compress(), megabytes(option, value(args, ++i, option)));
+                case "--metrics" -> metrics = true;
+                case "--metrics-port" -> {
+                    metricsPort = nonNegative(option, value(args, ++i, option));
+                    metrics = true;
+                }
+                case "--jfr" -> jfrPath = Path.of(value(args, ++i, option));
+                case "--jfr-threshold" -> putJfrThreshold(option, value(args, ++i, option));
+                default -> throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+        if (seriesSamples % 2 != 0) {
+            throw new IllegalArgumentException("Value '" + seriesSamples + "' for option --series-samples must be even");
+        }
+    }
+
+    /**
+     * Runs the simulation and returns its summary. With {@code --runs} greater than one,
+     * runs an {@link Ensemble} instead and returns aggregated statistics. With {@code --metrics},
+     * the values of all metrics follow, in nanoseconds for durations. With {@code --jfr},
+     * the run is recorded with JDK Flight Recorder.
+     *
+     * @return summary as {@code key=value} lines
+     */
+    public String run() {
+        Recording recording = jfrPath != null ? startRecording() : null;
+        try {
+            if (!metrics) {
+                return runs > 1 ? runEnsemble() : runSingle();
+            }
+            return runWithMetrics();
+        } finally {
+            if (recording != null) {
+                stopRecording(recording);
+            }
+        }
+    }
+
+    /**
+     * Runs the simulation with metrics switched on, optionally serving them over HTTP,
+     * and appends their values to the summary.
+     *
+     * @return summary as {@code key=value} lines
+     */
+    private String runWithMetrics() {
+
+        Metrics.registerMBean();
+        Metrics.registry().reset();
+        HttpServer server = null;
+        if (metricsPort >= 0) {
+            try {
+                server = Metrics.startServer(metricsPort);
+                System.err.println("Serving metrics at http://127.0.0.1:" + server.getAddress().getPort() + Metrics.PATH);
+            } catch (IOException e) {
+                System.err.println("Failed to start metrics server: " + e.getMessage());
+            }
+        }
+        Metrics.setEnabled(true);
+        try {
+            StringBuilder summary = new StringBuilder(runs > 1 ? runEnsemble() : runSingle());
+            for (Map.Entry<String, Long> entry : Metrics.registry().values().entrySet()) {
+                append(summary, "metrics." + entry.getKey(), entry.getValue());
+            }
+            return summary.toString();
+        } finally {
+            Metrics.setEnabled(false);
+            if (server != null) {
+                server.stop(0);
+            }
+        }
+    }
+
+    /**
+     * Runs a single logged world and summarizes it.
+     *
+     * @return summary as {@code key=value} lines
+     */
+    private String runSingle() {
+        if (logDirectory != null) {
+            LogExporter.setLogDirectory(logDirectory);
+        }
+        if (logOverflow != null) {
+            LogExporter.setWriterSettings(LogWriterSettings.DEFAULTS.withOverflow(logOverflow));
+        }
+        if (logFormat != null) {
+            LogExporter.setLogFormat(logFormat);
+        }
+        LogExporter.setRotation(logRotation);
+        GridStorage storage = gridStorage != null ? gridStorage
+                : GridStorage.choose(width, height, (long) preyCount + predatorCount);
+        World world = new World(width, height, dataOriented, seed, config, true, storage);
+        world.setTickMode(tickMode);
+        ForkJoinPool pool = threads > 0 ? new ForkJoinPool(threads) : null;
+        if (pool != null) {
+            world.setTickPool(pool);
+        }
+
+        try {
+            world.populate(preyCount, predatorCount);
+            long start = System.nanoTime();
+            series = seriesPath != null ? new TimeSeries(seriesSamples) : null;
+            RunResult result = RunResult.simulate(world, 0, maxTurns, series);
+            long elapsedNanos = System.nanoTime() - start;
+            Event.log(EventType.SIMULATION_END, world);
+
+            StringBuilder summary = new StringBuilder();
+            append(summary, "world.id", world.getId());
+            append(summary, "seed", seed);
+            append(summary, "width", width);
+            append(summary, "height", height);
+            append(summary, "tick.mode", tickMode.name().toLowerCase());
+            append(summary, "data.oriented", dataOriented);
+            append(summary, "grid.storage", storage.name().toLowerCase());
+            append(summary, "turns", result.turns());
+            append(summary, "end.reason", result.endReason().name().toLowerCase());
+            append(summary, "initial.prey", result.initialPrey());
+            append(summary, "initial.predators", result.initialPredators());
+            append(summary, "final.prey", result.finalPrey());
+            append(summary, "final.predators", result.finalPredators());
+            append(summary, "peak.prey", result.peakPrey());
+            append(summary, "peak.predators", result.peakPredators());
+            append(summary, "prey.extinct.turn", result.preyExtinctTurn());
+            append(summary, "predators.extinct.turn", result.predatorsExtinctTurn());
+            append(summary, "prey.cycle.period", format(result.preyCyclePeriod()));
+            PopulationStats stats = world.getStats();
+            append(summary, "births", stats.births());
+            append(summary, "deaths.eaten", stats.eatenDeaths());
+            append(summary, "deaths.energy", stats.energyDeaths());
+            append(summary, "deaths.age", stats.ageDeaths());
+            append(summary, "final.mean.energy", format(stats.averageEnergy()));
+            append(summary, "final.mean.age", format(stats.averageAge()));
+            append(summary, "elapsed.ms", elapsedNanos / 1_000_000);
+            append(summary, "turns.per.second", elapsedNanos > 0 ? format(result.turns() * 1e9 / elapsedNanos) : "0");
+            return summary.toString();
+        } finally {
+            LogExporter.closeLog();
+            LogExporter.awaitArchiving();
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Runs an ensemble of unlogged worlds and summarizes the aggregated results.
+     * Tick mode and backend options do not apply; every run is sequential and worlds run
+     * concurrently on {@code --threads} threads, all available processors by default.
+     *
+     * @return summary as {@code key=value} lines
+     */
+    private String runEnsemble() {
+        int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        Ensemble ensemble = new Ensemble(width, height, preyCount, predatorCount, maxTurns, config);
+        long start = System.nanoTime();
+        EnsembleStatistics statistics = ensemble.run(seed, runs, workers);
+        long elapsedNanos = System.nanoTime() - start;
+
+        StringBuilder summary = new StringBuilder();
+        append(summary, "seed", seed);
+        append(summary, "width", width);
+        append(summary, "height", height);
+        append(summary, "runs", statistics.getRuns());
+        append(summary, "threads", workers);
+        for (RunResult.EndReason reason : RunResult.EndReason.values()) {
+            append(summary, "end." + reason.name().toLowerCase().replace('_', '.'), statistics.getEndCount(reason));
+        }
+        append(summary, "prey.extinction.probability", format(statistics.getPreyExtinctionProbability()));
+        append(summary, "predators.extinction.probability", format(statistics.getPredatorExtinctionProbability()));
+        appendStatistic(summary, "turns", statistics.getTurns());
+        appendStatistic(summary, "final.prey", statistics.getFinalPrey());
+        appendStatistic(summary, "final.predators", statistics.getFinalPredators());
+        appendStatistic(summary, "peak.prey", statistics.getPeakPrey());
+        appendStatistic(summary, "peak.predators", statistics.getPeakPredators());
+        appendStatistic(summary, "prey.extinct.turn", statistics.getPreyExtinctTurn());
+        appendStatistic(summary, "predators.extinct.turn", statistics.getPredatorsExtinctTurn());
+        appendStatistic(summary, "prey.cycle.period", statistics.getPreyCyclePeriod());
+        append(summary, "elapsed.ms", elapsedNanos / 1_000_000);
+        return summary.toString();
+    }
+
+    /**
+     * Starts a flight recording with the default settings of the JVM and the settings of {@code --jfr-threshold}.
+     * A recording that cannot be started is reported and the run continues without it.
+     *
+     * @return running recording, or {@code null}
+     */
+    private Recording startRecording() {
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration("default"));
+            Map<String, String> settings = new HashMap<>(recording.getSettings());
+            settings.putAll(jfrSettings);
+            recording.setSettings(settings);
+            recording.setName("wildloop");
+            recording.start();
+            return recording;
+        } catch (IOException | ParseException | IllegalStateException e) {
+            System.err.println("Failed to start flight recording: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stops a flight recording and writes it to the file given by {@code --jfr}.
+     * @param recording running recording
+     */
+    private void stopRecording(Recording recording) {
+        try (recording) {
+            recording.stop();
+            Path parent = jfrPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            recording.dump(jfrPath);
+        } catch (IOException e) {
+            System.err.println("Failed to write flight recording: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parses a {@code --jfr-threshold} value of the form {@code EVENT=MICROSECONDS} into a recording setting.
+     *
+     * @param option option being parsed
+     * @param value  value to parse
+     * @throws IllegalArgumentException if the event is unknown or the threshold is not a non-negative integer
+     */
+    private void putJfrThreshold(String option, String value) {
+        int separator = value.indexOf('=');
+        String event = separator < 0 ? value : value.substring(0, separator).toLowerCase(Locale.ROOT);
+        String name = switch (event) {
+            case "tick" -> "org.wildloop.Tick";
+            case "dispatch" -> "org.wildloop.Dispatch";
+            case "flush" -> "org.wildloop.LogFlush";
+            case "rotate" -> "org.wildloop.LogRotate";
+            default -> throw new IllegalArgumentException("Value '" + value + "' for option " + option
+                    + " must be tick, dispatch, flush or rotate followed by =MICROSECONDS");
+        };
+        int micros = nonNegative(option, value.substring(separator + 1));
+        jfrSettings.put(name + "#threshold", micros + " us");
+    }
+
+    /**
+     * Writes the time series recorded by the last single run to the file given by {@code --series}.
+     * Does nothing if no series was recorded.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    void writeSeries() throws IOException {
+        if (series == null) {
+            return;
+        }
+        Path parent = seriesPath.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (seriesPath.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+            series.writeCsv(seriesPath);
+        } else {
+            series.writeColumns(seriesPath);
+        }
+    }
+
+    /**
+     * Headless entry point. Runs the simulation described by the options and writes its summary
+     * and time series. Exits with status 2 on invalid options and with status 1 if the summary
+     * or the time series cannot be written.
+     *
+     * @param args command line options, see {@link HeadlessRunner}
+     */
+    public static void main(String[] args) {
+        HeadlessRunner runner;
+        try {
+            runner = new HeadlessRunner(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        String summary = runner.run();
+        try {
+            runner.writeSeries();
+        } catch (IOException e) {
+            System.err.println("Failed to write time series: " + e.getMessage());
+            System.exit(1);
+        }
+        if (runner.summaryPath == null) {
+            System.out.print(summary);
+            return;
+        }
+        try {
+            Path parent = runner.summaryPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.writeString(runner.summaryPath, summary);
+        } catch (IOException e) {
+            System.err.println("Failed to write summary: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Appends a single {@code key=value} line to the summary.
+     *
+     * @param summary summary being built
+     * @param key     key of the line
+     * @param value   value of the line
+     */
+    static void append(StringBuilder summary, String key, Object value) {
+        summary.append(key).append('=').append(value).append(System.lineSeparator());
+    }
+
+    /**
+     * Appends count, mean, standard deviation, extremes and quartiles of a statistic.
+     *
+     * @param summary   summary being built
+     * @param prefix    prefix of the keys
+     * @param statistic statistic to append
+     */
+    private static void appendStatistic(StringBuilder summary, String prefix, Statistic statistic) {
+        append(summary, prefix + ".count", statistic.getCount());
+        append(summary, prefix + ".mean", format(statistic.getMean()));
+        append(summary, prefix + ".stddev", format(statistic.getStandardDeviation()));
+        append(summary, prefix + ".min", format(statistic.getMin()));
+        append(summary, prefix + ".p25", format(statistic.getQuantile(0.25)));
+        append(summary, prefix + ".p50", format(statistic.getQuantile(0.5)));
+        append(summary, prefix + ".p75", format(statistic.getQuantile(0.75)));
+        append(summary, prefix + ".max", format(statistic.getMax()));
+    }
+
+    /**
+     * Formats a number with three decimal places independently of the default locale.
+     *
+     * @param value number to format
+     * @return formatted number, or {@code nan} for {@link Double#NaN}
+     */
+    static String format(double value) {
+        return Double.isNaN(value) ? "nan" : String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    /**
+     * Returns the value following an option.
+     *
+     * @param args   command line options
+     * @param index  index of the value
+     * @param option option expecting the value
+     * @return value of the option
+     * @throws IllegalArgumentException if the value is missing
+     */
+    static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option " + option);
+        }
+        return args[index];
+    }
+
+    /**
+     * Parses a long value of an option.
+     *
+     * @param option option being parsed
+     * @param value  value to parse
+     * @return parsed value
+     * @throws IllegalArgumentException if the value is not a valid long
+     */
+    static long parseLong(String option, String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Value '" + value + "' for option " + option + " is not a valid integer", e);
+        }
+    }
+
+    /**
+     * Parses a non-negative integer value of an option.
+     *
+     * @param option option being parsed
+     * @param value  value to parse
+     * @return parsed value
+     * @throws IllegalArgumentException if the value is not a valid non-negative integer
+     */
+    static int nonNegative(String option, String value) {
+        long parsed = parseLong(option, value);
+        if (parsed < 0 || parsed > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Value '" + value + "' for option " + option + " must be between 0 and " + Integer.MAX_VALUE);
+        }
+        return (int) parsed;
+    }
+
+    /**
+     * Parses a positive integer value of an option.
+     *
+     * @param option option being parsed
+     * @param value  value to parse
+     * @return parsed value
+     * @throws IllegalArgumentException if the value is not a valid positive integer
+     */
+    static int positive(String option, String value) {
+        int parsed = nonNegative(option, value);
+        if (parsed == 0) {
+            throw new IllegalArgumentException("Value '" + value + "' for option " + option + " must be positive");
+        }
+        return parsed;
+    }
+
+    /**
+     * Parses a positive number of megabytes of an option.
+     *
+     * @param option option being parsed
+     * @param value  value to parse
+     * @return parsed value in bytes
+     * @throws IllegalArgumentException if the value is not a valid positive integer
+     */
+    private static long megabytes(String option, String value) {
+        return positive(option, value) * 1024L * 1024L;
+    }
+
+    /**
+     * Reads animal parameters from a properties file, keeping defaults for missing keys.
+     *
+     * @param path properties file to read
+     * @return configuration with the parameters of the file
+     * @throws IllegalArgumentException if the file cannot be read or contains invalid parameters
+     */
+    private static WorldConfig loadConfig(Path path) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to read configuration file " + path + ": " + e.getMessage(), e);
+        }
+        return WorldConfig.DEFAULTS.withProperties(properties);
+    }
+
+    /**
+     * Parses the name of an enum constant, ignoring case.
+     *
+     * @param type   enum class
+     * @param option option being parsed
+     * @param value  name to parse
+     * @param <E>    enum type
+     * @return matching constant
+     * @throws IllegalArgumentException if no constant has the given name
+     */
+    static <E extends Enum<E>> E parseEnum(Class<E> type, String option, String value) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value)) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("Unknown value '" + value + "' for option " + option);
+    }
+}
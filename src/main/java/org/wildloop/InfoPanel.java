@@ -6,15 +6,15 @@ import java.awt.*;
 /**
  * Displays information about the currently selected animal in the simulation.
  * It shows details such as type, energy, age, and allows highlighting of the selected animal.
- * The panel updates dynamically based on user interactions with the simulation.
+ * The panel is updated from the {@link WorldSnapshot}s shown by the simulation panel, so it never
+ * reads animals while the simulation thread changes them.
  *
  * @see SimulationPanel
+ * @see WorldSnapshot
  */
 public class InfoPanel extends JPanel {
     /** Label to display animal information */
     private final JLabel infoLabel;
-    /** Currently selected animal */
-    private Animal selectedAnimal;
     /** Color to highlight selected animal */
     private final Color highlightColor = Color.YELLOW;
 
@@ -33,23 +33,20 @@ public class InfoPanel extends JPanel {
     }
 
     /**
-     * Sets the currently selected animal and updates the display.
-     * @param animal The animal to display information about.
+     * Updates the information display from a snapshot: shows the selected animal,
+     * a notice that it died, or that no animal is selected.
+     *
+     * @param snapshot snapshot describing the selection
      */
-    public void setSelectedAnimal(Animal animal) {
-        this.selectedAnimal = animal; // set the selected animal
-        updateInfo(); // update the displayed information
-    }
-
-    /**
-     * Updates the information display about the selected animal.
-     */
-    public void updateInfo() {
-        if(selectedAnimal == null) {
-            infoLabel.setText("No animal selected"); // default text when no animal is selected
-        } else {
-            String info = String.format("%s | Energy: %d/%d | Age: %d/%d ", selectedAnimal.getId(), selectedAnimal.getEnergy(), Animal.MAX_ENERGY, selectedAnimal.getAge(), selectedAnimal.getMaxAge()); // create info with animal details
+    public void update(WorldSnapshot snapshot) {
+        WorldSnapshot.AnimalInfo selected = snapshot.getSelected();
+        if (selected != null) {
+            String info = String.format("%s | Energy: %d/%d | Age: %d/%d ", selected.id(), selected.energy(), selected.maxEnergy(), selected.age(), selected.maxAge()); // create info with animal details
             infoLabel.setText(info); // set the formatted text
+        } else if (snapshot.isSelectedDied()) {
+            showAnimalDead();
+        } else {
+            infoLabel.setText("No animal selected"); // default text when no animal is selected
         }
     }
 
@@ -66,6 +63,5 @@ public class InfoPanel extends JPanel {
      */
     public void showAnimalDead() {
         infoLabel.setText("Animal is dead");
-        selectedAnimal = null;
     }
 }
@@ -0,0 +1,116 @@
+package org.wildloop;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Custom JDK Flight Recorder events of the simulation, shown in a recording next to the
+ * garbage collection, allocation and thread events of the JVM.
+ * <p>
+ * The events are emitted with the usual {@code begin}, {@code end}, {@code shouldCommit} pattern:
+ * while no recording is running, or an event is disabled in the running recording, the event
+ * object is never filled in or committed and the JIT compiler removes its allocation, so the
+ * instrumented code costs next to nothing. Like every JFR event, they are switched on and off and
+ * given thresholds by the recording settings, for example
+ * {@code -XX:StartFlightRecording:org.wildloop.Dispatch#threshold=0ms} or {@code --jfr-threshold}
+ * of {@link HeadlessRunner}; the {@link Threshold} annotations only provide the defaults.
+ *
+ * @see World#tick()
+ * @see EventLogger
+ * @see AsyncLogWriter
+ */
+final class JfrEvents {
+    /** Category of the events emitted by the simulation */
+    private static final String CATEGORY = "WildLoop";
+
+    /**
+     * Execution of one {@link World#tick()}, with the population after the turn.
+     */
+    @Name("org.wildloop.Tick")
+    @Label("Simulation Tick")
+    @Description("Execution of one turn of a world")
+    @Category({CATEGORY, "Simulation"})
+    @StackTrace(false)
+    @Threshold("0 ms")
+    static final class Tick extends jdk.jfr.Event {
+        /** Identifier of the world */
+        @Label("World")
+        String worldId;
+        /** Number of the executed turn */
+        @Label("Turn")
+        int turn;
+        /** Tick mode used for the turn */
+        @Label("Tick Mode")
+        String tickMode;
+        /** Number of living prey after the turn */
+        @Label("Prey")
+        int prey;
+        /** Number of living predators after the turn */
+        @Label("Predators")
+        int predators;
+    }
+
+    /**
+     * Delivery of one simulation event to its listeners by {@link EventLogger}.
+     */
+    @Name("org.wildloop.Dispatch")
+    @Label("Event Dispatch")
+    @Description("Delivery of a simulation event to its listeners")
+    @Category({CATEGORY, "Events"})
+    @StackTrace(false)
+    @Threshold("100 us")
+    static final class Dispatch extends jdk.jfr.Event {
+        /** Type of the delivered event */
+        @Label("Event Type")
+        String eventType;
+        /** Number of listeners that received the event */
+        @Label("Listeners")
+        int listeners;
+    }
+
+    /**
+     * Write of buffered log records to a log file by {@link AsyncLogWriter}.
+     */
+    @Name("org.wildloop.LogFlush")
+    @Label("Log Flush")
+    @Description("Write of buffered records to an event log file")
+    @Category({CATEGORY, "Logging"})
+    @StackTrace(false)
+    @Threshold("0 ms")
+    static final class LogFlush extends jdk.jfr.Event {
+        /** Path of the log file */
+        @Label("File")
+        String file;
+        /** Number of bytes written */
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    /**
+     * Switch of {@link AsyncLogWriter} to a new log segment, including the archiving of the finished one.
+     */
+    @Name("org.wildloop.LogRotate")
+    @Label("Log Rotation")
+    @Description("Archiving of a finished log segment and start of a new one")
+    @Category({CATEGORY, "Logging"})
+    @StackTrace(false)
+    @Threshold("0 ms")
+    static final class LogRotate extends jdk.jfr.Event {
+        /** Path of the log file that continues in a new segment */
+        @Label("File")
+        String file;
+        /** Size of the finished segment in bytes */
+        @Label("Segment Size")
+        @DataAmount
+        long segmentBytes;
+        /** Number of turns in the finished segment */
+        @Label("Segment Turns")
+        int segmentTurns;
+    }
+}
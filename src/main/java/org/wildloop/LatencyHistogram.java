@@ -0,0 +1,153 @@
+package org.wildloop;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent histogram of durations in nanoseconds with logarithmic buckets, in the style of
+ * HdrHistogram.
+ * <p>
+ * Values below 32 have a bucket each. Every larger power-of-two range is split into
+ * {@value #SUB_BUCKETS} equal buckets, so a bucket is never wider than 1/16 of its lower bound
+ * and quantiles are reported with a relative error of at most about 6%. The whole range of
+ * {@code long} values fits into {@value #BUCKETS} buckets. Recording a value costs a few shifts
+ * and three atomic additions and never allocates, so the histogram can be updated from several
+ * threads at once.
+ *
+ * @see MetricsRegistry
+ * @see Metrics
+ */
+public final class LatencyHistogram {
+    /** Number of bits selecting a bucket within a power-of-two range */
+    private static final int SUB_BUCKET_BITS = 4;
+    /** Number of buckets within a power-of-two range */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Total number of buckets, covering every non-negative {@code long} */
+    static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /** Number of values recorded in each bucket */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    /** Number of values recorded */
+    private final LongAdder count = new LongAdder();
+    /** Sum of the values recorded */
+    private final LongAdder sum = new LongAdder();
+    /** Largest value recorded */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a duration. Negative durations, which a non-monotonic clock could produce, are recorded as 0.
+     * @param nanos duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Returns the number of values recorded.
+     * @return number of values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the values recorded.
+     * @return sum in nanoseconds
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Returns the largest value recorded.
+     * @return largest value in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the values recorded.
+     * @return mean in nanoseconds, or {@link Double#NaN} if nothing was recorded
+     */
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? Double.NaN : (double) getSum() / n;
+    }
+
+    /**
+     * Returns the value below or at which the given fraction of the recorded values lie,
+     * as the upper bound of the bucket holding it, but at most the largest value recorded.
+     * Values recorded concurrently may or may not be taken into account.
+     *
+     * @param quantile fraction between 0 and 1
+     * @return value in nanoseconds, or 0 if nothing was recorded
+     * @throws IllegalArgumentException if the fraction is not between 0 and 1
+     */
+    public long getQuantile(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+        }
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Clears every recorded value. Values recorded concurrently may be partially kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Returns the bucket of a value.
+     *
+     * @param value non-negative value
+     * @return index of the bucket
+     */
+    static int bucket(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the largest value of a bucket.
+     *
+     * @param bucket index of the bucket
+     * @return largest value mapped to the bucket
+     */
+    static long upperBound(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return lower + width - 1;
+    }
+}
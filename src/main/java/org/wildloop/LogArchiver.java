@@ -0,0 +1,181 @@
+package org.wildloop;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archives finished log segments: renames them atomically, then compresses them and applies the
+ * retention limit of the {@link LogRotation} on a single background thread, so that neither the
+ * simulation nor the log writer waits for compression.
+ * <p>
+ * A segment is compressed into a temporary file that is renamed to {@code NAME.gz} once complete,
+ * and the uncompressed segment is deleted only afterward, so an interrupted compression never loses
+ * events. Segments are processed in the order they were finished.
+ *
+ * @see LogExporter
+ * @see LogRotation
+ */
+final class LogArchiver {
+    /** Size of the buffer of the compressing stream in bytes */
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+    /** Extension of compressed files */
+    static final String COMPRESSED_EXTENSION = ".gz";
+    /** Extension of files being compressed */
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+
+    /** Thread compressing segments and applying retention */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Renames a finished log file to its archive name, replacing an existing file, and schedules
+     * its compression and the retention of its directory.
+     *
+     * @param file     finished log file
+     * @param archive  name of the archive file
+     * @param rotation policy of the log
+     * @throws IOException if the file cannot be renamed
+     */
+    void archive(Path file, Path archive, LogRotation rotation) throws IOException {
+        try {
+            Files.move(file, archive, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(file, archive, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (rotation.compress() || rotation.maxDirectoryBytes() > 0) {
+            executor.execute(() -> {
+                if (rotation.compress()) {
+                    compress(archive);
+                }
+                if (rotation.maxDirectoryBytes() > 0) {
+                    retain(archive.toAbsolutePath().getParent(), rotation.maxDirectoryBytes());
+                }
+            });
+        }
+    }
+
+    /**
+     * Waits until every scheduled compression and retention task is finished.
+     */
+    void awaitIdle() {
+        try {
+            executor.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Failed to archive log: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Compresses a file with gzip and deletes the uncompressed file.
+     * @param file file to compress
+     */
+    private static void compress(Path file) {
+        Path compressed = file.resolveSibling(file.getFileName() + COMPRESSED_EXTENSION);
+        Path temporary = file.resolveSibling(compressed.getFileName() + TEMPORARY_EXTENSION);
+        if (!Files.exists(file)) {
+            return; // Deleted by the retention limit before its turn
+        }
+        try {
+            try (InputStream in = Files.newInputStream(file);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary), GZIP_BUFFER_SIZE)) {
+                in.transferTo(out);
+            }
+            try {
+                Files.move(temporary, compressed, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, compressed, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.delete(file);
+        } catch (IOException e) {
+            System.err.println("Failed to compress log file " + file + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // The uncompressed file is kept, the temporary file is only a leftover
+            }
+        }
+    }
+
+    /**
+     * Deletes the oldest archived log files of a directory while their total size exceeds the limit.
+     * Files being written or compressed are never deleted.
+     *
+     * @param directory directory of the logs
+     * @param maxBytes  total size of archived files to keep
+     */
+    private static void retain(Path directory, long maxBytes) {
+        List<Archive> archives = new ArrayList<>();
+        long total = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(LogArchiver::isArchive).toList()) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    archives.add(new Archive(file, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                    total += attributes.size();
+                } catch (IOException e) {
+                    // Deleted meanwhile
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to list log directory: " + e.getMessage());
+            return;
+        }
+
+        archives.sort(Comparator.comparingLong(Archive::modified).thenComparing(archive -> archive.file().getFileName().toString()));
+        for (Archive archive : archives) {
+            if (total <= maxBytes) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(archive.file());
+                total -= archive.size();
+            } catch (IOException e) {
+                System.err.println("Failed to delete old log file: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Archived log file considered for deletion.
+     *
+     * @param file     path of the file
+     * @param size     size of the file in bytes
+     * @param modified time of the last modification in milliseconds since the epoch
+     */
+    private record Archive(Path file, long size, long modified) {
+    }
+
+    /**
+     * Checks if a file is an archived log, as opposed to a log being written or compressed.
+     *
+     * @param file file of the log directory
+     * @return true for an archived log
+     */
+    private static boolean isArchive(Path file) {
+        String name = file.getFileName().toString();
+        return Files.isRegularFile(file) && !name.startsWith(LogExporter.LATEST_LOG_FILE_NAME)
+                && !name.endsWith(TEMPORARY_EXTENSION)
+                && (name.endsWith(LogExporter.LOG_FILE_EXTENSION) || name.endsWith(LogExporter.BINARY_LOG_FILE_EXTENSION)
+                        || name.endsWith(LogExporter.LOG_FILE_EXTENSION + COMPRESSED_EXTENSION)
+                        || name.endsWith(LogExporter.BINARY_LOG_FILE_EXTENSION + COMPRESSED_EXTENSION));
+    }
+}
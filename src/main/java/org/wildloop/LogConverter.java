@@ -0,0 +1,83 @@
+package org.wildloop;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Converts binary event logs back to the text format of {@link LogExporter}.
+ * <p>
+ * Every event becomes the line {@link Event#toString()} produced when the event was logged,
+ * with timestamps shown in the time zone recorded in the log. The converter is started with
+ * {@code java -cp WildLoop.jar org.wildloop.LogConverter BINARY_LOG [TEXT_LOG]}; without
+ * a second argument the text is written to the standard output.
+ *
+ * @see BinaryLogReader
+ * @see LogExporter
+ */
+public class LogConverter {
+    /** Description of the command line arguments printed on invalid input */
+    private static final String USAGE = "Usage: LogConverter BINARY_LOG [TEXT_LOG]";
+
+    /**
+     * Converts a binary log to a text log.
+     *
+     * @param binaryLog binary log to read
+     * @param textLog   text log to write, replaced if it exists
+     * @return number of events converted
+     * @throws IOException if a file cannot be read or written or the binary log is invalid
+     */
+    public static long convert(Path binaryLog, Path textLog) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(textLog, StandardCharsets.UTF_8)) {
+            return convert(binaryLog, writer);
+        }
+    }
+
+    /**
+     * Converts a binary log to text, writing one line per event.
+     *
+     * @param binaryLog binary log to read
+     * @param writer    writer receiving the text; not closed
+     * @return number of events converted
+     * @throws IOException if the binary log cannot be read or is invalid, or the text cannot be written
+     */
+    public static long convert(Path binaryLog, Writer writer) throws IOException {
+        try (BinaryLogReader reader = new BinaryLogReader(binaryLog)) {
+            while (reader.next()) {
+                writer.write(reader.toText());
+                writer.write(System.lineSeparator());
+            }
+            return reader.getEventCount();
+        }
+    }
+
+    /**
+     * Entry point of the converter. Exits with status 2 on invalid arguments
+     * and with status 1 if a log cannot be read or written.
+     *
+     * @param args binary log to read, optionally followed by the text log to write
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        try {
+            if (args.length == 2) {
+                convert(Path.of(args[0]), Path.of(args[1]));
+            } else {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                convert(Path.of(args[0]), writer);
+                writer.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to convert log: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
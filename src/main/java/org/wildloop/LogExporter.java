@@ -1,130 +1,223 @@
 package org.wildloop;
 
-import java.io.BufferedWriter;
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.function.Consumer;
 
 /**
  * LogExporter is responsible for exporting simulation logs to files.
  * It manages the creation of log files, writing events to them, and archiving
  * logs with timestamps and {@link World} IDs.
  * <p>
+ * A log is written to {@code latest.log} and archived by an atomic rename when it is closed.
+ * Long logs can be split into segments by size or number of turns, compressed with gzip on a
+ * background thread and pruned by a size limit of the log directory, see {@link LogRotation}.
+ * <p>
  * The logs are stored in a specified directory with a consistent naming scheme,
  * allowing for easy retrieval and analysis of simulation events.
+ * <p>
+ * Events are written asynchronously: the simulation thread only queues them, and a writer
+ * thread formats them and writes them in large batches, see {@link LogWriterSettings}.
+ * Depending on the {@link LogFormat}, events are written as text, as a compact binary log
+ * read with {@link BinaryLogReader}, or both.
  *
  * @see EventLogger
  * @see Event
  * @see EventType
+ * @see LogWriterSettings
+ * @see LogFormat
+ * @see LogRotation
  */
 public class LogExporter {
-    /** The directory where log files are stored. */
-    private static final String LOG_DIRECTORY = "logs/";
+    /** The default directory where log files are stored. */
+    private static final String DEFAULT_LOG_DIRECTORY = "logs/";
     /** The file extension for log files. */
-    private static final String LOG_FILE_EXTENSION = ".log";
-    /** The name of the latest log file, which is overwritten each time a new log is opened. */
-    private static final String LATEST_LOG_FILE_NAME = "latest" + LOG_FILE_EXTENSION;
-    /** The {@link BufferedWriter} used to write logs to the file. */
-    private static BufferedWriter logWriter;
+    static final String LOG_FILE_EXTENSION = ".log";
+    /** The file extension for binary log files. */
+    static final String BINARY_LOG_FILE_EXTENSION = ".evt";
+    /** The name of log files without extension while they are written, overwritten each time a new log is opened. */
+    static final String LATEST_LOG_FILE_NAME = "latest";
+    /** The archiver renaming, compressing and pruning finished log files. */
+    private static final LogArchiver ARCHIVER = new LogArchiver();
+    /** The directory where log files are stored. */
+    private static Path logDirectory = Paths.get(DEFAULT_LOG_DIRECTORY);
+    /** Settings of the writer used for logs opened afterward. */
+    private static LogWriterSettings writerSettings = LogWriterSettings.DEFAULTS;
+    /** Format of logs opened afterward. */
+    private static LogFormat logFormat = LogFormat.TEXT;
+    /** Rotation policy of logs opened afterward. */
+    private static LogRotation rotation = LogRotation.NONE;
+    /**
+     * The {@link AsyncLogWriter} writing events to the open text log file, or {@code null}.
+     * Writers are subscribed to the {@link EventLogger} only while the log is open,
+     * so that events are not created when nothing is logged.
+     */
+    private static volatile AsyncLogWriter logWriter;
+    /** The {@link AsyncLogWriter} writing events to the open binary log file, or {@code null}. */
+    private static volatile AsyncLogWriter binaryLogWriter;
     /** The current {@link World} ID for which the log is being written. */
     private static String currentWorldId;
     
     static {
-        File logDir = new File(LOG_DIRECTORY);
-        if (!logDir.exists()) {
-            createLogDirectory();
-        }
-
-        Consumer<Event> logListener = event -> {
-            if (logWriter != null) {
-                try {
-                    logWriter.write(event.toString());
-                    logWriter.newLine();
-                    logWriter.flush();
-                } catch (IOException e) {
-                    System.err.println("Failed to write to log file: " + e.getMessage());
-                }
+        createLogDirectory();
+        // Write out events still queued when the JVM exits without closing the log
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            AsyncLogWriter writer = logWriter;
+            if (writer != null) {
+                writer.close();
             }
-        };
-
-        EventLogger.subscribe(logListener);
+            AsyncLogWriter binaryWriter = binaryLogWriter;
+            if (binaryWriter != null) {
+                binaryWriter.close();
+            }
+            ARCHIVER.awaitIdle();
+        }, "log-shutdown"));
     }
     
     /**
      * Creates the logs' directory if it does not exist.
-     * This method is called during static initialization to ensure that
-     * the logs directory is available before any logging operations.
+     * This method is called during static initialization and whenever the directory changes
+     * to ensure that the logs directory is available before any logging operations.
      */
     private static void createLogDirectory() {
+        if (Files.isDirectory(logDirectory)) {
+            return;
+        }
         try {
-            Files.createDirectories(Paths.get(LOG_DIRECTORY));
+            Files.createDirectories(logDirectory);
         } catch (IOException e) {
             System.err.println("Failed to create logs directory: " + e.getMessage());
         }
     }
     
     /**
-     * Opens a new log file for the specified world ID.
-     * This method initializes the log writer and subscribes to the {@link EventLogger}
-     * to write events to the log file.
+     * Changes the directory where log files are stored. The change applies to logs opened afterward;
+     * a log that is currently open is still closed and archived in its original directory.
      *
-     * @param worldId the unique identifier for the world being logged
+     * @param directory the directory for new log files; created if it does not exist
+     * @throws IllegalArgumentException if the directory is null
      */
-    public static void openLog(String worldId) {
-        if (logWriter != null) {
+    public static void setLogDirectory(Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Log directory cannot be null");
+        }
+        logDirectory = directory;
+        createLogDirectory();
+    }
+
+    /**
+     * Changes the settings of the asynchronous writer, such as the group-commit and overflow policies.
+     * The change applies to logs opened afterward.
+     *
+     * @param settings the settings of the writer
+     * @throws IllegalArgumentException if the settings are null
+     */
+    public static void setWriterSettings(LogWriterSettings settings) {
+        if (settings == null) {
+            throw new IllegalArgumentException("Writer settings cannot be null");
+        }
+        writerSettings = settings;
+    }
+
+    /**
+     * Changes the format of the log files, see {@link LogFormat}. The change applies to logs opened afterward.
+     *
+     * @param format the format of new log files
+     * @throws IllegalArgumentException if the format is null
+     */
+    public static void setLogFormat(LogFormat format) {
+        if (format == null) {
+            throw new IllegalArgumentException("Log format cannot be null");
+        }
+        logFormat = format;
+    }
+
+    /**
+     * Changes the rotation, compression and retention policy of the log files.
+     * The change applies to logs opened afterward.
+     *
+     * @param rotation the rotation policy of new log files
+     * @throws IllegalArgumentException if the policy is null
+     */
+    public static void setRotation(LogRotation rotation) {
+        if (rotation == null) {
+            throw new IllegalArgumentException("Log rotation cannot be null");
+        }
+        LogExporter.rotation = rotation;
+    }
+
+    /**
+     * Waits until archived log files are compressed and old ones are deleted by the retention limit.
+     * Compression runs on a background thread and is otherwise not awaited by {@link #closeLog()}.
+     */
+    public static void awaitArchiving() {
+        ARCHIVER.awaitIdle();
+    }
+
+    /**
+     * Opens new log files for the specified world.
+     * This method starts an asynchronous writer for every file of the {@link LogFormat} and subscribes
+     * it to the {@link EventLogger} to write events of every type. Events are formatted and written
+     * on the thread of the writer, see {@link LogWriterSettings}.
+     *
+     * @param world the world being logged
+     */
+    public static void openLog(World world) {
+        if (logWriter != null || binaryLogWriter != null) {
             closeLog();
         }
 
-        currentWorldId = worldId;
+        currentWorldId = world.getId();
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss"));
+        String archiveName = timestamp + "_world" + currentWorldId;
         
         try {
-            logWriter = Files.newBufferedWriter(
-                    Paths.get(LOG_DIRECTORY, LATEST_LOG_FILE_NAME),
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.TRUNCATE_EXISTING
-            );
-        } catch (IOException e) {
+            if (logFormat.includesText()) {
+                logWriter = new AsyncLogWriter(
+                        new LogSegments(logDirectory, archiveName, LOG_FILE_EXTENSION, rotation, ARCHIVER),
+                        writerSettings, null);
+                EventLogger.subscribe(logWriter);
+            }
+            if (logFormat.includesBinary()) {
+                binaryLogWriter = new AsyncLogWriter(
+                        new LogSegments(logDirectory, archiveName, BINARY_LOG_FILE_EXTENSION, rotation, ARCHIVER),
+                        writerSettings, new BinaryLogEncoder(world));
+                EventLogger.subscribe(binaryLogWriter);
+            }
+        } catch (IOException | IllegalArgumentException e) {
             System.err.println("Failed to create log file: " + e.getMessage());
         }
     }
 
     /**
-     * Closes the current log file and archives it by calling {@link #archiveLog()}.
+     * Unsubscribes from the {@link EventLogger}, waits until all queued events are written,
+     * closes the current log files and archives them by renaming them with the time the log
+     * was opened and the world ID. Compression of archived files continues in the background.
      */
     public static void closeLog() {
         if (logWriter != null) {
-            try {
-                logWriter.close();
-                archiveLog();
-            } catch (IOException e) {
-                System.err.println("Failed to close log file: " + e.getMessage());
-            }
+            closeWriter(logWriter);
+            logWriter = null;
+        }
+        if (binaryLogWriter != null) {
+            closeWriter(binaryLogWriter);
+            binaryLogWriter = null;
         }
+        currentWorldId = null;
     }
 
     /**
-     * Archives the current log file by renaming it with a timestamp and the current world ID.
+     * Unsubscribes a writer, waits until its queued events are written and its last segment
+     * is archived, and reports dropped events.
+     *
+     * @param writer the writer to close
      */
-    private static void archiveLog() {
-        if (currentWorldId != null) {
-            Path latestLogPath = Paths.get(LOG_DIRECTORY, LATEST_LOG_FILE_NAME);
-            if (!Files.exists(latestLogPath)) {
-                return;
-            }
-            
-            try {
-                String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "T" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HHmmss"));
-                String archiveFileName = timestamp + "_world" + currentWorldId + LOG_FILE_EXTENSION;
-                Path archiveLogPath = Paths.get(LOG_DIRECTORY, archiveFileName);
-                
-                Files.copy(latestLogPath, archiveLogPath, StandardCopyOption.REPLACE_EXISTING);
-                currentWorldId = null;
-            } catch (IOException e) {
-                System.err.println("Failed to archive log file: " + e.getMessage());
-            }
+    private static void closeWriter(AsyncLogWriter writer) {
+        EventLogger.unsubscribe(writer);
+        writer.close();
+        if (writer.getDroppedEvents() > 0) {
+            System.err.println("Log of world " + currentWorldId + " dropped " + writer.getDroppedEvents() + " events");
         }
     }
 }
@@ -0,0 +1,35 @@
+package org.wildloop;
+
+/**
+ * Formats of the event logs written by {@link LogExporter}.
+ *
+ * @see LogExporter
+ * @see BinaryLogReader
+ */
+public enum LogFormat {
+    /** One line of text per event, as returned by {@link Event#toString()} */
+    TEXT,
+    /**
+     * Compact records of fixed width per event type, described in {@link BinaryLogReader}.
+     * Binary logs are read with {@link BinaryLogReader} and converted to text with {@link LogConverter}.
+     */
+    BINARY,
+    /** Both a text log and a binary log of the same events */
+    BOTH;
+
+    /**
+     * Checks if this format includes the text log.
+     * @return true for {@link #TEXT} and {@link #BOTH}
+     */
+    public boolean includesText() {
+        return this != BINARY;
+    }
+
+    /**
+     * Checks if this format includes the binary log.
+     * @return true for {@link #BINARY} and {@link #BOTH}
+     */
+    public boolean includesBinary() {
+        return this != TEXT;
+    }
+}
@@ -0,0 +1,41 @@
+package org.wildloop;
+
+/**
+ * Rotation, compression and retention policy of the logs written by {@link LogExporter}.
+ * <p>
+ * While a log is open, events are written to {@code latest.log} (and {@code latest.evt} for binary logs).
+ * When the current segment reaches a size or a number of turns, it is renamed to an archive file and
+ * writing continues in a new segment. Archive files of one log share the time the log was opened and
+ * the world ID in their name, followed by the segment number if the log was rotated. Every archived
+ * file can be compressed with gzip on a background thread, after which the oldest archives are
+ * deleted while the archives in the directory exceed a size limit. A value of 0 disables a limit.
+ *
+ * @param maxSegmentBytes   size in bytes after which a segment is finished, or 0
+ * @param segmentTurns      number of turns after which a segment is finished, or 0
+ * @param compress          true to compress archived files with gzip
+ * @param maxDirectoryBytes total size in bytes of archived files kept in the log directory, or 0
+ * @see LogExporter
+ */
+public record LogRotation(long maxSegmentBytes, int segmentTurns, boolean compress, long maxDirectoryBytes) {
+    /** Policy used unless changed with {@link LogExporter#setRotation(LogRotation)}: one uncompressed file per log, kept forever */
+    public static final LogRotation NONE = new LogRotation(0, 0, false, 0);
+
+    /**
+     * Validates the policy.
+     *
+     * @throws IllegalArgumentException if a limit is negative
+     */
+    public LogRotation {
+        if (maxSegmentBytes < 0 || segmentTurns < 0 || maxDirectoryBytes < 0) {
+            throw new IllegalArgumentException("Rotation limits cannot be negative");
+        }
+    }
+
+    /**
+     * Checks if logs are split into segments.
+     * @return true if a segment size or a number of turns is set
+     */
+    public boolean rotates() {
+        return maxSegmentBytes > 0 || segmentTurns > 0;
+    }
+}
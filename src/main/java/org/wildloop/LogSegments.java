@@ -0,0 +1,78 @@
+package org.wildloop;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Names and archives the segments of one log file, see {@link LogRotation}.
+ * <p>
+ * Events are always written to the latest file of the log. A finished segment is renamed to the base name
+ * of the log followed by its segment number, and the last segment of a log that was never rotated is
+ * renamed to the base name alone, so logs without rotation keep a single archive file.
+ *
+ * @see AsyncLogWriter
+ * @see LogArchiver
+ */
+final class LogSegments {
+    /** Directory of the log */
+    private final Path directory;
+    /** Name of archive files without segment number and extension */
+    private final String baseName;
+    /** Extension of the log files */
+    private final String extension;
+    /** Rotation policy of the log */
+    private final LogRotation rotation;
+    /** Archiver renaming and compressing finished segments */
+    private final LogArchiver archiver;
+    /** Number of segments archived so far */
+    private int archived;
+
+    /**
+     * Creates the segments of a log.
+     *
+     * @param directory directory of the log
+     * @param baseName  name of archive files without segment number and extension
+     * @param extension extension of the log files
+     * @param rotation  rotation policy of the log
+     * @param archiver  archiver of finished segments
+     */
+    LogSegments(Path directory, String baseName, String extension, LogRotation rotation, LogArchiver archiver) {
+        this.directory = directory;
+        this.baseName = baseName;
+        this.extension = extension;
+        this.rotation = rotation;
+        this.archiver = archiver;
+    }
+
+    /**
+     * Returns the file receiving events.
+     * @return latest file of the log
+     */
+    Path latest() {
+        return directory.resolve(LogExporter.LATEST_LOG_FILE_NAME + extension);
+    }
+
+    /**
+     * Returns the rotation policy of the log.
+     * @return rotation policy
+     */
+    LogRotation rotation() {
+        return rotation;
+    }
+
+    /**
+     * Archives the latest file as the next segment.
+     *
+     * @param last true if the log is being closed
+     * @return archive file
+     * @throws IOException if the file cannot be renamed
+     */
+    Path archive(boolean last) throws IOException {
+        String name = last && archived == 0
+                ? baseName + extension
+                : String.format("%s_%03d%s", baseName, ++archived, extension);
+        Path archive = directory.resolve(name);
+        archiver.archive(latest(), archive, rotation);
+        return archive;
+    }
+}
@@ -0,0 +1,93 @@
+package org.wildloop;
+
+/**
+ * Settings of the asynchronous writer used by {@link LogExporter}.
+ * <p>
+ * Events are handed from the simulation thread to a bounded queue and encoded by a writer thread
+ * into a buffer, which is written to the log file in one call when it fills up or when the
+ * group-commit policy says so: after a number of events, after a delay since the first unwritten
+ * event, or at the end of every turn. Criteria can be combined; a value of 0 disables a criterion.
+ *
+ * @param queueCapacity  maximum number of events waiting for the writer thread
+ * @param bufferSize     size of the encoding buffer in bytes, at least {@link #MIN_BUFFER_SIZE}
+ * @param flushEvents    number of events after which buffered data is written, or 0
+ * @param flushMillis    maximum delay in milliseconds before buffered data is written, or 0
+ * @param flushEveryTurn true to write buffered data at the end of every turn
+ * @param overflow       behavior when the queue is full
+ * @param sampleRate     with {@link OverflowPolicy#SAMPLE}, one of this many events arriving
+ *                       at a full queue is kept
+ * @see LogExporter
+ */
+public record LogWriterSettings(
+        int queueCapacity,
+        int bufferSize,
+        int flushEvents,
+        long flushMillis,
+        boolean flushEveryTurn,
+        OverflowPolicy overflow,
+        int sampleRate) {
+
+    /** Smallest size of the encoding buffer in bytes */
+    public static final int MIN_BUFFER_SIZE = 64;
+    /** Settings used unless changed with {@link LogExporter#setWriterSettings(LogWriterSettings)}: no event is lost */
+    public static final LogWriterSettings DEFAULTS =
+            new LogWriterSettings(65_536, 1 << 20, 0, 200, true, OverflowPolicy.BLOCK, 10);
+
+    /**
+     * Behavior of the simulation thread when the queue of the writer is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait until the writer makes room; no event is lost */
+        BLOCK,
+        /** Discard the event */
+        DROP,
+        /** Keep one of every {@link #sampleRate()} events, waiting for room, and discard the others */
+        SAMPLE
+    }
+
+    /**
+     * Validates the settings.
+     *
+     * @throws IllegalArgumentException if the queue capacity or the sample rate is not positive, the buffer
+     *                                  is too small, a flush criterion is negative or the overflow policy is null
+     */
+    public LogWriterSettings {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        if (bufferSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Buffer size must be at least " + MIN_BUFFER_SIZE + " bytes");
+        }
+        if (flushEvents < 0 || flushMillis < 0) {
+            throw new IllegalArgumentException("Flush criteria cannot be negative");
+        }
+        if (overflow == null) {
+            throw new IllegalArgumentException("Overflow policy cannot be null");
+        }
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("Sample rate must be positive");
+        }
+    }
+
+    /**
+     * Returns a copy of these settings with a different overflow policy.
+     *
+     * @param overflow behavior when the queue is full
+     * @return modified settings
+     */
+    public LogWriterSettings withOverflow(OverflowPolicy overflow) {
+        return new LogWriterSettings(queueCapacity, bufferSize, flushEvents, flushMillis, flushEveryTurn, overflow, sampleRate);
+    }
+
+    /**
+     * Returns a copy of these settings with a different group-commit policy.
+     *
+     * @param flushEvents    number of events after which buffered data is written, or 0
+     * @param flushMillis    maximum delay in milliseconds before buffered data is written, or 0
+     * @param flushEveryTurn true to write buffered data at the end of every turn
+     * @return modified settings
+     */
+    public LogWriterSettings withFlush(int flushEvents, long flushMillis, boolean flushEveryTurn) {
+        return new LogWriterSettings(queueCapacity, bufferSize, flushEvents, flushMillis, flushEveryTurn, overflow, sampleRate);
+    }
+}
@@ -0,0 +1,292 @@
+package org.wildloop;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Runs the canonical {@link BenchmarkScenario}s headless and reports end-to-end throughput,
+ * as a complement to the microbenchmarks of the {@code jmh} profile.
+ * <p>
+ * Every scenario is run a number of times to warm up the JIT compiler and then measured a number
+ * of times. The fastest run, the one least disturbed by other processes and garbage collection,
+ * is reported as {@code key=value} lines prefixed with the name of the scenario:
+ * <ul>
+ * <li>{@code ticks.per.second} - executed turns per second</li>
+ * <li>{@code ns.per.update} - nanoseconds per animal update, counting every animal alive at the start of a turn</li>
+ * <li>{@code alloc.mb.per.second} - megabytes allocated per second by the simulation thread</li>
+ * <li>{@code peak.heap.mb} - largest sum of the peak usage of the heap memory pools over all runs</li>
+ * </ul>
+ * With a baseline file written by an earlier run, the throughput of every scenario is compared with
+ * the baseline and the benchmark fails if it dropped by more than the tolerance. The {@code benchmark}
+ * Maven profile runs it this way against {@code src/benchmark/baseline.properties}.
+ * <p>
+ * Supported options:
+ * <ul>
+ * <li>{@code --scenario NAME} - runs only the named scenario; repeatable, all scenarios by default</li>
+ * <li>{@code --warmup N} - number of unmeasured runs of every scenario</li>
+ * <li>{@code --runs N} - number of measured runs of every scenario</li>
+ * <li>{@code --output FILE} - file receiving the results in addition to the standard output</li>
+ * <li>{@code --baseline FILE} - results of an earlier run to compare with</li>
+ * <li>{@code --tolerance PERCENT} - largest accepted drop of throughput below the baseline</li>
+ * </ul>
+ *
+ * @see BenchmarkScenario
+ * @see HeadlessRunner
+ */
+public final class MacroBenchmark {
+    /** Description of the command line options printed on invalid input */
+    static final String USAGE = """
+            Usage: MacroBenchmark [options]
+              --scenario NAME        run only the named scenario (repeatable): %s
+              --warmup N             unmeasured runs of every scenario (default 1)
+              --runs N               measured runs of every scenario (default 3)
+              --output FILE          also write the results to FILE
+              --baseline FILE        fail if throughput dropped below the results in FILE
+              --tolerance PERCENT    accepted drop of throughput below the baseline (default 15)"""
+            .formatted(String.join(", ", Arrays.stream(BenchmarkScenario.values()).map(BenchmarkScenario::getScenarioName).toList()));
+    /** Key suffix of the throughput compared with the baseline */
+    static final String THROUGHPUT_KEY = ".ticks.per.second";
+    /** Number of bytes in a megabyte */
+    private static final double MEGABYTE = 1024 * 1024;
+
+    /** Scenarios to run */
+    private final List<BenchmarkScenario> scenarios = new ArrayList<>();
+    /** Number of unmeasured runs of every scenario */
+    private int warmup = 1;
+    /** Number of measured runs of every scenario */
+    private int runs = 3;
+    /** File receiving the results, or {@code null} */
+    private Path outputPath;
+    /** File with the baseline results, or {@code null} */
+    private Path baselinePath;
+    /** Largest accepted drop of throughput below the baseline in percent */
+    private int tolerance = 15;
+
+    /**
+     * Creates a benchmark configured by the given command line options.
+     *
+     * @param args command line options
+     * @throws IllegalArgumentException if an option is unknown, lacks a value or has an invalid value
+     */
+    public MacroBenchmark(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            switch (option) {
+                case "--scenario" -> scenarios.add(BenchmarkScenario.byName(HeadlessRunner.value(args, ++i, option)));
+                case "--warmup" -> warmup = HeadlessRunner.nonNegative(option, HeadlessRunner.value(args, ++i, option));
+                case "--runs" -> runs = HeadlessRunner.positive(option, HeadlessRunner.value(args, ++i, option));
+                case "--output" -> outputPath = Path.of(HeadlessRunner.value(args, ++i, option));
+                case "--baseline" -> baselinePath = Path.of(HeadlessRunner.value(args, ++i, option));
+                case "--tolerance" -> tolerance = HeadlessRunner.nonNegative(option, HeadlessRunner.value(args, ++i, option));
+                default -> throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+        if (scenarios.isEmpty()) {
+            scenarios.addAll(List.of(BenchmarkScenario.values()));
+        }
+    }
+
+    /**
+     * Measurements of one run of a scenario.
+     *
+     * @param turns          number of executed turns
+     * @param updates        number of animals alive at the start of the turns, summed over the turns
+     * @param elapsedNanos   duration of the run in nanoseconds
+     * @param allocatedBytes bytes allocated by the simulation thread, or -1 if not supported by the JVM
+     * @param peakHeapBytes  sum of the peak usage of the heap memory pools
+     */
+    record Run(int turns, long updates, long elapsedNanos, long allocatedBytes, long peakHeapBytes) {
+        /**
+         * Returns the number of turns executed per second.
+         * @return turns per second
+         */
+        double ticksPerSecond() {
+            return turns * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        /**
+         * Returns the average duration of an animal update.
+         * @return nanoseconds per update, or {@link Double#NaN} if no animal was updated
+         */
+        double nanosPerUpdate() {
+            return updates > 0 ? (double) elapsedNanos / updates : Double.NaN;
+        }
+
+        /**
+         * Returns the allocation rate of the simulation thread.
+         * @return megabytes per second, or {@link Double#NaN} if allocations are not measured
+         */
+        double allocationRate() {
+            return allocatedBytes >= 0 ? allocatedBytes / MEGABYTE * 1e9 / Math.max(1, elapsedNanos) : Double.NaN;
+        }
+    }
+
+    /**
+     * Runs every selected scenario and returns the results.
+     * @return results as {@code key=value} lines
+     */
+    public String run() {
+        StringBuilder results = new StringBuilder();
+        HeadlessRunner.append(results, "java.version", System.getProperty("java.version"));
+        HeadlessRunner.append(results, "processors", Runtime.getRuntime().availableProcessors());
+        for (BenchmarkScenario scenario : scenarios) {
+            for (int i = 0; i < warmup; i++) {
+                measure(scenario);
+            }
+            List<Run> measured = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                measured.add(measure(scenario));
+            }
+            long peakHeap = measured.stream().mapToLong(Run::peakHeapBytes).max().orElse(0);
+            Run fastest = measured.stream().max(Comparator.comparingDouble(Run::ticksPerSecond)).orElseThrow();
+
+            String prefix = scenario.getScenarioName();
+            HeadlessRunner.append(results, prefix + ".turns", fastest.turns());
+            HeadlessRunner.append(results, prefix + ".animal.updates", fastest.updates());
+            HeadlessRunner.append(results, prefix + THROUGHPUT_KEY, HeadlessRunner.format(fastest.ticksPerSecond()));
+            HeadlessRunner.append(results, prefix + ".ns.per.update", HeadlessRunner.format(fastest.nanosPerUpdate()));
+            HeadlessRunner.append(results, prefix + ".alloc.mb.per.second", HeadlessRunner.format(fastest.allocationRate()));
+            HeadlessRunner.append(results, prefix + ".peak.heap.mb", HeadlessRunner.format(peakHeap / MEGABYTE));
+        }
+        return results.toString();
+    }
+
+    /**
+     * Runs a scenario once on the current thread. The heap is collected before the run, so that
+     * garbage of earlier runs does not count towards the peak usage.
+     *
+     * @param scenario scenario to run
+     * @return measurements of the run
+     */
+    static Run measure(BenchmarkScenario scenario) {
+        World world = scenario.createWorld();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isValid()).toList();
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long allocatedBefore = allocatedBytes();
+        long updates = 0;
+        long start = System.nanoTime();
+        for (int turn = 0; turn < scenario.getTurns(); turn++) {
+            updates += world.getStats().population();
+            world.tick();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+
+        long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        long allocated = allocatedBefore >= 0 && allocatedAfter >= 0 ? allocatedAfter - allocatedBefore : -1;
+        return new Run(scenario.getTurns(), updates, elapsedNanos, allocated, peakHeap);
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread so far.
+     * @return allocated bytes, or -1 if the JVM does not measure them
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean sunThreads && sunThreads.isThreadAllocatedMemoryEnabled()) {
+            return sunThreads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Compares throughput with a baseline. Scenarios missing from either side are skipped.
+     *
+     * @param baseline  earlier results
+     * @param results   current results
+     * @param tolerance largest accepted drop of throughput below the baseline in percent
+     * @return description of every scenario whose throughput dropped by more than the tolerance
+     */
+    static List<String> findRegressions(Properties baseline, Properties results, int tolerance) {
+        List<String> regressions = new ArrayList<>();
+        for (String key : new TreeSet<>(results.stringPropertyNames())) {
+            if (!key.endsWith(THROUGHPUT_KEY) || baseline.getProperty(key) == null) {
+                continue;
+            }
+            double expected = Double.parseDouble(baseline.getProperty(key));
+            double actual = Double.parseDouble(results.getProperty(key));
+            if (actual < expected * (1 - tolerance / 100.0)) {
+                regressions.add(String.format(Locale.ROOT, "%s: %.3f ticks/s is %.1f%% below the baseline of %.3f",
+                        key.substring(0, key.length() - THROUGHPUT_KEY.length()), actual,
+                        (1 - actual / expected) * 100, expected));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Reads results written by an earlier run.
+     *
+     * @param path file to read
+     * @return results
+     * @throws IOException if the file cannot be read
+     */
+    private static Properties load(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    /**
+     * Entry point. Runs the scenarios, prints and writes the results and compares them with the baseline.
+     * Exits with status 2 on invalid options and with status 1 if the results cannot be written,
+     * the baseline cannot be read or the throughput of a scenario regressed.
+     *
+     * @param args command line options, see {@link MacroBenchmark}
+     */
+    public static void main(String[] args) {
+        MacroBenchmark benchmark;
+        try {
+            benchmark = new MacroBenchmark(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        String results = benchmark.run();
+        System.out.print(results);
+        try {
+            if (benchmark.outputPath != null) {
+                Path parent = benchmark.outputPath.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                Files.writeString(benchmark.outputPath, results);
+            }
+            if (benchmark.baselinePath != null) {
+                Properties current = new Properties();
+                current.load(new StringReader(results));
+                List<String> regressions = findRegressions(load(benchmark.baselinePath), current, benchmark.tolerance);
+                if (!regressions.isEmpty()) {
+                    System.err.println("Throughput regressed by more than " + benchmark.tolerance + "%:");
+                    regressions.forEach(regression -> System.err.println("  " + regression));
+                    System.exit(1);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write or compare benchmark results: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package org.wildloop;
 
 import javax.swing.*;
+import java.util.Arrays;
 
 /**
  * Main application class containing program entry point.
  * The class launches and initializes the application by creating
  * the main window in the event-dispatching thread (EDT).
+ * When started with {@code --headless}, the simulation runs without a window
+ * through {@link HeadlessRunner} and Swing is never loaded.
  *
  * @see StartApp
+ * @see HeadlessRunner
  * @see SimulationPanel
  * @see SimulationConfig
  * @see World
@@ -24,11 +28,16 @@ import javax.swing.*;
  */
 public class Main {
     /**
-     * Application entry point. Creates and launches the main application window in the EDT thread.
+     * Application entry point. Creates and launches the main application window in the EDT thread,
+     * or runs the simulation headless if the first argument is {@code --headless}.
      *
-     * @param args command line arguments (not used)
+     * @param args command line arguments; {@code --headless} followed by {@link HeadlessRunner} options
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--headless")) {
+            HeadlessRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         SwingUtilities.invokeLater(StartApp::new);
         EventLogger.subscribe(System.out::println);
     }
@@ -0,0 +1,207 @@
+package org.wildloop;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentation of the simulation: the global {@link MetricsRegistry} and the metrics recorded
+ * by the simulation, the log writer and event publishing.
+ * <p>
+ * Instrumentation is off by default and can be switched at runtime with {@link #setEnabled(boolean)},
+ * through the {@link MetricsMXBean} or with the {@code --metrics} option of {@link HeadlessRunner}.
+ * While it is off, every instrumented section only reads one volatile flag. While it is on, the
+ * following metrics are collected:
+ * <ul>
+ * <li>{@code world.tick} - duration of {@link World#tick()}, and {@code world.turns} counting turns</li>
+ * <li>{@code animal.move}, {@code animal.eat}, {@code animal.reproduce}, {@code animal.death_check} -
+ *     duration of the phases of {@link Animal#update()}; the reproduction phase includes the second
+ *     attempt to eat of animals without enough energy to reproduce</li>
+ * <li>{@code events.publish} - time spent delivering an event to its listeners,
+ *     and {@code events.published} counting events</li>
+ * <li>{@code log.write} - duration of a write of the log writer to its file,
+ *     and {@code log.bytes} counting the bytes written</li>
+ * </ul>
+ * The registry can be read through JMX after {@link #registerMBean()} and over HTTP from
+ * {@code http://127.0.0.1:PORT/metrics} after {@link #startServer(int)}.
+ *
+ * @see MetricsRegistry
+ * @see LatencyHistogram
+ * @see MetricsMXBean
+ */
+public final class Metrics {
+    /** Object name of the MBean registered by {@link #registerMBean()} */
+    public static final String OBJECT_NAME = "org.wildloop:type=Metrics";
+    /** Path of the scrape endpoint served by {@link #startServer(int)} */
+    public static final String PATH = "/metrics";
+    /** Start time returned by {@link #start()} while instrumentation is off */
+    static final long OFF = Long.MIN_VALUE;
+
+    /** Registry holding every metric of the simulation */
+    private static final MetricsRegistry REGISTRY = new MetricsRegistry();
+    /** Flag indicating whether metrics are collected */
+    private static volatile boolean enabled;
+
+    /** Duration of a turn */
+    static final LatencyHistogram TICK = REGISTRY.histogram("world.tick");
+    /** Number of executed turns */
+    static final LongAdder TURNS = REGISTRY.counter("world.turns");
+    /** Duration of the move phase of an animal */
+    static final LatencyHistogram MOVE = REGISTRY.histogram("animal.move");
+    /** Duration of the eating phase of an animal */
+    static final LatencyHistogram EAT = REGISTRY.histogram("animal.eat");
+    /** Duration of the reproduction phase of an animal */
+    static final LatencyHistogram REPRODUCE = REGISTRY.histogram("animal.reproduce");
+    /** Duration of the death checks of an animal */
+    static final LatencyHistogram DEATH_CHECK = REGISTRY.histogram("animal.death_check");
+    /** Time spent delivering an event to its listeners */
+    static final LatencyHistogram PUBLISH = REGISTRY.histogram("events.publish");
+    /** Number of published events */
+    static final LongAdder EVENTS = REGISTRY.counter("events.published");
+    /** Duration of a write of the log writer */
+    static final LatencyHistogram LOG_WRITE = REGISTRY.histogram("log.write");
+    /** Number of bytes written to log files */
+    static final LongAdder LOG_BYTES = REGISTRY.counter("log.bytes");
+
+    /**
+     * Returns the registry holding every metric of the simulation.
+     * @return global registry
+     */
+    public static MetricsRegistry registry() {
+        return REGISTRY;
+    }
+
+    /**
+     * Checks if instrumentation is switched on.
+     * @return true if metrics are collected
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switches instrumentation on or off. Sections already running finish as they started.
+     * @param enabled true to collect metrics
+     */
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * Starts timing an instrumented section.
+     * @return current time in nanoseconds, or {@link #OFF} while instrumentation is off
+     */
+    static long start() {
+        return enabled ? System.nanoTime() : OFF;
+    }
+
+    /**
+     * Records the time elapsed since the start of a section and starts timing the next one.
+     *
+     * @param histogram histogram receiving the duration
+     * @param start     value returned by {@link #start()} or by the previous lap
+     * @return current time in nanoseconds, or {@link #OFF} if the section was not timed
+     */
+    static long lap(LatencyHistogram histogram, long start) {
+        if (start == OFF) {
+            return OFF;
+        }
+        long now = System.nanoTime();
+        histogram.record(now - start);
+        return now;
+    }
+
+    /**
+     * Registers the {@link MetricsMXBean} with the platform MBean server under {@link #OBJECT_NAME}.
+     * Does nothing if it is already registered.
+     *
+     * @throws IllegalStateException if the MBean cannot be registered
+     */
+    public static synchronized void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Registered before
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register metrics MBean: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Starts an HTTP server on the loopback interface that answers {@code GET} requests to
+     * {@link #PATH} with {@link MetricsRegistry#scrape()}. The server runs until it is stopped
+     * with {@link HttpServer#stop(int)}.
+     *
+     * @param port port to listen on, or 0 to choose a free port
+     * @return running server; {@link HttpServer#getAddress()} tells the port
+     * @throws IOException if the port cannot be bound
+     */
+    public static HttpServer startServer(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(PATH, Metrics::handleScrape);
+        server.start();
+        return server;
+    }
+
+    /**
+     * Answers a request to the scrape endpoint.
+     *
+     * @param exchange request and response
+     * @throws IOException if the response cannot be sent
+     */
+    private static void handleScrape(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = REGISTRY.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * MBean delegating to the global registry and flag.
+     */
+    private static final class Bean implements MetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return Metrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            Metrics.setEnabled(enabled);
+        }
+
+        @Override
+        public Map<String, Long> getValues() {
+            return REGISTRY.values();
+        }
+
+        @Override
+        public String scrape() {
+            return REGISTRY.scrape();
+        }
+
+        @Override
+        public void reset() {
+            REGISTRY.reset();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.wildloop;
+
+import java.util.Map;
+
+/**
+ * Management interface of the simulation metrics, registered by {@link Metrics#registerMBean()}
+ * under the name {@value Metrics#OBJECT_NAME}. It lets tools such as JConsole switch
+ * instrumentation on and off at runtime and read the collected values.
+ *
+ * @see Metrics
+ * @see MetricsRegistry
+ */
+public interface MetricsMXBean {
+    /**
+     * Checks if instrumentation is switched on.
+     * @return true if metrics are collected
+     */
+    boolean isEnabled();
+
+    /**
+     * Switches instrumentation on or off.
+     * @param enabled true to collect metrics
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Returns the current values of all metrics, see {@link MetricsRegistry#values()}.
+     * @return values sorted by name
+     */
+    Map<String, Long> getValues();
+
+    /**
+     * Formats all metrics as plain text, see {@link MetricsRegistry#scrape()}.
+     * @return text of all metrics
+     */
+    String scrape();
+
+    /**
+     * Clears every counter and histogram.
+     */
+    void reset();
+}
@@ -0,0 +1,132 @@
+package org.wildloop;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named counters and latency histograms, created on first use and kept for the life of the registry.
+ * <p>
+ * Names are dot-separated, such as {@code world.tick}. {@link #scrape()} formats every metric as
+ * plain text in the Prometheus exposition format, with dots replaced by underscores and a
+ * {@code wildloop_} prefix, so the output can be read by a person or collected by a monitoring system.
+ * All methods are thread-safe.
+ *
+ * @see Metrics
+ * @see LatencyHistogram
+ */
+public final class MetricsRegistry {
+    /** Quantiles reported for every histogram */
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    /** Prefix of the names of scraped metrics */
+    private static final String PREFIX = "wildloop_";
+
+    /** Counters by name */
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    /** Histograms by name */
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the counter with the given name, creating it if needed.
+     *
+     * @param name name of the counter
+     * @return counter
+     * @throws IllegalArgumentException if the name is null or empty
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(checkName(name), key -> new LongAdder());
+    }
+
+    /**
+     * Returns the latency histogram with the given name, creating it if needed.
+     *
+     * @param name name of the histogram
+     * @return histogram
+     * @throws IllegalArgumentException if the name is null or empty
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(checkName(name), key -> new LatencyHistogram());
+    }
+
+    /**
+     * Returns the current values of all metrics: every counter under its name, and the count,
+     * median, 99th percentile and maximum of every histogram under its name followed by
+     * {@code .count}, {@code .p50}, {@code .p99} and {@code .max}, in nanoseconds.
+     *
+     * @return values sorted by name
+     */
+    public Map<String, Long> values() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        histograms.forEach((name, histogram) -> {
+            values.put(name + ".count", histogram.getCount());
+            values.put(name + ".p50", histogram.getQuantile(0.5));
+            values.put(name + ".p99", histogram.getQuantile(0.99));
+            values.put(name + ".max", histogram.getMax());
+        });
+        return values;
+    }
+
+    /**
+     * Formats all metrics as plain text in the Prometheus exposition format. Counters become
+     * {@code counter} metrics, histograms become {@code summary} metrics in nanoseconds with
+     * quantiles, count, sum and maximum.
+     *
+     * @return text of all metrics sorted by name
+     */
+    public String scrape() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+            String name = exportName(entry.getKey()) + "_total";
+            text.append("# TYPE ").append(name).append(" counter\n");
+            text.append(name).append(' ').append(entry.getValue().sum()).append('\n');
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            String name = exportName(entry.getKey()) + "_nanoseconds";
+            LatencyHistogram histogram = entry.getValue();
+            text.append("# TYPE ").append(name).append(" summary\n");
+            for (double quantile : QUANTILES) {
+                text.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                        .append(histogram.getQuantile(quantile)).append('\n');
+            }
+            text.append(name).append("_count ").append(histogram.getCount()).append('\n');
+            text.append(name).append("_sum ").append(histogram.getSum()).append('\n');
+            text.append(name).append("_max ").append(histogram.getMax()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Clears every counter and histogram, keeping their names.
+     */
+    public void reset() {
+        counters.values().forEach(LongAdder::reset);
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Validates the name of a metric.
+     *
+     * @param name name to check
+     * @return the name
+     * @throws IllegalArgumentException if the name is null or empty
+     */
+    private static String checkName(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Metric name cannot be null or empty");
+        }
+        return name;
+    }
+
+    /**
+     * Converts the name of a metric to a Prometheus metric name.
+     *
+     * @param name dot-separated name
+     * @return prefixed name made of lowercase letters, digits and underscores
+     */
+    private static String exportName(String name) {
+        return PREFIX + name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_]", "_");
+    }
+}
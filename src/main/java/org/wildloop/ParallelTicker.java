@@ -0,0 +1,258 @@
+package org.wildloop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+
+/**
+ * Executes a turn of a {@link World} in {@link TickMode#PARALLEL} mode.
+ * <p>
+ * The grid is split into vertical strips aligned to the buckets of the spatial index.
+ * A turn runs in two phases: first all even strips are updated concurrently, then all odd strips.
+ * Strips are wide enough that an animal can neither see nor modify anything inside another strip
+ * of the same parity, so strips running at the same time never interact. Animals that cross
+ * into a neighbouring strip are marked as having acted and are skipped when that strip runs.
+ * <p>
+ * The animals of every strip are collected from the spatial index on the calling thread before a
+ * phase starts, because the index must not be read while strips change it.
+ * <p>
+ * Changes to state shared by the whole world are recorded per strip and applied on the calling
+ * thread after each phase, in strip order: new animals join the animal list and receive their
+ * identifiers, dead animals leave the list, population totals are updated, and buffered events
+ * are published. Serial numbers
+ * of offspring are taken from a range reserved for each strip, and every strip draws random
+ * numbers from its own generator. Together this makes the outcome of a turn independent of
+ * thread scheduling.
+ *
+ * @see World
+ * @see TickMode
+ */
+final class ParallelTicker {
+    /** World updated by this ticker */
+    private final World world;
+    /** Width of a single strip in world cells */
+    private final int stripWidth;
+    /** Strips covering the world from left to right */
+    private final Strip[] strips;
+
+    /**
+     * Creates a ticker for the given world.
+     *
+     * @param world     world to update
+     * @param cellSize  size of a spatial index bucket
+     * @param maxRange  largest detection range of any animal
+     */
+    ParallelTicker(World world, int cellSize, int maxRange) {
+        this.world = world;
+        // An animal may read up to maxRange cells away and write up to two cells away
+        // (move, then eat or place offspring next to its new cell). Strips of the same parity
+        // are separated by one full strip, which must be wider than both reaches and span at
+        // least two buckets so that no bucket is modified by two strips at once.
+        int minWidth = Math.max(maxRange, 2) + 2;
+        this.stripWidth = cellSize * Math.max(2, (minWidth + cellSize - 1) / cellSize);
+
+        int count = (world.getWidth() + stripWidth - 1) / stripWidth;
+        this.strips = new Strip[count];
+        for (int i = 0; i < count; i++) {
+            strips[i] = new Strip(i * stripWidth, Math.min(world.getWidth(), (i + 1) * stripWidth) - 1);
+        }
+    }
+
+    /**
+     * Returns the width of a single strip.
+     * @return strip width in world cells
+     */
+    int getStripWidth() {
+        return stripWidth;
+    }
+
+    /**
+     * Updates every animal of the world once, using the given pool.
+     *
+     * Each strip draws random numbers from its own generator, split from the given one
+     * in strip order at the start of every turn.
+     *
+     * @param pool   pool executing strip updates
+     * @param random generator of the world, used to derive strip generators
+     */
+    void tick(ForkJoinPool pool, SplittableRandom random) {
+        for (Strip strip : strips) {
+            strip.random = random.split();
+        }
+        runPhase(pool, 0);
+        runPhase(pool, 1);
+    }
+
+    /**
+     * Updates all strips of the given parity concurrently and applies their recorded changes.
+     *
+     * @param pool   pool executing strip updates
+     * @param parity 0 for even strips, 1 for odd strips
+     */
+    private void runPhase(ForkJoinPool pool, int parity) {
+        List<Strip> phase = new ArrayList<>();
+        long serialSpan = (long) stripWidth * world.getHeight();
+        long serialBase = world.reserveSerials(serialSpan * strips.length);
+        for (int i = parity; i < strips.length; i += 2) {
+            Strip strip = strips[i];
+            strip.nextSerial = serialBase + serialSpan * i;
+            strip.collectResidents();
+            phase.add(strip);
+        }
+
+        if (phase.size() == 1) {
+            phase.get(0).run();
+        } else {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(phase.stream().map(StripTask::new).toList());
+                }
+            });
+        }
+
+        for (Strip strip : phase) {
+            strip.applyChanges();
+        }
+        for (Strip strip : phase) {
+            strip.publishEvents();
+        }
+    }
+
+    /**
+     * Fork/join task updating a single strip. Tasks are never serialized.
+     */
+    @SuppressWarnings("serial")
+    private static final class StripTask extends RecursiveAction {
+        /** Strip to update */
+        private final Strip strip;
+
+        /**
+         * Creates a task for the given strip.
+         * @param strip strip to update
+         */
+        StripTask(Strip strip) {
+            this.strip = strip;
+        }
+
+        @Override
+        protected void compute() {
+            strip.run();
+        }
+    }
+
+    /**
+     * Vertical strip of the world together with the changes recorded while updating it.
+     */
+    private final class Strip extends TickContext {
+        /** First column of the strip */
+        private final int fromX;
+        /** Last column of the strip */
+        private final int toX;
+        /** Animals found in the strip at the start of its phase */
+        private final List<Animal> residents = new ArrayList<>();
+        /** Animals born while updating the strip */
+        private final List<Animal> births = new ArrayList<>();
+        /** Animals that died while updating the strip */
+        private final List<Animal> deaths = new ArrayList<>();
+        /** Events logged while updating the strip */
+        private final List<Event> events = new ArrayList<>();
+        /** Serial number assigned to the next animal born in the strip */
+        private long nextSerial;
+        /** Random generator used by animals updated in this strip */
+        private SplittableRandom random;
+
+        /**
+         * Creates a strip covering the given columns.
+         *
+         * @param fromX first column (inclusive)
+         * @param toX   last column (inclusive)
+         */
+        private Strip(int fromX, int toX) {
+            super(ParallelTicker.this.world);
+            this.fromX = fromX;
+            this.toX = toX;
+        }
+
+        /**
+         * Collects the animals inside the strip at the start of its phase. Called on the calling thread
+         * before the phase runs.
+         */
+        private void collectResidents() {
+            residents.clear();
+            world.collectAnimals(fromX, toX, residents);
+        }
+
+        /**
+         * Updates every collected animal that has not acted yet this turn.
+         */
+        private void run() {
+            enter();
+            try {
+                int turn = world.getTurn();
+                for (Animal animal : residents) {
+                    if (!animal.isDead() && animal.getActedTurn() != turn) {
+                        animal.setActedTurn(turn);
+                        animal.update();
+                    }
+                }
+                residents.clear();
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        RandomGenerator getRandom() {
+            return random;
+        }
+
+        @Override
+        long nextSerial() {
+            return nextSerial++;
+        }
+
+        @Override
+        void recordBirth(Animal animal) {
+            births.add(animal);
+        }
+
+        @Override
+        void recordDeath(Animal animal) {
+            deaths.add(animal);
+        }
+
+        @Override
+        void recordEvent(Event event) {
+            events.add(event);
+        }
+
+        /**
+         * Applies recorded births, deaths and changes of the energy and age totals to the world.
+         */
+        private void applyChanges() {
+            for (Animal animal : births) {
+                world.registerAnimal(animal);
+            }
+            for (Animal animal : deaths) {
+                world.unregisterAnimal(animal);
+            }
+            world.applyTotals(this);
+            births.clear();
+            deaths.clear();
+        }
+
+        /**
+         * Publishes events buffered during the phase.
+         */
+        private void publishEvents() {
+            for (Event event : events) {
+                EventLogger.publish(event);
+            }
+            events.clear();
+        }
+    }
+}
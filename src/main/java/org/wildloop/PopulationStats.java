@@ -0,0 +1,104 @@
+package org.wildloop;
+
+/**
+ * Snapshot of the population of a {@link World}, returned by {@link World#getStats()}.
+ * <p>
+ * The world maintains every value as animals are added, removed, age and gain or lose energy,
+ * so taking a snapshot does not scan the animals or the grid. Births and deaths are counted
+ * since the world was created or last reset; animals placed before or between turns, such as
+ * the initial population, are not counted as births.
+ *
+ * @param turn           turn that will be executed next
+ * @param prey           number of living prey
+ * @param predators      number of living predators
+ * @param cells          number of cells of the world
+ * @param births         number of animals born during turns
+ * @param eatenDeaths    number of prey eaten by predators
+ * @param energyDeaths   number of animals that ran out of energy
+ * @param ageDeaths      number of animals that reached their maximum age
+ * @param removals       number of animals removed from the world directly
+ * @param totalEnergy    sum of the energy levels of all living animals
+ * @param totalAge       sum of the ages of all living animals
+ * @see World
+ * @see DeathCause
+ */
+public record PopulationStats(
+        int turn,
+        int prey,
+        int predators,
+        long cells,
+        long births,
+        long eatenDeaths,
+        long energyDeaths,
+        long ageDeaths,
+        long removals,
+        long totalEnergy,
+        long totalAge
+) {
+    /**
+     * Returns the number of living animals.
+     * @return number of prey and predators
+     */
+    public int population() {
+        return prey + predators;
+    }
+
+    /**
+     * Returns the number of occupied cells, equal to the population since each cell holds one animal.
+     * @return number of occupied cells
+     */
+    public int occupiedCells() {
+        return population();
+    }
+
+    /**
+     * Checks if every cell of the world is occupied.
+     * @return true if no empty cell is left
+     */
+    public boolean isFull() {
+        return population() == cells;
+    }
+
+    /**
+     * Returns the number of animals that left the world for the given reason.
+     *
+     * @param cause reason of death
+     * @return number of deaths
+     * @throws IllegalArgumentException if the cause is null
+     */
+    public long deaths(DeathCause cause) {
+        if (cause == null) {
+            throw new IllegalArgumentException("Death cause cannot be null");
+        }
+        return switch (cause) {
+            case EATEN -> eatenDeaths;
+            case ENERGY -> energyDeaths;
+            case AGE -> ageDeaths;
+            case REMOVED -> removals;
+        };
+    }
+
+    /**
+     * Returns the number of animals that died during turns, by any cause except direct removal.
+     * @return number of deaths
+     */
+    public long deaths() {
+        return eatenDeaths + energyDeaths + ageDeaths;
+    }
+
+    /**
+     * Returns the mean energy level of the living animals.
+     * @return mean energy, or {@link Double#NaN} if no animal is alive
+     */
+    public double averageEnergy() {
+        return population() == 0 ? Double.NaN : (double) totalEnergy / population();
+    }
+
+    /**
+     * Returns the mean age of the living animals.
+     * @return mean age, or {@link Double#NaN} if no animal is alive
+     */
+    public double averageAge() {
+        return population() == 0 ? Double.NaN : (double) totalAge / population();
+    }
+}
@@ -1,5 +1,7 @@
 package org.wildloop;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Represents predator in the simulation. Predator hunts for Prey objects
  * within a specified range and gains energy by eating them.
@@ -8,18 +10,21 @@ package org.wildloop;
  * @see Prey
  */
 public class Predator extends Animal {
-    /** Maximum age of predator after which it dies */
-    protected static final int MAX_AGE = SimulationConfig.getIntValue("predator.max.age");
-    /** Maximum range at which a predator can detect prey */
-    protected static final int HUNT_RANGE = SimulationConfig.getIntValue("predator.hunt.range");
-    /** Amount of energy gained by predator after eating prey */
-    protected static final int HUNT_ENERGY_GAIN = SimulationConfig.getIntValue("predator.hunt.energy.gain");
+    /** Maximum age of predator after which it dies, in the default configuration */
+    protected static final int MAX_AGE = WorldConfig.DEFAULTS.predatorMaxAge();
+    /** Maximum range at which a predator can detect prey, in the default configuration */
+    protected static final int HUNT_RANGE = WorldConfig.DEFAULTS.predatorHuntRange();
+    /** Amount of energy gained by predator after eating prey, in the default configuration */
+    protected static final int HUNT_ENERGY_GAIN = WorldConfig.DEFAULTS.predatorHuntEnergyGain();
+
+    /** Prefix of the identifiers of predators, followed by a number */
+    static final String ID_PREFIX = "PREDATOR-";
 
     /**
      * A static counter used to generate unique identifiers for prey instances.
      * Increments with each new prey created to ensure ID uniqueness.
      */
-    private static long idCounter = 0;
+    private static final AtomicLong idCounter = new AtomicLong();
 
     /**
      * Creates a new predator.
@@ -39,27 +44,27 @@ public class Predator extends Animal {
      */
     @Override
     protected String generateUniqueId() {
-        return "PREDATOR-" + ++idCounter;
+        return ID_PREFIX + idCounter.incrementAndGet();
     }
 
     /**
      * Determines the direction of predator's next move.
-     * If there is prey within {@link #HUNT_RANGE}, predator moves towards it.
+     * If there is prey within {@link WorldConfig#predatorHuntRange()}, predator moves towards it.
      * Otherwise, it chooses a random direction.
      *
      * @return direction in which predator should move
      */
     @Override
     protected Direction getNextMoveDirection() {
-        if (getEnergy() <= MAX_ENERGY - HUNT_ENERGY_GAIN) {
+        if (getEnergy() <= getMaxEnergy() - world.getConfig().predatorHuntEnergyGain()) {
             Prey nearestPrey = findNearestPrey();
             if (nearestPrey != null) {
-                Direction huntDirection = getPosition().directionTo(nearestPrey.getPosition());
+                Direction huntDirection = directionTo(nearestPrey);
                 Event.log(EventType.HUNT, world, this, nearestPrey, huntDirection);
                 return huntDirection;
             }
         }
-        return Direction.getRandom();
+        return Direction.getRandom(world.getRandom());
     }
 
     /**
@@ -68,39 +73,44 @@ public class Predator extends Animal {
      * @return nearest prey or {@code null} if none is within range
      */
     private Prey findNearestPrey() {
-        if (getPosition() == null) {
+        if (!hasPosition()) {
             throw new IllegalStateException("Predator has no position");
         }
 
-        Prey nearestPrey = null;
-        int minDistance = Integer.MAX_VALUE;
-
-        for (Animal animal : world.getAnimals()) {
-            if (animal instanceof Prey) {
-                int distance = getPosition().distanceTo(animal.getPosition());
-                if (distance <= HUNT_RANGE && distance < minDistance) {
-                    nearestPrey = (Prey) animal;
-                    minDistance = distance;
-                }
-            }
-        }
-
-        return nearestPrey;
+        return world.findNearest(getX(), getY(), world.getConfig().predatorHuntRange(), Prey.class);
     }
 
     /**
      * Allows the predator to eat prey if one is on an adjacent cell.
-     * After eating the prey, predator gains energy equal to {@link #HUNT_ENERGY_GAIN}.
+     * After eating the prey, predator gains energy equal to {@link WorldConfig#predatorHuntEnergyGain()}.
      */
     @Override
     protected void eat() {
-        Prey prey = findNearestPrey();
-        if (prey != null && getPosition().distanceTo(prey.getPosition()) == 1) {
-            Event.log(EventType.DIE_EATEN, world, prey, this);
-            prey.die();
+        eat(world.findNearest(getX(), getY(), 1, Prey.class));
+    }
+
+    /**
+     * Returns {@link Prey}, the type of animals eaten by predators.
+     * @return prey class
+     */
+    @Override
+    Class<? extends Animal> getFoodType() {
+        return Prey.class;
+    }
+
+    /**
+     * Eats the given prey, which dies, and gains energy equal to {@link WorldConfig#predatorHuntEnergyGain()}.
+     *
+     * @param food prey to eat, or {@code null} to do nothing
+     */
+    @Override
+    void eat(Animal food) {
+        if (food != null) {
+            Event.log(EventType.DIE_EATEN, world, food, this);
+            food.die(DeathCause.EATEN);
 
-            Event.log(EventType.EAT_PREY, world, this, prey);
-            setEnergy(getEnergy() + HUNT_ENERGY_GAIN);
+            Event.log(EventType.EAT_PREY, world, this, food);
+            setEnergy(getEnergy() + world.getConfig().predatorHuntEnergyGain());
         }
     }
 
@@ -108,7 +118,7 @@ public class Predator extends Animal {
      * Creates a new predator as offspring.
      *
      * @param position position for the new predator
-     * @return new predator object with initial energy equal to {@link #OFFSPRING_ENERGY}
+     * @return new predator object with initial energy equal to {@link WorldConfig#offspringEnergy()}
      */
     @Override
     protected Animal createOffspring(Position position) {
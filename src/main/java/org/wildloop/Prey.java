@@ -1,5 +1,7 @@
 package org.wildloop;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Represents prey in the simulation. Prey flees from Predator objects
  * within a specified range and gains energy through grazing.
@@ -8,18 +10,21 @@ package org.wildloop;
  * @see Predator
  */
 public class Prey extends Animal {
-    /** Maximum age of prey after which it dies */
-    protected static final int MAX_AGE = SimulationConfig.getIntValue("prey.max.age");
-    /** Maximum range at which prey can detect predator */
-    protected static final int FLEE_RANGE = SimulationConfig.getIntValue("prey.flee.range");
-    /** Amount of energy gained by prey while grazing */
-    protected static final int GRAZE_ENERGY_GAIN = SimulationConfig.getIntValue("prey.graze.energy.gain");
+    /** Maximum age of prey after which it dies, in the default configuration */
+    protected static final int MAX_AGE = WorldConfig.DEFAULTS.preyMaxAge();
+    /** Maximum range at which prey can detect predator, in the default configuration */
+    protected static final int FLEE_RANGE = WorldConfig.DEFAULTS.preyFleeRange();
+    /** Amount of energy gained by prey while grazing, in the default configuration */
+    protected static final int GRAZE_ENERGY_GAIN = WorldConfig.DEFAULTS.preyGrazeEnergyGain();
+
+    /** Prefix of the identifiers of prey, followed by a number */
+    static final String ID_PREFIX = "PREY-";
 
     /**
      * A static counter used to generate unique identifiers for prey instances.
      * Increments with each new prey created to ensure ID uniqueness.
      */
-    private static long idCounter = 0;
+    private static final AtomicLong idCounter = new AtomicLong();
 
     /**
      * Creates new prey.
@@ -39,12 +44,12 @@ public class Prey extends Animal {
      */
     @Override
     protected String generateUniqueId() {
-        return "PREY-" + ++idCounter;
+        return ID_PREFIX + idCounter.incrementAndGet();
     }
 
     /**
      * Determines the direction of prey's next move.
-     * If a predator is within {@link #FLEE_RANGE}, prey flees in opposite direction.
+     * If a predator is within {@link WorldConfig#preyFleeRange()}, prey flees in opposite direction.
      * Otherwise, choose a random direction.
      *
      * @return direction in which prey should move
@@ -53,11 +58,11 @@ public class Prey extends Animal {
     protected Direction getNextMoveDirection() {
         Predator nearestPredator = findNearestPredator();
         if (nearestPredator != null) {
-            Direction fleeDirection = getPosition().directionFrom(nearestPredator.getPosition());
+            Direction fleeDirection = directionFrom(nearestPredator);
             Event.log(EventType.FLEE, world, this, nearestPredator, fleeDirection);
             return fleeDirection;
         }
-        return Direction.getRandom();
+        return Direction.getRandom(world.getRandom());
     }
 
     /**
@@ -66,34 +71,22 @@ public class Prey extends Animal {
      * @return nearest predator or {@code null} if none is within range
      */
     private Predator findNearestPredator() {
-        if (getPosition() == null) {
+        if (!hasPosition()) {
             throw new IllegalStateException("Prey has no position defined");
         }
 
-        Predator nearestPredator = null;
-        int minDistance = Integer.MAX_VALUE;
-
-        for (Animal animal : world.getAnimals()) {
-            if (animal instanceof Predator) {
-                int distance = getPosition().distanceTo(animal.getPosition());
-                if (distance <= FLEE_RANGE && distance < minDistance) {
-                    nearestPredator = (Predator) animal;
-                    minDistance = distance;
-                }
-            }
-        }
-
-        return nearestPredator;
+        return world.findNearest(getX(), getY(), world.getConfig().preyFleeRange(), Predator.class);
     }
 
     /**
-     * Allows prey to graze, increasing its energy by {@link #GRAZE_ENERGY_GAIN}.
+     * Allows prey to graze, increasing its energy by {@link WorldConfig#preyGrazeEnergyGain()}.
      */
     @Override
     protected void eat() {
-        if (getEnergy() <= MAX_ENERGY - GRAZE_ENERGY_GAIN) {
+        int gain = world.getConfig().preyGrazeEnergyGain();
+        if (getEnergy() <= getMaxEnergy() - gain) {
             Event.log(EventType.EAT_GRASS, world, this);
-            setEnergy(getEnergy() + GRAZE_ENERGY_GAIN);
+            setEnergy(getEnergy() + gain);
         }
     }
 
@@ -101,7 +94,7 @@ public class Prey extends Animal {
      * Creates new prey as offspring.
      *
      * @param position position for the new prey
-     * @return new prey object with initial energy equal to {@link #OFFSPRING_ENERGY}
+     * @return new prey object with initial energy equal to {@link WorldConfig#offspringEnergy()}
      */
     @Override
     protected Animal createOffspring(Position position) {
@@ -0,0 +1,179 @@
+package org.wildloop;
+
+/**
+ * Outcome of a single simulation run, reduced to a few numbers so that runs can be
+ * aggregated without keeping their worlds in memory.
+ *
+ * @param index                 index of the run within its ensemble, 0 for a single run
+ * @param seed                  seed of the world
+ * @param turns                 number of turns executed
+ * @param endReason             condition that ended the run
+ * @param initialPrey           prey count before the first turn
+ * @param initialPredators      predator count before the first turn
+ * @param finalPrey             prey count after the last turn
+ * @param finalPredators        predator count after the last turn
+ * @param peakPrey              largest prey count observed
+ * @param peakPredators         largest predator count observed
+ * @param preyExtinctTurn       turn after which no prey was left, 0 if there was none from the start,
+ *                              or -1 if prey survived
+ * @param predatorsExtinctTurn  turn after which no predator was left, 0 if there was none from the start,
+ *                              or -1 if predators survived
+ * @param preyCyclePeriod       mean number of turns between successive peaks of the prey population,
+ *                              or {@link Double#NaN} if fewer than two peaks were observed
+ * @see Ensemble
+ * @see HeadlessRunner
+ */
+public record RunResult(
+        int index,
+        long seed,
+        int turns,
+        EndReason endReason,
+        int initialPrey,
+        int initialPredators,
+        int finalPrey,
+        int finalPredators,
+        int peakPrey,
+        int peakPredators,
+        int preyExtinctTurn,
+        int predatorsExtinctTurn,
+        double preyCyclePeriod) {
+
+    /**
+     * Conditions that end a run. They match the conditions checked by {@link SimulationPanel}.
+     */
+    public enum EndReason {
+        /** No animals are left */
+        EXTINCTION,
+        /** Every cell of the world is occupied */
+        FULL_GRID,
+        /** The maximum number of turns was executed */
+        TURN_LIMIT
+    }
+
+    /**
+     * Checks if prey died out during the run.
+     * @return true if no prey was left at some point
+     */
+    public boolean preyExtinct() {
+        return preyExtinctTurn >= 0;
+    }
+
+    /**
+     * Checks if predators died out during the run.
+     * @return true if no predator was left at some point
+     */
+    public boolean predatorsExtinct() {
+        return predatorsExtinctTurn >= 0;
+    }
+
+    /**
+     * Ticks a populated world until no animals are left, the world is full,
+     * or the turn limit is reached, and summarizes the run.
+     * <p>
+     * Peaks of the prey population are detected with hysteresis: a maximum counts as a peak
+     * once the population falls a quarter below it (and at least by two animals), and the next
+     * peak can only start after the population rises by the same margin above the following minimum.
+     *
+     * @param world    populated world to run
+     * @param index    index of the run within its ensemble
+     * @param maxTurns maximum number of turns to execute
+     * @return summary of the run
+     */
+    static RunResult simulate(World world, int index, int maxTurns) {
+        return simulate(world, index, maxTurns, null);
+    }
+
+    /**
+     * Runs a world like {@link #simulate(World, int, int)} and records the population before the
+     * first turn and after every turn.
+     *
+     * @param world    populated world to run
+     * @param index    index of the run within its ensemble
+     * @param maxTurns maximum number of turns to execute
+     * @param series   series receiving the population of every turn, or {@code null}
+     * @return summary of the run
+     */
+    static RunResult simulate(World world, int index, int maxTurns, TimeSeries series) {
+        if (series != null) {
+            series.record(world);
+        }
+        PopulationStats stats = world.getStats();
+        int initialPrey = stats.prey();
+        int initialPredators = stats.predators();
+
+        int peakPrey = initialPrey;
+        int peakPredators = initialPredators;
+        int preyExtinctTurn = initialPrey == 0 ? 0 : -1;
+        int predatorsExtinctTurn = initialPredators == 0 ? 0 : -1;
+
+        boolean rising = true;
+        int extreme = initialPrey;
+        int extremeTurn = 0;
+        int firstPeakTurn = -1;
+        int lastPeakTurn = -1;
+        int peaks = 0;
+
+        int turns = 0;
+        EndReason endReason;
+        while (true) {
+            if (stats.population() == 0) {
+                endReason = EndReason.EXTINCTION;
+                break;
+            }
+            if (stats.isFull()) {
+                endReason = EndReason.FULL_GRID;
+                break;
+            }
+            if (turns >= maxTurns) {
+                endReason = EndReason.TURN_LIMIT;
+                break;
+            }
+
+            world.tick();
+            turns++;
+            if (series != null) {
+                series.record(world);
+            }
+
+            stats = world.getStats();
+            int prey = stats.prey();
+            int predators = stats.predators();
+            peakPrey = Math.max(peakPrey, prey);
+            peakPredators = Math.max(peakPredators, predators);
+            if (prey == 0 && preyExtinctTurn < 0) {
+                preyExtinctTurn = turns;
+            }
+            if (predators == 0 && predatorsExtinctTurn < 0) {
+                predatorsExtinctTurn = turns;
+            }
+
+            int margin = Math.max(2, extreme / 4);
+            if (rising) {
+                if (prey > extreme) {
+                    extreme = prey;
+                    extremeTurn = turns;
+                } else if (prey <= extreme - margin) {
+                    if (firstPeakTurn < 0) {
+                        firstPeakTurn = extremeTurn;
+                    }
+                    lastPeakTurn = extremeTurn;
+                    peaks++;
+                    rising = false;
+                    extreme = prey;
+                }
+            } else if (prey < extreme) {
+                extreme = prey;
+            } else if (prey >= extreme + margin) {
+                rising = true;
+                extreme = prey;
+                extremeTurn = turns;
+            }
+        }
+
+        int finalPrey = stats.prey();
+        double preyCyclePeriod = peaks >= 2 ? (double) (lastPeakTurn - firstPeakTurn) / (peaks - 1) : Double.NaN;
+        return new RunResult(index, world.getSeed(), turns, endReason, initialPrey, initialPredators,
+                finalPrey, stats.predators(), peakPrey, peakPredators,
+                preyExtinctTurn, predatorsExtinctTurn, preyCyclePeriod);
+    }
+}
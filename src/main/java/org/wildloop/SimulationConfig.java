@@ -12,6 +12,7 @@ import java.util.Properties;
  * If running from a JAR, it copies the properties file to the working directory if it does not already exist,
  * allowing to modify configuration settings without altering the JAR.
  *
+ * @see WorldConfig
  * @see StartApp
  * @see SimulationPanel
  * @see Animal
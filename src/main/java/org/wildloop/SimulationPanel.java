@@ -5,6 +5,7 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.SplittableRandom;
 
 /**
  * Represents the main graphical user interface for the simulation,
@@ -13,10 +14,16 @@ import java.util.ArrayList;
  * <p>
  * This class extends {@link JPanel} and is designed to integrate with the Swing GUI framework.
  * Manages the simulation grid, statistics display, and provides user interaction
- * through controls such as pause and return buttons.
+ * through controls such as pause, speed and return buttons.
+ * <p>
+ * The world is ticked by a {@link SimulationRunner} on its own thread, not on the event
+ * dispatch thread, so a slow turn never freezes the interface. The panel shows the latest
+ * {@link WorldSnapshot} published by the runner at its own frame rate and skips the turns
+ * executed in between, so the speed can range from one turn per second to as fast as possible.
  *
  * @see StartApp
  * @see SimulationConfig
+ * @see SimulationRunner
  * @see InfoPanel
  */
 public class SimulationPanel extends JPanel {
@@ -26,32 +33,40 @@ public class SimulationPanel extends JPanel {
     private static final int DEFAULT_PREY_COUNT = SimulationConfig.getIntValue("default.prey.count");
     /** Default initial predator count */
     private static final int DEFAULT_PREDATOR_COUNT = SimulationConfig.getIntValue("default.predator.count");
+    /** Delay between frames in milliseconds, about 60 frames per second */
+    private static final int FRAME_DELAY = 16;
+    /** Speeds offered to the user in turns per second, {@link SimulationRunner#UNLIMITED_SPEED} for "Max" */
+    private static final int[] SPEEDS = {1, 2, 5, 10, 30, 60, SimulationRunner.UNLIMITED_SPEED};
+    /** Index of the default speed in {@link #SPEEDS}, two turns per second */
+    private static final int DEFAULT_SPEED_INDEX = 1;
 
     /** Reference to the main application, used for communication between components */
     private final StartApp startApp;
     /** Simulation world representation containing environment logic and state */
     private World world;
-    /** Array of labels representing individual world grid cells */
-    private JLabel[][] gridLabels;
+    /** Runner ticking the world on the simulation thread, or {@code null} if the simulation is not running */
+    private SimulationRunner runner;
+    /** Component painting the world grid */
+    private final GridView gridView;
     /** Label displaying current simulation statistics */
     private final JLabel statsLabel;
-    /** Timer controlling update frequency and simulation speed */
-    private Timer timer;
+    /** Timer showing the latest snapshot of the runner at the frame rate */
+    private final Timer frameTimer;
     /** Button used to pause and resume simulation */
     private final JButton pauseButton;
+    /** Box selecting the number of turns per second */
+    private final JComboBox<String> speedBox;
     /** Flag indicating if simulation is currently paused */
     private boolean isPaused = false;
     /** Flag indicating if simulation is currently running */
     private boolean isRunning = false;
     /** Panel for displaying animal info */
     private final InfoPanel animalInfoPanel;
-    /** Currently selected animal */
-    private Animal selectedAnimal;
 
     /**
      * Constructor for a simulation panel in the application. This panel contains
-     * a grid layout representing the simulation area, statistics display, and
-     * control buttons for pausing simulation and returning to the main menu.
+     * a grid view painting the simulation area, statistics display, and
+     * control buttons for pausing simulation, changing its speed and returning to the main menu.
      *
      * @param startApp main application instance used for navigation back to
      *                 the main menu and simulation control.
@@ -60,37 +75,23 @@ public class SimulationPanel extends JPanel {
         this.startApp = startApp; // assign passed reference to the class field
         setLayout(new BorderLayout()); // main application layout (borderlayout - zones division)
 
-        JPanel gridPanel = new JPanel(new GridLayout(20, 20, 1, 1)); // 20x20 grid with 1px spacing
-        gridLabels = new JLabel[20][20]; // initialize 20x20 labels array
-
-        // create each cell
-        for (int x = 0; x < 20; x++) {
-            for (int y = 0; y < 20; y++) {
-                gridLabels[x][y] = new JLabel("·", SwingConstants.CENTER); // create label with dot, content is centered
-                gridLabels[x][y].setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY)); // set gray border around label
-                gridLabels[x][y].setOpaque(true); // enable transparency (allows background color selection)
-                gridLabels[x][y].setBackground(Color.WHITE); // set white background for the label
-                gridPanel.add(gridLabels[x][y]); // add our label to panel at specific position
-            }
-        }
+        gridView = new GridView(); // single component painting the whole grid
 
         animalInfoPanel = new InfoPanel();
         animalInfoPanel.setBorder(BorderFactory.createTitledBorder("Animal Info"));
         animalInfoPanel.setFont(new Font("Arial", Font.BOLD, 20));
-
-        // add mouse listener to grid labels
-        for (int x = 0; x < 20; x++) {
-            for (int y = 0; y < 20; y++) {
-                final int finalX = x;
-                final int finalY = y;
-                gridLabels[x][y].addMouseListener(new MouseAdapter() {
-                    @Override
-                    public void mouseClicked(MouseEvent e) {
-                        handleAnimalClick(finalX, finalY); // Handle click on the grid cell
-                    }
-                });
+        gridView.setHighlightColor(animalInfoPanel.getHighlightColor());
+
+        // one mouse listener for the whole grid, clicks are mapped to cells by coordinates
+        gridView.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                Position cell = gridView.cellAt(e.getPoint());
+                if (cell != null && runner != null) {
+                    runner.select(cell); // the simulation thread selects the animal in the cell
+                }
             }
-        }
+        });
 
         // STATISTICS PANEL
         statsLabel = new JLabel("Turn: 0 | Predators: 0 | Prey: 0", SwingConstants.CENTER); // initialize statistics label
@@ -101,6 +102,17 @@ public class SimulationPanel extends JPanel {
         pauseButton.setFont(new Font("Arial", Font.BOLD, 20));
         pauseButton.addActionListener(e -> togglePause()); // action listener toggling pause on click
 
+        String[] speedNames = new String[SPEEDS.length];
+        for (int i = 0; i < SPEEDS.length; i++) {
+            speedNames[i] = SPEEDS[i] == SimulationRunner.UNLIMITED_SPEED ? "Max" : SPEEDS[i] + " turns/s";
+        }
+        speedBox = new JComboBox<>(speedNames); // box selecting the simulation speed
+        speedBox.setFont(new Font("Arial", Font.BOLD, 20));
+        speedBox.setSelectedIndex(DEFAULT_SPEED_INDEX);
+        speedBox.addActionListener(e -> {
+            if (runner != null) runner.setSpeed(selectedSpeed()); // applied by the simulation thread
+        });
+
         JButton backButton = new JButton("Back to menu"); // button to return to a menu
         backButton.setFont(new Font("Arial", Font.BOLD, 20));
         backButton.addActionListener(e -> {
@@ -110,6 +122,7 @@ public class SimulationPanel extends JPanel {
 
         // BUTTON CONTAINER
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 5)); // create a panel for buttons with the right alignment and 10x5px spacing
+        buttonPanel.add(speedBox); // add speed box to panel
         buttonPanel.add(pauseButton); // add pause button to panel
         buttonPanel.add(backButton); // add return button to panel
 
@@ -119,103 +132,103 @@ public class SimulationPanel extends JPanel {
         bottomPanel.add(buttonPanel, BorderLayout.EAST); // add a button panel to right part of bottom panel
         bottomPanel.add(animalInfoPanel, BorderLayout.WEST);
 
-        add(gridPanel, BorderLayout.CENTER); // add a grid panel to the center part of the main panel
+        add(gridView, BorderLayout.CENTER); // add the grid view to the center part of the main panel
         add(bottomPanel, BorderLayout.SOUTH); // add a bottom panel to bottom part of main panel
+
+        frameTimer = new Timer(FRAME_DELAY, e -> showLatestSnapshot()); // frames are independent of turns
     }
 
     /**
      * Toggles the simulation pause state.
      * <p>
-     * If simulation is currently running, the method pauses simulation
-     * by stopping timer and changing pause button text to indicate
-     * that simulation can be resumed.
+     * If simulation is currently running, the method asks the runner to pause
+     * and changes pause button text to indicate that simulation can be resumed.
      * <p>
-     * If simulation is currently paused, the method resumes simulation
-     * by starting the timer and updating button text to indicate
-     * that simulation can be paused again.
+     * If simulation is currently paused, the method asks the runner to resume
+     * and updates button text to indicate that simulation can be paused again.
+     * The runner logs pause and resume events.
      * <p>
      * Pause state is tracked by {@code isPaused} field.
      */
     private void togglePause() {
         if (!isRunning) return; // if simulation is not running, do nothing
         isPaused = !isPaused; // negate current pause state
-        if (isPaused) { // check if isPaused == true
-            timer.stop(); // stop simulation
-            pauseButton.setText("Resume"); // change button text from "Pause" to "Resume"
-            Event.log(EventType.SIMULATION_PAUSE, world); // log pause event
-        } else { // if not
-            timer.start(); // resume simulation
-            pauseButton.setText("Pause"); // change button text from "Resume" to "Pause"
-            Event.log(EventType.SIMULATION_RESUME, world); // log resume event
-        }
+        runner.setPaused(isPaused); // applied by the simulation thread between turns
+        pauseButton.setText(isPaused ? "Resume" : "Pause"); // change button text
     }
 
     /**
-     * Stops simulation by stopping timer and resetting pause state.
+     * Stops simulation by stopping the runner and the frame timer and resetting pause state.
      * <p>
-     * Method checks if the simulation timer is active. If so, stops the timer
-     * to prevent further simulation updates. Additionally, ensures the pause
-     * state is set to false, indicating simulation is no longer paused.
+     * Method waits until the simulation thread finishes, so the world can be used by the
+     * event dispatch thread afterward, and shows the last state of the world. Additionally,
+     * ensures the pause state is set to false, indicating simulation is no longer paused.
      * <p>
      * Method is called during simulation termination or reset process
      * to restore it to the default state.
      */
     private void stopSimulation() {
-        if (timer != null) {
-            timer.stop(); // if timer exists then stop it
-        }
+        stopRunner();
         isPaused = false; // restore flag to default value
         isRunning = false; // restore running flag to default value
         Event.log(EventType.SIMULATION_END, world); // log simulation end event
         LogExporter.closeLog(); // close a log file
     }
 
+    /**
+     * Stops the runner, if any, and the frame timer, and shows the last snapshot of the runner.
+     */
+    private void stopRunner() {
+        frameTimer.stop();
+        if (runner != null) {
+            runner.stop(); // wait for the simulation thread
+            WorldSnapshot last = runner.takeSnapshot();
+            if (last != null) {
+                showSnapshot(last);
+            }
+            runner = null;
+        }
+    }
+
     /**
      * Configures simulation parameters by setting simulated world dimensions,
      * initializing grid for graphical interface and populating simulation
      * with prey and predator type animals based on given numbers.
+     * Large, sparsely populated worlds get {@link GridStorage#CHUNKED} storage, chosen by
+     * {@link GridStorage#choose(int, int, long)}.
      *
      * @param size          size of a square world (e.g., 10 creates 10x10 grid)
      * @param preyCount     number of prey type animals to generate in simulation
      * @param predatorCount number of predator type animals to generate in simulation
+     * @throws IllegalArgumentException if the size is not positive or the world has more than
+     *                                  {@link GridView#MAX_CELLS} cells, which the grid view cannot display
      */
     public void setSimulationParameters(int size, int preyCount, int predatorCount) {
-        this.world = new World(size, size); // create new world with given size
-        initializeGrid(size); // initialize GUI grid
-
-        // loop creating prey
-        for (int i = 0; i < preyCount; i++) {
-            Position pos = getRandomEmptyPosition(world); // select a random empty position
-            if (pos != null) {
-                new Prey(world, pos);
-            }
+        if (size <= 0 || (long) size * size > GridView.MAX_CELLS) {
+            throw new IllegalArgumentException("World size must be between 1 and " + (int) Math.sqrt(GridView.MAX_CELLS)
+                    + " to be displayed; use the headless runner for larger worlds");
         }
+        if (isRunning) stopSimulation(); // the previous world must not be ticked anymore
+        this.world = new World(size, size, false, new SplittableRandom().nextLong(), WorldConfig.DEFAULTS, true,
+                GridStorage.choose(size, size, (long) preyCount + predatorCount)); // create new world with given size
 
-        // loop creating predators
-        for (int i = 0; i < predatorCount; i++) {
-            Position pos = getRandomEmptyPosition(world); // select a random empty position
-            if (pos != null) {
-                new Predator(world, pos);
-            }
-        }
+        world.populate(preyCount, predatorCount); // place animals at random empty positions
+        showSnapshot(WorldSnapshot.capture(world, null, false)); // show the populated world
+        gridView.resetView(); // show the whole new world
     }
 
     /**
      * Starts simulation by initializing or resetting the necessary components
-     * and launching the main simulation loop.
+     * and launching the simulation thread.
      * <p>
      * Method checks if a simulation world is initialized. If not,
      * sets default simulation parameters using {@link #setSimulationParameters(int, int, int)}.
      * Ensures simulation is not paused by resetting a pause flag
      * and updates the control button to display "Pause".
      * <p>
-     * Main simulation loop is managed by {@link Timer} with
-     * 500-millisecond delay. Each timer tick performs the following actions:
-     * <ul>
-     * <li>Advances simulation state using {@link World#tick()}.</li>
-     * <li>Updates GUI grid using {@link #updateGrid()}.</li>
-     * <li>Updates simulation statistics using {@link #updateStats()}.</li>
-     * </ul>
+     * The world is ticked by a {@link SimulationRunner} at the speed selected in the speed box,
+     * two turns per second by default. A {@link Timer} on the event dispatch thread shows the
+     * latest snapshot about 60 times per second using {@link #showLatestSnapshot()}.
      * <p>
      * If simulation reaches end condition, such as no remaining animals
      * in a world, simulation is stopped using {@link #stopSimulation()},
@@ -227,169 +240,64 @@ public class SimulationPanel extends JPanel {
             setSimulationParameters(DEFAULT_WORLD_SIZE, DEFAULT_PREY_COUNT, DEFAULT_PREDATOR_COUNT); // set default parameters
         }
 
+        stopRunner(); // if any runner is running, then stop it
         isPaused = false; // restart flag to default value
         isRunning = true; // set running flag to true
         pauseButton.setText("Pause"); // set button text to "pause"
         pauseButton.setFont(new Font("Arial", Font.BOLD, 20));
 
-        if (timer != null) {
-            timer.stop(); // if any timer is running, then stop it
-        }
-
-        // create a new timer with 500 ms delay
-        timer = new Timer(500, e -> {
-            // if simulation is not stopped
-            if (!isPaused) {
-                world.tick(); // perform simulation step
-                updateGrid(); // update gui
-                updateStats(); // update statistics
-
-                // check simulation end condition (if any living creature exists)
-                if (world.getAnimals().isEmpty()) {
-                    stopSimulation(); // stop simulation
-                    JOptionPane.showMessageDialog(this, "There is no animals left\nSimulation ended"); // display simulation end message
-                }
-
-                boolean isFull = true; // assume grid is full
-                outerFor:
-                for (Object[] row : world.getGrid()) {
-                    for (Object cell : row) {
-                        if (cell == null) {
-                            isFull = false; // if any cell is empty, set flag to false
-                            break outerFor; // Exit early on first null
-                        }
-                    }
-                }
-                if (isFull) {
-                    stopSimulation(); // stop simulation if grid is full
-                    JOptionPane.showMessageDialog(this, "The world is full\nSimulation ended"); // display simulation end message
-                }
-            }
-        });
-        timer.start(); // start timer
+        runner = new SimulationRunner(world, selectedSpeed()); // the runner owns the world from now on
+        runner.start(); // start ticking on the simulation thread
+        frameTimer.start(); // start showing snapshots
     }
 
     /**
-     * Initializes simulation grid of a specified size.
-     * This method creates and configures grid layout with labels for square grid,
-     * updates the graphical interface and resets previous grid components.
-     *
-     * @param size size of square grid to initialize (e.g., 10 creates 10x10 grid)
+     * Shows the latest snapshot published by the runner, if it changed since the previous frame,
+     * and stops the simulation with a notification when it shows an end condition.
      */
-    private void initializeGrid(int size) {
-        JPanel gridPanel = (JPanel) getComponent(0); // get grid panel
-        gridPanel.removeAll(); // clear panel of existing components
-        gridPanel.setLayout(new GridLayout(size, size)); // set a new grid layout
-        gridLabels = new JLabel[size][size]; // initialize labels array
-
-        for (int y = 0; y < size; y++) {
-            for (int x = 0; x < size; x++) {
-                gridLabels[x][y] = new JLabel("·", SwingConstants.CENTER); // create label with dot, content is centered
-                gridLabels[x][y].setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY)); // set gray border around label
-                gridLabels[x][y].setOpaque(true); // Enable background coloring
-                gridLabels[x][y].setBackground(Color.WHITE); // Set default background
-
-                // Add a mouse listener to each label
-                final int finalX = x;
-                final int finalY = y;
-                gridLabels[x][y].addMouseListener(new MouseAdapter() {
-                    @Override
-                    public void mouseClicked(MouseEvent e) {
-                        handleAnimalClick(finalX, finalY); // Handle click on the grid cell
-                    }
-                });
-
-                gridPanel.add(gridLabels[x][y]); // add our label to panel at specific position
-            }
+    private void showLatestSnapshot() {
+        if (runner == null) return;
+        WorldSnapshot snapshot = runner.takeSnapshot();
+        if (snapshot == null) return; // nothing changed since the previous frame
+        showSnapshot(snapshot);
+
+        // check simulation end condition (if any living creature exists)
+        PopulationStats stats = snapshot.getStats();
+        if (stats.population() == 0) {
+            stopSimulation(); // stop simulation
+            JOptionPane.showMessageDialog(this, "There is no animals left\nSimulation ended"); // display simulation end message
+        } else if (stats.isFull()) {
+            stopSimulation(); // stop simulation if grid is full
+            JOptionPane.showMessageDialog(this, "The world is full\nSimulation ended"); // display simulation end message
         }
-        gridPanel.revalidate(); // force layout rebuild
-        gridPanel.repaint(); // force layout redraw
     }
 
     /**
-     * Updates visual representation of the simulation grid.
-     * <p>
-     * Method iterates through each cell in the simulation world grid and updates graphical
-     * labels corresponding to each cell based on its current contents. Specifically:
-     * <ul>
-     *     <li>If cell is empty (value {@code null}), sets label text to "·" to indicate empty space</li>
-     *     <li>If cell contains instance of {@link Predator}, sets label text to "P"</li>
-     *     <li>If cell contains instance of {@link Prey}, sets label text to "O"</li>
-     * </ul>
+     * Shows a snapshot in the grid view, the statistics and the animal information panel.
+     * @param snapshot snapshot to show
      */
-    private void updateGrid() {
-        for (int y = 0; y < world.getHeight(); y++) {
-            for (int x = 0; x < world.getWidth(); x++) {
-                Animal animal = world.getGrid()[x][y]; // get animal from a given cell
-                if (animal == null) {
-                    gridLabels[x][y].setText("·"); // if empty inserts dot
-                } else if (animal instanceof Predator) {
-                    gridLabels[x][y].setText("P"); // if predator inserts P
-                } else if (animal instanceof Prey) {
-                    gridLabels[x][y].setText("O"); // if prey inserts O
-                }
-                updateCellAppearance(x, y, world.getGrid()[x][y]);
-            }
-        }
-
-        if (selectedAnimal != null && !world.getAnimals().contains(selectedAnimal)) {
-            animalInfoPanel.showAnimalDead();
-            selectedAnimal = null;
-        }
+    private void showSnapshot(WorldSnapshot snapshot) {
+        gridView.setSnapshot(snapshot); // render the world into the view
+        animalInfoPanel.update(snapshot); // show the selected animal
+        updateStats(snapshot.getStats()); // update statistics
     }
 
     /**
-     * Updates simulation statistics by counting the number of predators and prey
-     * in a simulated world. Method gets a list of animals, distinguishes predators
-     * and prey based on their classes and calculates their totals.
-     * <p>
-     * Then updates statistics display with current turn number, number of
-     * predators, prey and total number of animals.
+     * Updates statistics display with current turn number, number of
+     * predators, prey and total number of animals from the population counters of a snapshot.
+     *
+     * @param stats population statistics to show
      */
-    private void updateStats() {
-        int predatorCount = 0; // predator counter
-        int preyCount = 0; // prey counter
-
-        for (Animal animal : world.getAnimals()) {
-            if (animal instanceof Predator) {
-                predatorCount++; // count all predators
-            } else if (animal instanceof Prey) {
-                preyCount++; // count all prey
-            }
-        }
-
-        if (selectedAnimal != null && !world.getAnimals().contains(selectedAnimal)) {
-            animalInfoPanel.showAnimalDead();
-            selectedAnimal = null;
-        } else if (selectedAnimal != null) {
-            animalInfoPanel.updateInfo();
-        }
-
-        statsLabel.setText(String.format("Turn: %d | Predators: %d | Prey: %d | Total: %d", world.getTurn(), predatorCount, preyCount, world.getAnimals().size())); // format statistics text with current data
+    private void updateStats(PopulationStats stats) {
+        statsLabel.setText(String.format("Turn: %d | Predators: %d | Prey: %d | Total: %d", stats.turn(), stats.predators(), stats.prey(), stats.population())); // format statistics text with current data
     }
 
     /**
-     * Generates random empty position in a given world.
-     * Method tries to find unoccupied position within world bounds.
-     * Makes a maximum of 100 attempts to find an empty cell.
-     * If after 100 attempts no empty cell is found,
-     * returns {@code null}.
-     *
-     * @param world world in which to find random empty position
-     * @return randomly selected empty position in a world or {@code null} if such
-     * position was not found after 100 attempts
+     * Returns the speed selected in the speed box.
+     * @return turns per second, or {@link SimulationRunner#UNLIMITED_SPEED}
      */
-    private Position getRandomEmptyPosition(World world) {
-        // random loop, maximum 100 attempts
-        for (int attempts = 0; attempts < 100; attempts++) {
-            int x = (int) (Math.random() * world.getWidth()); // random X position
-            int y = (int) (Math.random() * world.getHeight()); // random Y position
-            Position pos = new Position(x, y); // assign random data
-            if (world.isCellEmpty(pos)) {
-                return pos; // if random cell is empty return our position
-            }
-        }
-        return null; // if no empty space found return null
+    private int selectedSpeed() {
+        return SPEEDS[speedBox.getSelectedIndex()];
     }
 
     /**
@@ -398,10 +306,10 @@ public class SimulationPanel extends JPanel {
      * <p>
      * Functionality:
      * <ul>
-     * <li>Stops timer if currently running</li>
+     * <li>Stops the simulation thread if currently running</li>
      * <li>Resets pause state to false</li>
      * <li>Removes all animals from a simulation world and resets turn counter</li>
-     * <li>Reinitializes graphical grid representing a simulation area</li>
+     * <li>Shows the empty world in the graphical grid</li>
      * <li>Updates simulation statistics to reflect the reset state</li>
      * <li>Restores pause button label to default state</li>
      * </ul>
@@ -418,10 +326,7 @@ public class SimulationPanel extends JPanel {
      * </ul>
      */
     public void resetSimulation() {
-        if (timer != null && timer.isRunning()) {
-            timer.stop(); // if timer is running then stop it
-        }
-
+        stopRunner(); // the world belongs to this thread again
         isPaused = false; // restore pause flag to initial state
 
         if (world != null) {
@@ -429,74 +334,13 @@ public class SimulationPanel extends JPanel {
                 world.removeAnimal(animal); // remove all existing animals
             }
             world.reset(); // reset turn counter
+            showSnapshot(WorldSnapshot.capture(world, null, false)); // show the empty world
+        } else {
+            gridView.setSnapshot(null);
         }
 
-        initializeGrid(world != null ? world.getWidth() : 20); // initialize GUI grid
-        updateStats(); // update statistics
-
         if (pauseButton != null) {
             pauseButton.setText("Pause"); // reset pause button
         }
-
-        selectedAnimal = null;
-        animalInfoPanel.setSelectedAnimal(null);
-    }
-
-    /**
-     * Handles click on a grid cell to select/deselect animals.
-     * @param x X coordinate of the clicked cell
-     * @param y Y coordinate of the clicked cell
-     */
-    private void handleAnimalClick(int x, int y) {
-        // Get the animal at clicked position
-        Animal clickedAnimal = world.getGrid()[x][y];
-
-        // Reset all cell appearances first
-        if (clickedAnimal != null && clickedAnimal == selectedAnimal) {
-            selectedAnimal = null;
-            animalInfoPanel.setSelectedAnimal(null);
-        } else if (clickedAnimal != null) {
-            selectedAnimal = clickedAnimal;
-            animalInfoPanel.setSelectedAnimal(clickedAnimal);
-        } else {
-            selectedAnimal = null;
-            animalInfoPanel.setSelectedAnimal(null);
-        }
-
-        for (int i = 0; i < world.getWidth(); i++) {
-            for (int j = 0; j < world.getHeight(); j++) {
-                Animal currentAnimal = world.getGrid()[i][j];
-                if (currentAnimal == selectedAnimal) {
-                    gridLabels[i][j].setBackground(animalInfoPanel.getHighlightColor());
-                } else if (currentAnimal instanceof Predator) {
-                    gridLabels[i][j].setBackground(Color.RED);
-                } else if (currentAnimal instanceof Prey) {
-                    gridLabels[i][j].setBackground(Color.GREEN);
-                } else {
-                    gridLabels[i][j].setBackground(Color.WHITE);
-                }
-            }
-        }
-
-    }
-
-    /**
-     * Updates the appearance of a single grid cell.
-     * @param x X coordinate of the cell
-     * @param y Y coordinate of the cell
-     * @param animal Animal in the cell (null if empty)
-     */
-    private void updateCellAppearance(int x, int y, Animal animal) {
-        JLabel label = gridLabels[x][y];
-        if (animal == null) {
-            label.setText("·"); // Empty cell
-            label.setBackground(Color.WHITE); // Default background
-        } else if (animal instanceof Predator) {
-            label.setText("P"); // Predator
-            label.setBackground(animal == selectedAnimal ? animalInfoPanel.getHighlightColor() : Color.RED);
-        } else if (animal instanceof Prey) {
-            label.setText("O"); // Prey
-            label.setBackground(animal == selectedAnimal ? animalInfoPanel.getHighlightColor() : Color.GREEN);
-        }
     }
-}
\ No newline at end of file
+}
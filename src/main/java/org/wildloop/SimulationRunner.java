@@ -0,0 +1,282 @@
+package org.wildloop;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a {@link World} on its own thread and publishes {@link WorldSnapshot}s for the user interface.
+ * <p>
+ * Once started, the simulation thread owns the world: it ticks it at the configured speed and is
+ * the only thread reading or changing it until {@link #stop()} returns. Other threads control it
+ * through commands, such as {@link #setPaused(boolean)} or {@link #select(Position)}, which the
+ * simulation thread executes between turns.
+ * <p>
+ * Snapshots are published through a single slot. The user interface takes the latest snapshot
+ * with {@link #takeSnapshot()} at its own frame rate. After a turn, a snapshot is captured only
+ * if the previous one has been taken, so at high speeds intermediate turns are never captured
+ * and the cost of snapshots follows the frame rate, not the tick rate. After commands, when the
+ * run ends and when it is stopped, a snapshot is always captured, so the user interface always
+ * ends up showing the current state.
+ * <p>
+ * Snapshots are captured incrementally: the runner accumulates {@link World#getChangedCells()}
+ * after every turn and, when capturing, re-reads only the changed cells into the {@link CellTiles}
+ * it keeps. Snapshots share the tiles that did not change since the previous snapshot, so capturing
+ * copies only the changed tiles and never the whole world. Each snapshot carries the cells changed since the previous one in
+ * {@link WorldSnapshot#getChanges()}; the first snapshot carries none, meaning that it must
+ * be drawn in full.
+ * <p>
+ * The run ends by itself when no animals are left or the world is full, the end conditions of
+ * {@link RunResult}; the thread then waits for commands until it is stopped.
+ *
+ * @see WorldSnapshot
+ * @see SimulationPanel
+ */
+public final class SimulationRunner {
+    /** Speed meaning that turns are executed as fast as possible */
+    public static final int UNLIMITED_SPEED = 0;
+
+    /** World owned by the simulation thread */
+    private final World world;
+    /** Commands waiting for the simulation thread */
+    private final BlockingQueue<Runnable> commands = new LinkedBlockingQueue<>();
+    /** Latest snapshot not taken by the user interface yet, or {@code null} */
+    private final AtomicReference<WorldSnapshot> latest = new AtomicReference<>();
+    /** Simulation thread */
+    private final Thread thread;
+
+    /** Number of turns per second, or {@link #UNLIMITED_SPEED}; used by the simulation thread only */
+    private int speed;
+    /** Time of the next turn in nanoseconds; used by the simulation thread only */
+    private long nextTick;
+    /** Flag indicating that ticking is paused; used by the simulation thread only */
+    private boolean paused;
+    /** Flag indicating that the simulation thread should finish; used by the simulation thread only */
+    private boolean stopping;
+    /** Animal selected by the user, or {@code null}; used by the simulation thread only */
+    private Animal selected;
+    /** Flag indicating that the selection ended because the animal died; used by the simulation thread only */
+    private boolean selectedDied;
+    /** Content of the cells as of the last snapshot, or {@code null} before the first one; used by the simulation thread only */
+    private CellTiles cells;
+    /** Cells changed since the last snapshot; used by the simulation thread only */
+    private DirtyCells pending;
+    /** Flag indicating that the run ended because the world is empty or full */
+    private volatile boolean ended;
+
+    /**
+     * Creates a runner for a world. The world must not be used by other threads
+     * between {@link #start()} and the return of {@link #stop()}.
+     *
+     * @param world world to run
+     * @param speed number of turns per second, or {@link #UNLIMITED_SPEED}
+     * @throws IllegalArgumentException if the world is null or the speed is negative
+     */
+    public SimulationRunner(World world, int speed) {
+        if (world == null) {
+            throw new IllegalArgumentException("World cannot be null");
+        }
+        this.world = world;
+        this.speed = checkSpeed(speed);
+        this.thread = new Thread(this::run, "simulation");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the simulation thread, which publishes a snapshot of the initial state and starts ticking.
+     * @throws IllegalStateException if the runner was started before
+     */
+    public void start() {
+        if (thread.getState() != Thread.State.NEW) {
+            throw new IllegalStateException("Runner was already started");
+        }
+        thread.start();
+    }
+
+    /**
+     * Stops the simulation thread and waits until it finishes. Afterward, the world may be used
+     * by the calling thread again. Does nothing if the thread already finished.
+     */
+    public void stop() {
+        commands.add(() -> stopping = true);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Pauses or resumes ticking. Logs {@link EventType#SIMULATION_PAUSE} or {@link EventType#SIMULATION_RESUME}
+     * if the state changes.
+     *
+     * @param paused true to pause, false to resume
+     */
+    public void setPaused(boolean paused) {
+        commands.add(() -> {
+            if (this.paused != paused) {
+                this.paused = paused;
+                Event.log(paused ? EventType.SIMULATION_PAUSE : EventType.SIMULATION_RESUME, world);
+            }
+        });
+    }
+
+    /**
+     * Changes the number of turns executed per second.
+     *
+     * @param speed number of turns per second, or {@link #UNLIMITED_SPEED} to run as fast as possible
+     * @throws IllegalArgumentException if the speed is negative
+     */
+    public void setSpeed(int speed) {
+        int checked = checkSpeed(speed);
+        commands.add(() -> {
+            this.speed = checked;
+            nextTick = System.nanoTime();
+        });
+    }
+
+    /**
+     * Selects the animal in a cell, or clears the selection if the cell is empty or holds the
+     * selected animal. The next snapshot describes the selected animal.
+     *
+     * @param cell clicked cell
+     */
+    public void select(Position cell) {
+        commands.add(() -> {
+            Animal animal = world.getAnimalAt(cell);
+            selected = animal != selected ? animal : null;
+            selectedDied = false;
+        });
+    }
+
+    /**
+     * Takes the latest snapshot published since the previous call, leaving the slot empty so
+     * that the simulation thread captures the next turn.
+     *
+     * @return latest snapshot, or {@code null} if nothing changed since the previous call
+     */
+    public WorldSnapshot takeSnapshot() {
+        return latest.getAndSet(null);
+    }
+
+    /**
+     * Checks if the run ended because no animals are left or the world is full.
+     * @return true if the run ended
+     */
+    public boolean isEnded() {
+        return ended;
+    }
+
+    /**
+     * Body of the simulation thread: executes commands and ticks the world at the configured speed
+     * until stopped.
+     */
+    private void run() {
+        try {
+            publish();
+            nextTick = System.nanoTime();
+            while (!stopping) {
+                if (paused || ended) {
+                    execute(commands.take());
+                    nextTick = System.nanoTime();
+                    continue;
+                }
+                // wait for the next turn, executing commands arriving meanwhile
+                long wait = nextTick - System.nanoTime();
+                Runnable command = wait > 0 ? commands.poll(wait, TimeUnit.NANOSECONDS) : commands.poll();
+                if (command != null) {
+                    execute(command);
+                    continue;
+                }
+                tick();
+                // a turn slower than the interval delays the next one instead of causing a burst
+                long interval = speed == UNLIMITED_SPEED ? 0 : TimeUnit.SECONDS.toNanos(1) / speed;
+                nextTick = Math.max(nextTick + interval, System.nanoTime());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            publish();
+        }
+    }
+
+    /**
+     * Executes a command and publishes the resulting state.
+     * @param command command to execute
+     */
+    private void execute(Runnable command) {
+        command.run();
+        publish();
+    }
+
+    /**
+     * Executes one turn, updates the selection and checks the end conditions. Captures a snapshot
+     * only if the previous one has been taken, or if the run ended.
+     */
+    private void tick() {
+        world.tick();
+        pending.addAll(world.getChangedCells());
+        if (selected != null && !world.containsAnimal(selected)) {
+            selected = null;
+            selectedDied = true;
+        }
+        PopulationStats stats = world.getStats();
+        if (stats.population() == 0 || stats.isFull()) {
+            ended = true;
+            publish();
+        } else if (latest.get() == null) {
+            publish();
+        }
+    }
+
+    /**
+     * Captures a snapshot and publishes it, replacing a snapshot not taken yet. The changes of a
+     * replaced snapshot are added to the new one, so the user interface misses no changed cell.
+     */
+    private void publish() {
+        int width = world.getWidth();
+        int height = world.getHeight();
+        DirtyCells changes;
+        if (cells == null) {
+            WorldSnapshot full = WorldSnapshot.capture(world, selected, selectedDied);
+            cells = new CellTiles(width, full.tiles());
+            pending = new DirtyCells(width, height);
+            latest.set(full);
+            return;
+        }
+        WorldSnapshot previous = latest.get();
+        if (previous != null && previous.getChanges() == null) {
+            changes = null;
+        } else {
+            if (previous != null) {
+                pending.addAll(previous.getChanges());
+            }
+            changes = pending.copy();
+        }
+        pending.forEach((x, y) -> cells.set(x, y, WorldSnapshot.cellOf(world.animalAt(x, y))));
+        pending.clear();
+        latest.set(new WorldSnapshot(width, height, cells.share(), world.getStats(),
+                selected != null ? WorldSnapshot.AnimalInfo.of(selected) : null, selectedDied, changes));
+    }
+
+    /**
+     * Validates a speed.
+     *
+     * @param speed number of turns per second
+     * @return the speed
+     * @throws IllegalArgumentException if the speed is negative
+     */
+    private static int checkSpeed(int speed) {
+        if (speed < 0) {
+            throw new IllegalArgumentException("Speed cannot be negative");
+        }
+        return speed;
+    }
+}
@@ -0,0 +1,361 @@
+package org.wildloop;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+
+/**
+ * Executes a turn of a {@link World} in {@link TickMode#SIMULTANEOUS} mode.
+ * <p>
+ * A turn runs in two passes:
+ * <ol>
+ * <li><b>Decide</b> - every animal alive at the start of the turn plans its whole turn against
+ * the state left by the previous turn: the direction of its move, the food it could eat and the
+ * cells where it could give birth, both around the cell it plans to reach and around the cell it
+ * starts from. The pass only reads the world, so nothing written during the turn can leak into
+ * a decision and animals are split into chunks decided concurrently on a {@link ForkJoinPool}.
+ * Each animal draws random numbers from its own stream derived from the world seed, the turn
+ * and its serial number.</li>
+ * <li><b>Resolve and apply</b> - on the calling thread, all animals age, decision events are
+ * published, and moves are applied together. A move succeeds only if its target cell was empty
+ * at the start of the turn; if several animals claim the same cell, the one added to the world
+ * first wins. Then, in the order in which animals were added to the world, each animal eats,
+ * reproduces or eats again, and dies, as in {@link TickMode#SEQUENTIAL} mode but only with the
+ * food and cells it planned: food must still be alive and next to it after the moves, and a birth
+ * cell must still be empty and next to it. Contested food and cells thus also go to the animal
+ * added first.</li>
+ * </ol>
+ * The result depends neither on the order of the animal list, nor on the order of decisions,
+ * nor on the number of threads.
+ *
+ * @see World
+ * @see TickMode
+ */
+final class SimultaneousTicker {
+    /** Number of animals decided by a single task */
+    private static final int CHUNK_SIZE = 512;
+    /** Order in which animals are decided and applied */
+    private static final Comparator<Animal> BY_SERIAL = Comparator.comparingLong(Animal::getSerial);
+
+    /** World updated by this ticker */
+    private final World world;
+
+    /**
+     * Creates a ticker for the given world.
+     * @param world world to update
+     */
+    SimultaneousTicker(World world) {
+        this.world = world;
+    }
+
+    /**
+     * Turn of a single animal planned against the state left by the previous turn.
+     */
+    private static final class Plan {
+        /** Direction of the move, or {@code null} to stay in place */
+        Direction direction;
+        /** Animals the animal could eat, in order of preference */
+        final List<Animal> food = new ArrayList<>();
+        /** Cells where the animal could give birth, in order of preference */
+        final List<Position> birthCells = new ArrayList<>();
+        /** Index of the next food to try */
+        int nextFood;
+        /** Index of the next birth cell to try */
+        int nextBirthCell;
+    }
+
+    /**
+     * Updates every animal of the world once, deciding plans on the given pool.
+     *
+     * @param pool pool executing the decide pass
+     */
+    void tick(ForkJoinPool pool) {
+        Animal[] animals = world.getAnimals().toArray(new Animal[0]);
+        Arrays.sort(animals, BY_SERIAL);
+        Plan[] plans = new Plan[animals.length];
+
+        List<Decider> chunks = new ArrayList<>();
+        for (int from = 0; from < animals.length; from += CHUNK_SIZE) {
+            chunks.add(new Decider(animals, plans, from, Math.min(animals.length, from + CHUNK_SIZE)));
+        }
+        if (chunks.size() == 1) {
+            chunks.get(0).compute();
+        } else if (chunks.size() > 1) {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(chunks);
+                }
+            });
+        }
+
+        for (Animal animal : animals) {
+            animal.incrementAge();
+        }
+        for (Decider chunk : chunks) {
+            for (Event event : chunk.events) {
+                EventLogger.publish(event);
+            }
+        }
+
+        // Claim target cells; the animal added to the world first wins each cell
+        Map<Position, Animal> claims = new HashMap<>();
+        for (int i = 0; i < animals.length; i++) {
+            if (plans[i].direction != null) {
+                claims.putIfAbsent(animals[i].getPosition().newPosition(plans[i].direction), animals[i]);
+            }
+        }
+        for (int i = 0; i < animals.length; i++) {
+            Direction direction = plans[i].direction;
+            if (direction != null && claims.get(animals[i].getPosition().newPosition(direction)) == animals[i]) {
+                animals[i].moveInDirection(direction);
+            }
+        }
+
+        for (int i = 0; i < animals.length; i++) {
+            if (!animals[i].isDead()) {
+                apply(animals[i], plans[i]);
+            }
+        }
+    }
+
+    /**
+     * Lets an animal eat, reproduce and die using the food and cells it planned.
+     * While {@link Metrics} are enabled, the duration of each of the three phases is recorded.
+     *
+     * @param animal animal to update
+     * @param plan   plan of the animal
+     */
+    private void apply(Animal animal, Plan plan) {
+        long time = Metrics.start();
+        animal.eat(nextFood(animal, plan));
+        time = Metrics.lap(Metrics.EAT, time);
+
+        if (animal.getEnergy() >= world.getConfig().reproductionEnergyThreshold()) {
+            Position cell = nextBirthCell(animal, plan);
+            if (cell != null) {
+                animal.giveBirth(cell);
+            }
+        } else {
+            animal.eat(nextFood(animal, plan));
+        }
+        time = Metrics.lap(Metrics.REPRODUCE, time);
+
+        animal.checkDeath();
+        Metrics.lap(Metrics.DEATH_CHECK, time);
+    }
+
+    /**
+     * Returns the next planned food that is still alive and next to the animal.
+     *
+     * @param animal animal looking for food
+     * @param plan   plan of the animal
+     * @return food to eat, or {@code null} if none is left
+     */
+    private static Animal nextFood(Animal animal, Plan plan) {
+        while (plan.nextFood < plan.food.size()) {
+            Animal food = plan.food.get(plan.nextFood++);
+            if (!food.isDead() && distance(animal, food.getX(), food.getY()) <= 1) {
+                return food;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the next planned birth cell that is still empty and next to the animal.
+     *
+     * @param animal animal giving birth
+     * @param plan   plan of the animal
+     * @return cell for the offspring, or {@code null} if none is left
+     */
+    private Position nextBirthCell(Animal animal, Plan plan) {
+        while (plan.nextBirthCell < plan.birthCells.size()) {
+            Position cell = plan.birthCells.get(plan.nextBirthCell++);
+            if (world.isCellEmpty(cell) && distance(animal, cell.x(), cell.y()) == 1) {
+                return cell;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the distance between an animal and a cell.
+     *
+     * @param animal animal to measure from
+     * @param x      column of the cell
+     * @param y      row of the cell
+     * @return Manhattan distance
+     */
+    private static int distance(Animal animal, int x, int y) {
+        return Math.abs(animal.getX() - x) + Math.abs(animal.getY() - y);
+    }
+
+    /**
+     * Task deciding the plans of a contiguous range of animals. Tasks are never serialized.
+     */
+    @SuppressWarnings("serial")
+    private final class Decider extends RecursiveAction {
+        /** Animals alive at the start of the turn */
+        private final Animal[] animals;
+        /** Chosen plans, indexed like {@code animals} */
+        private final Plan[] plans;
+        /** First index of the range (inclusive) */
+        private final int from;
+        /** Last index of the range (exclusive) */
+        private final int to;
+        /** Events logged while deciding, in the order of the animals */
+        private final List<Event> events = new ArrayList<>();
+
+        /**
+         * Creates a task for the given range of animals.
+         *
+         * @param animals animals alive at the start of the turn
+         * @param plans   array receiving the chosen plans
+         * @param from    first index (inclusive)
+         * @param to      last index (exclusive)
+         */
+        Decider(Animal[] animals, Plan[] plans, int from, int to) {
+            this.animals = animals;
+            this.plans = plans;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            Decision decision = new Decision(events);
+            decision.enter();
+            try {
+                for (int i = from; i < to; i++) {
+                    plans[i] = plan(animals[i], decision);
+                }
+            } finally {
+                decision.exit();
+            }
+        }
+
+        /**
+         * Plans the turn of an animal against the current state of the world.
+         *
+         * @param animal   animal to plan for
+         * @param decision context of the decide pass
+         * @return plan of the animal
+         */
+        private Plan plan(Animal animal, Decision decision) {
+            Plan plan = new Plan();
+            decision.random.reseed(world.getSeed(), world.getTurn(), animal.getSerial());
+            Direction direction = animal.getNextMoveDirection();
+            Position start = animal.getPosition();
+            if (direction != null && world.isCellEmpty(start.newPosition(direction))) {
+                plan.direction = direction;
+                addOptions(animal, start.newPosition(direction), plan);
+            }
+            addOptions(animal, start, plan);
+            return plan;
+        }
+
+        /**
+         * Adds the food next to a cell and the empty cells around it to a plan.
+         *
+         * @param animal animal planning its turn
+         * @param cell   cell the animal may occupy after moving
+         * @param plan   plan receiving the options
+         */
+        private void addOptions(Animal animal, Position cell, Plan plan) {
+            Class<? extends Animal> foodType = animal.getFoodType();
+            if (foodType != null) {
+                for (Animal food : world.getAnimalsInRange(cell, 1)) {
+                    if (foodType.isInstance(food) && !plan.food.contains(food)) {
+                        plan.food.add(food);
+                    }
+                }
+            }
+            for (Direction direction : Direction.values()) {
+                Position birthCell = cell.newPosition(direction);
+                if (world.isCellEmpty(birthCell) && !plan.birthCells.contains(birthCell)) {
+                    plan.birthCells.add(birthCell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read-only context active while animals plan their turns.
+     */
+    private final class Decision extends TickContext {
+        /** Random stream of the animal currently deciding */
+        private final AnimalRandom random = new AnimalRandom();
+        /** List receiving events logged while deciding */
+        private final List<Event> events;
+
+        /**
+         * Creates a context buffering events into the given list.
+         * @param events list receiving events
+         */
+        Decision(List<Event> events) {
+            super(SimultaneousTicker.this.world);
+            this.events = events;
+        }
+
+        @Override
+        RandomGenerator getRandom() {
+            return random;
+        }
+
+        @Override
+        void recordEvent(Event event) {
+            events.add(event);
+        }
+
+        @Override
+        public String toString() {
+            return "the decide pass of a simultaneous turn";
+        }
+    }
+
+    /**
+     * SplitMix64 generator that can be reseeded for every animal without allocating.
+     */
+    private static final class AnimalRandom implements RandomGenerator {
+        /** Golden ratio increment of SplitMix64 */
+        private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+        /** Current state of the generator */
+        private long state;
+
+        /**
+         * Restarts the generator with a stream unique to the given world seed, turn and animal.
+         *
+         * @param seed   seed of the world
+         * @param turn   current turn
+         * @param serial serial number of the animal
+         */
+        void reseed(long seed, int turn, long serial) {
+            state = mix(seed ^ mix(turn * GOLDEN_GAMMA + serial));
+        }
+
+        @Override
+        public long nextLong() {
+            state += GOLDEN_GAMMA;
+            return mix(state);
+        }
+
+        /**
+         * Scrambles the bits of a value using the SplitMix64 finalizer.
+         *
+         * @param z value to scramble
+         * @return scrambled value
+         */
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
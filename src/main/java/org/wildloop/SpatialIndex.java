@@ -0,0 +1,401 @@
+package org.wildloop;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform bucket grid used by {@link World} to answer range and nearest-neighbour queries
+ * without scanning every animal.
+ * <p>
+ * The world is divided into square buckets of {@code cellSize} x {@code cellSize} cells.
+ * A query with range {@code r} only visits the buckets overlapping the bounding box of the
+ * Manhattan diamond around its origin, so its cost depends on local density rather than
+ * on the total population.
+ * <p>
+ * Ties between equally distant candidates are broken by the order in which animals were
+ * added to the world ({@link Animal#getSerial()}), so results do not depend on bucket layout.
+ * <p>
+ * Buckets are kept in an array covering the whole world, or, for {@link GridStorage#CHUNKED}
+ * worlds, in a {@link ChunkedGrid} where buckets are dropped when they become empty, so that
+ * the memory of the index follows the population.
+ * <p>
+ * Each bucket keeps the coordinates and the class of its animals in arrays next to the animals
+ * themselves, so queries test the type and the distance of candidates without touching the
+ * animal objects, which are scattered over the heap, and without creating {@link Position}s.
+ *
+ * @see World
+ */
+final class SpatialIndex {
+    /** Side length of a single bucket in world cells */
+    private final int cellSize;
+    /** Number of bucket columns */
+    private final int columns;
+    /** Number of bucket rows */
+    private final int rows;
+    /** Buckets in row-major order, allocated lazily on first insertion, or {@code null} for chunked buckets */
+    private final Bucket[] buckets;
+    /** Non-empty buckets of a chunked index, or {@code null} */
+    private final ChunkedGrid<Bucket> chunks;
+
+    /**
+     * Animals of a bucket in insertion order, with their coordinates and classes in parallel arrays.
+     */
+    private static final class Bucket {
+        /** Initial capacity of the arrays */
+        private static final int INITIAL_CAPACITY = 4;
+
+        /** Animals of the bucket */
+        Animal[] animals = new Animal[INITIAL_CAPACITY];
+        /** Classes of the animals */
+        Class<?>[] types = new Class<?>[INITIAL_CAPACITY];
+        /** Horizontal coordinates of the animals */
+        int[] xs = new int[INITIAL_CAPACITY];
+        /** Vertical coordinates of the animals */
+        int[] ys = new int[INITIAL_CAPACITY];
+        /** Number of animals in the bucket */
+        int size;
+
+        /**
+         * Appends an animal.
+         *
+         * @param animal animal to append
+         * @param x      column of the animal
+         * @param y      row of the animal
+         */
+        void add(Animal animal, int x, int y) {
+            if (size == animals.length) {
+                int capacity = size * 2;
+                animals = Arrays.copyOf(animals, capacity);
+                types = Arrays.copyOf(types, capacity);
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+            }
+            animals[size] = animal;
+            types[size] = animal.getClass();
+            xs[size] = x;
+            ys[size] = y;
+            size++;
+        }
+
+        /**
+         * Returns the index of an animal, searching from the most recently added one.
+         *
+         * @param animal animal to find
+         * @return index of the animal, or -1 if it is not in the bucket
+         */
+        int indexOf(Animal animal) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (animals[i] == animal) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Removes an animal, keeping the order of the others.
+         * @param animal animal to remove
+         */
+        void remove(Animal animal) {
+            int index = indexOf(animal);
+            if (index < 0) {
+                return;
+            }
+            int tail = size - index - 1;
+            System.arraycopy(animals, index + 1, animals, index, tail);
+            System.arraycopy(types, index + 1, types, index, tail);
+            System.arraycopy(xs, index + 1, xs, index, tail);
+            System.arraycopy(ys, index + 1, ys, index, tail);
+            animals[--size] = null;
+        }
+
+        /**
+         * Updates the coordinates of an animal that moved within the bucket.
+         *
+         * @param animal animal that moved
+         * @param x      new column of the animal
+         * @param y      new row of the animal
+         */
+        void move(Animal animal, int x, int y) {
+            int index = indexOf(animal);
+            if (index >= 0) {
+                xs[index] = x;
+                ys[index] = y;
+            }
+        }
+
+        /**
+         * Appends all animals of the bucket to a list.
+         * @param out list receiving the animals
+         */
+        void collect(List<Animal> out) {
+            for (int i = 0; i < size; i++) {
+                out.add(animals[i]);
+            }
+        }
+    }
+
+    /**
+     * Creates an empty index covering a world of the given dimensions.
+     *
+     * @param width    width of the world (number of cells)
+     * @param height   height of the world (number of cells)
+     * @param cellSize side length of a bucket, usually the largest query range
+     */
+    SpatialIndex(int width, int height, int cellSize) {
+        this(width, height, cellSize, false);
+    }
+
+    /**
+     * Creates an empty index covering a world of the given dimensions, optionally keeping
+     * only the non-empty buckets.
+     *
+     * @param width    width of the world (number of cells)
+     * @param height   height of the world (number of cells)
+     * @param cellSize side length of a bucket, usually the largest query range
+     * @param chunked  true to store buckets in a {@link ChunkedGrid}
+     */
+    SpatialIndex(int width, int height, int cellSize, boolean chunked) {
+        this.cellSize = Math.max(1, cellSize);
+        this.columns = (width + this.cellSize - 1) / this.cellSize;
+        this.rows = (height + this.cellSize - 1) / this.cellSize;
+        this.buckets = chunked ? null : new Bucket[columns * rows];
+        this.chunks = chunked ? new ChunkedGrid<>(columns, rows) : null;
+    }
+
+    /**
+     * Returns the side length of a single bucket in world cells.
+     * @return bucket size
+     */
+    int getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Returns the bucket containing the given cell, creating it if needed.
+     *
+     * @param x column of the cell, inside the world
+     * @param y row of the cell, inside the world
+     * @return bucket for the cell
+     */
+    private Bucket bucketAt(int x, int y) {
+        int column = x / cellSize;
+        int row = y / cellSize;
+        if (chunks != null) {
+            Bucket bucket = chunks.get(column, row);
+            if (bucket == null) {
+                bucket = new Bucket();
+                chunks.set(column, row, bucket);
+            }
+            return bucket;
+        }
+        int index = row * columns + column;
+        Bucket bucket = buckets[index];
+        if (bucket == null) {
+            bucket = new Bucket();
+            buckets[index] = bucket;
+        }
+        return bucket;
+    }
+
+    /**
+     * Returns an existing bucket.
+     *
+     * @param column column of the bucket
+     * @param row    row of the bucket
+     * @return bucket, or {@code null} if no animal was ever indexed in it, or none is left in a chunked index
+     */
+    private Bucket bucket(int column, int row) {
+        return chunks != null ? chunks.get(column, row) : buckets[row * columns + column];
+    }
+
+    /**
+     * Inserts an animal at the given position.
+     *
+     * @param animal   animal to insert
+     * @param position position of the animal
+     */
+    void add(Animal animal, Position position) {
+        add(animal, position.x(), position.y());
+    }
+
+    /**
+     * Inserts an animal in the given cell.
+     *
+     * @param animal animal to insert
+     * @param x      column of the animal
+     * @param y      row of the animal
+     */
+    void add(Animal animal, int x, int y) {
+        bucketAt(x, y).add(animal, x, y);
+    }
+
+    /**
+     * Removes an animal from the bucket containing the given position. A chunked index drops
+     * the bucket if it becomes empty.
+     *
+     * @param animal   animal to remove
+     * @param position position the animal was indexed under
+     */
+    void remove(Animal animal, Position position) {
+        remove(animal, position.x(), position.y());
+    }
+
+    /**
+     * Removes an animal from the bucket containing the given cell.
+     *
+     * @param animal animal to remove
+     * @param x      column the animal was indexed under
+     * @param y      row the animal was indexed under
+     * @see #remove(Animal, Position)
+     */
+    void remove(Animal animal, int x, int y) {
+        Bucket bucket = bucketAt(x, y);
+        bucket.remove(animal);
+        if (chunks != null && bucket.size == 0) {
+            chunks.set(x / cellSize, y / cellSize, null);
+        }
+    }
+
+    /**
+     * Releases the storage of buckets dropped by a chunked index. Must not run concurrently
+     * with changes of the index.
+     */
+    void releaseEmpty() {
+        if (chunks != null) {
+            chunks.releaseEmpty();
+        }
+    }
+
+    /**
+     * Updates the index after an animal moved. Within a bucket only the stored
+     * coordinates of the animal change.
+     *
+     * @param animal animal that moved
+     * @param fromX  previous column
+     * @param fromY  previous row
+     * @param toX    new column
+     * @param toY    new row
+     */
+    void move(Animal animal, int fromX, int fromY, int toX, int toY) {
+        if (fromX / cellSize == toX / cellSize && fromY / cellSize == toY / cellSize) {
+            bucketAt(toX, toY).move(animal, toX, toY);
+            return;
+        }
+        remove(animal, fromX, fromY);
+        add(animal, toX, toY);
+    }
+
+    /**
+     * Finds the nearest animal of the given type within range of the origin.
+     *
+     * @param origin position to measure distance from
+     * @param range  maximum Manhattan distance (inclusive)
+     * @param type   class of animals to consider
+     * @param <T>    type of the animal searched for
+     * @return nearest matching animal or {@code null} if none is within range
+     */
+    <T extends Animal> T findNearest(Position origin, int range, Class<T> type) {
+        return findNearest(origin.x(), origin.y(), range, type);
+    }
+
+    /**
+     * Finds the nearest animal of the given type within range of a cell.
+     *
+     * @param originX column to measure distance from
+     * @param originY row to measure distance from
+     * @param range   maximum Manhattan distance (inclusive)
+     * @param type    class of animals to consider
+     * @param <T>     type of the animal searched for
+     * @return nearest matching animal or {@code null} if none is within range
+     */
+    <T extends Animal> T findNearest(int originX, int originY, int range, Class<T> type) {
+        Animal nearest = null;
+        int minDistance = Integer.MAX_VALUE;
+
+        int minColumn = Math.max(0, originX - range) / cellSize;
+        int maxColumn = Math.min(columns - 1, Math.max(0, originX + range) / cellSize);
+        int minRow = Math.max(0, originY - range) / cellSize;
+        int maxRow = Math.min(rows - 1, Math.max(0, originY + range) / cellSize);
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                Bucket bucket = bucket(column, row);
+                if (bucket == null) continue;
+                Class<?>[] types = bucket.types;
+                int[] xs = bucket.xs;
+                int[] ys = bucket.ys;
+                for (int i = 0, size = bucket.size; i < size; i++) {
+                    int distance = Math.abs(originX - xs[i]) + Math.abs(originY - ys[i]);
+                    if (distance > range || distance > minDistance || !type.isAssignableFrom(types[i])) continue;
+                    Animal animal = bucket.animals[i];
+                    if (distance < minDistance || animal.getSerial() < nearest.getSerial()) {
+                        nearest = animal;
+                        minDistance = distance;
+                    }
+                }
+            }
+        }
+
+        return type.cast(nearest);
+    }
+
+    /**
+     * Collects all animals within range of the origin, ordered by {@link Animal#getSerial()}.
+     *
+     * @param origin position to measure distance from
+     * @param range  maximum Manhattan distance (inclusive)
+     * @return list of animals within range
+     */
+    List<Animal> findInRange(Position origin, int range) {
+        List<Animal> result = new ArrayList<>();
+
+        int minColumn = Math.max(0, origin.x() - range) / cellSize;
+        int maxColumn = Math.min(columns - 1, Math.max(0, origin.x() + range) / cellSize);
+        int minRow = Math.max(0, origin.y() - range) / cellSize;
+        int maxRow = Math.min(rows - 1, Math.max(0, origin.y() + range) / cellSize);
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                Bucket bucket = bucket(column, row);
+                if (bucket == null) continue;
+                for (int i = 0; i < bucket.size; i++) {
+                    if (Math.abs(origin.x() - bucket.xs[i]) + Math.abs(origin.y() - bucket.ys[i]) <= range) {
+                        result.add(bucket.animals[i]);
+                    }
+                }
+            }
+        }
+
+        result.sort((a, b) -> Long.compare(a.getSerial(), b.getSerial()));
+        return result;
+    }
+
+    /**
+     * Appends all animals stored in the bucket columns covering the given range of world columns.
+     * Buckets are visited row by row, so the order only depends on the history of the index.
+     * Both bounds should be aligned to bucket boundaries. Must not run concurrently with changes
+     * of the index.
+     *
+     * @param fromX first world column (inclusive)
+     * @param toX   last world column (inclusive)
+     * @param out   list receiving the animals
+     */
+    void collectColumns(int fromX, int toX, List<Animal> out) {
+        int minColumn = Math.max(0, fromX / cellSize);
+        int maxColumn = Math.min(columns - 1, toX / cellSize);
+        if (chunks != null) {
+            chunks.forEach(minColumn, maxColumn, (column, row, bucket) -> bucket.collect(out));
+            return;
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                Bucket bucket = buckets[row * columns + column];
+                if (bucket != null) {
+                    bucket.collect(out);
+                }
+            }
+        }
+    }
+}
@@ -53,6 +53,7 @@ public class StartApp extends JFrame {
         this.setDefaultCloseOperation(EXIT_ON_CLOSE); // close an application when a window closes
         this.setResizable(false); // disable window resizing
         this.setLocationRelativeTo(null); // center window on screen
+        Metrics.registerMBean(); // let JMX clients switch instrumentation on and read metrics
 
         // Add application icon
         try {
@@ -163,10 +164,16 @@ public class StartApp extends JFrame {
         JButton saveButton = new JButton("Start simulation"); // button for saving settings
         saveButton.setFont(buttonFont);
         saveButton.addActionListener(e -> {
-            int size = Integer.parseInt(sizeField.getText()); // get entered world size
-            int preyCount = Integer.parseInt(preyField.getText()); // get prey count
-            int predatorCount = Integer.parseInt(predatorField.getText()); // get predator count
-            simulationPanel.setSimulationParameters(size, preyCount, predatorCount); // set retrieved values in simulation
+            try {
+                int size = Integer.parseInt(sizeField.getText()); // get entered world size
+                int preyCount = Integer.parseInt(preyField.getText()); // get prey count
+                int predatorCount = Integer.parseInt(predatorField.getText()); // get predator count
+                simulationPanel.setSimulationParameters(size, preyCount, predatorCount); // set retrieved values in simulation
+            } catch (IllegalArgumentException ex) {
+                // stay on the settings panel, including for numbers that cannot be parsed
+                JOptionPane.showMessageDialog(panel, ex.getMessage(), "Invalid settings", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             // JOptionPane.showMessageDialog(this, "Settings saved!"); // show settings saved message
             cardLayout.show(mainPanel, "Simulation");
             simulationPanel.startSimulation(); // start simulation
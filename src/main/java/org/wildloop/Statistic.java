@@ -0,0 +1,118 @@
+package org.wildloop;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Streaming summary of a series of values: count, mean, variance, extremes and quantiles.
+ * <p>
+ * Mean and variance are updated with Welford's algorithm. Quantiles are exact; they are computed
+ * from the frequency of each distinct value, so memory grows with the number of distinct values
+ * rather than the number of values. Metrics of simulation runs are mostly small integers,
+ * which keeps the table short.
+ * <p>
+ * Instances are not thread-safe.
+ *
+ * @see EnsembleStatistics
+ */
+public final class Statistic {
+    /** Number of values added */
+    private long count;
+    /** Running mean */
+    private double mean;
+    /** Sum of squared differences from the running mean */
+    private double squares;
+    /** Number of occurrences of each distinct value */
+    private final TreeMap<Double, Long> frequencies = new TreeMap<>();
+
+    /**
+     * Adds a value to the series.
+     *
+     * @param value value to add
+     * @throws IllegalArgumentException if the value is not a finite number
+     */
+    public void add(double value) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("Value must be finite: " + value);
+        }
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        squares += delta * (value - mean);
+        frequencies.merge(value, 1L, Long::sum);
+    }
+
+    /**
+     * Returns the number of values added.
+     * @return number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the arithmetic mean of the values.
+     * @return mean, or {@link Double#NaN} if no value was added
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * Returns the sample variance of the values.
+     * @return variance, or {@link Double#NaN} if fewer than two values were added
+     */
+    public double getVariance() {
+        return count < 2 ? Double.NaN : squares / (count - 1);
+    }
+
+    /**
+     * Returns the sample standard deviation of the values.
+     * @return standard deviation, or {@link Double#NaN} if fewer than two values were added
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Returns the smallest value.
+     * @return minimum, or {@link Double#NaN} if no value was added
+     */
+    public double getMin() {
+        return count == 0 ? Double.NaN : frequencies.firstKey();
+    }
+
+    /**
+     * Returns the largest value.
+     * @return maximum, or {@link Double#NaN} if no value was added
+     */
+    public double getMax() {
+        return count == 0 ? Double.NaN : frequencies.lastKey();
+    }
+
+    /**
+     * Returns the quantile of the values using the nearest-rank method: the smallest value
+     * such that at least the given fraction of values is less than or equal to it.
+     *
+     * @param fraction fraction of values, between 0 and 1
+     * @return quantile, or {@link Double#NaN} if no value was added
+     * @throws IllegalArgumentException if the fraction is outside of the range [0, 1]
+     */
+    public double getQuantile(double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("Fraction must be between 0 and 1: " + fraction);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (Map.Entry<Double, Long> entry : frequencies.entrySet()) {
+            seen += entry.getValue();
+            if (seen >= rank) {
+                return entry.getKey();
+            }
+        }
+        return frequencies.lastKey();
+    }
+}
@@ -0,0 +1,303 @@
+package org.wildloop;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Encodes events as lines of a text log directly into a reusable UTF-8 byte array.
+ * <p>
+ * The output is byte for byte the line formatted by {@link Event#format}, followed by the line
+ * separator, but nothing is allocated per event: event type names, directions and the literal parts
+ * of every description are encoded once, the date and time up to the seconds are formatted once
+ * per second, the prefix of the world once per world, and numbers and coordinates are written digit
+ * by digit. An encoder is used by a single thread and is not thread-safe.
+ *
+ * @see AsyncLogWriter
+ * @see Event
+ */
+final class TextLogEncoder {
+    /** Format of the part of timestamps that changes at most once per second */
+    private static final DateTimeFormatter SECOND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.");
+    /** Argument of a description: identifier of the first animal */
+    private static final int FIRST_ID = 0;
+    /** Argument of a description: position of the first animal */
+    private static final int FIRST_POSITION = 1;
+    /** Argument of a description: identifier of the second animal */
+    private static final int SECOND_ID = 2;
+    /** Argument of a description: position of the second animal */
+    private static final int SECOND_POSITION = 3;
+    /** Argument of a description: direction */
+    private static final int DIRECTION = 4;
+
+    /** Line separator */
+    private static final byte[] LINE_SEPARATOR = bytes(System.lineSeparator());
+    /** Text following the timestamp of system events */
+    private static final byte[] SYSTEM = bytes(" | SYSTEM");
+    /** Text surrounding the name of the event type, indexed by type ordinal */
+    private static final byte[][] TYPE_NAMES;
+    /** Literal parts of the description between arguments, indexed by type ordinal */
+    private static final byte[][][] SEGMENTS;
+    /** Arguments of the description in order of appearance, indexed by type ordinal */
+    private static final int[][] ARGUMENTS;
+    /** Names of the directions, indexed by ordinal */
+    private static final byte[][] DIRECTION_NAMES;
+
+    static {
+        EventType[] types = EventType.values();
+        TYPE_NAMES = new byte[types.length][];
+        SEGMENTS = new byte[types.length][][];
+        ARGUMENTS = new int[types.length][];
+        for (EventType type : types) {
+            TYPE_NAMES[type.ordinal()] = bytes(" | " + type.name() + " | ");
+            ARGUMENTS[type.ordinal()] = arguments(type);
+            SEGMENTS[type.ordinal()] = segments(type.getFormat(), ARGUMENTS[type.ordinal()].length);
+        }
+        Direction[] directions = Direction.values();
+        DIRECTION_NAMES = new byte[directions.length][];
+        for (Direction direction : directions) {
+            DIRECTION_NAMES[direction.ordinal()] = bytes(direction.name());
+        }
+    }
+
+    /** Time zone of timestamps */
+    private final ZoneId zone;
+    /** Second since the epoch whose formatted date and time are cached */
+    private long cachedSecond = Long.MIN_VALUE;
+    /** Date and time of {@link #cachedSecond} up to the seconds, followed by a dot */
+    private byte[] cachedTime;
+    /** World whose prefix is cached */
+    private World cachedWorld;
+    /** Text preceding the turn of events of {@link #cachedWorld} */
+    private byte[] cachedWorldPrefix;
+    /** Encoded line */
+    private byte[] line = new byte[256];
+    /** Number of bytes of {@link #line} in use */
+    private int length;
+
+    /**
+     * Creates an encoder writing timestamps in the default time zone, like {@link Event#toString()}.
+     */
+    TextLogEncoder() {
+        this(ZoneId.systemDefault());
+    }
+
+    /**
+     * Creates an encoder writing timestamps in the given time zone.
+     * @param zone time zone of timestamps
+     */
+    TextLogEncoder(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * Encodes an event as a line of text followed by the line separator.
+     * The line is available from {@link #getBytes()} until the next call.
+     *
+     * @param event event to encode
+     * @return number of bytes of the line, including the line separator
+     */
+    int encode(Event event) {
+        length = 0;
+        appendTimestamp(event.getEpochMillis());
+        World world = event.getWorld();
+        if (world == null) {
+            append(SYSTEM);
+        } else {
+            if (world != cachedWorld) {
+                cachedWorld = world;
+                cachedWorldPrefix = bytes(" | W-" + world.getId() + " T-");
+            }
+            append(cachedWorldPrefix);
+            appendNumber(event.getTurn());
+        }
+
+        EventType type = event.getType();
+        append(TYPE_NAMES[type.ordinal()]);
+        byte[][] segments = SEGMENTS[type.ordinal()];
+        int[] arguments = ARGUMENTS[type.ordinal()];
+        append(segments[0]);
+        for (int i = 0; i < arguments.length; i++) {
+            switch (arguments[i]) {
+                case FIRST_ID -> appendText(((Animal) event.getParam(0)).getId());
+                case FIRST_POSITION -> appendPosition(event.getPosition(0));
+                case SECOND_ID -> appendText(((Animal) event.getParam(1)).getId());
+                case SECOND_POSITION -> appendPosition(event.getPosition(1));
+                case DIRECTION -> append(DIRECTION_NAMES[((Direction) event.getParam(type.getAnimalCount())).ordinal()]);
+            }
+            append(segments[i + 1]);
+        }
+        append(LINE_SEPARATOR);
+        return length;
+    }
+
+    /**
+     * Returns the array holding the last encoded line in its first bytes.
+     * @return encoded line, valid until the next call of {@link #encode(Event)}
+     */
+    byte[] getBytes() {
+        return line;
+    }
+
+    /**
+     * Returns the last encoded line as a string, without the line separator.
+     * @return encoded line
+     */
+    String getText() {
+        return new String(line, 0, length - LINE_SEPARATOR.length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends a timestamp with millisecond precision, formatting the date and time
+     * only when the second differs from the previous timestamp.
+     *
+     * @param epochMillis time in milliseconds since the epoch
+     */
+    private void appendTimestamp(long epochMillis) {
+        long second = Math.floorDiv(epochMillis, 1000);
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            cachedTime = bytes(SECOND_FORMAT.format(LocalDateTime.ofInstant(Instant.ofEpochSecond(second), zone)));
+        }
+        append(cachedTime);
+        int millis = Math.floorMod(epochMillis, 1000);
+        ensureCapacity(3);
+        line[length++] = (byte) ('0' + millis / 100);
+        line[length++] = (byte) ('0' + millis / 10 % 10);
+        line[length++] = (byte) ('0' + millis % 10);
+    }
+
+    /**
+     * Appends a position formatted like {@link Position#toString()}.
+     * @param position position to append
+     */
+    private void appendPosition(Position position) {
+        ensureCapacity(1);
+        line[length++] = '(';
+        appendNumber(position.x());
+        ensureCapacity(2);
+        line[length++] = ',';
+        line[length++] = ' ';
+        appendNumber(position.y());
+        ensureCapacity(1);
+        line[length++] = ')';
+    }
+
+    /**
+     * Appends the decimal digits of a number, preceded by a minus sign if it is negative.
+     * @param number number to append
+     */
+    private void appendNumber(long number) {
+        ensureCapacity(20);
+        if (number < 0) {
+            line[length++] = '-';
+        } else {
+            number = -number;
+        }
+        // Digits are computed on the negative value, which also covers Long.MIN_VALUE
+        int digits = 1;
+        for (long rest = number / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            line[i] = (byte) ('0' - number % 10);
+            number /= 10;
+        }
+        length += digits;
+    }
+
+    /**
+     * Appends text encoded as UTF-8, copying ASCII characters directly.
+     * @param text text to append
+     */
+    private void appendText(String text) {
+        int start = length;
+        ensureCapacity(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                length = start;
+                append(bytes(text));
+                return;
+            }
+            line[length++] = (byte) c;
+        }
+    }
+
+    /**
+     * Appends encoded bytes.
+     * @param bytes bytes to append
+     */
+    private void append(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, line, length, bytes.length);
+        length += bytes.length;
+    }
+
+    /**
+     * Grows the line array if fewer than the given number of bytes are free.
+     * @param bytes number of bytes about to be appended
+     */
+    private void ensureCapacity(int bytes) {
+        if (length + bytes > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, length + bytes));
+        }
+    }
+
+    /**
+     * Returns the arguments of the description of an event type in order of appearance,
+     * matching {@link EventType#describe}.
+     *
+     * @param type event type
+     * @return arguments of the description
+     */
+    private static int[] arguments(EventType type) {
+        return switch (type) {
+            case SIMULATION_START, SIMULATION_PAUSE, SIMULATION_RESUME, SIMULATION_END, SIMULATION_TURN -> new int[0];
+            case DIE_ENERGY, DIE_AGE, SPAWN, EAT_GRASS -> new int[]{FIRST_ID, FIRST_POSITION};
+            case MOVE -> new int[]{FIRST_ID, DIRECTION, FIRST_POSITION};
+            case DIE_EATEN, REPRODUCE, EAT_PREY -> new int[]{FIRST_ID, FIRST_POSITION, SECOND_ID, SECOND_POSITION};
+            case FLEE, HUNT -> new int[]{FIRST_ID, FIRST_POSITION, SECOND_ID, SECOND_POSITION, DIRECTION};
+        };
+    }
+
+    /**
+     * Splits a description format at its {@code %s} placeholders and encodes the literal parts.
+     *
+     * @param format    description format of an event type
+     * @param arguments number of arguments of the description
+     * @return literal parts, one more than the number of arguments
+     * @throws IllegalStateException if the number of placeholders does not match the arguments
+     */
+    private static byte[][] segments(String format, int arguments) {
+        if (arguments == 0) {
+            return new byte[][]{bytes(format)};
+        }
+        List<byte[]> segments = new ArrayList<>();
+        int start = 0;
+        for (int index = format.indexOf("%s"); index >= 0; index = format.indexOf("%s", start)) {
+            segments.add(bytes(format.substring(start, index)));
+            start = index + 2;
+        }
+        segments.add(bytes(format.substring(start)));
+        if (segments.size() != arguments + 1) {
+            throw new IllegalStateException("Format '" + format + "' does not have " + arguments + " arguments");
+        }
+        return segments.toArray(new byte[0][]);
+    }
+
+    /**
+     * Encodes text as UTF-8.
+     *
+     * @param text text to encode
+     * @return encoded bytes
+     */
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,98 @@
+package org.wildloop;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * State of a turn that is being executed on the current thread by one of the concurrent
+ * tick engines of {@link World}.
+ * <p>
+ * While a context is active, the world asks it for the random generator to use, hands it the
+ * events to publish later, and lets it record births, deaths and changes of the energy and age
+ * totals instead of changing state shared by the whole world. Contexts that only read the world reject births and deaths.
+ *
+ * @see ParallelTicker
+ * @see SimultaneousTicker
+ */
+abstract class TickContext {
+    /** Context active on the current thread, or {@code null} */
+    private static final ThreadLocal<TickContext> CURRENT = new ThreadLocal<>();
+
+    /** World whose turn is being executed */
+    final World world;
+    /** Change of the total energy of the world recorded in this context and not yet applied */
+    long energyChange;
+    /** Change of the total age of the world recorded in this context and not yet applied */
+    long ageChange;
+
+    /**
+     * Creates a context for the given world.
+     * @param world world whose turn is being executed
+     */
+    TickContext(World world) {
+        this.world = world;
+    }
+
+    /**
+     * Returns the context active on the current thread for the given world.
+     *
+     * @param world world to check
+     * @return active context or {@code null} if the thread is not executing a turn of the world
+     */
+    static TickContext current(World world) {
+        TickContext context = CURRENT.get();
+        return context != null && context.world == world ? context : null;
+    }
+
+    /**
+     * Activates this context on the current thread.
+     */
+    final void enter() {
+        CURRENT.set(this);
+    }
+
+    /**
+     * Deactivates the context of the current thread.
+     */
+    final void exit() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Returns the random generator to use for decisions made in this context.
+     * @return random generator
+     */
+    abstract RandomGenerator getRandom();
+
+    /**
+     * Buffers an event to be published after the concurrent part of the turn.
+     * @param event event to buffer
+     */
+    abstract void recordEvent(Event event);
+
+    /**
+     * Returns the serial number for an animal born in this context.
+     * @return serial number
+     * @throws IllegalStateException if the context does not allow births
+     */
+    long nextSerial() {
+        throw new IllegalStateException("Animals cannot be added while " + this + " is active");
+    }
+
+    /**
+     * Records an animal born in this context.
+     * @param animal newborn animal
+     * @throws IllegalStateException if the context does not allow births
+     */
+    void recordBirth(Animal animal) {
+        throw new IllegalStateException("Animals cannot be added while " + this + " is active");
+    }
+
+    /**
+     * Records an animal that died in this context.
+     * @param animal dead animal
+     * @throws IllegalStateException if the context does not allow deaths
+     */
+    void recordDeath(Animal animal) {
+        throw new IllegalStateException("Animals cannot be removed while " + this + " is active");
+    }
+}
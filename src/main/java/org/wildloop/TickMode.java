@@ -0,0 +1,26 @@
+package org.wildloop;
+
+/**
+ * Strategies used by {@link World#tick()} to update animals during a single turn.
+ *
+ * @see World
+ */
+public enum TickMode {
+    /** Animals act one after another on the calling thread, in the order of {@link World#getAnimals()} */
+    SEQUENTIAL,
+    /**
+     * The grid is split into vertical strips that are updated concurrently on a
+     * {@link java.util.concurrent.ForkJoinPool}. Even strips are updated first, then odd strips,
+     * so strips running at the same time never interact. Births, deaths and events are
+     * applied in strip order after each phase, which keeps results independent of thread timing.
+     */
+    PARALLEL,
+    /**
+     * All animals first plan their moves, food and birth cells against the state left by the
+     * previous turn, concurrently and without modifying the world. Moves are then resolved together,
+     * and eating, reproduction and death are applied in a short sequential pass that only uses the
+     * planned food and cells still available. Contested cells and food go to the animal added first,
+     * so the result does not depend on the order of {@link World#getAnimals()}.
+     */
+    SIMULTANEOUS
+}
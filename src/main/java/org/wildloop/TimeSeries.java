@@ -0,0 +1,457 @@
+package org.wildloop;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Per-turn population metrics of a {@link World}, kept in growable primitive columns.
+ * <p>
+ * {@link #record(World)} is called once before the first turn and after every turn. It reads the
+ * {@link PopulationStats} of the world and appends a sample holding the turn, the prey and predator
+ * counts and the mean energy at that moment, together with the births and deaths by cause since
+ * the previous sample. Recording only reads counters maintained by the world, so it costs the same
+ * for any population size.
+ * <p>
+ * With a sample limit, memory stays bounded on long runs: once the limit is reached, neighbouring
+ * samples are merged pairwise and the number of turns covered by a sample doubles. A merged sample
+ * keeps the counts and mean energy of its later half and the sum of the births and deaths of both,
+ * so the curves keep their shape and no birth or death is lost. Recorded turns that do not fill a
+ * whole sample yet form a last, partial sample, so the series always ends with the latest recorded
+ * state and includes every birth and death so far.
+ * <p>
+ * The series can be exported as CSV or as a binary columnar file. The binary file starts with a
+ * 16-byte header: the magic bytes {@code WLTS}, a u16 version, a u16 column count, an i32 row count
+ * and an i32 stride (turns per sample). The columns follow in the order of {@link #CSV_HEADER}, each
+ * as consecutive little-endian values padded to a multiple of 8 bytes: seven i32 columns and the
+ * f64 mean energy. Every column starts at a fixed offset, so a plotting tool can map the file and
+ * view a column directly; {@link #load(Path)} maps it and bulk-copies the columns.
+ * <p>
+ * Instances are not thread-safe.
+ *
+ * @see PopulationStats
+ * @see HeadlessRunner
+ */
+public final class TimeSeries {
+    /** Bytes at the start of every binary time series file */
+    static final byte[] MAGIC = {'W', 'L', 'T', 'S'};
+    /** Version of the binary format written by this class */
+    static final int VERSION = 1;
+    /** Size of the header of the binary format in bytes */
+    static final int HEADER_SIZE = 16;
+    /** Byte order of all multibyte values of the binary format */
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    /** Header line of CSV exports, naming the columns in the order of the binary format */
+    public static final String CSV_HEADER = "turn,prey,predators,births,deaths_eaten,deaths_energy,deaths_age,mean_energy";
+    /** Number of columns */
+    private static final int COLUMNS = 8;
+    /** Number of i32 columns, stored before the mean energy */
+    private static final int INT_COLUMNS = 7;
+    /** Initial capacity of the columns */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Largest number of samples kept, or 0 for no limit */
+    private final int maxSamples;
+    /** Turn executed next at the end of each sample */
+    private int[] turns = new int[INITIAL_CAPACITY];
+    /** Number of prey at the end of each sample */
+    private int[] prey = new int[INITIAL_CAPACITY];
+    /** Number of predators at the end of each sample */
+    private int[] predators = new int[INITIAL_CAPACITY];
+    /** Births during each sample */
+    private int[] births = new int[INITIAL_CAPACITY];
+    /** Prey eaten during each sample */
+    private int[] eatenDeaths = new int[INITIAL_CAPACITY];
+    /** Animals that ran out of energy during each sample */
+    private int[] energyDeaths = new int[INITIAL_CAPACITY];
+    /** Animals that reached their maximum age during each sample */
+    private int[] ageDeaths = new int[INITIAL_CAPACITY];
+    /** Mean energy of the living animals at the end of each sample */
+    private double[] meanEnergy = new double[INITIAL_CAPACITY];
+    /** Number of complete samples, not counting the partial sample of the pending turns */
+    private int size;
+    /** Number of recorded turns covered by each sample */
+    private int stride = 1;
+    /** Number of recorded turns not yet appended as a sample */
+    private int pendingTurns;
+    /** Births since the last sample */
+    private long pendingBirths;
+    /** Prey eaten since the last sample */
+    private long pendingEatenDeaths;
+    /** Animals that ran out of energy since the last sample */
+    private long pendingEnergyDeaths;
+    /** Animals that reached their maximum age since the last sample */
+    private long pendingAgeDeaths;
+    /** Statistics read by the previous call to {@link #record(World)}, or {@code null} */
+    private PopulationStats last;
+
+    /**
+     * Creates a series keeping one sample per recorded turn without limit.
+     */
+    public TimeSeries() {
+        this(0);
+    }
+
+    /**
+     * Creates a series keeping at most the given number of samples.
+     *
+     * @param maxSamples largest number of samples kept, or 0 for no limit
+     * @throws IllegalArgumentException if the limit is negative, odd or 1
+     */
+    public TimeSeries(int maxSamples) {
+        if (maxSamples < 0 || maxSamples == 1 || maxSamples % 2 != 0) {
+            throw new IllegalArgumentException("Sample limit must be 0 or an even number of at least 2");
+        }
+        this.maxSamples = maxSamples;
+    }
+
+    /**
+     * Records the current state of a world. Births and deaths are counted from the previous call;
+     * the first call, and the first call after the world was reset, only records the population.
+     *
+     * @param world world to record
+     * @throws IllegalArgumentException if the world is null
+     */
+    public void record(World world) {
+        if (world == null) {
+            throw new IllegalArgumentException("World cannot be null");
+        }
+        PopulationStats stats = world.getStats();
+        if (last != null && stats.turn() >= last.turn()) {
+            pendingBirths += stats.births() - last.births();
+            pendingEatenDeaths += stats.eatenDeaths() - last.eatenDeaths();
+            pendingEnergyDeaths += stats.energyDeaths() - last.energyDeaths();
+            pendingAgeDeaths += stats.ageDeaths() - last.ageDeaths();
+        }
+        last = stats;
+        ensureCapacity(size + 1);
+        put(size, stats.turn(), stats.prey(), stats.predators(), pendingBirths, pendingEatenDeaths,
+                pendingEnergyDeaths, pendingAgeDeaths, stats.averageEnergy());
+        if (++pendingTurns >= stride) {
+            size++;
+            pendingTurns = 0;
+            pendingBirths = 0;
+            pendingEatenDeaths = 0;
+            pendingEnergyDeaths = 0;
+            pendingAgeDeaths = 0;
+            if (size == maxSamples) {
+                downsample();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of samples, including the partial sample of turns recorded since the last
+     * complete one.
+     *
+     * @return number of samples
+     */
+    public int size() {
+        return pendingTurns > 0 ? size + 1 : size;
+    }
+
+    /**
+     * Returns the number of recorded turns covered by each sample, doubled by every downsampling.
+     * The last sample may cover fewer turns.
+     *
+     * @return turns per sample
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * Returns the turn that was executed next when a sample was taken.
+     *
+     * @param index index of the sample
+     * @return turn number
+     * @throws IndexOutOfBoundsException if there is no such sample
+     */
+    public int getTurn(int index) {
+        return turns[Objects.checkIndex(index, size())];
+    }
+
+    /**
+     * Returns the number of prey at the end of a sample.
+     *
+     * @param index index of the sample
+     * @return number of prey
+     * @throws IndexOutOfBoundsException if there is no such sample
+     */
+    public int getPrey(int index) {
+        return prey[Objects.checkIndex(index, size())];
+    }
+
+    /**
+     * Returns the number of predators at the end of a sample.
+     *
+     * @param index index of the sample
+     * @return number of predators
+     * @throws IndexOutOfBoundsException if there is no such sample
+     */
+    public int getPredators(int index) {
+        return predators[Objects.checkIndex(index, size())];
+    }
+
+    /**
+     * Returns the number of births during a sample.
+     *
+     * @param index index of the sample
+     * @return number of births
+     * @throws IndexOutOfBoundsException if there is no such sample
+     */
+    public int getBirths(int index) {
+        return births[Objects.checkIndex(index, size())];
+    }
+
+    /**
+     * Returns the number of deaths by the given cause during a sample.
+     *
+     * @param index index of the sample
+     * @param cause reason of death; {@link DeathCause#REMOVED} is not recorded
+     * @return number of deaths
+     * @throws IndexOutOfBoundsException if there is no such sample
+     * @throws IllegalArgumentException  if the cause is null or not recorded
+     */
+    public int getDeaths(int index, DeathCause cause) {
+        Objects.checkIndex(index, size());
+        if (cause == null || cause == DeathCause.REMOVED) {
+            throw new IllegalArgumentException("Deaths are recorded only for causes EATEN, ENERGY and AGE");
+        }
+        return switch (cause) {
+            case EATEN -> eatenDeaths[index];
+            case ENERGY -> energyDeaths[index];
+            default -> ageDeaths[index];
+        };
+    }
+
+    /**
+     * Returns the mean energy of the living animals at the end of a sample.
+     *
+     * @param index index of the sample
+     * @return mean energy, or {@link Double#NaN} if no animal was alive
+     * @throws IndexOutOfBoundsException if there is no such sample
+     */
+    public double getMeanEnergy(int index) {
+        return meanEnergy[Objects.checkIndex(index, size())];
+    }
+
+    /**
+     * Writes the series as CSV with a {@link #CSV_HEADER} line. Mean energy is written with three
+     * decimal places, or as {@code nan} if no animal was alive.
+     *
+     * @param writer writer receiving the CSV
+     * @throws IOException if the writer fails
+     */
+    public void writeCsv(Writer writer) throws IOException {
+        StringBuilder line = new StringBuilder(64);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            line.setLength(0);
+            line.append(turns[i]).append(',').append(prey[i]).append(',').append(predators[i]).append(',')
+                    .append(births[i]).append(',').append(eatenDeaths[i]).append(',')
+                    .append(energyDeaths[i]).append(',').append(ageDeaths[i]).append(',')
+                    .append(Double.isNaN(meanEnergy[i]) ? "nan" : String.format(Locale.ROOT, "%.3f", meanEnergy[i]))
+                    .append('\n');
+            writer.append(line);
+        }
+    }
+
+    /**
+     * Writes the series as CSV to a file, replacing an existing file.
+     *
+     * @param file file receiving the CSV
+     * @throws IOException if the file cannot be written
+     */
+    public void writeCsv(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeCsv(writer);
+        }
+    }
+
+    /**
+     * Writes the series as a binary columnar file, replacing an existing file.
+     * The layout is described in the class documentation.
+     *
+     * @param file file receiving the columns
+     * @throws IOException if the file cannot be written
+     */
+    public void writeColumns(Path file) throws IOException {
+        int size = size();
+        int intColumnSize = (int) paddedSize(size, Integer.BYTES);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + INT_COLUMNS * intColumnSize + size * Double.BYTES)
+                .order(BYTE_ORDER);
+        buffer.put(MAGIC);
+        buffer.putShort((short) VERSION);
+        buffer.putShort((short) COLUMNS);
+        buffer.putInt(size);
+        buffer.putInt(stride);
+        for (int[] column : intColumns()) {
+            buffer.asIntBuffer().put(column, 0, size);
+            buffer.position(buffer.position() + intColumnSize);
+        }
+        buffer.asDoubleBuffer().put(meanEnergy, 0, size);
+        buffer.position(buffer.limit()).flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Maps a binary columnar file written by {@link #writeColumns(Path)} and copies its columns
+     * into a new series without a sample limit.
+     *
+     * @param file file to read
+     * @return series holding the samples of the file
+     * @throws IOException if the file cannot be read, is not a time series file of a supported
+     *                     version, or is shorter than its header declares
+     */
+    public static TimeSeries load(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer buffer = mapped.order(BYTE_ORDER);
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IOException("File is too short to be a time series");
+        }
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("File is not a time series");
+        }
+        int version = Short.toUnsignedInt(buffer.getShort());
+        int columns = Short.toUnsignedInt(buffer.getShort());
+        if (version != VERSION || columns != COLUMNS) {
+            throw new IOException("Unsupported time series version " + version + " with " + columns + " columns");
+        }
+        int rows = buffer.getInt();
+        int stride = buffer.getInt();
+        if (rows < 0 || stride < 1 || buffer.remaining() < INT_COLUMNS * paddedSize(rows, Integer.BYTES) + (long) rows * Double.BYTES) {
+            throw new IOException("Time series file is truncated or has an invalid header");
+        }
+        int intColumnSize = (int) paddedSize(rows, Integer.BYTES);
+
+        TimeSeries series = new TimeSeries();
+        series.ensureCapacity(rows);
+        for (int[] column : series.intColumns()) {
+            buffer.asIntBuffer().get(column, 0, rows);
+            buffer.position(buffer.position() + intColumnSize);
+        }
+        buffer.asDoubleBuffer().get(series.meanEnergy, 0, rows);
+        series.size = rows;
+        series.stride = stride;
+        return series;
+    }
+
+    /**
+     * Writes a sample at an index, saturating event counts that do not fit into an i32 column.
+     *
+     * @param index         index of the sample, within the capacity of the columns
+     * @param turn          turn executed next
+     * @param preyCount     number of prey
+     * @param predatorCount number of predators
+     * @param birthCount    births during the sample
+     * @param eaten         prey eaten during the sample
+     * @param starved       animals that ran out of energy during the sample
+     * @param aged          animals that reached their maximum age during the sample
+     * @param energy        mean energy of the living animals
+     */
+    private void put(int index, int turn, int preyCount, int predatorCount, long birthCount, long eaten, long starved,
+                     long aged, double energy) {
+        turns[index] = turn;
+        prey[index] = preyCount;
+        predators[index] = predatorCount;
+        births[index] = saturate(birthCount);
+        eatenDeaths[index] = saturate(eaten);
+        energyDeaths[index] = saturate(starved);
+        ageDeaths[index] = saturate(aged);
+        meanEnergy[index] = energy;
+    }
+
+    /**
+     * Merges neighbouring samples pairwise and doubles the stride. Called when the number of
+     * samples reaches the limit, which is even, so every sample has a partner.
+     */
+    private void downsample() {
+        int half = size / 2;
+        for (int i = 0; i < half; i++) {
+            int first = 2 * i;
+            int second = first + 1;
+            turns[i] = turns[second];
+            prey[i] = prey[second];
+            predators[i] = predators[second];
+            births[i] = saturate((long) births[first] + births[second]);
+            eatenDeaths[i] = saturate((long) eatenDeaths[first] + eatenDeaths[second]);
+            energyDeaths[i] = saturate((long) energyDeaths[first] + energyDeaths[second]);
+            ageDeaths[i] = saturate((long) ageDeaths[first] + ageDeaths[second]);
+            meanEnergy[i] = meanEnergy[second];
+        }
+        size = half;
+        stride *= 2;
+    }
+
+    /**
+     * Grows the columns to hold at least the given number of samples, doubling their capacity.
+     * @param capacity number of samples to hold
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= turns.length) {
+            return;
+        }
+        int grown = Math.max(capacity, turns.length * 2);
+        turns = Arrays.copyOf(turns, grown);
+        prey = Arrays.copyOf(prey, grown);
+        predators = Arrays.copyOf(predators, grown);
+        births = Arrays.copyOf(births, grown);
+        eatenDeaths = Arrays.copyOf(eatenDeaths, grown);
+        energyDeaths = Arrays.copyOf(energyDeaths, grown);
+        ageDeaths = Arrays.copyOf(ageDeaths, grown);
+        meanEnergy = Arrays.copyOf(meanEnergy, grown);
+    }
+
+    /**
+     * Returns the i32 columns in the order of the binary format.
+     * @return integer columns
+     */
+    private int[][] intColumns() {
+        return new int[][]{turns, prey, predators, births, eatenDeaths, energyDeaths, ageDeaths};
+    }
+
+    /**
+     * Returns the size of a column padded to a multiple of 8 bytes.
+     *
+     * @param rows      number of values
+     * @param valueSize size of a value in bytes
+     * @return padded size in bytes
+     */
+    private static long paddedSize(int rows, int valueSize) {
+        return ((long) rows * valueSize + 7) & ~7L;
+    }
+
+    /**
+     * Converts an event count to an i32 value, saturating at {@link Integer#MAX_VALUE}.
+     *
+     * @param count event count
+     * @return count that fits into an i32 column
+     */
+    private static int saturate(long count) {
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+}
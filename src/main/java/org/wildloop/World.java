@@ -1,26 +1,85 @@
 package org.wildloop;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents the simulation world where animals can move and interact.
  * The world is organized as a two-dimensional grid where each cell can contain one animal.
+ * The grid is stored densely or in chunks allocated as cells become occupied, see {@link GridStorage};
+ * both storages behave the same through {@link #getAnimalAt(Position)}, {@link #isCellEmpty(Position)}
+ * and {@link #isValidPosition(Position)}, but only a dense grid is available as an array through {@link #getGrid()}.
+ * <p>
+ * The world keeps population counters, birth and death counts and the energy and age totals
+ * of its animals up to date as they change, so {@link #getStats()} takes constant time.
  *
  * @see Animal
+ * @see PopulationStats
+ * @see WorldConfig
+ * @see GridStorage
  * @see Position
  * @see Direction
  */
 public class World {
-    /** Two-dimensional grid representing animal placement */
+    /** Two-dimensional grid representing animal placement, or {@code null} for chunked storage */
     private Animal[][] grid;
-    /** List of all active animals in the world */
-    private List<Animal> animals;
+    /** Chunked grid representing animal placement, or {@code null} for dense storage */
+    private ChunkedGrid<Animal> chunks;
+    /** Width of the world */
+    private final int width;
+    /** Height of the world */
+    private final int height;
+    /** Storage of the grid */
+    private final GridStorage storage;
+    /** Dense list of all active animals in the world */
+    private AnimalList animals;
     /** Counter of completed simulation turns */
     private int turn;
     /** Unique identifier for the world instance */
     private final String id;
+    /** Seed of the random generator, which together with the configuration determines the whole run */
+    private final long seed;
+    /** Parameters of the animals living in the world */
+    private final WorldConfig config;
+    /** Flag indicating whether events of the world are published and written to a log file */
+    private final boolean logged;
+    /** Random generator used for movement and placement */
+    private SplittableRandom random;
+    /** Bucket index used for range and nearest-neighbour queries */
+    private SpatialIndex spatialIndex;
+    /** Serial number assigned to the next animal added to the world */
+    private long nextSerial;
+    /** Structure-of-arrays storage of animal state, or {@code null} when animals keep their own state */
+    private AnimalStore store;
+    /** Flag indicating whether a turn is currently being executed */
+    private boolean ticking;
+    /** Strategy used to update animals in {@link #tick()} */
+    private TickMode tickMode = TickMode.SEQUENTIAL;
+    /** Pool running the concurrent part of {@link TickMode#PARALLEL} and {@link TickMode#SIMULTANEOUS} turns */
+    private ForkJoinPool tickPool = ForkJoinPool.commonPool();
+    /** Engine used in {@link TickMode#PARALLEL} mode, created on first use */
+    private ParallelTicker parallelTicker;
+    /** Engine used in {@link TickMode#SIMULTANEOUS} mode, created on first use */
+    private SimultaneousTicker simultaneousTicker;
+    /** Number of living prey */
+    private int preyCount;
+    /** Number of living predators */
+    private int predatorCount;
+    /** Number of animals born during turns */
+    private long births;
+    /** Number of deaths, indexed by {@link DeathCause#ordinal()} */
+    private long[] deaths = new long[DeathCause.values().length];
+    /** Sum of the energy levels of all living animals */
+    private long totalEnergy;
+    /** Sum of the ages of all living animals */
+    private long totalAge;
+    /** Cells changed since the end of the last turn */
+    private DirtyCells changes;
+    /** Cells changed during the last turn, exposed by {@link #getChangedCells()} */
+    private DirtyCells turnChanges;
 
     /**
      * Creates a new world with specified dimensions.
@@ -29,31 +88,260 @@ public class World {
      * @param height height of the world (number of cells)
      */
     public World(int width, int height) {
-        this.grid = new Animal[width][height];
-        this.animals = new ArrayList<>();
+        this(width, height, false);
+    }
+
+    /**
+     * Creates a new world with specified dimensions and random seed.
+     *
+     * @param width  width of the world (number of cells)
+     * @param height height of the world (number of cells)
+     * @param seed   seed of the random generator
+     */
+    public World(int width, int height, long seed) {
+        this(width, height, false, seed);
+    }
+
+    /**
+     * Creates a new world with specified dimensions, optionally using the data-oriented backend.
+     * <p>
+     * With the data-oriented backend, position, energy, age, species and the dead flag of all
+     * animals are kept in parallel primitive arrays, and animal objects act as thin handles
+     * to their slot. Both backends apply the same rules in the same order, so in
+     * {@link TickMode#SEQUENTIAL} mode a world with the same seed evolves identically with either backend.
+     *
+     * @param width        width of the world (number of cells)
+     * @param height       height of the world (number of cells)
+     * @param dataOriented true to keep animal state in a structure-of-arrays store
+     */
+    public World(int width, int height, boolean dataOriented) {
+        this(width, height, dataOriented, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Creates a new world with specified dimensions, backend and random seed.
+     * All random decisions of the simulation are drawn from a generator created from the seed,
+     * so a world with the same seed, configuration and initial animals replays the same run,
+     * in both {@link TickMode#SEQUENTIAL} and {@link TickMode#PARALLEL} mode.
+     *
+     * @param width        width of the world (number of cells)
+     * @param height       height of the world (number of cells)
+     * @param dataOriented true to keep animal state in a structure-of-arrays store
+     * @param seed         seed of the random generator
+     */
+    public World(int width, int height, boolean dataOriented, long seed) {
+        this(width, height, dataOriented, seed, WorldConfig.DEFAULTS);
+    }
+
+    /**
+     * Creates a new world with specified dimensions, backend, random seed and animal parameters.
+     * Worlds with different configurations can run side by side in one JVM.
+     *
+     * @param width        width of the world (number of cells)
+     * @param height       height of the world (number of cells)
+     * @param dataOriented true to keep animal state in a structure-of-arrays store
+     * @param seed         seed of the random generator
+     * @param config       parameters of the animals living in the world
+     * @throws IllegalArgumentException if the configuration is null
+     */
+    public World(int width, int height, boolean dataOriented, long seed, WorldConfig config) {
+        this(width, height, dataOriented, seed, config, true);
+    }
+
+    /**
+     * Creates a new world with specified dimensions, backend, random seed and animal parameters,
+     * optionally without logging. A world without logging publishes no events and does not open
+     * a log file, so many such worlds can run concurrently, for example in an {@link Ensemble}.
+     * The grid is always {@link GridStorage#DENSE}, whatever the size, so {@link #getGrid()} is available.
+     *
+     * @param width        width of the world (number of cells)
+     * @param height       height of the world (number of cells)
+     * @param dataOriented true to keep animal state in a structure-of-arrays store
+     * @param seed         seed of the random generator
+     * @param config       parameters of the animals living in the world
+     * @param logged       true to publish events and write them to a log file
+     * @throws IllegalArgumentException if the configuration is null
+     */
+    public World(int width, int height, boolean dataOriented, long seed, WorldConfig config, boolean logged) {
+        this(width, height, dataOriented, seed, config, logged, GridStorage.DENSE);
+    }
+
+    /**
+     * Creates a new world with specified dimensions, backend, random seed, animal parameters
+     * and grid storage. A {@link GridStorage#CHUNKED} grid lets very large, mostly empty worlds
+     * use memory in proportion to their population; {@link GridStorage#choose(int, int, long)}
+     * picks the storage from the expected population. Only this constructor creates chunked worlds.
+     *
+     * @param width        width of the world (number of cells)
+     * @param height       height of the world (number of cells)
+     * @param dataOriented true to keep animal state in a structure-of-arrays store
+     * @param seed         seed of the random generator
+     * @param config       parameters of the animals living in the world
+     * @param logged       true to publish events and write them to a log file
+     * @param storage      storage of the grid
+     * @throws IllegalArgumentException if the configuration or the storage is null
+     */
+    public World(int width, int height, boolean dataOriented, long seed, WorldConfig config, boolean logged, GridStorage storage) {
+        if (config == null) {
+            throw new IllegalArgumentException("Configuration cannot be null");
+        }
+        if (storage == null) {
+            throw new IllegalArgumentException("Grid storage cannot be null");
+        }
+        this.config = config;
+        this.logged = logged;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.width = width;
+        this.height = height;
+        this.storage = storage;
+        createGrid();
+        this.store = dataOriented ? new AnimalStore() : null;
+        this.animals = new AnimalList();
         this.turn = 1;
         this.id = UUID.randomUUID().toString().substring(0, 8);
+        this.spatialIndex = createSpatialIndex(width, height, config, storage);
+        this.changes = new DirtyCells(width, height);
+        this.turnChanges = new DirtyCells(width, height);
 
-        LogExporter.openLog(this.id);
-        Event.log(EventType.SIMULATION_START, this);
+        if (logged) {
+            LogExporter.openLog(this);
+            Event.log(EventType.SIMULATION_START, this);
+        }
+    }
+
+    /**
+     * Creates a spatial index with buckets sized to the largest detection range,
+     * so that a range query touches at most a 3x3 block of buckets.
+     *
+     * @param width   width of the world
+     * @param height  height of the world
+     * @param config  configuration providing the detection ranges
+     * @param storage storage of the grid, also used for the buckets
+     * @return new, empty spatial index
+     */
+    private static SpatialIndex createSpatialIndex(int width, int height, WorldConfig config, GridStorage storage) {
+        return new SpatialIndex(width, height, config.maxRange(), storage == GridStorage.CHUNKED);
+    }
+
+    /**
+     * Creates an empty grid in the storage of the world.
+     */
+    private void createGrid() {
+        if (storage == GridStorage.CHUNKED) {
+            this.chunks = new ChunkedGrid<>(width, height);
+        } else {
+            this.grid = new Animal[width][height];
+        }
     }
 
     /**
-     * Returns the two-dimensional grid representing the world.
+     * Returns the two-dimensional grid representing the world. Worlds created without an explicit
+     * storage are always dense; {@link #getAnimalAt(Position)} works with either storage.
+     *
      * @return grid of animals in the world
+     * @throws IllegalStateException if the world uses {@link GridStorage#CHUNKED} storage
      */
     public Animal[][] getGrid() {
+        if (grid == null) {
+            throw new IllegalStateException("Grid of a chunked world is not available as an array");
+        }
         return grid;
     }
 
     /**
-     * Returns a list of all animals currently in the world.
+     * Returns the storage of the grid.
+     * @return grid storage
+     */
+    public GridStorage getGridStorage() {
+        return storage;
+    }
+
+    /**
+     * Returns the animal in a cell, in either grid storage.
+     *
+     * @param position position of the cell
+     * @return animal in the cell, or {@code null} if the cell is empty or outside the world
+     */
+    public Animal getAnimalAt(Position position) {
+        return isValidPosition(position) ? animalAt(position.x(), position.y()) : null;
+    }
+
+    /**
+     * Returns the animal in a cell without checking the position.
+     *
+     * @param x column of the cell, inside the world
+     * @param y row of the cell, inside the world
+     * @return animal in the cell, or {@code null}
+     */
+    Animal animalAt(int x, int y) {
+        return grid != null ? grid[x][y] : chunks.get(x, y);
+    }
+
+    /**
+     * Changes the content of a cell and marks it as changed. Different cells may be changed
+     * by several threads at once.
+     *
+     * @param x      column of the cell, inside the world
+     * @param y      row of the cell, inside the world
+     * @param animal new content, or {@code null}
+     */
+    private void setCell(int x, int y, Animal animal) {
+        if (grid != null) {
+            grid[x][y] = animal;
+        } else {
+            chunks.set(x, y, animal);
+        }
+        changes.mark(x, y);
+    }
+
+    /**
+     * Releases the chunks of the grid and of the spatial index that became empty.
+     */
+    private void releaseEmptyChunks() {
+        if (chunks != null) {
+            chunks.releaseEmpty();
+            spatialIndex.releaseEmpty();
+        }
+    }
+
+    /**
+     * Returns the cells whose content changed during the last turn, so that viewers can redraw
+     * only those cells. Changes made between the previous turn and the last one, such as animals
+     * added or removed by the user, are included. Before the first turn, and after {@link #reset()},
+     * no cell is marked. The set is replaced at the end of every turn and must not be modified.
+     *
+     * @return cells changed during the last turn
+     */
+    public DirtyCells getChangedCells() {
+        return turnChanges;
+    }
+
+    /**
+     * Returns a read-only list of all animals currently in the world.
+     * Animals are listed in the order they were added, except that removing an animal
+     * moves the last animal of the list into its place. Membership checks with
+     * {@link List#contains(Object)} take constant time.
+     *
      * @return list of animals
      */
     public List<Animal> getAnimals() {
         return animals;
     }
 
+    /**
+     * Returns a snapshot of the population of the world, maintained incrementally
+     * so that no animal is inspected.
+     *
+     * @return current population statistics
+     */
+    public PopulationStats getStats() {
+        return new PopulationStats(turn, preyCount, predatorCount, (long) width * height, births,
+                deaths[DeathCause.EATEN.ordinal()], deaths[DeathCause.ENERGY.ordinal()],
+                deaths[DeathCause.AGE.ordinal()], deaths[DeathCause.REMOVED.ordinal()],
+                totalEnergy, totalAge);
+    }
+
     /**
      * Returns the current turn number in the simulation.
      * @return current turn number
@@ -67,7 +355,7 @@ public class World {
      * @return width of the world
      */
     public int getWidth() {
-        return grid.length;
+        return width;
     }
 
     /**
@@ -75,7 +363,87 @@ public class World {
      * @return height of the world
      */
     public int getHeight() {
-        return grid[0].length;
+        return height;
+    }
+
+    /**
+     * Checks if the world keeps animal state in a data-oriented structure-of-arrays store.
+     * @return true if the data-oriented backend is used, false otherwise
+     */
+    public boolean isDataOriented() {
+        return store != null;
+    }
+
+    /**
+     * Returns the parameters of the animals living in the world.
+     * @return configuration of the world
+     */
+    public WorldConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Checks if events of the world are published and written to a log file.
+     * @return true if the world is logged, false otherwise
+     */
+    public boolean isLogged() {
+        return logged;
+    }
+
+    /**
+     * Returns the seed of the random generator of the world.
+     * @return random seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the random generator that should be used for decisions made on the current thread.
+     * While a concurrent tick engine is running, the generator assigned to the current strip or
+     * animal is returned, otherwise the generator of the world.
+     *
+     * @return random generator
+     */
+    public RandomGenerator getRandom() {
+        TickContext context = TickContext.current(this);
+        return context != null ? context.getRandom() : random;
+    }
+
+    /**
+     * Returns the strategy used to update animals in {@link #tick()}.
+     * @return current tick mode
+     */
+    public TickMode getTickMode() {
+        return tickMode;
+    }
+
+    /**
+     * Selects the strategy used to update animals in {@link #tick()}.
+     *
+     * @param tickMode new tick mode
+     * @throws IllegalArgumentException if the tick mode is null
+     */
+    public void setTickMode(TickMode tickMode) {
+        if (tickMode == null) {
+            throw new IllegalArgumentException("Tick mode cannot be null");
+        }
+        this.tickMode = tickMode;
+    }
+
+    /**
+     * Sets the pool used to update strips in {@link TickMode#PARALLEL} mode
+     * and to plan turns in {@link TickMode#SIMULTANEOUS} mode.
+     * The common pool is used by default.
+     *
+     * @param tickPool pool to use
+     * @throws IllegalArgumentException if the pool is null
+     */
+    public void setTickPool(ForkJoinPool tickPool) {
+        if (tickPool == null) {
+            throw new IllegalArgumentException("Tick pool cannot be null");
+        }
+        this.tickPool = tickPool;
     }
 
     /**
@@ -106,8 +474,20 @@ public class World {
             throw new IllegalStateException("Selected cell is already occupied");
         }
 
-        grid[position.x()][position.y()] = animal;
-        animals.add(animal);
+        setCell(position.x(), position.y(), animal);
+        spatialIndex.add(animal, position);
+        if (ticking) {
+            animal.setActedTurn(turn);
+        }
+
+        TickContext context = TickContext.current(this);
+        if (context != null) {
+            animal.setSerial(context.nextSerial());
+            context.recordBirth(animal);
+        } else {
+            animal.setSerial(nextSerial++);
+            registerAnimal(animal);
+        }
         Event.log(EventType.SPAWN, this, animal);
     }
 
@@ -124,18 +504,251 @@ public class World {
         }
 
         Position position = animal.getPosition();
-        if (!animals.contains(animal)) {
+        TickContext context = TickContext.current(this);
+        if (context == null && !containsAnimal(animal)) {
             throw new IllegalStateException(animal.getId() + " does not exist in the world");
         }
         if (!isValidPosition(position)) {
             throw new IllegalStateException(animal.getId() + " position" + animal.getPosition() + " is invalid");
         }
-        if (grid[position.x()][position.y()] != animal) {
+        if (animalAt(position.x(), position.y()) != animal) {
             throw new IllegalStateException(animal.getId() + " position " + animal.getPosition() + " does not match the grid");
         }
 
-        grid[position.x()][position.y()] = null;
-        animals.remove(animal);
+        setCell(position.x(), position.y(), null);
+        spatialIndex.remove(animal, position);
+        if (context != null) {
+            if (store != null && animal.getSlot() >= 0) {
+                store.markDead(animal.getSlot());
+            }
+            context.recordDeath(animal);
+        } else {
+            unregisterAnimal(animal);
+        }
+        if (!ticking) {
+            releaseEmptyChunks();
+        }
+    }
+
+    /**
+     * Adds an animal already placed on the grid to the animal list and the data-oriented
+     * store, and assigns its identifier. Animals born during a parallel phase are registered
+     * after the phase; those that died in the meantime only receive their identifier.
+     *
+     * @param animal animal to register
+     */
+    void registerAnimal(Animal animal) {
+        animal.assignId();
+        if (ticking) {
+            births++;
+        }
+        if (animal.isDead()) {
+            return;
+        }
+        animals.append(animal);
+        if (store != null) {
+            store.add(animal);
+        }
+        countAnimal(animal, 1);
+    }
+
+    /**
+     * Removes an animal already taken off the grid from the animal list and the data-oriented store,
+     * and counts its death.
+     *
+     * @param animal animal to unregister
+     */
+    void unregisterAnimal(Animal animal) {
+        if (containsAnimal(animal)) {
+            countAnimal(animal, -1);
+            animals.removeSwap(animal);
+        }
+        DeathCause cause = animal.getDeathCause();
+        deaths[(cause != null ? cause : DeathCause.REMOVED).ordinal()]++;
+        if (store != null && animal.getSlot() >= 0) {
+            if (ticking) {
+                store.markDead(animal.getSlot());
+            } else {
+                store.remove(animal.getSlot());
+            }
+        }
+    }
+
+    /**
+     * Adds an animal joining the animal list to the population counters and totals,
+     * or subtracts one leaving it.
+     *
+     * @param animal animal joining or leaving the list
+     * @param sign   1 when the animal joins, -1 when it leaves
+     */
+    private void countAnimal(Animal animal, int sign) {
+        if (animal instanceof Prey) {
+            preyCount += sign;
+        } else {
+            predatorCount += sign;
+        }
+        totalEnergy += sign * (long) animal.getEnergy();
+        totalAge += sign * (long) animal.getAge();
+    }
+
+    /**
+     * Records a change of the energy level of an animal in the energy total.
+     * Changes of animals that are not in the animal list are ignored, since their energy
+     * is added when they join it. During the concurrent part of a turn the change is kept
+     * by the tick context and applied by {@link #applyTotals(TickContext)}.
+     *
+     * @param animal animal whose energy changes
+     * @param change difference between the new and the old energy level
+     */
+    void recordEnergyChange(Animal animal, int change) {
+        if (animal.getListIndex() < 0) {
+            return;
+        }
+        TickContext context = TickContext.current(this);
+        if (context != null) {
+            context.energyChange += change;
+        } else {
+            totalEnergy += change;
+        }
+    }
+
+    /**
+     * Records that an animal grew older in the age total.
+     * Follows the same rules as {@link #recordEnergyChange(Animal, int)}.
+     *
+     * @param animal animal growing older
+     * @param years  number of years added to its age
+     */
+    void recordAging(Animal animal, int years) {
+        if (animal.getListIndex() < 0) {
+            return;
+        }
+        TickContext context = TickContext.current(this);
+        if (context != null) {
+            context.ageChange += years;
+        } else {
+            totalAge += years;
+        }
+    }
+
+    /**
+     * Applies the changes of the energy and age totals recorded by a tick context and clears them.
+     * @param context context that recorded the changes
+     */
+    void applyTotals(TickContext context) {
+        totalEnergy += context.energyChange;
+        totalAge += context.ageChange;
+        context.energyChange = 0;
+        context.ageChange = 0;
+    }
+
+    /**
+     * Reserves a block of consecutive serial numbers for animals born during a parallel phase.
+     *
+     * @param count number of serial numbers to reserve
+     * @return first reserved serial number
+     */
+    long reserveSerials(long count) {
+        long first = nextSerial;
+        nextSerial += count;
+        return first;
+    }
+
+    /**
+     * Appends all animals located in the given range of columns, as stored by the spatial index.
+     *
+     * @param fromX first column (inclusive)
+     * @param toX   last column (inclusive)
+     * @param out   list receiving the animals
+     */
+    void collectAnimals(int fromX, int toX, List<Animal> out) {
+        spatialIndex.collectColumns(fromX, toX, out);
+    }
+
+    /**
+     * Buffers an event logged during the concurrent part of a turn, so that it is published
+     * afterwards in a deterministic order.
+     *
+     * @param event event to buffer
+     * @return true if the event was buffered, false if it should be published immediately
+     */
+    boolean deferEvent(Event event) {
+        TickContext context = TickContext.current(this);
+        if (context == null) {
+            return false;
+        }
+        event.capturePositions();
+        context.recordEvent(event);
+        return true;
+    }
+
+    /**
+     * Checks in constant time if the given animal currently lives in this world.
+     *
+     * @param animal animal to check
+     * @return true if the animal is in the world, false otherwise
+     */
+    public boolean containsAnimal(Animal animal) {
+        return animals.contains(animal);
+    }
+
+    /**
+     * Moves an animal between two cells of the grid and updates the spatial index.
+     * Called by {@link Animal#setPosition(Position)}, possibly by several threads at once
+     * in the concurrent tick modes.
+     *
+     * @param animal animal being moved
+     * @param fromX  previous column of the animal
+     * @param fromY  previous row of the animal
+     * @param toX    new column of the animal
+     * @param toY    new row of the animal
+     */
+    void relocateAnimal(Animal animal, int fromX, int fromY, int toX, int toY) {
+        setCell(fromX, fromY, null);
+        setCell(toX, toY, animal);
+        spatialIndex.move(animal, fromX, fromY, toX, toY);
+    }
+
+    /**
+     * Finds the animal of the given type nearest to the origin, within the given range.
+     * Distance is measured as in {@link Position#distanceTo(Position)}. If several animals
+     * are equally distant, the one added to the world first is returned.
+     *
+     * @param origin position to measure distance from
+     * @param range  maximum distance (inclusive)
+     * @param type   class of animals to consider
+     * @param <T>    type of the animal searched for
+     * @return nearest matching animal or {@code null} if none is within range
+     */
+    public <T extends Animal> T findNearest(Position origin, int range, Class<T> type) {
+        return spatialIndex.findNearest(origin, range, type);
+    }
+
+    /**
+     * Finds the animal of the given type nearest to a cell, like {@link #findNearest(Position, int, Class)}
+     * but without creating a {@link Position}.
+     *
+     * @param x     column to measure distance from
+     * @param y     row to measure distance from
+     * @param range maximum distance (inclusive)
+     * @param type  class of animals to consider
+     * @param <T>   type of the animal searched for
+     * @return nearest matching animal or {@code null} if none is within range
+     */
+    <T extends Animal> T findNearest(int x, int y, int range, Class<T> type) {
+        return spatialIndex.findNearest(x, y, range, type);
+    }
+
+    /**
+     * Returns all animals within the given range of the origin, in the order
+     * they were added to the world.
+     *
+     * @param origin position to measure distance from
+     * @param range  maximum distance (inclusive)
+     * @return list of animals within range
+     */
+    public List<Animal> getAnimalsInRange(Position origin, int range) {
+        return spatialIndex.findInRange(origin, range);
     }
 
     /**
@@ -156,28 +769,180 @@ public class World {
      * @return true if the cell is empty, false otherwise
      */
     public boolean isCellEmpty(Position position) {
-        return isValidPosition(position) && grid[position.x()][position.y()] == null;
+        return isCellEmpty(position.x(), position.y());
+    }
+
+    /**
+     * Checks if a cell is inside the world and empty, without creating a {@link Position}.
+     *
+     * @param x column of the cell
+     * @param y row of the cell
+     * @return true if the cell is empty, false otherwise
+     */
+    boolean isCellEmpty(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height && animalAt(x, y) == null;
+    }
+
+    /**
+     * Checks if every cell of the world is occupied.
+     * @return true if no empty cell is left, false otherwise
+     */
+    public boolean isFull() {
+        return animals.size() == (long) width * height;
+    }
+
+    /**
+     * Places new prey and then new predators at random empty positions drawn with
+     * {@link #getRandomEmptyPosition()}. Animals that do not find an empty position are skipped.
+     *
+     * @param preyCount     number of prey to place
+     * @param predatorCount number of predators to place
+     */
+    public void populate(int preyCount, int predatorCount) {
+        for (int i = 0; i < preyCount; i++) {
+            Position position = getRandomEmptyPosition();
+            if (position != null) {
+                new Prey(this, position);
+            }
+        }
+        for (int i = 0; i < predatorCount; i++) {
+            Position position = getRandomEmptyPosition();
+            if (position != null) {
+                new Predator(this, position);
+            }
+        }
+    }
+
+    /**
+     * Draws a random empty position using the random generator of the world.
+     * Makes a maximum of 100 attempts to find an empty cell.
+     *
+     * @return randomly selected empty position or {@code null} if such
+     * position was not found after 100 attempts
+     */
+    public Position getRandomEmptyPosition() {
+        RandomGenerator random = getRandom();
+        for (int attempts = 0; attempts < 100; attempts++) {
+            Position position = new Position(random.nextInt(getWidth()), random.nextInt(getHeight()));
+            if (isCellEmpty(position)) {
+                return position;
+            }
+        }
+        return null;
     }
 
     /**
      * Executes one simulation turn, updating the state of all animals
-     * and incrementing turn counter.
+     * and incrementing turn counter. Animals are updated according to {@link #getTickMode()}.
+     * In sequential mode animals act in the order of {@link #getAnimals()} at the start of the turn.
+     * In every mode offspring born during the turn act from the next turn on.
+     * At the end of the turn, the cells changed since the previous turn become {@link #getChangedCells()}.
+     * While {@link Metrics} are enabled, the duration of the turn is recorded, and while
+     * a JFR recording runs, a {@link JfrEvents.Tick} event is emitted.
      */
     public void tick() {
-        List<Animal> currentAnimals = new ArrayList<>(animals);
-        for (Animal animal : currentAnimals) {
-            if (!animal.isDead()) animal.update();
+        long start = Metrics.start();
+        JfrEvents.Tick jfr = new JfrEvents.Tick();
+        jfr.begin();
+        ticking = true;
+        try {
+            switch (tickMode) {
+                case SEQUENTIAL -> {
+                    if (store != null) {
+                        tickDataOriented();
+                    } else {
+                        for (Animal animal : animals.snapshot()) {
+                            if (!animal.isDead()) animal.update();
+                        }
+                    }
+                }
+                case PARALLEL -> {
+                    if (parallelTicker == null) {
+                        int cellSize = spatialIndex.getCellSize();
+                        parallelTicker = new ParallelTicker(this, cellSize, config.maxRange());
+                    }
+                    parallelTicker.tick(tickPool, random);
+                    if (store != null) {
+                        store.compact(animals);
+                    }
+                }
+                case SIMULTANEOUS -> {
+                    if (simultaneousTicker == null) {
+                        simultaneousTicker = new SimultaneousTicker(this);
+                    }
+                    simultaneousTicker.tick(tickPool);
+                    if (store != null) {
+                        store.compact(animals);
+                    }
+                }
+            }
+        } finally {
+            ticking = false;
         }
+        releaseEmptyChunks();
+        DirtyCells finished = changes;
+        changes = turnChanges;
+        changes.clear();
+        turnChanges = finished;
         Event.log(EventType.SIMULATION_TURN, this);
+        jfr.end();
+        if (jfr.shouldCommit()) {
+            jfr.worldId = id;
+            jfr.turn = turn;
+            jfr.tickMode = tickMode.name();
+            jfr.prey = preyCount;
+            jfr.predators = predatorCount;
+            jfr.commit();
+        }
         turn++;
+        if (start != Metrics.OFF) {
+            Metrics.lap(Metrics.TICK, start);
+            Metrics.TURNS.increment();
+        }
     }
 
     /**
-     * Resets the simulation world.
+     * Executes one turn using the data-oriented backend. All animals present at the start
+     * of the turn are aged in a single pass over the store, then each of them moves, pays for its move,
+     * eats, reproduces and dies if out of energy or past its maximum age, in slot order, exactly as
+     * {@link Animal#update()} does. Slots follow the order of the animal list, so the animals act in
+     * the same order as with the object backend. Slots of animals that died during the turn are
+     * released at the end, and the remaining slots are put back in the order of the animal list.
+     */
+    private void tickDataOriented() {
+        int count = store.size();
+        store.incrementAges(count);
+        totalAge += count; // Slots were compacted after the previous turn, so all of them are alive
+        for (int slot = 0; slot < count; slot++) {
+            if (!store.dead[slot]) {
+                store.handles[slot].act();
+            }
+        }
+        store.compact(animals);
+    }
+
+    /**
+     * Resets the simulation world. The random generator is restarted from the seed
+     * and the population statistics are cleared. The cells of the removed animals are marked as changed for the next turn.
      */
     public void reset() {
-        this.grid = new Animal[getWidth()][getHeight()];
-        this.animals = new ArrayList<>();
+        if (store != null) {
+            store.clear();
+        }
+        for (Animal animal : animals) {
+            changes.mark(animal.getPosition().x(), animal.getPosition().y());
+        }
+        createGrid();
+        this.animals = new AnimalList();
         this.turn = 1;
+        this.random = new SplittableRandom(seed);
+        this.spatialIndex = createSpatialIndex(width, height, config, storage);
+        this.preyCount = 0;
+        this.predatorCount = 0;
+        this.births = 0;
+        this.deaths = new long[DeathCause.values().length];
+        this.totalEnergy = 0;
+        this.totalAge = 0;
+        this.turnChanges.clear();
     }
 }
\ No newline at end of file
@@ -0,0 +1,377 @@
+package org.wildloop;
+
+import java.util.Properties;
+
+/**
+ * Immutable set of parameters controlling the behavior of animals in a single {@link World}.
+ * <p>
+ * Every world holds its own configuration, and animals read parameters through their world,
+ * so worlds with different parameters can run side by side in one JVM. {@link #DEFAULTS}
+ * contains the values loaded by {@link SimulationConfig}. Modified configurations are created
+ * with a {@link Builder}, for example
+ * {@code WorldConfig.builder().preyFleeRange(6).build()}.
+ *
+ * @param maxEnergy                   maximum energy level of an animal
+ * @param defaultEnergy               energy level of new animals
+ * @param moveEnergyCost              energy cost of a single move
+ * @param reproductionEnergyThreshold energy level required for reproduction
+ * @param reproductionEnergyCost      energy cost of reproduction
+ * @param offspringEnergy             initial energy of offspring
+ * @param preyMaxAge                  age at which prey die
+ * @param preyFleeRange               distance at which prey notice predators
+ * @param preyGrazeEnergyGain         energy gained by prey when grazing
+ * @param predatorMaxAge              age at which predators die
+ * @param predatorHuntRange           distance at which predators notice prey
+ * @param predatorHuntEnergyGain      energy gained by predators when eating prey
+ * @see World
+ * @see SimulationConfig
+ */
+public record WorldConfig(
+        int maxEnergy,
+        int defaultEnergy,
+        int moveEnergyCost,
+        int reproductionEnergyThreshold,
+        int reproductionEnergyCost,
+        int offspringEnergy,
+        int preyMaxAge,
+        int preyFleeRange,
+        int preyGrazeEnergyGain,
+        int predatorMaxAge,
+        int predatorHuntRange,
+        int predatorHuntEnergyGain) {
+
+    /** Configuration loaded from {@code simulation.properties} */
+    public static final WorldConfig DEFAULTS = new WorldConfig(
+            SimulationConfig.getIntValue("animal.max.energy"),
+            SimulationConfig.getIntValue("animal.default.energy"),
+            SimulationConfig.getIntValue("animal.move.energy.cost"),
+            SimulationConfig.getIntValue("animal.reproduction.energy.threshold"),
+            SimulationConfig.getIntValue("animal.reproduction.energy.cost"),
+            SimulationConfig.getIntValue("animal.offspring.energy"),
+            SimulationConfig.getIntValue("prey.max.age"),
+            SimulationConfig.getIntValue("prey.flee.range"),
+            SimulationConfig.getIntValue("prey.graze.energy.gain"),
+            SimulationConfig.getIntValue("predator.max.age"),
+            SimulationConfig.getIntValue("predator.hunt.range"),
+            SimulationConfig.getIntValue("predator.hunt.energy.gain"));
+
+    /**
+     * Validates the parameters.
+     *
+     * @throws IllegalArgumentException if the maximum energy or a detection range is not positive,
+     *                                  or any other parameter is negative
+     */
+    public WorldConfig {
+        positive("maxEnergy", maxEnergy);
+        nonNegative("defaultEnergy", defaultEnergy);
+        nonNegative("moveEnergyCost", moveEnergyCost);
+        nonNegative("reproductionEnergyThreshold", reproductionEnergyThreshold);
+        nonNegative("reproductionEnergyCost", reproductionEnergyCost);
+        nonNegative("offspringEnergy", offspringEnergy);
+        nonNegative("preyMaxAge", preyMaxAge);
+        positive("preyFleeRange", preyFleeRange);
+        nonNegative("preyGrazeEnergyGain", preyGrazeEnergyGain);
+        nonNegative("predatorMaxAge", predatorMaxAge);
+        positive("predatorHuntRange", predatorHuntRange);
+        nonNegative("predatorHuntEnergyGain", predatorHuntEnergyGain);
+    }
+
+    /**
+     * Returns a builder initialized with {@link #DEFAULTS}.
+     * @return new builder
+     */
+    public static Builder builder() {
+        return DEFAULTS.toBuilder();
+    }
+
+    /**
+     * Returns a builder initialized with the parameters of this configuration.
+     * @return new builder
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Creates a configuration from properties using the keys of {@code simulation.properties}.
+     * Parameters missing from the properties keep the value of this configuration.
+     *
+     * @param properties properties to read
+     * @return configuration with the given properties applied
+     * @throws IllegalArgumentException if a value is not a valid integer or a parameter is invalid
+     */
+    public WorldConfig withProperties(Properties properties) {
+        return new WorldConfig(
+                property(properties, "animal.max.energy", maxEnergy),
+                property(properties, "animal.default.energy", defaultEnergy),
+                property(properties, "animal.move.energy.cost", moveEnergyCost),
+                property(properties, "animal.reproduction.energy.threshold", reproductionEnergyThreshold),
+                property(properties, "animal.reproduction.energy.cost", reproductionEnergyCost),
+                property(properties, "animal.offspring.energy", offspringEnergy),
+                property(properties, "prey.max.age", preyMaxAge),
+                property(properties, "prey.flee.range", preyFleeRange),
+                property(properties, "prey.graze.energy.gain", preyGrazeEnergyGain),
+                property(properties, "predator.max.age", predatorMaxAge),
+                property(properties, "predator.hunt.range", predatorHuntRange),
+                property(properties, "predator.hunt.energy.gain", predatorHuntEnergyGain));
+    }
+
+    /**
+     * Returns the parameters as properties with the keys of {@code simulation.properties},
+     * the inverse of {@link #withProperties(Properties)}.
+     *
+     * @return properties holding every parameter
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("animal.max.energy", Integer.toString(maxEnergy));
+        properties.setProperty("animal.default.energy", Integer.toString(defaultEnergy));
+        properties.setProperty("animal.move.energy.cost", Integer.toString(moveEnergyCost));
+        properties.setProperty("animal.reproduction.energy.threshold", Integer.toString(reproductionEnergyThreshold));
+        properties.setProperty("animal.reproduction.energy.cost", Integer.toString(reproductionEnergyCost));
+        properties.setProperty("animal.offspring.energy", Integer.toString(offspringEnergy));
+        properties.setProperty("prey.max.age", Integer.toString(preyMaxAge));
+        properties.setProperty("prey.flee.range", Integer.toString(preyFleeRange));
+        properties.setProperty("prey.graze.energy.gain", Integer.toString(preyGrazeEnergyGain));
+        properties.setProperty("predator.max.age", Integer.toString(predatorMaxAge));
+        properties.setProperty("predator.hunt.range", Integer.toString(predatorHuntRange));
+        properties.setProperty("predator.hunt.energy.gain", Integer.toString(predatorHuntEnergyGain));
+        return properties;
+    }
+
+    /**
+     * Returns the largest distance at which any animal notices other animals.
+     * @return maximum detection range
+     */
+    public int maxRange() {
+        return Math.max(preyFleeRange, predatorHuntRange);
+    }
+
+    /**
+     * Reads an integer property.
+     *
+     * @param properties   properties to read
+     * @param key          key of the property
+     * @param defaultValue value returned if the property is missing
+     * @return value of the property
+     * @throws IllegalArgumentException if the value is not a valid integer
+     */
+    private static int property(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Value '" + value + "' for parameter '" + key + "' is not a valid integer", e);
+        }
+    }
+
+    /**
+     * Checks that a parameter is not negative.
+     *
+     * @param name  name of the parameter
+     * @param value value to check
+     * @throws IllegalArgumentException if the value is negative
+     */
+    private static void nonNegative(String name, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " cannot be negative: " + value);
+        }
+    }
+
+    /**
+     * Checks that a parameter is positive.
+     *
+     * @param name  name of the parameter
+     * @param value value to check
+     * @throws IllegalArgumentException if the value is not positive
+     */
+    private static void positive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+    }
+
+    /**
+     * Mutable builder of {@link WorldConfig} instances.
+     */
+    public static final class Builder {
+        /** Maximum energy level of an animal */
+        private int maxEnergy;
+        /** Energy level of new animals */
+        private int defaultEnergy;
+        /** Energy cost of a single move */
+        private int moveEnergyCost;
+        /** Energy level required for reproduction */
+        private int reproductionEnergyThreshold;
+        /** Energy cost of reproduction */
+        private int reproductionEnergyCost;
+        /** Initial energy of offspring */
+        private int offspringEnergy;
+        /** Age at which prey die */
+        private int preyMaxAge;
+        /** Distance at which prey notice predators */
+        private int preyFleeRange;
+        /** Energy gained by prey when grazing */
+        private int preyGrazeEnergyGain;
+        /** Age at which predators die */
+        private int predatorMaxAge;
+        /** Distance at which predators notice prey */
+        private int predatorHuntRange;
+        /** Energy gained by predators when eating prey */
+        private int predatorHuntEnergyGain;
+
+        /**
+         * Creates a builder initialized with the given configuration.
+         * @param config initial parameters
+         */
+        private Builder(WorldConfig config) {
+            this.maxEnergy = config.maxEnergy;
+            this.defaultEnergy = config.defaultEnergy;
+            this.moveEnergyCost = config.moveEnergyCost;
+            this.reproductionEnergyThreshold = config.reproductionEnergyThreshold;
+            this.reproductionEnergyCost = config.reproductionEnergyCost;
+            this.offspringEnergy = config.offspringEnergy;
+            this.preyMaxAge = config.preyMaxAge;
+            this.preyFleeRange = config.preyFleeRange;
+            this.preyGrazeEnergyGain = config.preyGrazeEnergyGain;
+            this.predatorMaxAge = config.predatorMaxAge;
+            this.predatorHuntRange = config.predatorHuntRange;
+            this.predatorHuntEnergyGain = config.predatorHuntEnergyGain;
+        }
+
+        /**
+         * Sets the maximum energy level of an animal.
+         * @param maxEnergy maximum energy level
+         * @return this builder
+         */
+        public Builder maxEnergy(int maxEnergy) {
+            this.maxEnergy = maxEnergy;
+            return this;
+        }
+
+        /**
+         * Sets the energy level of new animals.
+         * @param defaultEnergy initial energy level
+         * @return this builder
+         */
+        public Builder defaultEnergy(int defaultEnergy) {
+            this.defaultEnergy = defaultEnergy;
+            return this;
+        }
+
+        /**
+         * Sets the energy cost of a single move.
+         * @param moveEnergyCost energy cost
+         * @return this builder
+         */
+        public Builder moveEnergyCost(int moveEnergyCost) {
+            this.moveEnergyCost = moveEnergyCost;
+            return this;
+        }
+
+        /**
+         * Sets the energy level required for reproduction.
+         * @param reproductionEnergyThreshold energy threshold
+         * @return this builder
+         */
+        public Builder reproductionEnergyThreshold(int reproductionEnergyThreshold) {
+            this.reproductionEnergyThreshold = reproductionEnergyThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the energy cost of reproduction.
+         * @param reproductionEnergyCost energy cost
+         * @return this builder
+         */
+        public Builder reproductionEnergyCost(int reproductionEnergyCost) {
+            this.reproductionEnergyCost = reproductionEnergyCost;
+            return this;
+        }
+
+        /**
+         * Sets the initial energy of offspring.
+         * @param offspringEnergy initial energy
+         * @return this builder
+         */
+        public Builder offspringEnergy(int offspringEnergy) {
+            this.offspringEnergy = offspringEnergy;
+            return this;
+        }
+
+        /**
+         * Sets the age at which prey die.
+         * @param preyMaxAge maximum age
+         * @return this builder
+         */
+        public Builder preyMaxAge(int preyMaxAge) {
+            this.preyMaxAge = preyMaxAge;
+            return this;
+        }
+
+        /**
+         * Sets the distance at which prey notice predators.
+         * @param preyFleeRange detection range
+         * @return this builder
+         */
+        public Builder preyFleeRange(int preyFleeRange) {
+            this.preyFleeRange = preyFleeRange;
+            return this;
+        }
+
+        /**
+         * Sets the energy gained by prey when grazing.
+         * @param preyGrazeEnergyGain energy gain
+         * @return this builder
+         */
+        public Builder preyGrazeEnergyGain(int preyGrazeEnergyGain) {
+            this.preyGrazeEnergyGain = preyGrazeEnergyGain;
+            return this;
+        }
+
+        /**
+         * Sets the age at which predators die.
+         * @param predatorMaxAge maximum age
+         * @return this builder
+         */
+        public Builder predatorMaxAge(int predatorMaxAge) {
+            this.predatorMaxAge = predatorMaxAge;
+            return this;
+        }
+
+        /**
+         * Sets the distance at which predators notice prey.
+         * @param predatorHuntRange detection range
+         * @return this builder
+         */
+        public Builder predatorHuntRange(int predatorHuntRange) {
+            this.predatorHuntRange = predatorHuntRange;
+            return this;
+        }
+
+        /**
+         * Sets the energy gained by predators when eating prey.
+         * @param predatorHuntEnergyGain energy gain
+         * @return this builder
+         */
+        public Builder predatorHuntEnergyGain(int predatorHuntEnergyGain) {
+            this.predatorHuntEnergyGain = predatorHuntEnergyGain;
+            return this;
+        }
+
+        /**
+         * Creates a configuration with the parameters of this builder.
+         *
+         * @return new configuration
+         * @throws IllegalArgumentException if a parameter is invalid
+         */
+        public WorldConfig build() {
+            return new WorldConfig(maxEnergy, defaultEnergy, moveEnergyCost, reproductionEnergyThreshold,
+                    reproductionEnergyCost, offspringEnergy, preyMaxAge, preyFleeRange, preyGrazeEnergyGain,
+                    predatorMaxAge, predatorHuntRange, predatorHuntEnergyGain);
+        }
+    }
+}
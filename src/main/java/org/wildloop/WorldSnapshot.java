@@ -0,0 +1,212 @@
+package org.wildloop;
+
+/**
+ * Immutable picture of a {@link World} after a turn, published by {@link SimulationRunner}
+ * for the user interface.
+ * <p>
+ * A snapshot stores the content of every cell as one byte and the population statistics of the
+ * world, so the user interface can paint and describe the world without touching its animals
+ * while the simulation thread changes them. It also describes the animal selected by the user,
+ * if any, with the values shown by {@link InfoPanel}.
+ * <p>
+ * The cells are stored in {@link CellTiles} tiles, and tiles holding only empty cells are not
+ * stored at all. Successive snapshots of a runner share the tiles that did not change between them.
+ * <p>
+ * Snapshots published by a runner carry the cells changed since the previous snapshot of the same
+ * runner in {@link #getChanges()}, so a view that painted the previous snapshot only needs to redraw
+ * those cells.
+ *
+ * @see SimulationRunner
+ * @see GridView
+ */
+public final class WorldSnapshot {
+    /** Content of an empty cell */
+    public static final byte EMPTY = 0;
+    /** Content of a cell occupied by prey */
+    public static final byte PREY = 1;
+    /** Content of a cell occupied by a predator */
+    public static final byte PREDATOR = 2;
+
+    /** Width of the world */
+    private final int width;
+    /** Height of the world */
+    private final int height;
+    /** Content of the cells in rows of tiles, see {@link CellTiles}; never changed */
+    private final byte[][][] tiles;
+    /** Population statistics of the world */
+    private final PopulationStats stats;
+    /** State of the selected animal, or {@code null} */
+    private final AnimalInfo selected;
+    /** Flag indicating that the selection ended because the selected animal died */
+    private final boolean selectedDied;
+    /** Cells changed since the previous snapshot, or {@code null} if unknown */
+    private final DirtyCells changes;
+
+    /**
+     * State of an animal at the time of a snapshot.
+     *
+     * @param id        identifier of the animal
+     * @param position  position of the animal
+     * @param predator  true for a predator, false for prey
+     * @param energy    energy level
+     * @param maxEnergy maximum energy level
+     * @param age       age in turns
+     * @param maxAge    age at which the animal dies
+     */
+    public record AnimalInfo(String id, Position position, boolean predator, int energy, int maxEnergy, int age, int maxAge) {
+        /**
+         * Captures the state of an animal.
+         *
+         * @param animal animal to describe
+         * @return state of the animal
+         */
+        static AnimalInfo of(Animal animal) {
+            return new AnimalInfo(animal.getId(), animal.getPosition(), animal instanceof Predator,
+                    animal.getEnergy(), animal.getMaxEnergy(), animal.getAge(), animal.getMaxAge());
+        }
+    }
+
+    /**
+     * Creates a snapshot from already captured cells.
+     *
+     * @param width        width of the world
+     * @param height       height of the world
+     * @param tiles        content of the cells in rows of tiles, see {@link CellTiles}; never changed afterward
+     * @param stats        population statistics of the world
+     * @param selected     state of the selected animal, or {@code null}
+     * @param selectedDied true if the selection ended because the selected animal died
+     * @param changes      cells changed since the previous snapshot, or {@code null} if unknown; owned by the snapshot afterward
+     */
+    WorldSnapshot(int width, int height, byte[][][] tiles, PopulationStats stats, AnimalInfo selected, boolean selectedDied,
+                  DirtyCells changes) {
+        this.width = width;
+        this.height = height;
+        this.tiles = tiles;
+        this.stats = stats;
+        this.selected = selected;
+        this.selectedDied = selectedDied;
+        this.changes = changes;
+    }
+
+    /**
+     * Captures the current state of a world from the positions of its animals. Must be called by
+     * the thread ticking the world. The snapshot does not know which cells changed.
+     *
+     * @param world        world to capture
+     * @param selected     animal selected by the user, or {@code null}
+     * @param selectedDied true if the selection ended because the selected animal died
+     * @return new snapshot
+     */
+    public static WorldSnapshot capture(World world, Animal selected, boolean selectedDied) {
+        int width = world.getWidth();
+        int height = world.getHeight();
+        CellTiles cells = new CellTiles(width, height);
+        for (Animal animal : world.getAnimals()) {
+            cells.set(animal.getX(), animal.getY(), cellOf(animal));
+        }
+        return new WorldSnapshot(width, height, cells.share(), world.getStats(),
+                selected != null ? AnimalInfo.of(selected) : null, selectedDied, null);
+    }
+
+    /**
+     * Returns the content of a cell holding an animal.
+     *
+     * @param animal animal in the cell, or {@code null}
+     * @return {@link #EMPTY}, {@link #PREY} or {@link #PREDATOR}
+     */
+    static byte cellOf(Animal animal) {
+        if (animal == null) {
+            return EMPTY;
+        }
+        return animal instanceof Predator ? PREDATOR : PREY;
+    }
+
+    /**
+     * Returns the width of the world.
+     * @return number of columns
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the world.
+     * @return number of rows
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the content of a cell.
+     *
+     * @param x column of the cell
+     * @param y row of the cell
+     * @return {@link #EMPTY}, {@link #PREY} or {@link #PREDATOR}
+     * @throws IndexOutOfBoundsException if the cell is outside the world
+     */
+    public byte getCell(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("Cell (" + x + ", " + y + ") is outside the world");
+        }
+        return CellTiles.get(tiles, x, y);
+    }
+
+    /**
+     * Returns the cells of a tile without copying them, for renderers in this package.
+     * The array must not be modified.
+     *
+     * @param tx column of the tile
+     * @param ty row of the tile
+     * @return content of the cells of the tile row by row, or {@code null} if all of them are empty
+     */
+    byte[] tile(int tx, int ty) {
+        byte[][] row = tiles[ty];
+        return row == null ? null : row[tx];
+    }
+
+    /**
+     * Returns the rows of tiles without copying them, for runners sharing them with the next snapshot.
+     * @return content of the cells in rows of tiles, see {@link CellTiles}
+     */
+    byte[][][] tiles() {
+        return tiles;
+    }
+
+    /**
+     * Returns the cells changed since the previous snapshot published by the same runner,
+     * including the cells of snapshots replaced before being taken. The selection is not
+     * part of the changes.
+     *
+     * @return changed cells, or {@code null} if the whole snapshot must be drawn
+     */
+    public DirtyCells getChanges() {
+        return changes;
+    }
+
+    /**
+     * Returns the population statistics of the world, including the turn.
+     * @return population statistics
+     */
+    public PopulationStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Returns the state of the animal selected by the user.
+     * @return state of the selected animal, or {@code null} if no animal is selected
+     */
+    public AnimalInfo getSelected() {
+        return selected;
+    }
+
+    /**
+     * Checks if the selection ended because the selected animal died, rather than
+     * because the user cleared it.
+     *
+     * @return true if the selected animal died
+     */
+    public boolean isSelectedDied() {
+        return selectedDied;
+    }
+}
@@ -6,11 +6,20 @@
  * <h3>Main Components</h3>
  * <ul>
  *   <li>{@link org.wildloop.Main} - Entry point of the application, initializes the main window and outputs logs to the console</li>
+ *   <li>{@link org.wildloop.HeadlessRunner} - Runner executing simulations without a graphical interface</li>
+ *   <li>{@link org.wildloop.MacroBenchmark} - End-to-end throughput benchmark of canonical scenarios</li>
+ *   <li>{@link org.wildloop.Ensemble} - Concurrent Monte-Carlo runs of one scenario with aggregated statistics</li>
  *   <li>{@link org.wildloop.StartApp} - Main application window managing the user interface</li>
  *   <li>{@link org.wildloop.SimulationPanel} - Panel responsible for displaying and controlling simulation</li>
+ *   <li>{@link org.wildloop.SimulationRunner} - Thread ticking a world and publishing snapshots for the interface</li>
+ *   <li>{@link org.wildloop.WorldSnapshot} - Immutable picture of a world after a turn</li>
+ *   <li>{@link org.wildloop.DirtyCells} - Cells changed during a turn, for incremental rendering</li>
+ *   <li>{@link org.wildloop.GridView} - Component painting the world grid into a single image</li>
  *   <li>{@link org.wildloop.InfoPanel} - Panel displaying information about selected animals</li>
  *   <li>{@link org.wildloop.SimulationConfig} - Import of default simulation configuration</li>
+ *   <li>{@link org.wildloop.WorldConfig} - Immutable animal parameters of a single world</li>
  *   <li>{@link org.wildloop.World} - Representation of a simulation world and its logic</li>
+ *   <li>{@link org.wildloop.GridStorage} - Dense or chunked storage of the grid of a world</li>
  *   <li>{@link org.wildloop.Position} - Representation of immutable position in 2D space</li>
  *   <li>{@link org.wildloop.Direction} - Representation of displacement vectors</li>
  *   <li>{@link org.wildloop.Animal} - Abstract base class for all animals</li>
@@ -18,8 +27,16 @@
  *   <li>{@link org.wildloop.Predator} - Implementation of predator</li>
  *   <li>{@link org.wildloop.Event} - Representation of events occurring in the simulation</li>
  *   <li>{@link org.wildloop.EventType} - Enumeration of event types</li>
+ *   <li>{@link org.wildloop.PopulationStats} - Incrementally maintained population statistics of a world</li>
+ *   <li>{@link org.wildloop.DeathCause} - Enumeration of reasons for which animals die</li>
+ *   <li>{@link org.wildloop.TimeSeries} - Per-turn population curves with CSV and columnar export</li>
  *   <li>{@link org.wildloop.EventLogger} - Logger for simulation events</li>
  *   <li>{@link org.wildloop.LogExporter} - Utility for exporting simulation logs</li>
+ *   <li>{@link org.wildloop.BinaryLogReader} - Streaming reader of compact binary event logs</li>
+ *   <li>{@link org.wildloop.LogConverter} - Conversion of binary event logs to text</li>
+ *   <li>{@link org.wildloop.LogRotation} - Rotation, compression and retention policy of event logs</li>
+ *   <li>{@link org.wildloop.Metrics} - Switchable timing instrumentation exposed through JMX and HTTP</li>
+ *   <li>{@link org.wildloop.MetricsRegistry} - Registry of named counters and latency histograms</li>
  * </ul>
  * <h3>Features</h3>
  * <ul>
@@ -32,28 +49,47 @@
  * <h3>Running the Application</h3>
  * The application is launched through the {@code main} method which creates a new instance of {@link org.wildloop.StartApp}
  * in Swing's Event Dispatch Thread (EDT) using {@link javax.swing.SwingUtilities#invokeLater(Runnable)}.
+ * Passing {@code --headless} as the first argument runs the simulation through {@link org.wildloop.HeadlessRunner}
+ * instead, without a graphical environment.
  * <h3>System Requirements</h3>
  * <ul>
  *   <li>Java 21 or newer</li>
- *   <li>Graphical environment supporting Swing</li>
+ *   <li>Graphical environment supporting Swing (not needed in headless mode)</li>
  * </ul>
  *
  * @author Szymon Cichy, Tomasz Druszcz, Jan Osmęda
  * @version 1.3.0
  * @see org.wildloop.Main
+ * @see org.wildloop.HeadlessRunner
+ * @see org.wildloop.MacroBenchmark
+ * @see org.wildloop.Ensemble
  * @see org.wildloop.StartApp
  * @see org.wildloop.SimulationPanel
+ * @see org.wildloop.SimulationRunner
+ * @see org.wildloop.WorldSnapshot
+ * @see org.wildloop.DirtyCells
+ * @see org.wildloop.GridView
  * @see org.wildloop.InfoPanel
  * @see org.wildloop.SimulationConfig
+ * @see org.wildloop.WorldConfig
  * @see org.wildloop.World
+ * @see org.wildloop.GridStorage
  * @see org.wildloop.Position
  * @see org.wildloop.Direction
  * @see org.wildloop.Animal
  * @see org.wildloop.Prey
  * @see org.wildloop.Predator
+ * @see org.wildloop.PopulationStats
+ * @see org.wildloop.DeathCause
+ * @see org.wildloop.TimeSeries
  * @see org.wildloop.Event
  * @see org.wildloop.EventType
  * @see org.wildloop.EventLogger
  * @see org.wildloop.LogExporter
+ * @see org.wildloop.BinaryLogReader
+ * @see org.wildloop.LogConverter
+ * @see org.wildloop.LogRotation
+ * @see org.wildloop.Metrics
+ * @see org.wildloop.MetricsRegistry
  */
 package org.wildloop;
\ No newline at end of file
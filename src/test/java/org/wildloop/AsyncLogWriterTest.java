@@ -0,0 +1,99 @@
+package org.wildloop;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncLogWriterTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void closeWritesEveryQueuedEventInOrder() throws IOException {
+        Path file = directory.resolve("events.log");
+        World world = new World(10, 10, 1L);
+        Prey prey = new Prey(world, new Position(3, 3));
+        AsyncLogWriter writer = new AsyncLogWriter(file, LogWriterSettings.DEFAULTS.withFlush(0, 0, false));
+
+        EventLogger.subscribe(writer);
+        try {
+            for (int i = 0; i < 5000; i++) {
+                Event.log(EventType.EAT_GRASS, world, prey); // Many small events
+            }
+            prey.setPosition(new Position(4, 3)); // Logged text keeps the position at publish time
+            Event.log(EventType.DIE_AGE, world, prey);
+        } finally {
+            EventLogger.unsubscribe(writer);
+            writer.close();
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(5001, lines.size()); // Nothing is lost with the blocking policy
+        assertTrue(lines.get(0).endsWith("grazed at (3, 3), gaining energy")); // First event
+        assertTrue(lines.get(5000).endsWith("died at (4, 3) due to old age")); // Last event, in order
+        assertEquals(0, writer.getDroppedEvents());
+    }
+
+    @Test
+    void turnEventFlushesWithoutClosing() throws Exception {
+        Path file = directory.resolve("turns.log");
+        World world = new World(10, 10, 1L);
+        AsyncLogWriter writer = new AsyncLogWriter(file, LogWriterSettings.DEFAULTS.withFlush(0, 0, true));
+
+        EventLogger.subscribe(writer);
+        try {
+            world.tick(); // Logs the end of the turn
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (Files.size(file) == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10); // Wait for the writer thread
+            }
+            assertTrue(Files.readString(file).contains("SIMULATION_TURN")); // Written at the end of the turn
+        } finally {
+            EventLogger.unsubscribe(writer);
+            writer.close();
+        }
+    }
+
+    @Test
+    void unexpectedErrorOnWriterThreadNeverBlocksProducers() throws IOException {
+        Path file = directory.resolve("broken.log");
+        World world = new World(10, 10, 1L);
+        Prey broken = new Prey(world, new Position(3, 3)) {
+            @Override
+            protected String generateUniqueId() {
+                return null; // Makes encoding throw on the writer thread
+            }
+        };
+        LogWriterSettings settings = new LogWriterSettings(16, LogWriterSettings.MIN_BUFFER_SIZE, 0, 0, false,
+                LogWriterSettings.OverflowPolicy.BLOCK, 1); // Tiny queue, producers block when it is full
+        AsyncLogWriter writer = new AsyncLogWriter(file, settings);
+
+        EventLogger.subscribe(writer);
+        try {
+            assertTimeoutPreemptively(java.time.Duration.ofSeconds(10), () -> {
+                Event.log(EventType.EAT_GRASS, world, broken); // Fails on the writer thread
+                for (int i = 0; i < 5000; i++) {
+                    Event.log(EventType.EAT_GRASS, world, broken); // Would block forever without a consumer
+                }
+            });
+        } finally {
+            EventLogger.unsubscribe(writer);
+            assertTimeoutPreemptively(java.time.Duration.ofSeconds(10), writer::close); // Close returns as well
+        }
+
+        assertEquals(5001, writer.getDroppedEvents()); // Every event after the failure is discarded and counted
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> LogWriterSettings.DEFAULTS.withFlush(-1, 0, false)); // Negative criterion
+        assertThrows(IllegalArgumentException.class, () -> LogWriterSettings.DEFAULTS.withOverflow(null)); // Missing policy
+    }
+}
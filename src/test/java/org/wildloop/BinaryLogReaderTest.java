@@ -0,0 +1,158 @@
+package org.wildloop;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryLogReaderTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void convertedBinaryLogMatchesTextLog() throws IOException {
+        Path textFile = directory.resolve("events.log");
+        Path binaryFile = directory.resolve("events.evt");
+        World world = new World(20, 20, 11L);
+        AsyncLogWriter text = new AsyncLogWriter(textFile, LogWriterSettings.DEFAULTS);
+        AsyncLogWriter binary = new AsyncLogWriter(binaryFile, LogWriterSettings.DEFAULTS, new BinaryLogEncoder(world));
+
+        EventLogger.subscribe(text);
+        EventLogger.subscribe(binary);
+        try {
+            Event.log(EventType.SIMULATION_RESUME, null); // System event without a world
+            world.populate(40, 10);
+            for (int i = 0; i < 20; i++) {
+                world.tick();
+            }
+            Event.log(EventType.SIMULATION_END, world);
+        } finally {
+            EventLogger.unsubscribe(text);
+            EventLogger.unsubscribe(binary);
+            text.close();
+            binary.close();
+        }
+
+        StringWriter converted = new StringWriter();
+        long events = LogConverter.convert(binaryFile, converted);
+        List<String> expected = Files.readAllLines(textFile);
+        assertEquals(expected.size(), events); // Every event was written to both logs
+        assertEquals(expected, converted.toString().lines().toList()); // Conversion restores the text exactly
+        assertTrue(Files.size(binaryFile) * 4 < Files.size(textFile)); // Binary log is much smaller
+    }
+
+    @Test
+    void readerDescribesEventsAndHeader() throws IOException {
+        Path file = directory.resolve("flee.evt");
+        WorldConfig config = WorldConfig.builder().preyFleeRange(7).build();
+        World world = new World(30, 40, false, 5L, config);
+        Prey prey = new Prey(world, new Position(12, 34));
+        Predator predator = new Predator(world, new Position(13, 34));
+        AsyncLogWriter writer = new AsyncLogWriter(file, LogWriterSettings.DEFAULTS, new BinaryLogEncoder(world));
+
+        EventLogger.subscribe(writer);
+        try {
+            Event.log(EventType.FLEE, world, prey, predator, Direction.WEST);
+        } finally {
+            EventLogger.unsubscribe(writer);
+            writer.close();
+        }
+
+        try (BinaryLogReader reader = new BinaryLogReader(file)) {
+            BinaryLogReader.Header header = reader.getHeader();
+            assertEquals(world.getId(), header.worldId()); // World of the log
+            assertEquals(5L, header.seed()); // Seed of the world
+            assertEquals(30, header.width()); // Width of the world
+            assertEquals(40, header.height()); // Height of the world
+            assertEquals(config, header.config()); // Configuration is restored
+            assertEquals(BinaryLogEncoder.NARROW_VERSION, header.version()); // 16-bit coordinates suffice
+
+            assertTrue(reader.next()); // Single event
+            assertEquals(EventType.FLEE, reader.getType());
+            assertEquals(world.getId(), reader.getWorldId()); // World of the event
+            assertEquals(1, reader.getTurn()); // Turn at creation
+            assertEquals(2, reader.getAnimalCount()); // Prey and predator
+            assertEquals(prey.getId(), reader.getAnimalId(0)); // Identifier of the prey
+            assertTrue(reader.isPredator(1)); // Second animal is the predator
+            assertEquals(new Position(13, 34), reader.getPosition(1)); // Position of the predator
+            assertEquals(Direction.WEST, reader.getDirection()); // Direction of the escape
+            assertFalse(reader.next()); // End of the log
+        }
+    }
+
+    @Test
+    void wideWorldsAreLoggedWith32BitCoordinates() throws IOException {
+        Path file = directory.resolve("wide.evt");
+        World world = new World(100_000, 10, false, 6L, WorldConfig.DEFAULTS, true, GridStorage.CHUNKED);
+        Prey prey = new Prey(world, new Position(70_000, 3));
+        Predator predator = new Predator(world, new Position(70_001, 3));
+        AsyncLogWriter writer = new AsyncLogWriter(file, LogWriterSettings.DEFAULTS, new BinaryLogEncoder(world));
+
+        EventLogger.subscribe(writer);
+        try {
+            Event.log(EventType.FLEE, world, prey, predator, Direction.WEST);
+        } finally {
+            EventLogger.unsubscribe(writer);
+            writer.close();
+        }
+        assertEquals(0, writer.getDroppedEvents()); // Coordinates beyond 16 bits are written
+
+        try (BinaryLogReader reader = new BinaryLogReader(file)) {
+            assertEquals(BinaryLogEncoder.VERSION, reader.getHeader().version()); // Format with 32-bit coordinates
+            assertEquals(100_000, reader.getHeader().width());
+            assertTrue(reader.next());
+            assertEquals(new Position(70_000, 3), reader.getPosition(0)); // Position of the prey
+            assertEquals(new Position(70_001, 3), reader.getPosition(1)); // Position of the predator
+            assertEquals(Direction.WEST, reader.getDirection());
+            assertFalse(reader.next()); // End of the log
+        }
+    }
+
+    @Test
+    void eventsThatCannotBeEncodedLeaveNoPartialRecord() throws IOException {
+        Path file = directory.resolve("skipped.evt");
+        World world = new World(20, 20, false, 7L);
+        Prey prey = new Prey(world, new Position(2, 2));
+        Predator renamed = new Predator(world, new Position(3, 2)) {
+            @Override
+            protected String generateUniqueId() {
+                return "X1"; // No number after the predator prefix
+            }
+        };
+        Predator predator = new Predator(world, new Position(1, 2));
+        AsyncLogWriter writer = new AsyncLogWriter(file, LogWriterSettings.DEFAULTS, new BinaryLogEncoder(world));
+
+        EventLogger.subscribe(writer);
+        try {
+            Event.log(EventType.FLEE, world, prey, renamed, Direction.WEST); // Second animal fails after the first is encoded
+            Event.log(EventType.FLEE, world, prey, predator, Direction.EAST);
+        } finally {
+            EventLogger.unsubscribe(writer);
+            writer.close();
+        }
+        assertEquals(1, writer.getDroppedEvents()); // Only the broken event is skipped
+
+        try (BinaryLogReader reader = new BinaryLogReader(file)) {
+            assertTrue(reader.next());
+            assertEquals(Direction.EAST, reader.getDirection()); // Following event read intact
+            assertEquals(predator.getId(), reader.getAnimalId(1));
+            assertFalse(reader.next()); // No leftover bytes of the broken event
+        }
+    }
+
+    @Test
+    void invalidFilesAreRejected() throws IOException {
+        Path file = directory.resolve("invalid.evt");
+        Files.writeString(file, "2024-01-01 00:00:00.000 | SYSTEM | SIMULATION_START | Simulation started");
+
+        assertThrows(IOException.class, () -> new BinaryLogReader(file)); // Text log is not a binary log
+        assertThrows(IllegalArgumentException.class, () -> new LogWriterSettings(16, 16, 0, 0, false,
+                LogWriterSettings.OverflowPolicy.BLOCK, 1)); // Buffer too small for binary records
+    }
+}
@@ -0,0 +1,35 @@
+package org.wildloop;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CellTilesTest {
+    @Test
+    void SharedTilesAreCopiedWhenChanged() {
+        CellTiles cells = new CellTiles(100, 100);
+        cells.set(3, 4, WorldSnapshot.PREY);
+        cells.set(90, 90, WorldSnapshot.PREDATOR);
+        byte[][][] first = cells.share();
+        assertEquals(WorldSnapshot.PREY, CellTiles.get(first, 3, 4));
+        assertEquals(WorldSnapshot.EMPTY, CellTiles.get(first, 50, 50));
+        assertNull(first[3]); // Rows of empty cells are not stored
+
+        cells.set(3, 4, WorldSnapshot.EMPTY);
+        cells.set(5, 4, WorldSnapshot.PREDATOR); // Same tile, copied once
+        byte[][][] second = cells.share();
+        assertEquals(WorldSnapshot.PREY, CellTiles.get(first, 3, 4)); // Shared tiles never change
+        assertEquals(WorldSnapshot.EMPTY, CellTiles.get(first, 5, 4));
+        assertEquals(WorldSnapshot.EMPTY, CellTiles.get(second, 3, 4));
+        assertEquals(WorldSnapshot.PREDATOR, CellTiles.get(second, 5, 4));
+        assertSame(first[90 >> CellTiles.TILE_SHIFT], second[90 >> CellTiles.TILE_SHIFT]); // Unchanged rows shared
+
+        cells.set(90, 90, WorldSnapshot.PREDATOR); // No change
+        assertSame(second, cells.share()); // Nothing copied
+
+        cells.set(5, 4, WorldSnapshot.EMPTY); // Last animal leaves the tile
+        byte[][][] third = cells.share();
+        assertNull(third[0][0]); // Empty tile released
+        assertNotNull(second[0][0]); // Tile of the earlier snapshot kept
+    }
+}
@@ -0,0 +1,54 @@
+package org.wildloop;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkedGridTest {
+    @Test
+    void ChunksAreAllocatedWhenOccupiedAndReleasedWhenEmpty() {
+        ChunkedGrid<String> grid = new ChunkedGrid<>(1000, 1000);
+        assertNull(grid.get(999, 999)); // Reading allocates nothing
+        assertEquals(0, grid.chunkCount());
+
+        grid.set(3, 4, "a");
+        grid.set(5, 6, "b"); // Same chunk
+        grid.set(500, 700, "c");
+        assertEquals(2, grid.chunkCount());
+        assertEquals("a", grid.get(3, 4));
+        assertEquals("c", grid.get(500, 700));
+        assertNull(grid.get(4, 4));
+
+        grid.set(3, 4, null);
+        grid.releaseEmpty();
+        assertEquals(2, grid.chunkCount()); // Chunk still holds a value
+        grid.set(5, 6, null);
+        grid.set(500, 700, null);
+        assertEquals(2, grid.chunkCount()); // Release waits for releaseEmpty
+        grid.releaseEmpty();
+        assertEquals(0, grid.chunkCount());
+        assertNull(grid.get(5, 6));
+
+        assertEquals("d", grid.setIfAbsent(7, 7, "d"));
+        assertEquals("d", grid.setIfAbsent(7, 7, "e")); // First value wins
+    }
+
+    @Test
+    void CellsOfColumnsAreVisitedInRowOrder() {
+        ChunkedGrid<String> grid = new ChunkedGrid<>(300, 300);
+        grid.set(250, 2, "d");
+        grid.set(10, 200, "e");
+        grid.set(20, 1, "b");
+        grid.set(5, 1, "a");
+        grid.set(140, 2, "c");
+        grid.set(4, 200, "outside");
+        grid.set(251, 3, "outside");
+
+        List<String> visited = new ArrayList<>();
+        grid.forEach(5, 250, (x, y, value) -> visited.add(value + "@" + x + "," + y));
+        assertEquals(List.of("a@5,1", "b@20,1", "c@140,2", "d@250,2", "e@10,200"), visited); // Columns outside the range are skipped
+    }
+}
@@ -0,0 +1,49 @@
+package org.wildloop;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DensityTilesTest {
+    @Test
+    void LevelsMakeTilesAtLeastOnePixelLarge() {
+        assertEquals(0, DensityTiles.levelFor(1)); // Cells drawn directly
+        assertEquals(DensityTiles.FIRST_LEVEL, DensityTiles.levelFor(0.9)); // Finest tiles below one pixel per cell
+        assertEquals(3, DensityTiles.levelFor(1 / 6.0)); // Tiles of 8 cells, 1.33 px
+        assertEquals(DensityTiles.LAST_LEVEL, DensityTiles.levelFor(1e-6)); // Coarsest level for huge worlds
+    }
+
+    @Test
+    void ChangedCellsKeepCountsEqualToRebuild() {
+        World world = new World(150, 90, false, 8L, WorldConfig.DEFAULTS, false); // Partial tiles at the edges
+        world.populate(2000, 400);
+        WorldSnapshot before = WorldSnapshot.capture(world, null, false);
+        DensityTiles tiles = new DensityTiles(before);
+        for (int turn = 0; turn < 5; turn++) {
+            world.tick();
+            WorldSnapshot after = WorldSnapshot.capture(world, null, false);
+            WorldSnapshot from = before;
+            world.getChangedCells().forEach((x, y) -> tiles.change(x, y, from.getCell(x, y), after.getCell(x, y)));
+            before = after;
+        }
+
+        DensityTiles rebuilt = new DensityTiles(before);
+        int prey = 0;
+        for (int level = DensityTiles.FIRST_LEVEL; level <= DensityTiles.LAST_LEVEL; level++) {
+            for (int tx = 0; tx < tiles.tilesX(level); tx++) {
+                for (int ty = 0; ty < tiles.tilesY(level); ty++) {
+                    String context = "level " + level + " tile " + tx + "," + ty;
+                    assertEquals(rebuilt.prey(level, tx, ty), tiles.prey(level, tx, ty), context); // Prey count updated
+                    assertEquals(rebuilt.predators(level, tx, ty), tiles.predators(level, tx, ty), context); // Predator count updated
+                    if (level == DensityTiles.LAST_LEVEL) prey += tiles.prey(level, tx, ty);
+                }
+            }
+        }
+        assertEquals(world.getStats().prey(), prey); // Coarsest level covers the whole world
+        for (int tx = 0; tx < tiles.tilesX(3); tx++) {
+            for (int ty = 0; ty < tiles.tilesY(3); ty++) {
+                assertEquals(rebuilt.color(3, tx, ty), tiles.color(3, tx, ty)); // Colors follow the counts
+            }
+        }
+    }
+}
@@ -30,4 +30,13 @@ public class DirectionTest {
                 randomDir == Direction.EAST ||
                 randomDir == Direction.WEST);
     }
+
+    @Test
+    void getRandom_ShouldBeReproducibleForSameSeed() {
+        java.util.SplittableRandom first = new java.util.SplittableRandom(5); // Two generators with the same seed
+        java.util.SplittableRandom second = new java.util.SplittableRandom(5);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Direction.getRandom(first), Direction.getRandom(second)); // Same sequence of directions
+        }
+    }
 }
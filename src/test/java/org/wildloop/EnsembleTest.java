@@ -0,0 +1,65 @@
+package org.wildloop;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnsembleTest {
+    @Test
+    void statisticsDoNotDependOnThreadCount() {
+        Ensemble ensemble = new Ensemble(20, 20, 40, 10, 60, WorldConfig.DEFAULTS);
+        List<RunResult> serial = new ArrayList<>();
+        List<RunResult> concurrent = new ArrayList<>();
+
+        EnsembleStatistics one = ensemble.run(11L, 12, 1, serial::add); // Single worker
+        EnsembleStatistics four = ensemble.run(11L, 12, 4, concurrent::add); // Four workers
+
+        assertEquals(serial, concurrent); // Same results, delivered in the same order
+        assertEquals(12, four.getRuns()); // Every run was aggregated
+        for (int i = 0; i < serial.size(); i++) {
+            assertEquals(i, serial.get(i).index()); // Listener receives results in index order
+        }
+        assertEquals(one.getTurns().getMean(), four.getTurns().getMean()); // Aggregation is order independent
+        assertEquals(one.getPeakPrey().getVariance(), four.getPeakPrey().getVariance());
+        assertEquals(one.getPreyExtinctionProbability(), four.getPreyExtinctionProbability());
+    }
+
+    @Test
+    void runsStopOnExtinctionFullGridOrTurnLimit() {
+        RunResult empty = new Ensemble(10, 10, 0, 0, 50, WorldConfig.DEFAULTS).runSingle(0, 1L);
+        assertEquals(RunResult.EndReason.EXTINCTION, empty.endReason()); // Nothing to simulate
+        assertEquals(0, empty.turns());
+
+        RunResult full = new Ensemble(2, 2, 4, 0, 50, WorldConfig.DEFAULTS).runSingle(0, 1L);
+        assertEquals(RunResult.EndReason.FULL_GRID, full.endReason()); // Prey fill all four cells
+        assertEquals(0, full.turns());
+
+        RunResult limited = new Ensemble(20, 20, 10, 0, 3, WorldConfig.DEFAULTS).runSingle(0, 1L);
+        assertEquals(RunResult.EndReason.TURN_LIMIT, limited.endReason()); // Prey alone survive three turns
+        assertEquals(3, limited.turns());
+        assertEquals(0, limited.predatorsExtinctTurn()); // No predators from the start
+    }
+
+    @Test
+    void statisticComputesMomentsAndQuantiles() {
+        Statistic statistic = new Statistic();
+        assertTrue(Double.isNaN(statistic.getMean())); // No values yet
+
+        for (int value : new int[]{4, 1, 3, 2, 5}) {
+            statistic.add(value);
+        }
+
+        assertEquals(5, statistic.getCount());
+        assertEquals(3.0, statistic.getMean(), 1e-12); // (1 + 2 + 3 + 4 + 5) / 5
+        assertEquals(2.5, statistic.getVariance(), 1e-12); // Sample variance
+        assertEquals(1.0, statistic.getMin());
+        assertEquals(5.0, statistic.getMax());
+        assertEquals(3.0, statistic.getQuantile(0.5)); // Median
+        assertEquals(2.0, statistic.getQuantile(0.25)); // Nearest rank 2
+        assertEquals(1.0, statistic.getQuantile(0)); // Smallest value
+        assertThrows(IllegalArgumentException.class, () -> statistic.getQuantile(1.5)); // Outside [0, 1]
+    }
+}
@@ -0,0 +1,66 @@
+package org.wildloop;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventLoggerTest {
+    private final List<Event> received = new ArrayList<>();
+    private final Consumer<Event> listener = received::add;
+
+    @BeforeEach
+    void setUp() {
+        LogExporter.closeLog(); // Detach the log file listener opened by other worlds
+    }
+
+    @AfterEach
+    void tearDown() {
+        EventLogger.unsubscribe(listener);
+    }
+
+    @Test
+    void subsetListenerReceivesOnlyItsTypes() {
+        World world = new World(10, 10); // Opens a log, subscribing to every type
+        LogExporter.closeLog(); // Leave only the listener of this test
+        EventLogger.subscribe(listener, EnumSet.of(EventType.SPAWN, EventType.DIE_AGE));
+
+        Prey prey = new Prey(world, new Position(5, 5)); // Logs SPAWN
+        prey.incrementAge(); // No event
+        Event.log(EventType.MOVE, world, prey, Direction.NORTH); // Not subscribed
+
+        assertEquals(1, received.size()); // Only the spawn was delivered
+        assertEquals(EventType.SPAWN, received.get(0).getType());
+    }
+
+    @Test
+    void enabledMaskFollowsSubscriptions() {
+        assertFalse(EventLogger.isEnabled(EventType.MOVE)); // Nobody listens after the log is closed
+
+        EventLogger.subscribe(listener, EnumSet.of(EventType.MOVE));
+        assertTrue(EventLogger.isEnabled(EventType.MOVE)); // Subscribed type is enabled
+        assertFalse(EventLogger.isEnabled(EventType.FLEE)); // Other types stay disabled
+
+        EventLogger.unsubscribe(listener);
+        assertFalse(EventLogger.isEnabled(EventType.MOVE)); // Mask is rebuilt after unsubscribing
+    }
+
+    @Test
+    void disabledEventsAreNotCreated() {
+        World world = new World(10, 10);
+        LogExporter.closeLog();
+        EventLogger.subscribe(listener, EnumSet.of(EventType.SPAWN));
+        Prey prey = new Prey(world, new Position(5, 5));
+
+        assertDoesNotThrow(() -> Event.log(EventType.MOVE, world, "not an animal")); // Parameters of disabled types are not validated
+        assertThrows(IllegalArgumentException.class, () -> Event.log(EventType.SPAWN, world, "not an animal")); // Enabled types are validated
+        assertFalse(Event.isEnabled(EventType.SPAWN, new World(5, 5, false, 1L, WorldConfig.DEFAULTS, false))); // Unlogged worlds never log
+        assertTrue(Event.isEnabled(EventType.SPAWN, prey.world)); // Logged world with a listener
+    }
+}
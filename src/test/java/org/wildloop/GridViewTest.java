@@ -0,0 +1,164 @@
+package org.wildloop;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GridViewTest {
+    @Test
+    void SnapshotRendersEveryCell() {
+        World world = new World(30, 20, false, 3L, WorldConfig.DEFAULTS, false);
+        world.populate(80, 20);
+        Animal selected = world.getAnimals().get(0);
+        GridView view = new GridView();
+        view.setHighlightColor(Color.YELLOW);
+        view.setSnapshot(WorldSnapshot.capture(world, selected, false));
+
+        for (int x = 0; x < world.getWidth(); x++) {
+            for (int y = 0; y < world.getHeight(); y++) {
+                Animal animal = world.getGrid()[x][y];
+                Color expected = animal == null ? GridView.EMPTY_COLOR
+                        : animal == selected ? Color.YELLOW
+                        : animal instanceof Predator ? GridView.PREDATOR_COLOR : GridView.PREY_COLOR;
+                assertEquals(expected.getRGB(), view.getCellColor(x, y), "cell " + x + "," + y); // Color of the content
+            }
+        }
+
+        world.tick();
+        view.setSnapshot(WorldSnapshot.capture(world, null, false));
+        Position moved = world.getAnimals().get(1).getPosition();
+        assertNotEquals(GridView.EMPTY_COLOR.getRGB(), view.getCellColor(moved.x(), moved.y())); // New state rendered
+    }
+
+    @Test
+    void ClicksAreMappedToCellsByCoordinates() {
+        World world = new World(10, 5, false, 1L, WorldConfig.DEFAULTS, false);
+        GridView view = new GridView();
+        view.setSnapshot(WorldSnapshot.capture(world, null, false));
+        view.setSize(200, 200); // Cells of 20 px, grid of 200x100 centered vertically
+
+        assertEquals(new Position(0, 0), view.cellAt(new Point(0, 50))); // Top left corner
+        assertEquals(new Position(9, 4), view.cellAt(new Point(199, 149))); // Bottom right corner
+        assertEquals(new Position(3, 2), view.cellAt(new Point(65, 99)));
+        assertNull(view.cellAt(new Point(100, 20))); // Margin above the grid
+        assertNull(view.cellAt(new Point(100, 150))); // Margin below the grid
+
+        BufferedImage image = new BufferedImage(200, 200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        view.paint(g); // Painting works without a display
+        g.dispose();
+        assertEquals(GridView.EMPTY_COLOR.getRGB(), image.getRGB(70, 95)); // Empty cell painted
+    }
+
+    @Test
+    void ChangedCellsAreRenderedLikeFullSnapshots() {
+        World world = new World(30, 20, false, 4L, WorldConfig.DEFAULTS, false);
+        world.populate(120, 30);
+        GridView incremental = new GridView();
+        GridView full = new GridView();
+        WorldSnapshot first = WorldSnapshot.capture(world, world.getAnimals().get(0), false);
+        incremental.setSnapshot(first);
+        Animal selected = world.getAnimals().get(1);
+        for (int turn = 0; turn < 10; turn++) {
+            world.tick();
+            if (!world.containsAnimal(selected)) {
+                selected = world.getAnimals().get(0);
+            }
+            WorldSnapshot captured = WorldSnapshot.capture(world, selected, false);
+            WorldSnapshot changed = new WorldSnapshot(captured.getWidth(), captured.getHeight(), captured.tiles(),
+                    captured.getStats(), captured.getSelected(), false, world.getChangedCells().copy());
+            incremental.setSnapshot(changed);
+            full.setSnapshot(captured);
+            for (int x = 0; x < world.getWidth(); x++) {
+                for (int y = 0; y < world.getHeight(); y++) {
+                    assertEquals(full.getCellColor(x, y), incremental.getCellColor(x, y), "turn " + turn + " cell " + x + "," + y); // Same picture
+                }
+            }
+        }
+    }
+
+    @Test
+    void ZoomKeepsTheCellUnderTheMouseAndPanStaysInTheWorld() {
+        World world = new World(100, 100, false, 1L, WorldConfig.DEFAULTS, false);
+        GridView view = new GridView();
+        view.setSnapshot(WorldSnapshot.capture(world, null, false));
+        view.setSize(200, 200); // Cells of 2 px at the initial zoom
+
+        Point mouse = new Point(50, 70);
+        Position before = view.cellAt(mouse);
+        view.zoom(4, mouse);
+        assertEquals(4, view.getZoom(), 1e-9);
+        assertEquals(before, view.cellAt(mouse)); // Anchor cell stays under the mouse
+        assertEquals(new Position(18, 26), view.cellAt(new Point(0, 0))); // 25 cells of 8 px visible around the mouse
+
+        view.pan(-100_000, -100_000); // Drag far beyond the bottom right corner
+        assertEquals(new Position(99, 99), view.cellAt(new Point(199, 199))); // Viewport stops at the edge of the world
+        assertEquals(new Position(75, 75), view.cellAt(new Point(0, 0)));
+
+        view.zoom(1000, mouse);
+        assertEquals(32, view.getZoom(), 1e-9); // Limited to cells of 64 px
+        view.zoom(0.001, mouse);
+        assertEquals(1, view.getZoom(), 1e-9); // Never smaller than the whole world
+        assertEquals(new Position(0, 0), view.cellAt(new Point(0, 0))); // Whole world visible again
+    }
+
+    @Test
+    void ZoomedOutWorldIsPaintedAsDensityTiles() {
+        World world = new World(400, 400, false, 2L, WorldConfig.DEFAULTS, false);
+        world.populate(4000, 0);
+        GridView view = new GridView();
+        view.setSnapshot(WorldSnapshot.capture(world, null, false));
+        view.setSize(100, 100); // Four cells per pixel
+
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        view.paint(g);
+        g.dispose();
+        for (int x = 0; x < 100; x++) {
+            for (int y = 0; y < 100; y++) {
+                boolean occupied = false;
+                for (int cx = 4 * x; cx < 4 * x + 4; cx++) {
+                    for (int cy = 4 * y; cy < 4 * y + 4; cy++) {
+                        occupied |= world.getGrid()[cx][cy] != null;
+                    }
+                }
+                boolean painted = image.getRGB(x, y) != GridView.EMPTY_COLOR.getRGB();
+                assertEquals(occupied, painted, "pixel " + x + "," + y); // Every animal of the block is counted
+            }
+        }
+    }
+
+    @Test
+    void HugeWorldsArePaintedFromTheVisibleCells() {
+        World world = new World(10_000, 10_000, false, 3L, WorldConfig.DEFAULTS, false, GridStorage.CHUNKED);
+        world.populate(1000, 100);
+        new Predator(world, new Position(5000, 5000));
+        GridView view = new GridView();
+        view.setSnapshot(WorldSnapshot.capture(world, null, false)); // Sparse snapshot of a huge world
+        view.setSize(500, 500); // 20 cells per pixel
+
+        BufferedImage image = new BufferedImage(500, 500, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        view.paint(g);
+        assertNotEquals(GridView.EMPTY_COLOR.getRGB(), image.getRGB(250, 250)); // Density tile of the predator
+
+        view.zoom(1000, new Point(250, 250)); // Cells of 50 px, predator cell from 250 to 300
+        view.paint(g);
+        g.dispose();
+        assertEquals(GridView.PREDATOR_COLOR.getRGB(), image.getRGB(255, 255)); // Visible cell read from the snapshot
+        assertEquals(GridView.EMPTY_COLOR.getRGB(), image.getRGB(245, 255)); // Empty neighbour
+    }
+
+    @Test
+    void WorldsTooLargeToDisplayAreRejected() {
+        int size = (int) Math.sqrt(GridView.MAX_CELLS) + 1;
+        WorldSnapshot snapshot = new WorldSnapshot(size, size, new CellTiles(size, size).share(),
+                new PopulationStats(1, 0, 0, (long) size * size, 0, 0, 0, 0, 0, 0, 0), null, false, null);
+        GridView view = new GridView();
+        assertThrows(IllegalArgumentException.class, () -> view.setSnapshot(snapshot)); // Density tiles would exceed MAX_CELLS
+        assertNull(view.getSnapshot()); // View left unchanged
+    }
+}
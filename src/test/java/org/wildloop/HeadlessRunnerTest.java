@@ -0,0 +1,63 @@
+package org.wildloop;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeadlessRunnerTest {
+    @Test
+    void runWithSameSeedProducesSameSummary() {
+        String[] args = {"--size", "30", "--prey", "60", "--predators", "20", "--seed", "7", "--turns", "25"};
+
+        String first = withoutTimings(new HeadlessRunner(args).run()); // First run
+        String second = withoutTimings(new HeadlessRunner(args).run()); // Replay with the same options
+
+        assertEquals(first, second); // Same seed gives the same populations
+        assertTrue(first.contains("seed=7")); // Seed is reported
+        assertTrue(first.contains("initial.prey=60")); // All prey were placed
+        assertTrue(first.contains("initial.predators=20")); // All predators were placed
+    }
+
+    @Test
+    void runStopsAtTurnLimit() {
+        String summary = new HeadlessRunner(new String[]{"--size", "20", "--prey", "30", "--predators", "0", "--seed", "3", "--turns", "5"}).run();
+
+        assertTrue(summary.contains("turns=5")); // Prey without predators survive the first five turns
+        assertTrue(summary.contains("predators.extinct.turn=0")); // No predators from the start
+    }
+
+    @Test
+    void runsOptionProducesEnsembleSummary() {
+        String summary = new HeadlessRunner(new String[]{"--size", "15", "--prey", "20", "--predators", "5", "--seed", "5", "--turns", "10", "--runs", "6", "--threads", "2"}).run();
+
+        assertTrue(summary.contains("runs=6")); // Every run is counted
+        assertTrue(summary.contains("turns.count=6")); // Turn statistics cover every run
+        assertTrue(summary.contains("prey.extinction.probability=")); // Extinction estimate is reported
+    }
+
+    @Test
+    void invalidOptionsAreRejected() {
+        Exception unknown = assertThrows(IllegalArgumentException.class, () -> new HeadlessRunner(new String[]{"--speed", "3"}));
+        assertEquals("Unknown option: --speed", unknown.getMessage()); // Unknown option is named
+
+        Exception missing = assertThrows(IllegalArgumentException.class, () -> new HeadlessRunner(new String[]{"--turns"}));
+        assertEquals("Missing value for option --turns", missing.getMessage()); // Option without value
+
+        Exception invalid = assertThrows(IllegalArgumentException.class, () -> new HeadlessRunner(new String[]{"--size", "0"}));
+        assertEquals("Value '0' for option --size must be positive", invalid.getMessage()); // Empty world
+
+        assertThrows(IllegalArgumentException.class, () -> new HeadlessRunner(new String[]{"--mode", "async"})); // Unknown tick mode
+    }
+
+    /**
+     * Removes the lines of a summary that differ between identical runs.
+     */
+    private static String withoutTimings(String summary) {
+        return Arrays.stream(summary.split(System.lineSeparator()))
+                .filter(line -> !line.startsWith("world.id=") && !line.startsWith("elapsed.ms=") && !line.startsWith("turns.per.second="))
+                .collect(Collectors.joining("\n"));
+    }
+}
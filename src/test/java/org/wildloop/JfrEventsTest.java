@@ -0,0 +1,53 @@
+package org.wildloop;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JfrEventsTest {
+    @Test
+    void TicksAndDispatchesAreRecorded(@TempDir Path dir) throws Exception {
+        World world = new World(20, 20, 1L); // Logged world publishing events
+        world.populate(40, 10);
+        world.tick(); // Not recorded
+        Consumer<Event> listener = event -> { };
+        EventLogger.subscribe(listener);
+        Path file = dir.resolve("run.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(JfrEvents.Tick.class).withThreshold(Duration.ZERO);
+            recording.enable(JfrEvents.Dispatch.class).withThreshold(Duration.ZERO);
+            recording.start();
+            world.tick();
+            world.tick();
+            recording.stop();
+            recording.dump(file);
+        } finally {
+            EventLogger.unsubscribe(listener);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        List<RecordedEvent> ticks = events.stream()
+                .filter(event -> event.getEventType().getName().equals("org.wildloop.Tick")).toList();
+        assertEquals(2, ticks.size()); // Only turns executed while recording
+        RecordedEvent last = ticks.stream().max((a, b) -> Integer.compare(a.getInt("turn"), b.getInt("turn"))).orElseThrow();
+        PopulationStats stats = world.getStats();
+        assertEquals(world.getTurn() - 1, last.getInt("turn")); // Executed turn
+        assertEquals(stats.prey(), last.getInt("prey")); // Population after the turn
+        assertEquals(stats.predators(), last.getInt("predators"));
+        assertNotNull(last.getString("tickMode"));
+
+        List<RecordedEvent> dispatches = events.stream()
+                .filter(event -> event.getEventType().getName().equals("org.wildloop.Dispatch")).toList();
+        assertFalse(dispatches.isEmpty()); // Published events recorded
+        assertTrue(dispatches.stream().allMatch(event -> event.getInt("listeners") >= 1)); // Listener counted
+    }
+}
@@ -0,0 +1,111 @@
+package org.wildloop;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogRotationTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void textLogRotatesByTurnsIntoCompressedSegments() throws IOException {
+        LogArchiver archiver = new LogArchiver();
+        LogSegments segments = new LogSegments(directory, "run", ".log", new LogRotation(0, 2, true, 0), archiver);
+        World world = new World(10, 10, 1L);
+        new Prey(world, new Position(5, 5));
+        AsyncLogWriter writer = new AsyncLogWriter(segments, LogWriterSettings.DEFAULTS, null);
+
+        EventLogger.subscribe(writer);
+        try {
+            for (int i = 0; i < 5; i++) {
+                world.tick();
+            }
+        } finally {
+            EventLogger.unsubscribe(writer);
+            writer.close();
+        }
+        archiver.awaitIdle();
+
+        assertEquals(List.of("run_001.log.gz", "run_002.log.gz", "run_003.log.gz"), files()); // Two turns per segment, latest file renamed
+        StringBuilder text = new StringBuilder();
+        for (String name : files()) {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(directory.resolve(name)))) {
+                text.append(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(5, text.toString().lines().filter(line -> line.contains("SIMULATION_TURN")).count()); // No event lost
+        assertTrue(text.toString().lines().findFirst().orElseThrow().contains("T-1 ")); // Segments are in order
+    }
+
+    @Test
+    void binaryLogRotatesBySizeIntoReadableSegments() throws IOException {
+        LogArchiver archiver = new LogArchiver();
+        LogSegments segments = new LogSegments(directory, "run", ".evt", new LogRotation(1000, 0, true, 0), archiver);
+        World world = new World(10, 10, 1L);
+        Prey prey = new Prey(world, new Position(5, 5));
+        AsyncLogWriter writer = new AsyncLogWriter(segments, LogWriterSettings.DEFAULTS, new BinaryLogEncoder(world));
+
+        EventLogger.subscribe(writer);
+        try {
+            for (int i = 0; i < 500; i++) {
+                Event.log(EventType.EAT_GRASS, world, prey); // 12 bytes each
+            }
+        } finally {
+            EventLogger.unsubscribe(writer);
+            writer.close();
+        }
+        archiver.awaitIdle();
+
+        long events = 0;
+        for (String name : files()) {
+            try (BinaryLogReader reader = new BinaryLogReader(directory.resolve(name))) {
+                assertEquals(world.getId(), reader.getHeader().worldId()); // Every segment has a header
+                while (reader.next()) {
+                    assertEquals(prey.getId(), reader.getAnimalId(0));
+                    events++;
+                }
+            }
+        }
+        assertTrue(files().size() > 4); // Several segments
+        assertEquals(500, events); // Every event is in exactly one segment
+    }
+
+    @Test
+    void retentionDeletesOldestArchives() throws IOException, InterruptedException {
+        Path oldest = Files.write(directory.resolve("a_world1.log.gz"), new byte[400]);
+        Path older = Files.write(directory.resolve("b_world2.evt"), new byte[400]);
+        Path latest = Files.write(directory.resolve("latest.log"), new byte[400]);
+        Files.setLastModifiedTime(oldest, FileTime.fromMillis(1_000));
+        Files.setLastModifiedTime(older, FileTime.fromMillis(2_000));
+        Path finished = Files.write(directory.resolve("latest.evt"), new byte[400]);
+
+        LogArchiver archiver = new LogArchiver();
+        archiver.archive(finished, directory.resolve("c_world3.evt"), new LogRotation(0, 0, false, 1000));
+        archiver.awaitIdle();
+
+        assertEquals(List.of("b_world2.evt", "c_world3.evt", "latest.log"), files()); // Oldest archive deleted, open log kept
+        assertTrue(Files.exists(latest));
+        assertThrows(IllegalArgumentException.class, () -> new LogRotation(-1, 0, false, 0)); // Negative limit
+    }
+
+    /**
+     * Lists the names of the files in the log directory in alphabetical order.
+     */
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+}
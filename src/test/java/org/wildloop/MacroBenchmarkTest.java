@@ -0,0 +1,43 @@
+package org.wildloop;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MacroBenchmarkTest {
+    @Test
+    void regressionsBeyondToleranceAreReported() {
+        Properties baseline = new Properties();
+        baseline.setProperty("sparse-100.ticks.per.second", "1000.000");
+        baseline.setProperty("dense-1000.ticks.per.second", "2.000");
+        baseline.setProperty("sparse-100.ns.per.update", "100.000");
+        Properties results = new Properties();
+        results.setProperty("sparse-100.ticks.per.second", "920.000");
+        results.setProperty("dense-1000.ticks.per.second", "1.500");
+        results.setProperty("sparse-100.ns.per.update", "500.000");
+        results.setProperty("prey-explosion.ticks.per.second", "1.000");
+
+        List<String> regressions = MacroBenchmark.findRegressions(baseline, results, 10);
+
+        assertEquals(1, regressions.size()); // Only throughput beyond the tolerance, only scenarios in both files
+        assertTrue(regressions.get(0).startsWith("dense-1000: 1.500 ticks/s is 25.0% below")); // Scenario and drop named
+        assertTrue(MacroBenchmark.findRegressions(baseline, results, 30).isEmpty()); // Wider tolerance accepts it
+    }
+
+    @Test
+    void scenariosAreSeededAndSelectable() {
+        World first = BenchmarkScenario.PREDATOR_DOMINATED.createWorld();
+        World second = BenchmarkScenario.PREDATOR_DOMINATED.createWorld();
+        first.tick();
+        second.tick();
+
+        assertEquals(first.getStats(), second.getStats()); // Same world in every run
+        assertFalse(first.isLogged()); // Logging is not measured
+        assertEquals(BenchmarkScenario.SPARSE, BenchmarkScenario.byName("sparse-100"));
+        assertThrows(IllegalArgumentException.class, () -> new MacroBenchmark(new String[]{"--scenario", "huge"})); // Unknown scenario
+        assertThrows(IllegalArgumentException.class, () -> new MacroBenchmark(new String[]{"--runs", "0"})); // At least one run
+    }
+}
@@ -0,0 +1,102 @@
+package org.wildloop;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+    @AfterEach
+    void disableMetrics() {
+        Metrics.setEnabled(false);
+        Metrics.registry().reset();
+    }
+
+    @Test
+    void HistogramBucketsCoverEveryValueWithBoundedError() {
+        for (long value = 0; value < 1_000_000; value += 1 + value / 7) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(value <= LatencyHistogram.upperBound(bucket), "value " + value); // Value below the upper bound of its bucket
+            assertTrue(bucket == 0 || LatencyHistogram.upperBound(bucket - 1) < value, "value " + value); // and above the previous one
+            assertTrue(LatencyHistogram.upperBound(bucket) - value <= value / LatencyHistogram.SUB_BUCKETS, "value " + value); // Relative error
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE)); // Largest value fits
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(LatencyHistogram.BUCKETS - 1));
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_000, histogram.getQuantile(0.5), 500_000 / 16.0); // Median within one bucket
+        assertEquals(990_000, histogram.getQuantile(0.99), 990_000 / 16.0);
+        assertEquals(500_500, histogram.getMean(), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> histogram.getQuantile(1.5)); // Invalid quantile
+    }
+
+    @Test
+    void InstrumentationRecordsOnlyWhileEnabled() {
+        Consumer<Event> listener = event -> { };
+        EventLogger.subscribe(listener);
+        try {
+            World world = new World(20, 20, 1L); // Logged world publishing events
+            world.populate(40, 10);
+            world.tick();
+            assertEquals(0, Metrics.TICK.getCount()); // Off by default
+            assertEquals(0, Metrics.EVENTS.sum());
+
+            Metrics.setEnabled(true);
+            world.tick();
+            world.tick();
+        } finally {
+            EventLogger.unsubscribe(listener);
+        }
+
+        assertEquals(2, Metrics.TICK.getCount()); // Every turn timed
+        assertEquals(2, Metrics.TURNS.sum());
+        assertTrue(Metrics.MOVE.getCount() > 0); // Phases of the animals timed
+        assertEquals(Metrics.MOVE.getCount(), Metrics.DEATH_CHECK.getCount()); // Every animal passes every phase
+        assertTrue(Metrics.EVENTS.sum() > 0); // Published events counted
+        assertEquals(Metrics.EVENTS.sum(), Metrics.PUBLISH.getCount());
+        assertTrue(Metrics.registry().values().get("world.tick.p99") > 0); // Values exposed by name
+
+        String scrape = Metrics.registry().scrape();
+        assertTrue(scrape.contains("# TYPE wildloop_world_tick_nanoseconds summary\n")); // Prometheus names
+        assertTrue(scrape.contains("wildloop_world_turns_total 2\n"));
+        assertTrue(scrape.contains("wildloop_animal_death_check_nanoseconds{quantile=\"0.99\"} "));
+    }
+
+    @Test
+    void MetricsAreExposedThroughJmxAndHttp() throws Exception {
+        Metrics.registerMBean();
+        Metrics.registerMBean(); // Registering twice is harmless
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        server.setAttribute(name, new javax.management.Attribute("Enabled", true));
+        assertTrue(Metrics.isEnabled()); // Switched on through JMX
+        Metrics.TURNS.add(5);
+        assertTrue(((String) server.invoke(name, "scrape", null, null)).contains("wildloop_world_turns_total 5\n"));
+
+        HttpServer http = Metrics.startServer(0); // Any free port
+        try {
+            URL url = URI.create("http://127.0.0.1:" + http.getAddress().getPort() + Metrics.PATH).toURL();
+            try (InputStream in = url.openStream()) {
+                String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(body.contains("wildloop_world_turns_total 5\n")); // Same text over HTTP
+            }
+        } finally {
+            http.stop(0);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.wildloop;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationRunnerTest {
+    /**
+     * Takes snapshots until one matches a condition.
+     *
+     * @param runner    runner publishing snapshots
+     * @param condition condition of the awaited snapshot
+     * @return matching snapshot
+     */
+    private static WorldSnapshot await(SimulationRunner runner, Predicate<WorldSnapshot> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            WorldSnapshot snapshot = runner.takeSnapshot();
+            if (snapshot != null && condition.test(snapshot)) {
+                return snapshot;
+            }
+            Thread.sleep(1);
+        }
+        throw new AssertionError("No matching snapshot within 10 s");
+    }
+
+    @Test
+    void SnapshotsMatchTheWorldAndSkipTurns() throws InterruptedException {
+        World world = new World(40, 40, false, 5L, WorldConfig.DEFAULTS, false);
+        world.populate(300, 30);
+        SimulationRunner runner = new SimulationRunner(world, SimulationRunner.UNLIMITED_SPEED);
+        runner.start();
+        int frames = 0;
+        int turn = 0;
+        while (turn < 100 && !runner.isEnded()) {
+            Thread.sleep(5); // Frames slower than turns
+            WorldSnapshot snapshot = runner.takeSnapshot();
+            if (snapshot != null) {
+                frames++;
+                turn = snapshot.getStats().turn();
+            }
+        }
+        runner.stop();
+
+        assertTrue(frames < turn, frames + " frames for " + turn + " turns"); // Turns between frames are not captured
+        WorldSnapshot last = runner.takeSnapshot(); // Published when stopped
+        assertNotNull(last);
+        assertEquals(world.getStats(), last.getStats()); // Final state of the world
+        for (int x = 0; x < world.getWidth(); x++) {
+            for (int y = 0; y < world.getHeight(); y++) {
+                Animal animal = world.getGrid()[x][y];
+                byte expected = animal == null ? WorldSnapshot.EMPTY : animal instanceof Predator ? WorldSnapshot.PREDATOR : WorldSnapshot.PREY;
+                assertEquals(expected, last.getCell(x, y), "cell " + x + "," + y); // Cells copied from the grid
+            }
+        }
+    }
+
+    @Test
+    void PausedRunnerExecutesCommands() throws InterruptedException {
+        World world = new World(10, 10, false, 2L, WorldConfig.DEFAULTS, false);
+        Prey prey = new Prey(world, new Position(4, 4));
+        SimulationRunner runner = new SimulationRunner(world, 1);
+        runner.setPaused(true);
+        runner.start();
+        runner.select(new Position(4, 4));
+        WorldSnapshot selected = await(runner, s -> s.getSelected() != null);
+        assertEquals(prey.getId(), selected.getSelected().id()); // Selection applied while paused
+        assertEquals(1, selected.getStats().turn()); // No turn executed while paused
+
+        runner.select(new Position(4, 4)); // Clicking the selected animal clears the selection
+        WorldSnapshot cleared = await(runner, s -> s.getSelected() == null);
+        assertFalse(cleared.isSelectedDied()); // Cleared by the user, not by death
+        runner.stop();
+        assertThrows(IllegalStateException.class, runner::start); // Runner is single-use
+        assertThrows(IllegalArgumentException.class, () -> new SimulationRunner(world, -1)); // Invalid speed
+    }
+}
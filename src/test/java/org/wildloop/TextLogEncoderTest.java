@@ -0,0 +1,92 @@
+package org.wildloop;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextLogEncoderTest {
+    @Test
+    void everyEventTypeMatchesReferenceFormat() {
+        World world = new World(200, 200, 3L);
+        Prey prey = new Prey(world, new Position(0, 199));
+        Predator predator = new Predator(world, new Position(123, 45));
+        Prey offspring = new Prey(world, new Position(1, 199));
+        for (int i = 0; i < 12; i++) {
+            world.tick(); // Turn with two digits
+        }
+        List<Event> events = capture(() -> {
+            Event.log(EventType.SIMULATION_START, null); // System event
+            for (EventType type : EventType.values()) {
+                switch (type.getAnimalCount()) {
+                    case 0 -> Event.log(type, world);
+                    case 1 -> {
+                        if (type.hasDirection()) {
+                            Event.log(type, world, prey, Direction.SOUTH);
+                        } else {
+                            Event.log(type, world, type == EventType.SPAWN ? predator : prey);
+                        }
+                    }
+                    default -> {
+                        Animal first = type == EventType.HUNT || type == EventType.EAT_PREY ? predator : prey;
+                        Animal second = first == prey ? predator : prey;
+                        if (type == EventType.REPRODUCE) {
+                            second = offspring;
+                        }
+                        if (type.hasDirection()) {
+                            Event.log(type, world, first, second, Direction.WEST);
+                        } else {
+                            Event.log(type, world, first, second);
+                        }
+                    }
+                }
+            }
+        });
+
+        assertEquals(EventType.values().length + 1, events.size()); // Every type and a system event
+        ZoneId zone = ZoneId.of("Asia/Kolkata");
+        TextLogEncoder encoder = new TextLogEncoder(zone);
+        for (Event event : events) {
+            int length = encoder.encode(event);
+            String line = new String(encoder.getBytes(), 0, length, StandardCharsets.UTF_8);
+            assertEquals(reference(event, zone) + System.lineSeparator(), line); // Byte-identical line
+        }
+        assertEquals(reference(events.get(1), ZoneId.systemDefault()), events.get(1).toString()); // toString uses the encoder
+    }
+
+    /**
+     * Publishes events while collecting them.
+     */
+    private static List<Event> capture(Runnable publisher) {
+        List<Event> events = new ArrayList<>();
+        Consumer<Event> listener = events::add;
+        EventLogger.subscribe(listener, EnumSet.allOf(EventType.class));
+        try {
+            publisher.run();
+        } finally {
+            EventLogger.unsubscribe(listener);
+        }
+        return events;
+    }
+
+    /**
+     * Formats an event with the reference implementation of the text format.
+     */
+    private static String reference(Event event, ZoneId zone) {
+        EventType type = event.getType();
+        int animals = type.getAnimalCount();
+        String description = type.describe(
+                animals > 0 ? ((Animal) event.getParam(0)).getId() : null, animals > 0 ? event.getPosition(0) : null,
+                animals > 1 ? ((Animal) event.getParam(1)).getId() : null, animals > 1 ? event.getPosition(1) : null,
+                type.hasDirection() ? (Direction) event.getParam(animals) : null);
+        return Event.format(Instant.ofEpochMilli(event.getEpochMillis()), zone,
+                event.getWorld() != null ? event.getWorld().getId() : null, event.getTurn(), type, description);
+    }
+}
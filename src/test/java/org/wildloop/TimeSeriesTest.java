@@ -0,0 +1,140 @@
+package org.wildloop;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeSeriesTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void RecordsEveryTurnAndRoundTripsThroughColumns() throws IOException {
+        World world = new World(40, 40, false, 3L, WorldConfig.DEFAULTS, false); // Unlogged seeded world
+        world.populate(300, 60);
+        TimeSeries series = new TimeSeries();
+        RunResult result = RunResult.simulate(world, 0, 30, series);
+
+        assertEquals(result.turns() + 1, series.size()); // Initial state and one sample per turn
+        assertEquals(1, series.getTurn(0));
+        assertEquals(result.initialPrey(), series.getPrey(0)); // Population before the first turn
+        assertEquals(0, series.getBirths(0)); // No turn executed yet
+        int last = series.size() - 1;
+        PopulationStats stats = world.getStats();
+        assertEquals(stats.prey(), series.getPrey(last)); // Final population
+        assertEquals(stats.predators(), series.getPredators(last));
+        assertEquals(stats.averageEnergy(), series.getMeanEnergy(last), 1e-9);
+        assertEquals(stats.births(), sumBirths(series)); // Every birth in exactly one sample
+        assertEquals(stats.deaths(DeathCause.EATEN), sumDeaths(series, DeathCause.EATEN));
+
+        Path file = directory.resolve("series.wlts");
+        series.writeColumns(file);
+        TimeSeries loaded = TimeSeries.load(file);
+        assertEquals(series.size(), loaded.size()); // Same rows after mapping the file
+        for (int i = 0; i < series.size(); i++) {
+            assertEquals(series.getTurn(i), loaded.getTurn(i));
+            assertEquals(series.getPrey(i), loaded.getPrey(i));
+            assertEquals(series.getPredators(i), loaded.getPredators(i));
+            assertEquals(series.getBirths(i), loaded.getBirths(i));
+            assertEquals(series.getDeaths(i, DeathCause.AGE), loaded.getDeaths(i, DeathCause.AGE));
+            assertEquals(series.getMeanEnergy(i), loaded.getMeanEnergy(i)); // NaN compares equal as well
+        }
+
+        StringWriter csv = new StringWriter();
+        series.writeCsv(csv);
+        String[] lines = csv.toString().split("\n");
+        assertEquals(TimeSeries.CSV_HEADER, lines[0]); // Header line first
+        assertEquals(series.size() + 1, lines.length); // One line per sample
+        assertTrue(lines[1].startsWith("1," + series.getPrey(0) + "," + series.getPredators(0) + ",0,0,0,0,")); // First sample
+    }
+
+    @Test
+    void DownsamplingBoundsMemoryAndKeepsTotals() {
+        World world = new World(40, 40, false, 8L, WorldConfig.DEFAULTS, false);
+        world.populate(300, 60);
+        TimeSeries full = new TimeSeries();
+        TimeSeries bounded = new TimeSeries(8);
+        full.record(world);
+        bounded.record(world);
+        for (int turn = 0; turn < 50 && !world.getAnimals().isEmpty(); turn++) {
+            world.tick();
+            full.record(world);
+            bounded.record(world);
+        }
+
+        assertTrue(bounded.size() <= 8); // Never exceeds the limit
+        assertTrue(bounded.getStride() > 1); // Older samples were merged
+        assertTotalsAndFinalState(world, full, bounded);
+        int index = bounded.getStride() - 1; // Sample of the full series at the end of the first merged sample
+        assertEquals(full.getTurn(index), bounded.getTurn(0)); // Merged samples end at the same turn
+        assertEquals(full.getPrey(index), bounded.getPrey(0)); // and keep the population of their later half
+
+        World brief = new World(40, 40, false, 9L, WorldConfig.DEFAULTS, false);
+        brief.populate(300, 60);
+        TimeSeries all = new TimeSeries();
+        TimeSeries partial = new TimeSeries(4);
+        all.record(brief);
+        partial.record(brief);
+        for (int turn = 0; turn < 6; turn++) {
+            brief.tick();
+            all.record(brief);
+            partial.record(brief);
+        }
+        assertEquals(2, partial.getStride()); // Seven recorded turns in samples of two
+        assertEquals(4, partial.size()); // Last sample covers the single pending turn
+        assertTotalsAndFinalState(brief, all, partial);
+    }
+
+    /**
+     * Checks that a bounded series holds the same totals as the full one and ends with the current state of the world.
+     */
+    private static void assertTotalsAndFinalState(World world, TimeSeries full, TimeSeries bounded) {
+        assertEquals(sumBirths(full), sumBirths(bounded)); // No birth lost, including the pending turns
+        for (DeathCause cause : new DeathCause[]{DeathCause.EATEN, DeathCause.ENERGY, DeathCause.AGE}) {
+            assertEquals(sumDeaths(full, cause), sumDeaths(bounded, cause), cause.name()); // No death lost
+        }
+        int last = bounded.size() - 1;
+        PopulationStats stats = world.getStats();
+        assertEquals(stats.turn(), bounded.getTurn(last)); // Last sample holds the latest recorded turn
+        assertEquals(stats.prey(), bounded.getPrey(last)); // and the final population
+        assertEquals(stats.predators(), bounded.getPredators(last));
+    }
+
+    @Test
+    void RejectsInvalidLimitsAndFiles() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> new TimeSeries(3)); // Odd limit
+        assertThrows(IllegalArgumentException.class, () -> new TimeSeries(-2)); // Negative limit
+        assertThrows(IndexOutOfBoundsException.class, () -> new TimeSeries().getPrey(0)); // Empty series
+
+        Path file = Files.write(directory.resolve("broken.wlts"), new byte[]{'W', 'L', 'E', 'V', 1, 0, 8, 0, 0, 0, 0, 0, 1, 0, 0, 0});
+        assertThrows(IOException.class, () -> TimeSeries.load(file)); // Wrong magic bytes
+    }
+
+    /**
+     * Sums the births of all samples.
+     */
+    private static long sumBirths(TimeSeries series) {
+        long births = 0;
+        for (int i = 0; i < series.size(); i++) {
+            births += series.getBirths(i);
+        }
+        return births;
+    }
+
+    /**
+     * Sums the deaths by a cause of all samples.
+     */
+    private static long sumDeaths(TimeSeries series, DeathCause cause) {
+        long deaths = 0;
+        for (int i = 0; i < series.size(); i++) {
+            deaths += series.getDeaths(i, cause);
+        }
+        return deaths;
+    }
+}
@@ -0,0 +1,50 @@
+package org.wildloop;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorldConfigTest {
+    @Test
+    void defaultsMatchConfigurationFile() {
+        assertEquals(SimulationConfig.getIntValue("animal.max.energy"), WorldConfig.DEFAULTS.maxEnergy()); // Energy limit from the properties file
+        assertEquals(SimulationConfig.getIntValue("prey.flee.range"), WorldConfig.DEFAULTS.preyFleeRange()); // Prey range from the properties file
+        assertEquals(SimulationConfig.getIntValue("predator.hunt.range"), WorldConfig.DEFAULTS.predatorHuntRange()); // Predator range from the properties file
+    }
+
+    @Test
+    void builderChangesOnlyGivenParameters() {
+        WorldConfig config = WorldConfig.builder().preyFleeRange(9).predatorMaxAge(3).build();
+
+        assertEquals(9, config.preyFleeRange()); // Changed parameter
+        assertEquals(3, config.predatorMaxAge()); // Changed parameter
+        assertEquals(WorldConfig.DEFAULTS.maxEnergy(), config.maxEnergy()); // Untouched parameter keeps the default
+        assertEquals(config, config.toBuilder().build()); // Round trip through a builder
+    }
+
+    @Test
+    void withPropertiesOverridesGivenKeys() {
+        Properties properties = new Properties();
+        properties.setProperty("prey.max.age", "7");
+
+        WorldConfig config = WorldConfig.DEFAULTS.withProperties(properties);
+
+        assertEquals(7, config.preyMaxAge()); // Value from the properties
+        assertEquals(WorldConfig.DEFAULTS.predatorMaxAge(), config.predatorMaxAge()); // Missing key keeps the default
+
+        properties.setProperty("prey.max.age", "old");
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> WorldConfig.DEFAULTS.withProperties(properties));
+        assertEquals("Value 'old' for parameter 'prey.max.age' is not a valid integer", exception.getMessage()); // Invalid value is reported
+    }
+
+    @Test
+    void invalidParametersAreRejected() {
+        Exception range = assertThrows(IllegalArgumentException.class, () -> WorldConfig.builder().predatorHuntRange(0).build());
+        assertEquals("predatorHuntRange must be positive: 0", range.getMessage()); // Animals must see at least their neighbours
+
+        Exception cost = assertThrows(IllegalArgumentException.class, () -> WorldConfig.builder().moveEnergyCost(-1).build());
+        assertEquals("moveEnergyCost cannot be negative: -1", cost.getMessage()); // Moving cannot create energy
+    }
+}
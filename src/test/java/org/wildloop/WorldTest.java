@@ -2,6 +2,10 @@ package org.wildloop;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class WorldTest {
@@ -228,4 +232,472 @@ public class WorldTest {
         assertTrue(world.isCellEmpty(position1)); // Check if the cell at position1 is empty
         assertTrue(world.isCellEmpty(position2)); // Check if the cell at position2 is empty
     }
-}
\ No newline at end of file
+
+    @Test
+    void FindNearestMatchesLinearScan() {
+        World world = new World(30, 30); // Create a world of size 30x30
+        java.util.Random random = new java.util.Random(42); // Fixed seed for a repeatable layout
+        for (int i = 0; i < 200; i++) {
+            Position position = new Position(random.nextInt(30), random.nextInt(30));
+            if (world.isCellEmpty(position)) {
+                if (random.nextBoolean()) new Prey(world, position);
+                else new Predator(world, position);
+            }
+        }
+
+        for (int x = 0; x < 30; x++) {
+            for (int y = 0; y < 30; y++) {
+                Position origin = new Position(x, y);
+                Prey expected = null; // Nearest prey found by scanning the whole animal list
+                int minDistance = Integer.MAX_VALUE;
+                for (Animal animal : world.getAnimals()) {
+                    int distance = origin.distanceTo(animal.getPosition());
+                    if (animal instanceof Prey && distance <= 6 && distance < minDistance) {
+                        expected = (Prey) animal;
+                        minDistance = distance;
+                    }
+                }
+                assertSame(expected, world.findNearest(origin, 6, Prey.class)); // Index must agree with the scan
+            }
+        }
+    }
+
+    @Test
+    void SpatialIndexFollowsMovesAndRemovals() {
+        World world = new World(20, 20); // Create a world of size 20x20
+        Prey prey = new Prey(world, new Position(1, 1)); // Prey far from the origin
+
+        assertNull(world.findNearest(new Position(15, 15), 4, Prey.class)); // Out of range
+        prey.setPosition(new Position(14, 14)); // Move the prey next to the origin
+        assertSame(prey, world.findNearest(new Position(15, 15), 4, Prey.class)); // Found after the move
+        assertEquals(1, world.getAnimalsInRange(new Position(15, 15), 2).size()); // Range query sees it too
+
+        prey.setPosition(new Position(13, 14)); // Move within the same bucket
+        assertEquals(1, world.getAnimalsInRange(new Position(12, 14), 1).size()); // Index follows the new coordinates
+        assertTrue(world.getAnimalsInRange(new Position(15, 15), 2).isEmpty()); // Old coordinates are forgotten
+
+        prey.die(); // Remove the prey from the world
+        assertNull(world.findNearest(new Position(15, 15), 4, Prey.class)); // Gone after death
+        assertTrue(world.getAnimalsInRange(new Position(15, 15), 2).isEmpty());
+    }
+
+    @Test
+    void DataOrientedWorldKeepsStateInStore() {
+        World world = new World(10, 10, true); // Create a data-oriented world of size 10x10
+        Prey prey = new Prey(world, new Position(2, 2)); // Create a prey backed by the store
+
+        assertTrue(world.isDataOriented()); // Check if the backend is selected
+        prey.setEnergy(Prey.DEFAULT_ENERGY - 10); // Write through the handle
+        assertEquals(Prey.DEFAULT_ENERGY - 10, prey.getEnergy()); // Read back through the handle
+        prey.setPosition(new Position(3, 2)); // Move through the handle
+        assertSame(prey, world.getGrid()[3][2]); // Check if the grid follows the move
+        assertEquals(new Position(3, 2), prey.getPosition()); // Check if the position is stored
+
+        world.tick(); // Run a turn, aging all animals in the store
+        assertEquals(1, prey.getAge()); // Check if the prey aged exactly once
+
+        prey.die(); // Kill the prey, releasing its slot
+        assertTrue(prey.isDead()); // Dead state survives leaving the store
+        assertEquals(-1, prey.getEnergy()); // Energy is copied back into the handle
+        assertFalse(world.getAnimals().contains(prey)); // Check if the prey is removed
+    }
+
+    @Test
+    void DataOrientedWorldReleasesSlotsOfAnimalsEatenDuringTurn() {
+        World world = new World(10, 10, true); // Create a data-oriented world of size 10x10
+        Predator predator = new Predator(world, new Position(5, 5)); // Hungry predator
+        Prey prey = new Prey(world, new Position(5, 7)); // Prey two cells away
+        predator.setEnergy(Predator.REPRODUCTION_ENERGY_THRESHOLD / 2); // Hungry enough to hunt, too weak to reproduce
+
+        world.tick(); // Predator moves next to the prey and eats it
+
+        assertTrue(prey.isDead()); // Check if the prey was eaten
+        assertEquals(1, world.getAnimals().size()); // Only the predator remains
+        assertSame(predator, world.getGrid()[5][6]); // Predator moved towards the prey
+        assertEquals(1, predator.getAge()); // Predator aged once
+    }
+
+    @Test
+    void DataOrientedWorldFollowsObjectWorldTurnByTurn() {
+        List<String> objectEvents = new ArrayList<>();
+        List<String> dataOrientedEvents = new ArrayList<>();
+        PopulationStats objectStats = runBackend(false, objectEvents); // Object backend
+        PopulationStats dataOrientedStats = runBackend(true, dataOrientedEvents); // Data-oriented backend, same seed
+
+        assertTrue(objectStats.births() > 0); // Check if the run exercised reproduction
+        assertTrue(objectStats.energyDeaths() + objectStats.eatenDeaths() > 0); // Check if the run exercised deaths
+        assertEquals(objectStats, dataOrientedStats); // Same population, births, deaths, energy and age
+        assertEquals(objectEvents, dataOrientedEvents); // Same events in the same order
+    }
+
+    private PopulationStats runBackend(boolean dataOriented, List<String> events) {
+        World world = new World(50, 50, dataOriented, 7L); // Same seed for both backends
+        Consumer<Event> listener = event -> {
+            if (event.getWorld() != world) {
+                return;
+            }
+            StringBuilder description = new StringBuilder().append(event.getTurn()).append(' ').append(event.getType());
+            for (int i = 0; i < event.getType().getAnimalCount(); i++) {
+                Animal animal = (Animal) event.getParam(i);
+                description.append(' ').append(animal.getSerial()).append('@').append(event.getPosition(i));
+            }
+            events.add(description.toString());
+        };
+        EventLogger.subscribe(listener);
+        try {
+            world.populate(100, 20);
+            for (int i = 0; i < 200; i++) {
+                world.tick();
+            }
+        } finally {
+            EventLogger.unsubscribe(listener);
+        }
+        return world.getStats();
+    }
+
+    @Test
+    void RemoveAnimalMovesLastAnimalIntoFreedSlot() {
+        World world = new World(10, 10); // Create a world of size 10x10
+        Animal first = new Prey(world, new Position(1, 1)); // Slot 0
+        Animal second = new Prey(world, new Position(2, 2)); // Slot 1
+        Animal third = new Predator(world, new Position(3, 3)); // Slot 2
+
+        world.removeAnimal(first); // Free slot 0
+
+        assertEquals(2, world.getAnimals().size()); // Two animals remain
+        assertSame(third, world.getAnimals().get(0)); // Last animal moved into the freed slot
+        assertSame(second, world.getAnimals().get(1)); // Other animals keep their slots
+        assertTrue(world.containsAnimal(third)); // Membership follows the move
+        assertFalse(world.containsAnimal(first)); // Removed animal is no longer a member
+        assertEquals(-1, world.getAnimals().indexOf(first)); // Removed animal has no index
+        assertThrows(UnsupportedOperationException.class,
+                () -> world.getAnimals().add(first)); // List cannot be modified from outside the world
+    }
+
+    @Test
+    void ParallelTickUpdatesEveryAnimalOnceAndKeepsWorldConsistent() {
+        assertParallelTickConsistent(false); // Object backend
+        assertParallelTickConsistent(true); // Data-oriented backend
+    }
+
+    private void assertParallelTickConsistent(boolean dataOriented) {
+        World world = new World(120, 60, dataOriented); // Wide world split into several strips
+        world.setTickMode(TickMode.PARALLEL); // Select the parallel tick engine
+        java.util.Random random = new java.util.Random(7); // Fixed seed for a repeatable layout
+        for (int i = 0; i < 2000; i++) {
+            Position position = new Position(random.nextInt(120), random.nextInt(60));
+            if (world.isCellEmpty(position)) {
+                if (random.nextInt(4) == 0) new Predator(world, position);
+                else new Prey(world, position);
+            }
+        }
+        java.util.List<Animal> initial = new java.util.ArrayList<>(world.getAnimals()); // Animals present before the turn
+
+        world.tick(); // Run a single parallel turn
+
+        for (Animal animal : initial) {
+            if (!animal.isDead()) {
+                assertEquals(1, animal.getAge()); // Every surviving animal acted exactly once
+            } else {
+                assertTrue(animal.getAge() <= 1); // Eaten animals acted at most once
+            }
+        }
+        int occupied = 0;
+        for (int x = 0; x < world.getWidth(); x++) {
+            for (int y = 0; y < world.getHeight(); y++) {
+                Animal animal = world.getGrid()[x][y];
+                if (animal != null) {
+                    occupied++;
+                    assertTrue(world.containsAnimal(animal)); // Every animal on the grid is registered
+                    assertEquals(new Position(x, y), animal.getPosition()); // Grid matches positions
+                    assertNotNull(animal.getId()); // Offspring received identifiers
+                }
+            }
+        }
+        assertEquals(world.getAnimals().size(), occupied); // No stale animals in the list
+        assertEquals(2, world.getTurn()); // Turn counter advanced once
+    }
+
+    @Test
+    void SameSeedReplaysSameRun() {
+        assertEquals(runSignature(TickMode.SEQUENTIAL, 1234L, null), runSignature(TickMode.SEQUENTIAL, 1234L, null)); // Sequential replay
+        assertNotEquals(runSignature(TickMode.SEQUENTIAL, 1234L, null), runSignature(TickMode.SEQUENTIAL, 4321L, null)); // Other seed, other run
+    }
+
+    @Test
+    void ParallelRunDoesNotDependOnThreadCount() {
+        java.util.concurrent.ForkJoinPool single = new java.util.concurrent.ForkJoinPool(1); // One worker thread
+        java.util.concurrent.ForkJoinPool many = new java.util.concurrent.ForkJoinPool(4); // Several worker threads
+        try {
+            assertEquals(runSignature(TickMode.PARALLEL, 99L, single), runSignature(TickMode.PARALLEL, 99L, many)); // Same result on any pool
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+
+    /**
+     * Runs a seeded simulation for a few turns and describes the final state of every animal.
+     */
+    private String runSignature(TickMode mode, long seed, java.util.concurrent.ForkJoinPool pool) {
+        return runSignature(mode, seed, pool, GridStorage.DENSE);
+    }
+
+    private String runSignature(TickMode mode, long seed, java.util.concurrent.ForkJoinPool pool, GridStorage storage) {
+        World world = new World(60, 40, false, seed, WorldConfig.DEFAULTS, true, storage); // Seeded world
+        world.setTickMode(mode);
+        if (pool != null) world.setTickPool(pool);
+        for (int i = 0; i < 400; i++) {
+            Position position = new Position(world.getRandom().nextInt(60), world.getRandom().nextInt(40));
+            if (world.isCellEmpty(position)) {
+                if (i % 4 == 0) new Predator(world, position);
+                else new Prey(world, position);
+            }
+        }
+        for (int turn = 0; turn < 15; turn++) {
+            world.tick();
+        }
+
+        StringBuilder signature = new StringBuilder();
+        for (int x = 0; x < world.getWidth(); x++) {
+            for (int y = 0; y < world.getHeight(); y++) {
+                Animal animal = world.getAnimalAt(new Position(x, y));
+                if (animal != null) {
+                    signature.append(animal instanceof Prey ? 'O' : 'P').append(x).append(',').append(y)
+                            .append(':').append(animal.getEnergy()).append('/').append(animal.getAge()).append(' ');
+                }
+            }
+        }
+        return signature.toString();
+    }
+
+    @Test
+    void SimultaneousRunDoesNotDependOnThreadCount() {
+        java.util.concurrent.ForkJoinPool single = new java.util.concurrent.ForkJoinPool(1); // One worker thread
+        java.util.concurrent.ForkJoinPool many = new java.util.concurrent.ForkJoinPool(4); // Several worker threads
+        try {
+            assertEquals(runSignature(TickMode.SIMULTANEOUS, 77L, single), runSignature(TickMode.SIMULTANEOUS, 77L, many)); // Same result on any pool
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+
+    @Test
+    void WorldsWithDifferentConfigurationsRunSideBySide() {
+        World shortLived = new World(10, 10, false, 1L, WorldConfig.builder().preyMaxAge(1).build()); // Prey die after one turn
+        World defaults = new World(10, 10, false, 1L); // Default configuration
+        Prey shortLivedPrey = new Prey(shortLived, new Position(5, 5));
+        Prey defaultPrey = new Prey(defaults, new Position(5, 5));
+
+        shortLived.tick();
+        defaults.tick();
+
+        assertTrue(shortLivedPrey.isDead()); // Maximum age comes from its own world
+        assertFalse(defaultPrey.isDead()); // Other worlds keep the default maximum age
+
+        World rich = new World(10, 10, false, 1L, WorldConfig.builder().maxEnergy(500).defaultEnergy(400).build());
+        Prey richPrey = new Prey(rich, new Position(1, 1));
+        assertEquals(400, richPrey.getEnergy()); // Initial energy comes from the world
+        richPrey.setEnergy(1000);
+        assertEquals(500, richPrey.getEnergy()); // Energy limit comes from the world
+        assertEquals(Prey.DEFAULT_ENERGY, new Prey(defaults, new Position(1, 1)).getEnergy()); // Other worlds keep the defaults
+    }
+
+    @Test
+    void StatsMatchFullScanInEveryMode() {
+        for (TickMode mode : TickMode.values()) {
+            assertStatsMatchScan(mode, false); // Object backend
+            assertStatsMatchScan(mode, true); // Data-oriented backend
+        }
+    }
+
+    private void assertStatsMatchScan(TickMode mode, boolean dataOriented) {
+        World world = new World(60, 40, dataOriented, 5L); // Seeded world split into several strips
+        world.setTickMode(mode);
+        world.populate(600, 150);
+        int initial = world.getAnimals().size();
+        for (int turn = 0; turn < 25; turn++) {
+            world.tick();
+
+            int prey = 0;
+            long energy = 0;
+            long age = 0;
+            for (Animal animal : world.getAnimals()) {
+                if (animal instanceof Prey) prey++;
+                energy += animal.getEnergy();
+                age += animal.getAge();
+            }
+            PopulationStats stats = world.getStats();
+            String context = mode + (dataOriented ? " data-oriented" : "") + " turn " + turn;
+            assertEquals(prey, stats.prey(), context); // Prey counter follows births and deaths
+            assertEquals(world.getAnimals().size() - prey, stats.predators(), context); // Predator counter as well
+            assertEquals(energy, stats.totalEnergy(), context); // Energy total follows every change
+            assertEquals(age, stats.totalAge(), context); // Age total follows aging
+            assertEquals(stats.population() - initial, stats.births() - stats.deaths(), context); // Every birth and death counted once
+        }
+        assertTrue(world.getStats().births() > 0 && world.getStats().deaths() > 0); // The run had births and deaths
+    }
+
+    @Test
+    void ChunkedWorldReplaysDenseRunInEveryMode() {
+        for (TickMode mode : TickMode.values()) {
+            assertEquals(runSignature(mode, 31L, null, GridStorage.DENSE), runSignature(mode, 31L, null, GridStorage.CHUNKED), mode.name()); // Storage does not change the run
+        }
+    }
+
+    @Test
+    void StorageIsChosenFromSizeAndPopulation() {
+        assertEquals(GridStorage.DENSE, GridStorage.choose(1000, 1000, 0)); // Small worlds stay dense
+        assertEquals(GridStorage.CHUNKED, GridStorage.choose(10_000, 10_000, 0)); // Large world of unknown population
+        assertEquals(GridStorage.CHUNKED, GridStorage.choose(100_000, 100_000, 50_000)); // Large, mostly empty world
+        assertEquals(GridStorage.DENSE, GridStorage.choose(10_000, 10_000, 20_000_000)); // Large, crowded world
+        assertEquals(GridStorage.DENSE, new World(50, 50).getGridStorage());
+        World large = new World(4097, 4097, false, 1L, WorldConfig.DEFAULTS, false); // Above the dense limit, no population given
+        assertEquals(GridStorage.DENSE, large.getGridStorage()); // Chunked storage is opt-in
+        assertEquals(4097, large.getGrid().length); // Grid stays available
+    }
+
+    @Test
+    void HugeSparseWorldUsesMemoryOfItsPopulation() {
+        World world = new World(100_000, 100_000, false, 12L, WorldConfig.DEFAULTS, false, GridStorage.CHUNKED);
+        world.setTickMode(TickMode.PARALLEL);
+        world.populate(20_000, 5_000);
+        for (int turn = 0; turn < 3; turn++) {
+            world.tick();
+        }
+
+        PopulationStats stats = world.getStats();
+        assertEquals(10_000_000_000L, stats.cells()); // Area beyond the range of int
+        assertTrue(stats.population() > 0);
+        for (Animal animal : world.getAnimals()) {
+            assertSame(animal, world.getAnimalAt(animal.getPosition())); // Grid follows every animal
+        }
+        assertTrue(world.getChangedCells().count() > 0); // Changes tracked without a bitset of the area
+        assertThrows(IllegalStateException.class, world::getGrid); // No dense array
+        WorldSnapshot snapshot = WorldSnapshot.capture(world, null, false); // Only occupied tiles captured
+        Animal animal = world.getAnimals().get(0);
+        assertEquals(WorldSnapshot.cellOf(animal), snapshot.getCell(animal.getX(), animal.getY())); // Occupied cell captured
+    }
+
+    @Test
+    void ChangedCellsMatchGridDifferencesInEveryMode() {
+        for (TickMode mode : TickMode.values()) {
+            assertChangedCellsMatchGrid(mode, false); // Object backend
+            assertChangedCellsMatchGrid(mode, true); // Data-oriented backend
+        }
+    }
+
+    private void assertChangedCellsMatchGrid(TickMode mode, boolean dataOriented) {
+        World world = new World(60, 40, dataOriented, 9L); // Seeded world split into several strips
+        world.setTickMode(mode);
+        world.populate(600, 150);
+        assertTrue(world.getChangedCells().isEmpty()); // No turn executed yet
+        Animal[][] before = copyGrid(world);
+        for (int turn = 0; turn < 20; turn++) {
+            world.tick();
+            Animal[][] after = copyGrid(world);
+            DirtyCells changes = world.getChangedCells();
+            String context = mode + (dataOriented ? " data-oriented" : "") + " turn " + turn;
+            for (int x = 0; x < world.getWidth(); x++) {
+                for (int y = 0; y < world.getHeight(); y++) {
+                    if (before[x][y] != after[x][y]) {
+                        assertTrue(changes.isChanged(x, y), context + " cell " + x + "," + y); // Every changed cell is marked
+                    }
+                }
+            }
+            assertTrue(changes.count() < world.getWidth() * world.getHeight(), context); // Unchanged cells are not all marked
+            before = after;
+        }
+
+        Animal removed = world.getAnimals().get(0);
+        world.removeAnimal(removed); // Change between turns
+        world.tick();
+        assertTrue(world.getChangedCells().isChanged(removed.getPosition().x(), removed.getPosition().y())); // Reported with the next turn
+
+        java.util.List<Position> occupied = world.getAnimals().stream().map(Animal::getPosition).toList();
+        world.reset();
+        world.tick();
+        assertEquals(occupied.size(), world.getChangedCells().count()); // Reset empties the occupied cells
+        occupied.forEach(position -> assertTrue(world.getChangedCells().isChanged(position.x(), position.y())));
+        world.tick();
+        assertTrue(world.getChangedCells().isEmpty()); // Empty world does not change
+    }
+
+    private static Animal[][] copyGrid(World world) {
+        Animal[][] copy = new Animal[world.getWidth()][];
+        for (int x = 0; x < copy.length; x++) {
+            copy[x] = world.getGrid()[x].clone();
+        }
+        return copy;
+    }
+
+    @Test
+    void StatsCountDeathsByCause() {
+        World world = new World(10, 10, false, 1L, WorldConfig.builder().predatorMaxAge(1).build()); // Predators die after one turn
+        Predator predator = new Predator(world, new Position(5, 6)); // Acts first, eats the adjacent prey, then dies of age
+        predator.setEnergy(Predator.DEFAULT_ENERGY / 2); // Hungry, so it hunts instead of wandering off
+        Prey eaten = new Prey(world, new Position(5, 5));
+        Prey removed = new Prey(world, new Position(9, 9));
+        removed.die(); // Removed directly
+
+        world.tick();
+
+        PopulationStats stats = world.getStats();
+        assertTrue(eaten.isDead());
+        assertEquals(1, stats.deaths(DeathCause.EATEN)); // Eaten by the predator
+        assertEquals(1, stats.deaths(DeathCause.AGE)); // Predator reached its maximum age
+        assertEquals(1, stats.deaths(DeathCause.REMOVED)); // Removed before the turn
+        assertEquals(0, stats.population()); // No animal left
+        assertEquals(2, stats.turn()); // One turn executed
+
+        world.reset();
+        assertEquals(0, world.getStats().deaths()); // Reset clears the counters
+        assertTrue(Double.isNaN(world.getStats().averageEnergy())); // No animal to average
+    }
+
+    @Test
+    void SimultaneousMovesOnlyUseCellsEmptyAtStartOfTurn() {
+        assertEquals(new Position(5, 5), fleeingChain(TickMode.SEQUENTIAL)); // Follows the leader into the freed cell
+        assertEquals(new Position(4, 5), fleeingChain(TickMode.SIMULTANEOUS)); // Cell was occupied when moves were decided
+    }
+
+    @Test
+    void SimultaneousFeedingGoesToAnimalAddedFirst() {
+        World world = new World(12, 12, 1L); // Seeded world of size 12x12
+        world.setTickMode(TickMode.SIMULTANEOUS);
+        Prey dummy = new Prey(world, new Position(11, 11)); // Removed to reorder the animal list
+        Predator first = new Predator(world, new Position(4, 5)); // Added before the other predator
+        Prey prey = new Prey(world, new Position(5, 5)); // Boxed in between both predators
+        Predator second = new Predator(world, new Position(6, 5)); // Added last
+        world.removeAnimal(dummy); // Moves the second predator to the front of the list
+        first.setEnergy(20); // Hungry, hunts the prey instead of wandering off
+        second.setEnergy(20);
+        prey.setEnergy(20); // Too weak to reproduce
+        assertSame(second, world.getAnimals().get(0)); // List order differs from the order of addition
+
+        world.tick();
+
+        assertTrue(prey.isDead()); // Check if the prey was eaten
+        assertEquals(30, first.getEnergy()); // Contested prey goes to the predator added first
+        assertEquals(20, second.getEnergy()); // Later predator finds the prey already eaten
+    }
+
+    /**
+     * Places two prey in a row fleeing from the same predator and returns where the rear prey ends up.
+     */
+    private Position fleeingChain(TickMode mode) {
+        World world = new World(12, 12, 1L); // Seeded world of size 12x12
+        world.setTickMode(mode);
+        Prey leader = new Prey(world, new Position(5, 5)); // Flees east into an empty cell
+        Prey follower = new Prey(world, new Position(4, 5)); // Flees east into the leader's cell
+        new Predator(world, new Position(1, 5)); // Well-fed predator within flee range of both prey
+        leader.setEnergy(Prey.REPRODUCTION_ENERGY_THRESHOLD / 2); // Too weak to reproduce
+        follower.setEnergy(Prey.REPRODUCTION_ENERGY_THRESHOLD / 2);
+
+        world.tick();
+
+        assertEquals(new Position(6, 5), leader.getPosition()); // Leader always escapes
+        return follower.getPosition();
+    }
+}